@@ -0,0 +1,395 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.archive;
+
+import com.beowulfchain.beowulfj.base.models.Block;
+import com.beowulfchain.beowulfj.chain.BlockSource;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.RawResultList;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.protocol.BlockHeader;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent local archive of irreversible blocks, so restarts and replays
+ * do not have to fetch the whole chain from the node again.
+ * <p>
+ * The blocks are stored as the JSON returned by the node in append-only
+ * segment files covering {@value #BLOCKS_PER_SEGMENT} block numbers each,
+ * together with an index holding the offset of every block. A block is only
+ * added to the index once it has been forced to the disk. Stored blocks are
+ * read through memory mapping without copying them. Blocks and headers that
+ * are not stored yet are fetched from the node; only blocks at or below the
+ * last irreversible block are added to the archive. Missing ranges can be
+ * {@link #fill(long, long) filled} in bulk.
+ * <p>
+ * To let {@link com.beowulfchain.beowulfj.BeowulfJ} read blocks through the
+ * archive, register it using
+ * {@link com.beowulfchain.beowulfj.configuration.BeowulfJConfig#setBlockSource(BlockSource)}.
+ * <p>
+ * An archive directory must only be used by one {@link BlockArchive}
+ * instance at a time.
+ */
+public class BlockArchive implements BlockSource, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockArchive.class);
+
+    /**
+     * The number of block numbers covered by one segment.
+     */
+    public static final int BLOCKS_PER_SEGMENT = 100000;
+    /**
+     * The size in bytes the data file of a segment grows by, which is also
+     * the maximum size of a stored block.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024 * 1024;
+    /**
+     * The number of blocks fetched with one batch request while filling the
+     * archive.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Reads the header of a stored block, ignoring the other fields of the
+     * block.
+     */
+    private static final ObjectReader HEADER_READER = CommunicationHandler.getObjectMapper()
+            .readerFor(BlockHeader.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path directory;
+    private final CommunicationHandler communicationHandler;
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Open the archive in the given directory or create a new one.
+     *
+     * @param directory            The directory of the archive.
+     * @param communicationHandler The {@link CommunicationHandler} used to
+     *                             fetch blocks that are not stored yet.
+     * @throws IOException If the directory could not be created.
+     */
+    public BlockArchive(Path directory, CommunicationHandler communicationHandler) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.communicationHandler = communicationHandler;
+    }
+
+    /**
+     * Get a block from the archive or from the node if it is not stored yet.
+     * Blocks fetched from the node are stored if they are irreversible.
+     *
+     * @param blockNumber The number of the block.
+     * @return The block or <code>null</code> if the block does not exist.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node returned an error.
+     */
+    @Override
+    public Block getBlock(long blockNumber) throws BeowulfCommunicationException, BeowulfResponseException {
+        ByteBuffer storedBlock = read(blockNumber);
+        if (storedBlock != null) {
+            try {
+                return CommunicationHandler.getObjectMapper().readValue(
+                        new ByteBufferBackedInputStream(storedBlock), Block.class);
+            } catch (IOException e) {
+                LOGGER.warn("The stored block {} could not be read. Fetching it from the node.", blockNumber, e);
+            }
+        }
+
+        // The result keeps the JSON the block is read from, so it can be
+        // stored as it is.
+        List<Block> result = communicationHandler.performRequest(createGetBlockRequest(blockNumber), Block.class);
+        if (result.isEmpty() || result.get(0) == null) {
+            return null;
+        }
+
+        byte[] rawBlock = getRawResult(result);
+        if (rawBlock != null && isIrreversible(blockNumber)) {
+            try {
+                getSegment(blockNumber, true).write(blockNumber, rawBlock);
+            } catch (IOException e) {
+                LOGGER.warn("The block {} could not be stored.", blockNumber, e);
+            }
+        }
+        return result.get(0);
+    }
+
+    /**
+     * Get the header of a block from the archive or from the node if the
+     * block is not stored yet.
+     *
+     * @param blockNumber The number of the block.
+     * @return The header or <code>null</code> if the block does not exist.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node returned an error.
+     */
+    @Override
+    public BlockHeader getBlockHeader(long blockNumber)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        ByteBuffer storedBlock = read(blockNumber);
+        if (storedBlock != null) {
+            try {
+                return HEADER_READER.readValue(new ByteBufferBackedInputStream(storedBlock));
+            } catch (IOException e) {
+                LOGGER.warn("The stored block {} could not be read. Fetching it from the node.", blockNumber, e);
+            }
+        }
+
+        List<BlockHeader> result = communicationHandler.performRequest(new JsonRPCRequest(
+                BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK_HEADER, Collections.singletonList(blockNumber)),
+                BlockHeader.class);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Check if a block is stored, which only consults the index of the
+     * archive.
+     *
+     * @param blockNumber The number of a block.
+     * @return <code>true</code> if the block is stored in the archive.
+     * @throws IOException If the archive could not be read.
+     */
+    public boolean contains(long blockNumber) throws IOException {
+        Segment segment = getSegment(blockNumber, false);
+        return segment != null && segment.contains(blockNumber);
+    }
+
+    /**
+     * Fetch all irreversible blocks of the given range that are not stored
+     * yet and add them to the archive. The blocks are fetched with batch
+     * requests.
+     *
+     * @param firstBlockNumber The first block of the range.
+     * @param lastBlockNumber  The last block of the range. Blocks above the
+     *                         last irreversible block are skipped.
+     * @return The number of blocks added to the archive.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node returned an error.
+     * @throws IOException                   If the blocks could not be
+     *                                       stored.
+     */
+    public long fill(long firstBlockNumber, long lastBlockNumber)
+            throws BeowulfCommunicationException, BeowulfResponseException, IOException {
+        long last = lastBlockNumber;
+        if (!communicationHandler.isIrreversible(last)) {
+            last = communicationHandler.getIrreversibleBlockTracker().getLastIrreversibleBlockNumber();
+        }
+
+        long added = 0;
+        List<Long> missingBlocks = new ArrayList<>(BATCH_SIZE);
+        for (long blockNumber = Math.max(1, firstBlockNumber); blockNumber <= last; blockNumber++) {
+            if (!contains(blockNumber)) {
+                missingBlocks.add(blockNumber);
+            }
+            if (missingBlocks.size() == BATCH_SIZE || (blockNumber == last && !missingBlocks.isEmpty())) {
+                added += fetchAndWrite(missingBlocks);
+                missingBlocks.clear();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Write all stored blocks to the disk.
+     *
+     * @throws IOException If the blocks could not be written.
+     */
+    public void flush() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        synchronized (segments) {
+            closed = true;
+            for (Segment segment : segments.values()) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            segments.clear();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Fetch the given blocks with a single batch request and store them.
+     *
+     * @param blockNumbers The numbers of the blocks.
+     * @return The number of blocks stored.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node returned an error.
+     * @throws IOException                   If the blocks could not be
+     *                                       stored.
+     */
+    private long fetchAndWrite(List<Long> blockNumbers)
+            throws BeowulfCommunicationException, BeowulfResponseException, IOException {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        for (long blockNumber : blockNumbers) {
+            batchRequest.add(createGetBlockRequest(blockNumber));
+        }
+
+        JsonRPCBatchResponse batchResponse = communicationHandler.performBatchRequest(batchRequest);
+        // Write the blocks per segment, so each segment is forced only once.
+        Map<Segment, Map<Long, byte[]>> blocksBySegment = new LinkedHashMap<>();
+        for (int i = 0; i < blockNumbers.size(); i++) {
+            byte[] rawBlock = getRawResult(batchResponse.getResult(batchRequest.getRequests().get(i),
+                    JsonNode.class));
+            if (rawBlock != null) {
+                long blockNumber = blockNumbers.get(i);
+                blocksBySegment.computeIfAbsent(getSegment(blockNumber, true), segment -> new LinkedHashMap<>())
+                        .put(blockNumber, rawBlock);
+            }
+        }
+
+        long written = 0;
+        for (Map.Entry<Segment, Map<Long, byte[]>> entry : blocksBySegment.entrySet()) {
+            written += entry.getKey().write(entry.getValue());
+        }
+        return written;
+    }
+
+    /**
+     * Get a stored block without copying it.
+     *
+     * @param blockNumber The number of the block.
+     * @return The block as JSON or <code>null</code> if it is not stored or
+     * could not be read.
+     */
+    private ByteBuffer read(long blockNumber) {
+        try {
+            Segment segment = getSegment(blockNumber, false);
+            return segment == null ? null : segment.read(blockNumber);
+        } catch (IOException e) {
+            LOGGER.warn("The block {} could not be read from the archive.", blockNumber, e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the segment covering the given block.
+     *
+     * @param blockNumber The number of the block.
+     * @param create      <code>true</code> to create the segment if it does
+     *                    not exist yet.
+     * @return The segment or <code>null</code> if it does not exist.
+     * @throws IOException If the segment could not be opened.
+     */
+    private Segment getSegment(long blockNumber, boolean create) throws IOException {
+        if (blockNumber < 1) {
+            throw new IllegalArgumentException("The block number has to be greater than 0.");
+        }
+
+        long segmentNumber = blockNumber / BLOCKS_PER_SEGMENT;
+        Segment segment = segments.get(segmentNumber);
+        if (segment != null) {
+            return segment;
+        }
+
+        synchronized (segments) {
+            if (closed) {
+                throw new IOException("The archive has been closed.");
+            }
+
+            segment = segments.get(segmentNumber);
+            if (segment == null) {
+                String name = String.format("segment-%010d", segmentNumber);
+                Path dataFile = directory.resolve(name + ".dat");
+                if (!create && !Files.exists(dataFile)) {
+                    return null;
+                }
+
+                segment = new Segment(dataFile, directory.resolve(name + ".idx"),
+                        segmentNumber * BLOCKS_PER_SEGMENT, BLOCKS_PER_SEGMENT, CHUNK_SIZE);
+                segments.put(segmentNumber, segment);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Check if the given block can not be reverted anymore, using the last
+     * irreversible block tracked by the {@link CommunicationHandler}.
+     *
+     * @param blockNumber The number of the block.
+     * @return <code>true</code> if the block is irreversible.
+     */
+    private boolean isIrreversible(long blockNumber) {
+        try {
+            return communicationHandler.isIrreversible(blockNumber);
+        } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+            LOGGER.debug("Could not fetch the last irreversible block. The block will not be stored.", e);
+            return false;
+        }
+    }
+
+    /**
+     * @param blockNumber The number of the block.
+     * @return A request for the given block, whose result keeps the JSON it
+     * has been read from.
+     */
+    private static JsonRPCRequest createGetBlockRequest(long blockNumber) {
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
+                Collections.singletonList(blockNumber));
+        request.setRawResultKept(true);
+        return request;
+    }
+
+    /**
+     * @param result The result of a request that kept its JSON.
+     * @return The JSON of the block or <code>null</code> if the node did not
+     * return the block.
+     */
+    private static byte[] getRawResult(List<?> result) {
+        if (result.isEmpty() || result.get(0) == null || !(result instanceof RawResultList)) {
+            return null;
+        }
+        return ((RawResultList<?>) result).getRawResult();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A fixed range of block numbers stored in two files: an append-only data
+ * file holding the length prefixed blocks and an index file holding the
+ * offset of each block in the data file.
+ * <p>
+ * The index has one slot per block number of the range, so a block is found
+ * without searching. Blocks are written and forced to the disk before their
+ * slots are set, so a crash can only leave unreferenced data behind. Slots
+ * that reference incomplete or empty blocks anyway, e.g. because the disk
+ * reordered the writes, are cleared when the segment is opened, so the index
+ * alone tells which blocks are stored.
+ * <p>
+ * Both files are read through memory mapping. The data file grows in chunks
+ * of a fixed size, each of which is mapped once, so reading a block never
+ * maps the file again. A block never spans two chunks.
+ */
+class Segment implements Closeable {
+    /**
+     * The size of an index slot in bytes.
+     */
+    private static final int SLOT_SIZE = Long.BYTES;
+    /**
+     * The size of the length prefix of a block in bytes.
+     */
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    private final long firstBlockNumber;
+    private final int numberOfBlocks;
+    private final int chunkSize;
+    private final FileChannel data;
+    private final FileChannel index;
+    /**
+     * The index, with the offset of each block plus one, so the
+     * <code>0</code> an empty slot contains means missing.
+     */
+    private final MappedByteBuffer slots;
+    /**
+     * The mapped chunks of the data file.
+     */
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    /**
+     * The end of the last block in the data file.
+     */
+    private long size;
+
+    /**
+     * Open the given segment files or create them if they do not exist.
+     *
+     * @param dataFile         The data file.
+     * @param indexFile        The index file.
+     * @param firstBlockNumber The first block number of the range.
+     * @param numberOfBlocks   The number of blocks in the range.
+     * @param chunkSize        The size in bytes the data file grows by, which
+     *                         limits the size of a block.
+     * @throws IOException If the files could not be opened.
+     */
+    Segment(Path dataFile, Path indexFile, long firstBlockNumber, int numberOfBlocks, int chunkSize)
+            throws IOException {
+        this.firstBlockNumber = firstBlockNumber;
+        this.numberOfBlocks = numberOfBlocks;
+        this.chunkSize = chunkSize;
+        this.data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.slots = index.map(FileChannel.MapMode.READ_WRITE, 0, (long) numberOfBlocks * SLOT_SIZE);
+            recover();
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param blockNumber The number of a block in the range of this segment.
+     * @return <code>true</code> if the block is stored.
+     */
+    synchronized boolean contains(long blockNumber) {
+        return slots.getLong(getSlot(blockNumber)) != 0;
+    }
+
+    /**
+     * Get the stored block without copying it.
+     *
+     * @param blockNumber The number of a block in the range of this segment.
+     * @return A read-only view of the block or <code>null</code> if it is not
+     * stored.
+     */
+    ByteBuffer read(long blockNumber) {
+        long offset;
+        ByteBuffer chunk;
+        synchronized (this) {
+            offset = slots.getLong(getSlot(blockNumber)) - 1;
+            if (offset < 0) {
+                return null;
+            }
+            chunk = chunks.get((int) (offset / chunkSize)).duplicate();
+        }
+
+        chunk.position((int) (offset % chunkSize));
+        int length = chunk.getInt();
+        if (length <= 0) {
+            return null;
+        }
+        chunk.limit(chunk.position() + length);
+        return chunk.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Append the given block to the data file and record its offset. Blocks
+     * that are already stored are not written again.
+     *
+     * @param blockNumber The number of a block in the range of this segment.
+     * @param block       The block.
+     * @return <code>true</code> if the block has been written.
+     * @throws IOException If the block could not be written.
+     */
+    boolean write(long blockNumber, byte[] block) throws IOException {
+        return write(Collections.singletonMap(blockNumber, block)) > 0;
+    }
+
+    /**
+     * Append the given blocks to the data file and record their offsets
+     * once all of them are on the disk, so the data file is only forced once.
+     * Blocks that are already stored and empty blocks are not written.
+     *
+     * @param blocks The blocks by their numbers, which have to be in the range
+     *               of this segment.
+     * @return The number of blocks written.
+     * @throws IOException If the blocks could not be written.
+     */
+    synchronized int write(Map<Long, byte[]> blocks) throws IOException {
+        SortedMap<Long, Long> offsets = new TreeMap<>();
+        for (Map.Entry<Long, byte[]> entry : blocks.entrySet()) {
+            long blockNumber = entry.getKey();
+            byte[] block = entry.getValue();
+            // An empty record marks a block whose data has been lost.
+            if (block.length == 0 || slots.getLong(getSlot(blockNumber)) != 0) {
+                continue;
+            }
+            if (LENGTH_SIZE + block.length > chunkSize) {
+                throw new IOException("The block " + blockNumber + " is larger than a chunk of the archive.");
+            }
+
+            long offset = size;
+            if (offset % chunkSize + LENGTH_SIZE + block.length > chunkSize) {
+                // Start the next chunk instead of splitting the block.
+                offset += chunkSize - offset % chunkSize;
+            }
+            while (chunks.size() <= offset / chunkSize) {
+                mapChunk();
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(LENGTH_SIZE + block.length);
+            record.putInt(block.length).put(block).flip();
+            while (record.hasRemaining()) {
+                data.write(record, offset + record.position());
+            }
+
+            size = offset + record.capacity();
+            offsets.put(blockNumber, offset);
+        }
+
+        if (!offsets.isEmpty()) {
+            data.force(false);
+            for (Map.Entry<Long, Long> entry : offsets.entrySet()) {
+                slots.putLong(getSlot(entry.getKey()), entry.getValue() + 1);
+            }
+        }
+        return offsets.size();
+    }
+
+    /**
+     * Write all changes to the disk.
+     *
+     * @throws IOException If the changes could not be written.
+     */
+    synchronized void flush() throws IOException {
+        data.force(false);
+        slots.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            try {
+                data.close();
+            } finally {
+                index.close();
+            }
+        }
+    }
+
+    /**
+     * Map the existing chunks of the data file, clear the slots of blocks
+     * that are not complete or empty and find the end of the last block.
+     *
+     * @throws IOException If the data file could not be mapped.
+     */
+    private void recover() throws IOException {
+        long fileSize = data.size();
+        while ((long) chunks.size() * chunkSize < fileSize) {
+            mapChunk();
+        }
+
+        for (int slot = 0; slot < numberOfBlocks * SLOT_SIZE; slot += SLOT_SIZE) {
+            long offset = slots.getLong(slot) - 1;
+            if (offset < 0) {
+                continue;
+            }
+
+            long end = getEnd(offset, fileSize);
+            if (end < 0) {
+                slots.putLong(slot, 0);
+            } else {
+                size = Math.max(size, end);
+            }
+        }
+    }
+
+    /**
+     * @param offset   The offset of a block.
+     * @param fileSize The size of the data file.
+     * @return The end of the block or <code>-1</code> if it is not complete
+     * or empty.
+     */
+    private long getEnd(long offset, long fileSize) {
+        long positionInChunk = offset % chunkSize;
+        if (offset + LENGTH_SIZE > fileSize || positionInChunk + LENGTH_SIZE > chunkSize) {
+            return -1;
+        }
+
+        int length = chunks.get((int) (offset / chunkSize)).getInt((int) positionInChunk);
+        long end = offset + LENGTH_SIZE + length;
+        return length <= 0 || end > fileSize || positionInChunk + LENGTH_SIZE + length > chunkSize ? -1 : end;
+    }
+
+    /**
+     * Map the next chunk of the data file, which grows the file if needed.
+     *
+     * @throws IOException If the chunk could not be mapped.
+     */
+    private void mapChunk() throws IOException {
+        chunks.add(data.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize));
+    }
+
+    /**
+     * @param blockNumber The number of a block in the range of this segment.
+     * @return The position of the slot of the block in the index.
+     */
+    private int getSlot(long blockNumber) {
+        long slot = blockNumber - firstBlockNumber;
+        if (slot < 0 || slot >= numberOfBlocks) {
+            throw new IllegalArgumentException("The block " + blockNumber + " is not part of this segment.");
+        }
+        return (int) slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.archive;
+
+import com.beowulfchain.beowulfj.BeowulfJ;
+import com.beowulfchain.beowulfj.base.models.Block;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.testnode.FakeNode;
+import com.beowulfchain.beowulfj.testnode.SyntheticChain;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test the {@link BlockArchive} against a {@link FakeNode}, whose last
+ * irreversible block is 85.
+ */
+public class BlockArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeNode node;
+    private CommunicationHandler communicationHandler;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        node = new FakeNode(new SyntheticChain(100, 3));
+        node.start();
+
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(node.getHttpUri(), false));
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+
+        communicationHandler = new CommunicationHandler();
+        directory = folder.getRoot().toPath().resolve("archive");
+    }
+
+    @After
+    public void tearDown() {
+        node.close();
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that archived blocks and their headers are served without asking
+     * the node, also after the archive has been opened again.
+     */
+    @Test
+    public void testArchivedBlocksAreServedLocally() throws Exception {
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            assertThat(archive.getBlock(42).getBlockId().getNumberFromHash(), equalTo(42));
+        }
+        // The block and the last irreversible block.
+        assertThat(node.getRequestCount(), equalTo(2L));
+
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            Block block = archive.getBlock(42);
+            assertThat(block.getBlockId().getNumberFromHash(), equalTo(42));
+            assertThat(block.getTransactions().size(), equalTo(3));
+            assertThat(archive.getBlockHeader(42).getPrevious().getNumberFromHash(), equalTo(41));
+        }
+        assertThat(node.getRequestCount(), equalTo(2L));
+    }
+
+    /**
+     * Test that {@link BeowulfJ} reads blocks through the archive once it is
+     * registered as the block source.
+     */
+    @Test
+    public void testArchiveIsUsedAsBlockSource() throws Exception {
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            archive.fill(40, 45);
+            long requestCount = node.getRequestCount();
+
+            BeowulfJConfig.getInstance().setBlockSource(archive);
+            BeowulfJ beowulfJ = BeowulfJ.getNewInstance();
+            assertThat(beowulfJ.getBlock(42).getBlockId().getNumberFromHash(), equalTo(42));
+            assertThat(beowulfJ.getBlockHeader(43).getPrevious().getNumberFromHash(), equalTo(42));
+            assertThat(beowulfJ.getBlockAsync(44).get().getBlockId().getNumberFromHash(), equalTo(44));
+            assertThat(beowulfJ.getBlockHeaderAsync(45).get().getPrevious().getNumberFromHash(), equalTo(44));
+            assertThat(node.getRequestCount(), equalTo(requestCount));
+        }
+    }
+
+    /**
+     * Test that blocks above the last irreversible block are not archived.
+     */
+    @Test
+    public void testReversibleBlocksAreNotArchived() throws Exception {
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            assertThat(archive.getBlock(90).getBlockId().getNumberFromHash(), equalTo(90));
+            assertThat(archive.contains(90), equalTo(false));
+            assertThat(archive.getBlock(101), nullValue());
+        }
+    }
+
+    /**
+     * Test that filling a range only fetches the missing irreversible blocks.
+     */
+    @Test
+    public void testFillFetchesMissingBlocks() throws Exception {
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            archive.getBlock(10);
+
+            assertThat(archive.fill(1, 95), equalTo(84L));
+            // Only one batch, as the last irreversible block is still known.
+            assertThat(node.getRequestCount(), equalTo(3L));
+            assertThat(archive.contains(85), equalTo(true));
+            assertThat(archive.contains(86), equalTo(false));
+
+            assertThat(archive.fill(1, 95), equalTo(0L));
+            assertThat(archive.getBlock(85).getBlockId().getNumberFromHash(), equalTo(85));
+            assertThat(node.getRequestCount(), equalTo(3L));
+        }
+    }
+
+    /**
+     * Test that a block whose data has been lost, e.g. in a crash, is treated
+     * as missing and fetched again.
+     */
+    @Test
+    public void testIncompleteBlocksAreFetchedAgain() throws Exception {
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            archive.getBlock(42);
+        }
+        try (RandomAccessFile dataFile = new RandomAccessFile(
+                directory.resolve("segment-0000000000.dat").toFile(), "rw")) {
+            // Cut the block off after its length.
+            dataFile.setLength(10);
+        }
+
+        try (BlockArchive archive = new BlockArchive(directory, communicationHandler)) {
+            assertThat(archive.contains(42), equalTo(false));
+            assertThat(archive.getBlock(42).getBlockId().getNumberFromHash(), equalTo(42));
+            assertThat(archive.contains(42), equalTo(true));
+        }
+    }
+}
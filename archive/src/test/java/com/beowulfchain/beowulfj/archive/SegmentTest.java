@@ -0,0 +1,121 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.archive;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the {@link Segment} with chunks that only fit one block each.
+ */
+public class SegmentTest {
+    private static final int CHUNK_SIZE = 32;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that blocks are not split across chunks and are found again after
+     * the segment has been opened again.
+     */
+    @Test
+    public void testBlocksAreStoredInChunks() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (Segment segment = open(directory)) {
+            for (long blockNumber = 10; blockNumber < 15; blockNumber++) {
+                assertThat(segment.write(blockNumber, createBlock(blockNumber)), equalTo(true));
+            }
+            assertThat(segment.write(12, createBlock(99)), equalTo(false));
+            assertThat(read(segment, 12), equalTo("block-0000000000012"));
+        }
+
+        try (Segment segment = open(directory)) {
+            assertThat(segment.contains(14), equalTo(true));
+            assertThat(segment.contains(15), equalTo(false));
+            assertThat(segment.read(15), nullValue());
+
+            assertThat(segment.write(15, createBlock(15)), equalTo(true));
+            for (long blockNumber = 10; blockNumber <= 15; blockNumber++) {
+                assertThat(read(segment, blockNumber), equalTo(String.format("block-%013d", blockNumber)));
+            }
+        }
+    }
+
+    /**
+     * Test that a block that does not fit into a chunk is rejected.
+     */
+    @Test
+    public void testBlockLargerThanChunkIsRejected() throws Exception {
+        try (Segment segment = open(folder.getRoot().toPath())) {
+            segment.write(10, new byte[CHUNK_SIZE]);
+            fail("The block should have been rejected.");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test that a block whose data has been lost after its slot has been
+     * written, which leaves an empty record, is treated as missing.
+     */
+    @Test
+    public void testLostBlockIsMissing() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (Segment segment = open(directory)) {
+            segment.write(10, createBlock(10));
+            assertThat(segment.write(11, new byte[0]), equalTo(false));
+            assertThat(segment.contains(11), equalTo(false));
+        }
+        try (RandomAccessFile dataFile = new RandomAccessFile(directory.resolve("segment.dat").toFile(), "rw")) {
+            dataFile.write(new byte[CHUNK_SIZE]);
+        }
+
+        try (Segment segment = open(directory)) {
+            assertThat(segment.contains(10), equalTo(false));
+            assertThat(segment.read(10), nullValue());
+            assertThat(segment.write(10, createBlock(10)), equalTo(true));
+            assertThat(read(segment, 10), equalTo("block-0000000000010"));
+        }
+    }
+
+    private static Segment open(Path directory) throws IOException {
+        return new Segment(directory.resolve("segment.dat"), directory.resolve("segment.idx"), 10, 10, CHUNK_SIZE);
+    }
+
+    private static byte[] createBlock(long blockNumber) {
+        return String.format("block-%013d", blockNumber).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(Segment segment, long blockNumber) {
+        ByteBuffer block = segment.read(blockNumber);
+        byte[] bytes = new byte[block.remaining()];
+        block.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
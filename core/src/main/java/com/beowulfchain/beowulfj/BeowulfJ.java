@@ -19,9 +19,15 @@ package com.beowulfchain.beowulfj;
 import com.beowulfchain.beowulfj.base.models.Block;
 import com.beowulfchain.beowulfj.base.models.FutureExtensions;
 import com.beowulfchain.beowulfj.base.models.ScheduledHardfork;
+import com.beowulfchain.beowulfj.chain.BlockSource;
+import com.beowulfchain.beowulfj.chain.BlockStream;
+import com.beowulfchain.beowulfj.chain.ChainHeadTracker;
 import com.beowulfchain.beowulfj.chain.CompletedTransaction;
 import com.beowulfchain.beowulfj.chain.SignedTransaction;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
 import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.NoticeListener;
+import com.beowulfchain.beowulfj.communication.Subscription;
 import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
 import com.beowulfchain.beowulfj.enums.PrivateKeyType;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
@@ -51,6 +57,9 @@ import org.slf4j.LoggerFactory;
 
 import java.security.InvalidParameterException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 
 /**
@@ -61,8 +70,9 @@ public class BeowulfJ {
     private static final Logger LOGGER = LoggerFactory.getLogger(BeowulfJ.class);
     // Error messages as constants to make SonarQube happy.
     private static final String NO_DEFAULT_ACCOUNT_ERROR_MESSAGE = "You try to use a simplified operation without having a default account configured in BeowulfJConfig. Please configure a default account or use another method.";
-    private static BeowulfJ beowulfJ;
+    private static volatile BeowulfJ beowulfJ;
     private CommunicationHandler communicationHandler;
+    private ChainHeadTracker chainHeadTracker;
 
     /**
      * Initialize the BeowulfJ.
@@ -82,18 +92,58 @@ public class BeowulfJ {
      */
     private BeowulfJ() throws BeowulfCommunicationException {
         this.communicationHandler = new CommunicationHandler();
+        this.chainHeadTracker = new ChainHeadTracker(communicationHandler);
     }
 
+    /**
+     * Get the shared BeowulfJ instance, which can safely be used by many
+     * threads at the same time.
+     *
+     * @return The shared BeowulfJ instance.
+     * @throws BeowulfCommunicationException If no transport for the configured endpoints is available.
+     */
     public static BeowulfJ getInstance() throws BeowulfCommunicationException {
         if (beowulfJ == null) {
-            beowulfJ = new BeowulfJ();
+            synchronized (BeowulfJ.class) {
+                if (beowulfJ == null) {
+                    beowulfJ = new BeowulfJ();
+                }
+            }
         }
         return beowulfJ;
     }
 
+    /**
+     * Replace the shared BeowulfJ instance with a new one, e.g. after the
+     * endpoints have been changed.
+     *
+     * @return The new shared BeowulfJ instance.
+     * @throws BeowulfCommunicationException If no transport for the configured endpoints is available.
+     */
     public static BeowulfJ getNewInstance() throws BeowulfCommunicationException {
-        beowulfJ = new BeowulfJ();
-        return beowulfJ;
+        synchronized (BeowulfJ.class) {
+            if (beowulfJ != null) {
+                beowulfJ.chainHeadTracker.stop();
+                try {
+                    beowulfJ.communicationHandler.close();
+                } catch (BeowulfCommunicationException e) {
+                    // The new instance does not depend on the old connections.
+                    LOGGER.warn("Could not close the connections of the replaced instance.", e);
+                }
+            }
+            beowulfJ = new BeowulfJ();
+            return beowulfJ;
+        }
+    }
+
+    /**
+     * Get the {@link ChainHeadTracker} that provides the reference block for
+     * new transactions.
+     *
+     * @return The chain head tracker of this instance.
+     */
+    public ChainHeadTracker getChainHeadTracker() {
+        return chainHeadTracker;
     }
 
     public static Asset beowulfToWd(Price price, Asset beowulfAsset) {
@@ -216,6 +266,10 @@ public class BeowulfJ {
      */
     public Block getBlock(long blockNumber)
             throws BeowulfCommunicationException, BeowulfResponseException {
+        BlockSource blockSource = BeowulfJConfig.getInstance().getBlockSource();
+        if (blockSource != null) {
+            return blockSource.getBlock(blockNumber);
+        }
         return CondenserApi.getBlock(communicationHandler, blockNumber);
     }
 
@@ -241,9 +295,48 @@ public class BeowulfJ {
      */
     public BlockHeader getBlockHeader(long blockNumber)
             throws BeowulfCommunicationException, BeowulfResponseException {
+        BlockSource blockSource = BeowulfJConfig.getInstance().getBlockSource();
+        if (blockSource != null) {
+            return blockSource.getBlockHeader(blockNumber);
+        }
         return CondenserApi.getBlockHeader(communicationHandler, blockNumber);
     }
 
+    /**
+     * Read a range of blocks with several concurrent requests instead of one
+     * {@link #getBlock(long)} call per block. The blocks are handed out
+     * strictly in order (see {@link BlockStream}).
+     *
+     * @param firstBlockNumber The first block of the range.
+     * @param lastBlockNumber  The last block of the range or
+     *                         {@link Long#MAX_VALUE} to follow the head of the
+     *                         chain.
+     * @return The stream, which has to be closed once it is not needed
+     * anymore.
+     */
+    public BlockStream streamBlocks(long firstBlockNumber, long lastBlockNumber) {
+        return new BlockStream(communicationHandler, firstBlockNumber, lastBlockNumber);
+    }
+
+    /**
+     * Subscribe to the headers of all blocks applied by the node, instead of
+     * polling {@link #getDynamicGlobalProperties()} for new blocks. This
+     * requires a websocket endpoint.
+     *
+     * @param listener The listener that receives the block headers.
+     * @return The subscription, which can be used to stop receiving block
+     * headers.
+     * @throws BeowulfCommunicationException <ul>
+     *                                       <li>If no websocket endpoint is configured.</li>
+     *                                       <li>If there is a connection problem.</li>
+     *                                       </ul>
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    public Subscription<BlockHeader> setBlockAppliedCallback(NoticeListener<BlockHeader> listener)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return CondenserApi.setBlockAppliedCallback(communicationHandler, listener);
+    }
+
     // #########################################################################
     // ## DATABASE API #########################################################
     // #########################################################################
@@ -304,6 +397,28 @@ public class BeowulfJ {
         return CondenserApi.broadcastTransactionSynchronous(communicationHandler, transaction);
     }
 
+    /**
+     * Broadcast a transaction on the Beowulf blockchain and get notified once
+     * it has been applied or has expired, instead of blocking a thread like
+     * {@link #broadcastTransactionSynchronous(SignedTransaction)} does. This
+     * requires a websocket endpoint.
+     *
+     * @param transaction The {@link SignedTransaction} object to broadcast.
+     * @param listener    The listener that receives the confirmation.
+     * @return The subscription for the confirmation.
+     * @throws BeowulfCommunicationException      <ul>
+     *                                            <li>If no websocket endpoint is configured.</li>
+     *                                            <li>If there is a connection problem.</li>
+     *                                            </ul>
+     * @throws BeowulfResponseException           If the Server returned an error object.
+     * @throws BeowulfInvalidTransactionException In case the provided transaction is not valid.
+     */
+    public Subscription<BroadcastTransactionSynchronousReturn> broadcastTransactionWithCallback(
+            SignedTransaction transaction, NoticeListener<BroadcastTransactionSynchronousReturn> listener)
+            throws BeowulfCommunicationException, BeowulfResponseException, BeowulfInvalidTransactionException {
+        return CondenserApi.broadcastTransactionWithCallback(communicationHandler, transaction, listener);
+    }
+
     /**
      * Broadcast a whole block.
      *
@@ -775,8 +890,7 @@ public class BeowulfJ {
     }
 
     public SignedTransaction signTransaction(List<Operation> operations, List<FutureExtensions> extensions) throws BeowulfCommunicationException, BeowulfResponseException, BeowulfInvalidTransactionException {
-        DynamicGlobalProperty globalProperties = this.getDynamicGlobalProperties();
-        SignedTransaction signedTransaction = new SignedTransaction(globalProperties.getHeadBlockId(), operations, extensions);
+        SignedTransaction signedTransaction = chainHeadTracker.createTransaction(operations, extensions);
         signedTransaction.sign();
         return signedTransaction;
     }
@@ -786,4 +900,201 @@ public class BeowulfJ {
         SignedTransaction signedTransaction = signTransaction(operations, extensions);
         return this.broadcastTransaction(signedTransaction);
     }
+
+    // #########################################################################
+    // ## ASYNC API ############################################################
+    // #########################################################################
+
+    /**
+     * Asynchronous variant of {@link #getBlock(long)}.
+     *
+     * @param blockNumber Height of the block to be returned.
+     * @return A future that is completed with the block, or exceptionally with
+     * the exception the blocking variant would throw.
+     */
+    public CompletableFuture<Block> getBlockAsync(long blockNumber) {
+        BlockSource blockSource = BeowulfJConfig.getInstance().getBlockSource();
+        if (blockSource != null) {
+            return supplyAsync(() -> blockSource.getBlock(blockNumber));
+        }
+        return CondenserApi.getBlockAsync(communicationHandler, blockNumber);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getBlockHeader(long)}.
+     *
+     * @param blockNumber Height of the block to be returned.
+     * @return A future that is completed with the block header, or
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<BlockHeader> getBlockHeaderAsync(long blockNumber) {
+        BlockSource blockSource = BeowulfJConfig.getInstance().getBlockSource();
+        if (blockSource != null) {
+            return supplyAsync(() -> blockSource.getBlockHeader(blockNumber));
+        }
+        return CondenserApi.getBlockHeaderAsync(communicationHandler, blockNumber);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getDynamicGlobalProperties()}.
+     *
+     * @return A future that is completed with the dynamic global properties,
+     * or exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<DynamicGlobalProperty> getDynamicGlobalPropertiesAsync() {
+        return CondenserApi.getDynamicGlobalPropertiesAsync(communicationHandler)
+                .thenApply(DynamicGlobalProperty.class::cast);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAccounts(List)}.
+     *
+     * @param accountNames A list of account names to search for.
+     * @return A future that is completed with the accounts found, or
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<List<ExtendedAccount>> getAccountsAsync(List<AccountName> accountNames) {
+        return CondenserApi.getExtAccountsAsync(communicationHandler, accountNames);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getBalance(AccountName, AssetInfo)}.
+     *
+     * @param accountName The account to get the balance for.
+     * @param assetInfo   The asset to get the balance of.
+     * @return A future that is completed with the balance, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<Asset> getBalanceAsync(AccountName accountName, AssetInfo assetInfo) {
+        return CondenserApi.getBalanceAsync(communicationHandler, accountName.getName(), assetInfo);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTransactionDetail(String)}.
+     *
+     * @param trx_id The id of the transaction.
+     * @return A future that is completed with the transaction detail, or
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<CompletedTransaction> getTransactionDetailAsync(String trx_id) {
+        return CondenserApi.getTransactionDetailAsync(communicationHandler, trx_id);
+    }
+
+    /**
+     * Asynchronous variant of {@link #broadcastTransaction(SignedTransaction)}.
+     *
+     * @param transaction The signed transaction to broadcast.
+     * @return A future that is completed with the id of the transaction, or
+     * exceptionally with the exception the blocking variant would throw.
+     * @throws BeowulfInvalidTransactionException If the transaction is not signed.
+     */
+    public CompletableFuture<TransactionId> broadcastTransactionAsync(SignedTransaction transaction)
+            throws BeowulfInvalidTransactionException {
+        return CondenserApi.broadcastTransactionAsync(communicationHandler, transaction);
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransactionSynchronous(SignedTransaction)}.
+     *
+     * @param transaction The signed transaction to broadcast.
+     * @return A future that is completed once the transaction has been
+     * accepted and added to a block, or exceptionally with the exception the
+     * blocking variant would throw.
+     * @throws BeowulfInvalidTransactionException If the transaction is not signed.
+     */
+    public CompletableFuture<BroadcastTransactionSynchronousReturn> broadcastTransactionSynchronousAsync(
+            SignedTransaction transaction) throws BeowulfInvalidTransactionException {
+        return CondenserApi.broadcastTransactionSynchronousAsync(communicationHandler, transaction);
+    }
+
+    /**
+     * Asynchronous variant of {@link #signTransaction(List, List)}.
+     *
+     * @param operations The operations to sign.
+     * @param extensions The extensions of the transaction or <code>null</code>.
+     * @return A future that is completed with the signed transaction, or
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<SignedTransaction> signTransactionAsync(List<Operation> operations,
+                                                                     List<FutureExtensions> extensions) {
+        return chainHeadTracker.createTransactionAsync(operations, extensions).thenApply(signedTransaction -> {
+            try {
+                signedTransaction.sign();
+            } catch (BeowulfInvalidTransactionException e) {
+                throw new CompletionException(e);
+            }
+            return signedTransaction;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #signAndBroadcast(List)}.
+     *
+     * @param operations The operations to sign and broadcast.
+     * @return A future that is completed with the id of the transaction, or
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<TransactionId> signAndBroadcastAsync(List<Operation> operations) {
+        return signTransactionAsync(operations, null).thenCompose(signedTransaction -> {
+            try {
+                return this.broadcastTransactionAsync(signedTransaction);
+            } catch (BeowulfInvalidTransactionException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #signAndBroadcastSynchronous(List)}.
+     *
+     * @param operations The operations to sign and broadcast.
+     * @return A future that is completed once the transaction has been added
+     * to a block, or exceptionally with the exception the blocking variant
+     * would throw.
+     */
+    public CompletableFuture<BroadcastTransactionSynchronousReturn> signAndBroadcastSynchronousAsync(
+            List<Operation> operations) {
+        return signTransactionAsync(operations, null).thenCompose(signedTransaction -> {
+            try {
+                return this.broadcastTransactionSynchronousAsync(signedTransaction);
+            } catch (BeowulfInvalidTransactionException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Run a blocking call, e.g. of a {@link BlockSource}, on the I/O
+     * executor.
+     *
+     * @param call The call.
+     * @param <T>  The type of the result.
+     * @return A future that is completed with the result of the call, or
+     * exceptionally with the exception the call has thrown.
+     */
+    private static <T> CompletableFuture<T> supplyAsync(BlockingCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            CommunicationExecutors.getIoExecutor().execute(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new BeowulfCommunicationException("The request has been rejected.", e));
+        }
+        return result;
+    }
+
+    /**
+     * A call that blocks until its result is available.
+     *
+     * @param <T> The type of the result.
+     */
+    private interface BlockingCall<T> {
+        T call() throws BeowulfCommunicationException, BeowulfResponseException;
+    }
 }
@@ -16,9 +16,8 @@
  */
 package com.beowulfchain.beowulfj.base.models.deserializer;
 
+import com.beowulfchain.beowulfj.chain.smt.SmtTokenRegistry;
 import com.beowulfchain.beowulfj.chain.smt.objects.AssetObject;
-import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
-import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
 import com.beowulfchain.beowulfj.protocol.Asset;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
@@ -40,11 +39,18 @@ public class AssetDeserializer extends JsonDeserializer<Asset> {
         } else if (JsonToken.VALUE_STRING.equals(currentToken)) {
             String[] assetFields = jasonParser.getText().split(" ");
             if (assetFields.length == 2) {
-                try {
-                    return Asset.createAsset(new BigDecimal(assetFields[0]), assetFields[1]);
-                } catch (BeowulfResponseException | BeowulfCommunicationException e) {
-                    e.printStackTrace();
+                BigDecimal amount = new BigDecimal(assetFields[0]);
+                // Never ask the node while deserializing. The node formats an
+                // asset with the precision of its token, so the scale of an
+                // unknown token is a safe fallback until the registry fetched
+                // it in the background.
+                SmtTokenRegistry smtTokenRegistry = SmtTokenRegistry.getInstance();
+                UInteger precision = smtTokenRegistry.getDecimals(assetFields[1]);
+                if (precision == null) {
+                    smtTokenRegistry.recordMissing(assetFields[1]);
+                    precision = UInteger.valueOf(Math.max(amount.scale(), 0));
                 }
+                return new Asset(amount, assetFields[1], precision);
             }
         }
 
@@ -0,0 +1,56 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain;
+
+import com.beowulfchain.beowulfj.base.models.Block;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.protocol.BlockHeader;
+
+/**
+ * A source of blocks that is consulted by
+ * {@link com.beowulfchain.beowulfj.BeowulfJ#getBlock(long)},
+ * {@link com.beowulfchain.beowulfj.BeowulfJ#getBlockHeader(long)} and their
+ * asynchronous variants instead of asking the node directly, e.g. a local
+ * archive of irreversible blocks. The source is responsible for fetching
+ * blocks it does not have from the node.
+ * <p>
+ * A source is registered using
+ * {@link com.beowulfchain.beowulfj.configuration.BeowulfJConfig#setBlockSource(BlockSource)}.
+ * Implementations have to be thread safe.
+ */
+public interface BlockSource {
+    /**
+     * Get a full, signed block.
+     *
+     * @param blockNumber The number of the block.
+     * @return The block or <code>null</code> if the block does not exist.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node returned an error.
+     */
+    Block getBlock(long blockNumber) throws BeowulfCommunicationException, BeowulfResponseException;
+
+    /**
+     * Get the header of a block.
+     *
+     * @param blockNumber The number of the block.
+     * @return The header or <code>null</code> if the block does not exist.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node returned an error.
+     */
+    BlockHeader getBlockHeader(long blockNumber) throws BeowulfCommunicationException, BeowulfResponseException;
+}
@@ -0,0 +1,326 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain;
+
+import com.beowulfchain.beowulfj.base.models.Block;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a range of blocks with several concurrent requests, but hands them to
+ * the consumer strictly in order.
+ * <p>
+ * Up to {@link BeowulfJConfig#setBlockStreamConcurrency(int) concurrency}
+ * requests are in flight at the same time. Blocks that arrive early wait in a
+ * reorder buffer, which holds at most
+ * {@link BeowulfJConfig#setBlockStreamBufferSize(int) buffer size} blocks
+ * ahead of the consumer. No further blocks are fetched while the buffer is
+ * full, so a slow consumer slows down the stream instead of filling the
+ * memory. Blocks that have not been produced yet are requested again after a
+ * block interval, so a stream whose range ends in the future follows the
+ * head of the chain.
+ * <p>
+ * The requests are spread round-robin across all
+ * {@link com.beowulfchain.beowulfj.communication.EndpointSelector#getHealthyEndpoints(List)
+ * healthy endpoints}, each request pinned to its endpoint unless it has to
+ * fail over. Irreversible blocks are read through the
+ * {@link com.beowulfchain.beowulfj.communication.IrreversibleCache} if it is
+ * enabled.
+ * <p>
+ * The {@link #getCheckpoint() checkpoint} is the number of the next block
+ * the consumer will receive. A stream can be resumed after a restart by
+ * persisting the checkpoint once the previous blocks have been processed and
+ * starting a new stream at it. If a block can not be fetched, the error is
+ * thrown for that block and the block is fetched again, so no block is ever
+ * skipped.
+ * <p>
+ * A {@link BlockStream} is meant to be consumed by a single thread.
+ */
+public class BlockStream implements Iterator<Block>, AutoCloseable {
+    /**
+     * The time in milliseconds after which a block that has not been
+     * produced yet is requested again.
+     */
+    private static final long BLOCK_INTERVAL = 3000L;
+
+    private final CommunicationHandler communicationHandler;
+    private final long lastBlockNumber;
+    private final int concurrency;
+    private final int bufferSize;
+    /**
+     * The blocks that have been requested, but not handed to the consumer
+     * yet, keyed by their number.
+     */
+    private final Map<Long, CompletableFuture<Block>> buffer = new HashMap<>();
+    /**
+     * The number of the next block handed to the consumer.
+     */
+    private long nextBlockNumber;
+    /**
+     * The number of the next block to request.
+     */
+    private long nextRequestedBlockNumber;
+    private int requestsInFlight;
+    /**
+     * The number of requests that have been assigned to an endpoint, which
+     * selects the endpoint of the next request.
+     */
+    private long assignedRequests;
+    private boolean closed;
+
+    /**
+     * Create a new {@link BlockStream} instance, which immediately starts to
+     * fetch the first blocks of the range.
+     *
+     * @param communicationHandler The {@link CommunicationHandler} used to
+     *                             fetch the blocks.
+     * @param firstBlockNumber     The first block of the range, e.g. a
+     *                             {@link #getCheckpoint() checkpoint} of a
+     *                             previous stream.
+     * @param lastBlockNumber      The last block of the range or
+     *                             {@link Long#MAX_VALUE} to follow the head
+     *                             of the chain.
+     */
+    public BlockStream(CommunicationHandler communicationHandler, long firstBlockNumber, long lastBlockNumber) {
+        if (firstBlockNumber < 1) {
+            throw new IllegalArgumentException("The first block number has to be greater than 0.");
+        }
+
+        BeowulfJConfig config = BeowulfJConfig.getInstance();
+        this.communicationHandler = communicationHandler;
+        this.lastBlockNumber = lastBlockNumber;
+        this.concurrency = config.getBlockStreamConcurrency();
+        this.bufferSize = config.getBlockStreamBufferSize();
+        this.nextBlockNumber = firstBlockNumber;
+        this.nextRequestedBlockNumber = firstBlockNumber;
+
+        requestBlocks();
+    }
+
+    /**
+     * @return The number of the next block handed to the consumer. All
+     * blocks before it have been handed out.
+     */
+    public synchronized long getCheckpoint() {
+        return nextBlockNumber;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return !closed && nextBlockNumber <= lastBlockNumber;
+    }
+
+    /**
+     * Wait for the next block of the range.
+     *
+     * @return The next block.
+     * @throws NoSuchElementException        If all blocks of the range have
+     *                                       been handed out or the stream has
+     *                                       been closed.
+     * @throws BeowulfCommunicationException If the block could not be
+     *                                       fetched. It is fetched again for
+     *                                       the next call.
+     * @throws BeowulfResponseException      If the node returned an error. The
+     *                                       block is fetched again for the
+     *                                       next call.
+     */
+    public Block nextBlock() throws BeowulfCommunicationException, BeowulfResponseException {
+        long blockNumber;
+        CompletableFuture<Block> block;
+        synchronized (this) {
+            if (!hasNext()) {
+                throw new NoSuchElementException("The stream has been closed or reached the end of its range.");
+            }
+            blockNumber = nextBlockNumber;
+            block = buffer.get(blockNumber);
+            if (block == null) {
+                block = requestBlock(blockNumber);
+                buffer.put(blockNumber, block);
+            }
+        }
+
+        try {
+            Block result = block.get();
+            synchronized (this) {
+                buffer.remove(blockNumber);
+                nextBlockNumber++;
+            }
+            requestBlocks();
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for the block " + blockNumber + ".", e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (!closed) {
+                    buffer.put(blockNumber, requestBlock(blockNumber));
+                }
+            }
+
+            Throwable cause = e.getCause();
+            if (cause instanceof BeowulfCommunicationException) {
+                throw (BeowulfCommunicationException) cause;
+            } else if (cause instanceof BeowulfResponseException) {
+                throw (BeowulfResponseException) cause;
+            }
+            throw new BeowulfCommunicationException("The block " + blockNumber + " could not be fetched.", cause);
+        }
+    }
+
+    /**
+     * Like {@link #nextBlock()}, but throws errors wrapped into a
+     * {@link CompletionException}.
+     *
+     * @return The next block.
+     * @throws CompletionException If the block could not be fetched.
+     */
+    @Override
+    public Block next() {
+        try {
+            return nextBlock();
+        } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Get the remaining blocks as a sequential, ordered {@link Stream}.
+     * Closing the stream closes this {@link BlockStream}.
+     *
+     * @return The blocks.
+     */
+    public Stream<Block> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /**
+     * Stop fetching blocks and drop all buffered blocks.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (CompletableFuture<Block> block : buffer.values()) {
+            block.cancel(false);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Request further blocks as long as the buffer and the number of
+     * concurrent requests allow it.
+     */
+    private synchronized void requestBlocks() {
+        while (!closed && nextRequestedBlockNumber <= lastBlockNumber
+                && nextRequestedBlockNumber < nextBlockNumber + bufferSize && requestsInFlight < concurrency) {
+            long blockNumber = nextRequestedBlockNumber++;
+            buffer.put(blockNumber, requestBlock(blockNumber));
+        }
+    }
+
+    /**
+     * Start to fetch the given block.
+     *
+     * @param blockNumber The number of the block.
+     * @return A future that is completed with the block.
+     */
+    private CompletableFuture<Block> requestBlock(long blockNumber) {
+        URI endpointUri = selectEndpoint();
+        CompletableFuture<Block> block = new CompletableFuture<>();
+        requestsInFlight++;
+        block.whenComplete((result, throwable) -> {
+            synchronized (this) {
+                requestsInFlight--;
+            }
+            requestBlocks();
+        });
+
+        fetch(blockNumber, endpointUri, block);
+        return block;
+    }
+
+    /**
+     * Select the endpoint of the next request round-robin from the currently
+     * healthy endpoints.
+     *
+     * @return The endpoint or <code>null</code> to let the
+     * {@link CommunicationHandler} choose the best endpoint.
+     */
+    private URI selectEndpoint() {
+        List<URI> healthyEndpoints = communicationHandler.getEndpointSelector()
+                .getHealthyEndpoints(BeowulfJConfig.getInstance().getEndpointURIs());
+        if (healthyEndpoints.isEmpty()) {
+            return null;
+        }
+        return healthyEndpoints.get((int) (assignedRequests++ % healthyEndpoints.size()));
+    }
+
+    /**
+     * Fetch the given block and complete the future with it. Blocks that have
+     * not been produced yet are requested again after a block interval.
+     *
+     * @param blockNumber The number of the block.
+     * @param endpointUri The endpoint to request the block from or
+     *                    <code>null</code> to use the best endpoint.
+     * @param block       The future to complete.
+     */
+    private void fetch(long blockNumber, URI endpointUri, CompletableFuture<Block> block) {
+        if (block.isDone()) {
+            return;
+        }
+
+        CompletableFuture<List<Block>> request = communicationHandler.performCachedRequestAsync(
+                new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
+                        Collections.singletonList(blockNumber)), Block.class, fetchedBlock -> blockNumber, endpointUri);
+        // Drop the request from the transport if the stream is closed.
+        block.whenComplete((result, throwable) -> request.cancel(false));
+
+        request.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                block.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable);
+            } else if (result.isEmpty() || result.get(0) == null) {
+                CommunicationExecutors.scheduleAsync(() -> fetch(blockNumber, endpointUri, block), BLOCK_INTERVAL,
+                        TimeUnit.MILLISECONDS, CommunicationExecutors.getAsyncExecutor(), block::completeExceptionally);
+            } else {
+                block.complete(result.get(0));
+            }
+        });
+    }
+}
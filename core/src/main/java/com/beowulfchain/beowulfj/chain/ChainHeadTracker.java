@@ -0,0 +1,307 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain;
+
+import com.beowulfchain.beowulfj.base.models.BlockId;
+import com.beowulfchain.beowulfj.base.models.FutureExtensions;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.fc.TimePointSec;
+import com.beowulfchain.beowulfj.plugins.apis.condenser.CondenserApi;
+import com.beowulfchain.beowulfj.plugins.apis.database.models.DynamicGlobalProperty;
+import com.beowulfchain.beowulfj.protocol.operations.Operation;
+import org.joou.UShort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a recent reference block and the time of the node at hand, so
+ * transactions can be created without asking the node for its dynamic global
+ * properties every time.
+ * <p>
+ * The head block is polled in the background in the
+ * {@link BeowulfJConfig#setChainHeadRefreshInterval(int) configured interval}.
+ * The polling starts once the first transaction is created and stops again if
+ * no transaction has been created for a while. Subscribers to the dynamic
+ * global properties may also feed them in via
+ * {@link #update(DynamicGlobalProperty)}.
+ */
+public class ChainHeadTracker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChainHeadTracker.class);
+
+    /**
+     * The time in milliseconds after which a known head block is not used as
+     * the reference block anymore and fetched while creating the transaction
+     * instead.
+     */
+    private static final long MAX_AGE = 60000L;
+    /**
+     * The time in milliseconds after which the polling stops if no
+     * transaction has been created.
+     */
+    private static final long IDLE_TIME = 60000L;
+
+    private final CommunicationHandler communicationHandler;
+    private final LongSupplier clock;
+
+    /**
+     * The most recent head block or <code>null</code> if unknown.
+     */
+    private volatile ChainHead chainHead;
+    /**
+     * The time in milliseconds the last transaction has been created at.
+     */
+    private volatile long lastUse;
+    /**
+     * The task that regularly polls the head block.
+     */
+    private ScheduledFuture<?> poll;
+
+    /**
+     * Create a new {@link ChainHeadTracker} instance.
+     *
+     * @param communicationHandler The {@link CommunicationHandler} used to
+     *                             fetch the head block.
+     */
+    public ChainHeadTracker(CommunicationHandler communicationHandler) {
+        this(communicationHandler, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new {@link ChainHeadTracker} instance.
+     *
+     * @param communicationHandler The {@link CommunicationHandler} used to
+     *                             fetch the head block.
+     * @param clock                The source of the current time in
+     *                             milliseconds.
+     */
+    ChainHeadTracker(CommunicationHandler communicationHandler, LongSupplier clock) {
+        this.communicationHandler = communicationHandler;
+        this.clock = clock;
+    }
+
+    /**
+     * Record the given dynamic global properties, e.g. received from a
+     * subscription. Outdated properties are ignored.
+     *
+     * @param globalProperties The dynamic global properties of the node.
+     */
+    public void update(DynamicGlobalProperty globalProperties) {
+        if (globalProperties == null || globalProperties.getHeadBlockId() == null
+                || globalProperties.getTime() == null) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        ChainHead current = chainHead;
+        if (current != null && current.headBlockNumber > globalProperties.getHeadBlockNumber()) {
+            return;
+        }
+
+        chainHead = new ChainHead(globalProperties.getHeadBlockId(), globalProperties.getHeadBlockNumber(),
+                globalProperties.getTime().getDateTimeAsTimestamp() - now, now);
+    }
+
+    /**
+     * @return The most recent head block or <code>null</code> if unknown.
+     */
+    public BlockId getReferenceBlockId() {
+        ChainHead current = chainHead;
+        return current == null ? null : current.headBlockId;
+    }
+
+    /**
+     * @return The current time of the node in milliseconds, estimated using
+     * the offset to the local clock, or the local time if unknown.
+     */
+    public long getNodeTime() {
+        ChainHead current = chainHead;
+        return clock.getAsLong() + (current == null ? 0 : current.nodeTimeOffset);
+    }
+
+    /**
+     * Create a new, unsigned transaction that references the most recent head
+     * block and expires as late as possible. The node is only asked for the
+     * head block if it is not known or outdated.
+     *
+     * @param operations The operations of the transaction.
+     * @param extensions The extensions of the transaction or <code>null</code>.
+     * @return The new transaction.
+     * @throws BeowulfCommunicationException If the head block could not be
+     *                                       fetched.
+     * @throws BeowulfResponseException      If the node answered with an
+     *                                       error.
+     */
+    public SignedTransaction createTransaction(List<Operation> operations, List<FutureExtensions> extensions)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        ChainHead current = getFreshChainHead();
+        if (current == null) {
+            update(CondenserApi.getDynamicGlobalProperties(communicationHandler));
+            current = getKnownChainHead();
+        }
+
+        return newTransaction(current, operations, extensions);
+    }
+
+    /**
+     * Asynchronous variant of {@link #createTransaction(List, List)}.
+     *
+     * @param operations The operations of the transaction.
+     * @param extensions The extensions of the transaction or <code>null</code>.
+     * @return A future that is completed with the new transaction, or
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    public CompletableFuture<SignedTransaction> createTransactionAsync(List<Operation> operations,
+                                                                       List<FutureExtensions> extensions) {
+        ChainHead current = getFreshChainHead();
+        if (current != null) {
+            return CompletableFuture.completedFuture(newTransaction(current, operations, extensions));
+        }
+
+        return CondenserApi.getDynamicGlobalPropertiesAsync(communicationHandler).thenApply(globalProperties -> {
+            update(globalProperties);
+            try {
+                return newTransaction(getKnownChainHead(), operations, extensions);
+            } catch (BeowulfResponseException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Stop to poll the head block in the background. The polling starts again
+     * with the next transaction.
+     */
+    public synchronized void stop() {
+        if (poll != null) {
+            poll.cancel(false);
+            poll = null;
+        }
+    }
+
+    /**
+     * Get the head block if it can be used as the reference block and make
+     * sure it is kept up to date.
+     *
+     * @return The head block or <code>null</code> if it has to be fetched.
+     */
+    private ChainHead getFreshChainHead() {
+        long now = clock.getAsLong();
+        lastUse = now;
+
+        int interval = BeowulfJConfig.getInstance().getChainHeadRefreshInterval();
+        if (interval == 0) {
+            return null;
+        }
+
+        start(interval);
+        ChainHead current = chainHead;
+        return current != null && now - current.fetchedAt <= MAX_AGE ? current : null;
+    }
+
+    /**
+     * @return The head block.
+     * @throws BeowulfResponseException If the node did not return the head
+     *                                  block.
+     */
+    private ChainHead getKnownChainHead() throws BeowulfResponseException {
+        ChainHead current = chainHead;
+        if (current == null) {
+            throw new BeowulfResponseException("The node did not return the head block.");
+        }
+        return current;
+    }
+
+    /**
+     * Start to poll the head block in the background if this has not been
+     * done yet.
+     *
+     * @param interval The interval in milliseconds.
+     */
+    private synchronized void start(int interval) {
+        if (poll != null) {
+            return;
+        }
+
+        poll = CommunicationExecutors.scheduleAsyncWithFixedDelay(() -> {
+            if (clock.getAsLong() - lastUse > IDLE_TIME) {
+                stop();
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return CondenserApi.getDynamicGlobalPropertiesAsync(communicationHandler)
+                    .whenComplete((globalProperties, throwable) -> {
+                        if (throwable != null) {
+                            LOGGER.debug("Could not refresh the head block.", throwable);
+                        } else {
+                            update(globalProperties);
+                        }
+                    });
+        }, interval, interval, TimeUnit.MILLISECONDS, CommunicationExecutors.getAsyncExecutor());
+    }
+
+    /**
+     * Create a new transaction that references the given head block.
+     *
+     * @param current    The head block.
+     * @param operations The operations of the transaction.
+     * @param extensions The extensions of the transaction or <code>null</code>.
+     * @return The new transaction.
+     */
+    private SignedTransaction newTransaction(ChainHead current, List<Operation> operations,
+                                             List<FutureExtensions> extensions) {
+        long expiration = clock.getAsLong() + current.nodeTimeOffset
+                + BeowulfJConfig.getInstance().getMaximumExpirationDateOffset() - 60000L;
+
+        return new SignedTransaction(UShort.valueOf(current.headBlockId.getNumberFromHash() & 0xffff),
+                current.headBlockId.getHashValue(), new TimePointSec(expiration), operations, extensions, null);
+    }
+
+    /**
+     * An immutable snapshot of the head block.
+     */
+    private static final class ChainHead {
+        private final BlockId headBlockId;
+        private final long headBlockNumber;
+        /**
+         * The difference between the time of the node and the local time in
+         * milliseconds.
+         */
+        private final long nodeTimeOffset;
+        /**
+         * The local time in milliseconds the snapshot has been taken at.
+         */
+        private final long fetchedAt;
+
+        private ChainHead(BlockId headBlockId, long headBlockNumber, long nodeTimeOffset, long fetchedAt) {
+            this.headBlockId = headBlockId;
+            this.headBlockNumber = headBlockNumber;
+            this.nodeTimeOffset = nodeTimeOffset;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain.smt;
+
+import com.beowulfchain.beowulfj.BeowulfJ;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.plugins.apis.condenser.models.FindSmtTokenByName;
+import com.beowulfchain.beowulfj.protocol.AssetInfo;
+import com.beowulfchain.beowulfj.protocol.enums.AssetSymbolType;
+import org.joou.UInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches the symbols of the SMT tokens, so the precision of an asset can be
+ * looked up without asking the node every time.
+ * <p>
+ * Lookups via {@link #getDecimals(String)} never perform any I/O and can
+ * safely be used while deserializing. Tokens are added by
+ * {@link #preload(Collection) preloading} them in bulk, e.g. at startup, by
+ * {@link #resolve(String) resolving} a single unknown token or by
+ * {@link #register(AssetInfo) registering} them manually. Tokens that are
+ * {@link #recordMissing(String) recorded as missing}, e.g. by the
+ * deserializer of {@link com.beowulfchain.beowulfj.protocol.Asset assets},
+ * are fetched in the background with a single request.
+ * <p>
+ * Known tokens are not refreshed by default. Call
+ * {@link #startRefresh(long)} to refresh them regularly in the background.
+ */
+public class SmtTokenRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmtTokenRegistry.class);
+    /**
+     * The precision of the native assets.
+     */
+    private static final UInteger NATIVE_DECIMALS = UInteger.valueOf(5);
+    /**
+     * The time in milliseconds missing tokens are collected before they are
+     * fetched together.
+     */
+    private static final long MISSING_TOKENS_DELAY = 100;
+
+    /**
+     * The shared {@link SmtTokenRegistry} instance.
+     */
+    private static volatile SmtTokenRegistry smtTokenRegistryInstance;
+
+    private final Map<String, AssetInfo> tokens = new ConcurrentHashMap<>();
+    private final TokenFetcher tokenFetcher;
+    /**
+     * The tokens that have been recorded as missing and are about to be
+     * fetched.
+     */
+    private final Set<String> missingNames = ConcurrentHashMap.newKeySet();
+    /**
+     * The tokens that have been recorded as missing, but are not known to the
+     * node. They are not recorded again until the next refresh.
+     */
+    private final Set<String> unknownNames = ConcurrentHashMap.newKeySet();
+    /**
+     * Makes sure that only one fetch of the missing tokens is scheduled at a
+     * time.
+     */
+    private final AtomicBoolean missingTokensFetchScheduled = new AtomicBoolean();
+    /**
+     * The task that regularly refreshes all known tokens.
+     */
+    private ScheduledFuture<?> refresh;
+
+    /**
+     * Create a new registry that fetches unknown tokens using the shared
+     * {@link BeowulfJ} instance.
+     */
+    private SmtTokenRegistry() {
+        this(names -> BeowulfJ.getInstance().findSmtTokenByName(names));
+    }
+
+    /**
+     * Create a new registry.
+     *
+     * @param tokenFetcher Fetches the tokens with the given names from the
+     *                     node.
+     */
+    SmtTokenRegistry(TokenFetcher tokenFetcher) {
+        this.tokenFetcher = tokenFetcher;
+    }
+
+    /**
+     * Get the shared registry.
+     *
+     * @return The shared {@link SmtTokenRegistry} instance.
+     */
+    public static SmtTokenRegistry getInstance() {
+        if (smtTokenRegistryInstance == null) {
+            synchronized (SmtTokenRegistry.class) {
+                if (smtTokenRegistryInstance == null) {
+                    smtTokenRegistryInstance = new SmtTokenRegistry();
+                }
+            }
+        }
+
+        return smtTokenRegistryInstance;
+    }
+
+    /**
+     * Get the precision of the given asset without performing any I/O.
+     *
+     * @param name The name of the asset.
+     * @return The precision of the native asset or of the known token, or
+     * <code>null</code> if the token is unknown.
+     */
+    public UInteger getDecimals(String name) {
+        if (AssetSymbolType.getNativeAsset(name) != null) {
+            return NATIVE_DECIMALS;
+        }
+
+        AssetInfo assetInfo = tokens.get(name);
+        return assetInfo == null ? null : assetInfo.getDecimals();
+    }
+
+    /**
+     * Get the symbol of the given token without performing any I/O.
+     *
+     * @param name The name of the token.
+     * @return The symbol or <code>null</code> if the token is unknown.
+     */
+    public AssetInfo getAssetInfo(String name) {
+        return tokens.get(name);
+    }
+
+    /**
+     * Add the given symbol to this registry or replace the known one.
+     *
+     * @param assetInfo The symbol of the token.
+     */
+    public void register(AssetInfo assetInfo) {
+        tokens.put(assetInfo.getName(), assetInfo);
+    }
+
+    /**
+     * Remember that the given token is unknown, so it is fetched in the
+     * background together with the other missing tokens. This method never
+     * performs any I/O and can safely be used while deserializing.
+     *
+     * @param name The name of the token.
+     */
+    public void recordMissing(String name) {
+        if (getDecimals(name) != null || unknownNames.contains(name) || !missingNames.add(name)) {
+            return;
+        }
+
+        if (missingTokensFetchScheduled.compareAndSet(false, true)) {
+            CommunicationExecutors.scheduleAsync(this::fetchMissingTokens, MISSING_TOKENS_DELAY,
+                    TimeUnit.MILLISECONDS, CommunicationExecutors.getIoExecutor(),
+                    e -> missingTokensFetchScheduled.set(false));
+        }
+    }
+
+    /**
+     * Get the symbol of the given token and fetch it if it is unknown.
+     *
+     * @param name The name of the token.
+     * @return The symbol or <code>null</code> if the node does not know the
+     * token.
+     * @throws BeowulfCommunicationException If the token is unknown and
+     *                                       could not be fetched.
+     * @throws BeowulfResponseException      If the node returned an error
+     *                                       object.
+     */
+    public AssetInfo resolve(String name) throws BeowulfCommunicationException, BeowulfResponseException {
+        AssetInfo assetInfo = tokens.get(name);
+        if (assetInfo == null) {
+            preload(Collections.singletonList(name));
+            assetInfo = tokens.get(name);
+        }
+        return assetInfo;
+    }
+
+    /**
+     * Fetch all of the given tokens that are not known yet with a single
+     * request.
+     *
+     * @param names The names of the tokens.
+     * @throws BeowulfCommunicationException If the tokens could not be
+     *                                       fetched.
+     * @throws BeowulfResponseException      If the node returned an error
+     *                                       object.
+     */
+    public void preload(Collection<String> names) throws BeowulfCommunicationException, BeowulfResponseException {
+        List<String> missingNames = new ArrayList<>();
+        for (String name : names) {
+            if (getDecimals(name) == null && !missingNames.contains(name)) {
+                missingNames.add(name);
+            }
+        }
+
+        if (!missingNames.isEmpty()) {
+            fetch(missingNames);
+        }
+    }
+
+    /**
+     * Fetch all known tokens again with a single request.
+     *
+     * @throws BeowulfCommunicationException If the tokens could not be
+     *                                       fetched.
+     * @throws BeowulfResponseException      If the node returned an error
+     *                                       object.
+     */
+    public void refresh() throws BeowulfCommunicationException, BeowulfResponseException {
+        List<String> names = new ArrayList<>(tokens.keySet());
+        // Tokens the node did not know may have been created meanwhile.
+        names.addAll(unknownNames);
+        if (!names.isEmpty()) {
+            fetch(names);
+            unknownNames.removeIf(tokens::containsKey);
+        }
+    }
+
+    /**
+     * Start to {@link #refresh() refresh} all known tokens in the
+     * background. A refresh that is already scheduled is replaced.
+     *
+     * @param interval The interval in milliseconds.
+     * @throws IllegalArgumentException If the interval is not positive.
+     */
+    public synchronized void startRefresh(long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The refresh interval has to be greater than 0.");
+        }
+
+        stopRefresh();
+        refresh = CommunicationExecutors.scheduleAsyncWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+                LOGGER.debug("Could not refresh the SMT tokens.", e);
+            }
+            return CompletableFuture.completedFuture(null);
+        }, interval, interval, TimeUnit.MILLISECONDS, CommunicationExecutors.getIoExecutor());
+    }
+
+    /**
+     * Stop to refresh the known tokens in the background.
+     */
+    public synchronized void stopRefresh() {
+        if (refresh != null) {
+            refresh.cancel(false);
+            refresh = null;
+        }
+    }
+
+    /**
+     * Forget all known tokens.
+     */
+    public void clear() {
+        tokens.clear();
+        missingNames.clear();
+        unknownNames.clear();
+    }
+
+    /**
+     * Fetch the tokens that have been recorded as missing.
+     */
+    private void fetchMissingTokens() {
+        // Tokens recorded from now on need another fetch.
+        missingTokensFetchScheduled.set(false);
+        List<String> names = new ArrayList<>(missingNames);
+        missingNames.removeAll(names);
+        if (names.isEmpty()) {
+            return;
+        }
+
+        try {
+            fetch(names);
+            for (String name : names) {
+                if (!tokens.containsKey(name)) {
+                    unknownNames.add(name);
+                }
+            }
+        } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+            LOGGER.debug("Could not fetch the missing SMT tokens {}.", names, e);
+        }
+    }
+
+    /**
+     * Fetch the given tokens and register them.
+     *
+     * @param names The names of the tokens.
+     * @throws BeowulfCommunicationException If the tokens could not be
+     *                                       fetched.
+     * @throws BeowulfResponseException      If the node returned an error
+     *                                       object.
+     */
+    private void fetch(List<String> names) throws BeowulfCommunicationException, BeowulfResponseException {
+        LOGGER.debug("Fetching the SMT tokens {}.", names);
+        for (FindSmtTokenByName token : tokenFetcher.fetch(names)) {
+            if (token != null && token.getLiquid_symbol() != null) {
+                register(token.getLiquid_symbol());
+            }
+        }
+    }
+
+    /**
+     * Fetches tokens from the node.
+     */
+    @FunctionalInterface
+    interface TokenFetcher {
+        /**
+         * @param names The names of the tokens.
+         * @return The tokens known to the node.
+         * @throws BeowulfCommunicationException If the tokens could not be
+         *                                       fetched.
+         * @throws BeowulfResponseException      If the node returned an error
+         *                                       object.
+         */
+        List<FindSmtTokenByName> fetch(List<String> names)
+                throws BeowulfCommunicationException, BeowulfResponseException;
+    }
+}
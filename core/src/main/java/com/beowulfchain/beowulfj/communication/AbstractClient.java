@@ -16,13 +16,32 @@
  */
 package com.beowulfchain.beowulfj.communication;
 
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.fasterxml.jackson.databind.JavaType;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * The base class of all transports used by the {@link CommunicationHandler}.
+ * <p>
+ * New transports are plugged in by implementing this class and a
+ * {@link ClientProvider} that creates it. A client instance is used for a
+ * single endpoint, but by many threads at the same time, so implementations
+ * have to be thread-safe. Transports with non-blocking I/O should override
+ * {@link #invokeAndReadResponseAsync(JsonRPCRequest, URI, boolean, JavaType)},
+ * so no thread is blocked while a request is in flight. Transports wait at
+ * most {@link #getResponseTimeout(Deadline)} for an answer, which takes the
+ * {@link JsonRPCRequest#getDeadline() deadline} of the request into account.
+ */
 public abstract class AbstractClient {
     /**
      * Use this method to send a <code>requestObject</code> to the
@@ -39,6 +58,159 @@ public abstract class AbstractClient {
     public abstract JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
                                                           boolean sslVerificationDisabled) throws BeowulfCommunicationException, BeowulfResponseException;
 
+    /**
+     * Like {@link #invokeAndReadResponse(JsonRPCRequest, URI, boolean)}, but
+     * allows the client to bind the result directly to the
+     * <code>resultType</code> while reading the answer, see
+     * {@link JsonRPCResponse#read(com.fasterxml.jackson.core.JsonParser, JavaType)}.
+     * <p>
+     * Clients that are able to read the answer in a streaming fashion should
+     * override this method. The default implementation ignores the
+     * <code>resultType</code>, so the result is converted by
+     * {@link JsonRPCResponse#handleResult(JavaType, long)} later on.
+     *
+     * @param requestObject           The object to send.
+     * @param endpointUri             The endpoint to connect and send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @param resultType              The type the result will be requested as or
+     *                                <code>null</code> to keep the result as JSON.
+     * @return The response returned by the Beowulf Node wrapped in a
+     * {@link JsonRPCResponse} object.
+     * @throws BeowulfCommunicationException In case of communication problems.
+     * @throws BeowulfResponseException      If the answer received from the node is no valid JSON.
+     */
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled);
+    }
+
+    /**
+     * Use this method to send all requests of a <code>batchRequest</code> to
+     * the <code>endpointUri</code> in a single message and to receive the
+     * answers.
+     *
+     * @param batchRequest            The batch to send.
+     * @param endpointUri             The endpoint to connect and send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @return The responses returned by the Beowulf Node wrapped in a
+     * {@link JsonRPCBatchResponse} object.
+     * @throws BeowulfCommunicationException In case of communication problems.
+     * @throws BeowulfResponseException      If the answer received from the node is no valid JSON
+     *                                       array.
+     */
+    public abstract JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                                    boolean sslVerificationDisabled) throws BeowulfCommunicationException, BeowulfResponseException;
+
+    /**
+     * Like {@link #invokeAndReadResponse(JsonRPCRequest, URI, boolean)}, but
+     * returns immediately instead of waiting for the answer.
+     *
+     * @param requestObject           The object to send.
+     * @param endpointUri             The endpoint to connect and send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @return A future that is completed with the response returned by the
+     * Beowulf Node, or exceptionally with the exception
+     * {@link #invokeAndReadResponse(JsonRPCRequest, URI, boolean)} would
+     * throw.
+     */
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject, URI endpointUri,
+                                                                         boolean sslVerificationDisabled) {
+        return invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled, null);
+    }
+
+    /**
+     * Like {@link #invokeAndReadResponse(JsonRPCRequest, URI, boolean, JavaType)},
+     * but returns immediately instead of waiting for the answer.
+     * <p>
+     * Clients that support non-blocking I/O should override this method. The
+     * default implementation performs the blocking call on the
+     * {@link CommunicationExecutors#getIoExecutor() I/O executor}.
+     *
+     * @param requestObject           The object to send.
+     * @param endpointUri             The endpoint to connect and send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @param resultType              The type the result will be requested as or
+     *                                <code>null</code> to keep the result as JSON.
+     * @return A future that is completed with the response returned by the
+     * Beowulf Node, or exceptionally with the exception
+     * {@link #invokeAndReadResponse(JsonRPCRequest, URI, boolean, JavaType)}
+     * would throw. Cancelling the future tells the client that nobody waits
+     * for the answer anymore.
+     */
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject, URI endpointUri,
+                                                                         boolean sslVerificationDisabled,
+                                                                         @Nullable JavaType resultType) {
+        CompletableFuture<JsonRPCResponse> response = new CompletableFuture<>();
+
+        try {
+            CommunicationExecutors.getIoExecutor().execute(() -> {
+                try {
+                    response.complete(invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled,
+                            resultType));
+                } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+                    response.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            response.completeExceptionally(new BeowulfCommunicationException("The request has been rejected.", e));
+        }
+
+        return response;
+    }
+
+    /**
+     * Send a request that registers the given <code>subscription</code> on
+     * the node, which pushes notices tagged with the
+     * {@link Subscription#getCallbackId() callback id} afterwards.
+     * <p>
+     * Only transports that keep a connection open can receive notices. The
+     * default implementation does not support subscriptions.
+     *
+     * @param requestObject           The request registering the subscription.
+     * @param endpointUri             The endpoint to connect and send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @param subscription            The subscription the notices should be routed to.
+     * @throws BeowulfCommunicationException In case of communication problems or if the transport
+     *                                       does not support subscriptions.
+     * @throws BeowulfResponseException      If the node rejected the subscription.
+     */
+    public void subscribe(JsonRPCRequest requestObject, URI endpointUri, boolean sslVerificationDisabled,
+                          Subscription<?> subscription) throws BeowulfCommunicationException, BeowulfResponseException {
+        throw new BeowulfCommunicationException("The " + getClass().getSimpleName()
+                + " does not support subscriptions.");
+    }
+
+    /**
+     * Open the connection to the given endpoint if it is not open yet and
+     * keep an already open connection alive, so the next request does not
+     * have to pay for the handshakes. This method is called for every
+     * configured endpoint at startup and regularly afterwards, so a failover
+     * can use a connection that is already established. Transports without
+     * persistent connections do nothing.
+     *
+     * @param endpointUri             The endpoint to connect to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @throws BeowulfCommunicationException If the connection could not be
+     *                                       established.
+     */
+    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        // Nothing to do by default.
+    }
+
+    /**
+     * Get the time an attempt may wait for the answer to a request.
+     *
+     * @param deadline The deadline of the request or <code>null</code>.
+     * @return The {@link BeowulfJConfig#getResponseTimeout() response timeout}
+     * in milliseconds, limited by the time left until the
+     * <code>deadline</code>, or <code>0</code> to wait forever.
+     */
+    protected static int getResponseTimeout(@Nullable Deadline deadline) {
+        int responseTimeout = BeowulfJConfig.getInstance().getResponseTimeout();
+        return deadline == null ? responseTimeout : deadline.limit(responseTimeout);
+    }
+
     /**
      * Use this method to close the connection of this client.
      *
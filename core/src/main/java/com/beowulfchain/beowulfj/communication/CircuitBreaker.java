@@ -0,0 +1,203 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * A circuit breaker for a single endpoint.
+ * <p>
+ * While <code>CLOSED</code> all requests are allowed. After a number of
+ * failures in a row the breaker opens and rejects all requests for a while.
+ * Afterwards it becomes <code>HALF_OPEN</code> and lets a single trial request
+ * pass: If the trial succeeds the breaker closes again, otherwise it opens
+ * again.
+ * <p>
+ * Every permission is identified by the value returned from
+ * {@link #tryAcquirePermission(long)}. Only the holder of the trial request
+ * is able to settle a half-open breaker, so the late outcome of a request that
+ * has been sent before the breaker opened does not close it again.
+ */
+public class CircuitBreaker {
+    /**
+     * The states of a {@link CircuitBreaker}.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * The value returned by {@link #tryAcquirePermission(long)} if the
+     * request is not allowed.
+     */
+    public static final long NO_PERMISSION = -1;
+    /**
+     * The permission granted by a closed breaker, which is also used to
+     * record outcomes that have not been permitted by this breaker, e.g. the
+     * outcome of a probe.
+     */
+    public static final long CLOSED_PERMISSION = 0;
+
+    private final int failureThreshold;
+    private final long openTime;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long trialPermission;
+
+    /**
+     * Create a new {@link CircuitBreaker} instance.
+     *
+     * @param failureThreshold The number of failures in a row after which the
+     *                         breaker opens.
+     * @param openTime         The time in milliseconds the breaker stays open
+     *                         before a trial request is allowed.
+     */
+    public CircuitBreaker(int failureThreshold, long openTime) {
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+    }
+
+    /**
+     * Check if a request would currently be allowed, without reserving the
+     * trial request of a half-open breaker.
+     *
+     * @param now The current time in milliseconds.
+     * @return <code>true</code> if a request would be allowed.
+     */
+    public synchronized boolean isRequestAllowed(long now) {
+        switch (getState(now)) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                return !trialInFlight;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Ask for permission to send a request. A half-open breaker only grants
+     * a single permission until the result of the trial request has been
+     * recorded.
+     *
+     * @param now The current time in milliseconds.
+     * @return The permission to pass to {@link #recordSuccess(long)},
+     * {@link #recordFailure(long, long)} or {@link #releasePermission(long)}
+     * or {@link #NO_PERMISSION} if the request must not be sent.
+     */
+    public synchronized long tryAcquirePermission(long now) {
+        if (!isRequestAllowed(now)) {
+            return NO_PERMISSION;
+        }
+
+        if (state == State.HALF_OPEN) {
+            trialInFlight = true;
+            return ++trialPermission;
+        }
+        return CLOSED_PERMISSION;
+    }
+
+    /**
+     * Hand back a permission for a request that has not been sent after all,
+     * e.g. because its deadline expired while waiting for the rate limiter.
+     * If it has been the trial request of a half-open breaker, the trial is
+     * granted to the next caller.
+     *
+     * @param permission The permission returned by
+     *                   {@link #tryAcquirePermission(long)}.
+     */
+    public synchronized void releasePermission(long permission) {
+        if (isTrial(permission)) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Record a request that has been answered. A breaker that is not closed
+     * only closes if the request has been its trial request.
+     *
+     * @param permission The permission returned by
+     *                   {@link #tryAcquirePermission(long)}.
+     */
+    public synchronized void recordSuccess(long permission) {
+        if (state == State.CLOSED || isTrial(permission)) {
+            reset();
+        }
+    }
+
+    /**
+     * Record a request that could not be answered. A breaker that is not
+     * closed only opens again if the request has been its trial request.
+     *
+     * @param now        The current time in milliseconds.
+     * @param permission The permission returned by
+     *                   {@link #tryAcquirePermission(long)}.
+     */
+    public synchronized void recordFailure(long now, long permission) {
+        if (getState(now) == State.CLOSED) {
+            consecutiveFailures++;
+            if (consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = now;
+            }
+        } else if (isTrial(permission)) {
+            state = State.OPEN;
+            openedAt = now;
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Close this breaker regardless of any request in flight, e.g. after the
+     * history of the endpoint has been discarded.
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Get the current state of this breaker.
+     *
+     * @param now The current time in milliseconds.
+     * @return The current state.
+     */
+    public synchronized State getState(long now) {
+        if (state == State.OPEN && now - openedAt >= openTime) {
+            state = State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @param permission The permission returned by
+     *                   {@link #tryAcquirePermission(long)}.
+     * @return <code>true</code> if the permission is the trial request that is
+     * currently in flight.
+     */
+    private boolean isTrial(long permission) {
+        return trialInFlight && permission > CLOSED_PERMISSION && permission == trialPermission;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
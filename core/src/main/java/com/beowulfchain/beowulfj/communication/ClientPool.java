@@ -0,0 +1,120 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A fixed number of clients for a single endpoint, e.g. several WebSocket
+ * sessions, across which the requests to the endpoint are spread in a
+ * round-robin fashion. This reduces the contention on a single connection
+ * when many threads share one {@link CommunicationHandler}.
+ */
+class ClientPool {
+    private final AbstractClient[] clients;
+    private final AtomicInteger nextClient = new AtomicInteger();
+
+    /**
+     * Create a new pool.
+     *
+     * @param clientFactory Creates the clients of the pool.
+     * @param size          The number of clients.
+     */
+    ClientPool(Supplier<AbstractClient> clientFactory, int size) {
+        this.clients = new AbstractClient[Math.max(1, size)];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = clientFactory.get();
+        }
+    }
+
+    /**
+     * @return The client the next request should be sent with.
+     */
+    AbstractClient next() {
+        if (clients.length == 1) {
+            return clients[0];
+        }
+        return clients[Math.floorMod(nextClient.getAndIncrement(), clients.length)];
+    }
+
+    /**
+     * @return The number of clients in this pool.
+     */
+    int size() {
+        return clients.length;
+    }
+
+    /**
+     * Open the connections of all clients to the given endpoint or keep them
+     * alive.
+     *
+     * @param endpointUri             The endpoint of this pool.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @throws BeowulfCommunicationException If a connection could not be
+     *                                       established. All other clients
+     *                                       are warmed up anyway.
+     * @see AbstractClient#warmUp(URI, boolean)
+     */
+    void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        BeowulfCommunicationException failure = null;
+        for (AbstractClient client : clients) {
+            try {
+                client.warmUp(endpointUri, sslVerificationDisabled);
+            } catch (BeowulfCommunicationException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Close the connections of all clients.
+     *
+     * @throws IOException If a connection can't be closed. All other
+     *                     connections are closed anyway.
+     */
+    void close() throws IOException {
+        IOException failure = null;
+        for (AbstractClient client : clients) {
+            try {
+                client.closeConnection();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import java.net.URI;
+
+/**
+ * The service provider interface used to plug transports into the
+ * {@link CommunicationHandler}.
+ * <p>
+ * Implementations are discovered using the {@link java.util.ServiceLoader}
+ * by adding their fully qualified class name to a
+ * <code>META-INF/services/com.beowulfchain.beowulfj.communication.ClientProvider</code>
+ * file. If more than one provider supports the scheme of an endpoint, the one
+ * with the highest {@link #getPriority() priority} is used. A provider can
+ * also be set explicitly using
+ * {@link com.beowulfchain.beowulfj.configuration.BeowulfJConfig#setClientProvider(ClientProvider)}.
+ */
+public interface ClientProvider {
+    /**
+     * Check if this provider can create clients for the given scheme.
+     *
+     * @param scheme The lower case scheme of an endpoint, e.g.
+     *               <code>https</code> or <code>wss</code>.
+     * @return <code>true</code> if the scheme is supported.
+     */
+    boolean supports(String scheme);
+
+    /**
+     * Get the priority of this provider. Providers shipped with BeowulfJ use
+     * a priority of <code>0</code> for the default transports.
+     *
+     * @return The priority, higher values win.
+     */
+    int getPriority();
+
+    /**
+     * Create a new client for the given endpoint. Each endpoint gets its own
+     * client, which is closed using {@link AbstractClient#closeConnection()}
+     * once it is not needed anymore.
+     *
+     * @param endpointUri The endpoint the client will send requests to.
+     * @return The new client.
+     */
+    AbstractClient createClient(URI endpointUri);
+}
@@ -0,0 +1,328 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class provides the shared executors used by the asynchronous parts of
+ * the communication layer.
+ */
+public final class CommunicationExecutors {
+    /**
+     * The executor used if no executor has been configured.
+     */
+    private static volatile Executor defaultAsyncExecutor;
+    /**
+     * The executor used for blocking calls if no executor has been
+     * configured.
+     */
+    private static volatile Executor defaultIoExecutor;
+    /**
+     * The scheduler used for timeouts and other delayed tasks.
+     */
+    private static volatile ScheduledExecutorService scheduler;
+    /**
+     * The executor used if virtual threads are enabled.
+     */
+    private static volatile ExecutorService virtualThreadExecutor;
+    /**
+     * The factory method of virtual thread executors or <code>null</code> if
+     * the runtime does not provide virtual threads. It is looked up
+     * reflectively, as BeowulfJ still targets Java 8.
+     */
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR_FACTORY = findVirtualThreadExecutorFactory();
+    /**
+     * Whether the runtime can create virtual threads or <code>null</code> if
+     * not checked yet.
+     */
+    private static volatile Boolean virtualThreadsSupported;
+
+    /**
+     * Add a private constructor to hide the implicit public one.
+     */
+    private CommunicationExecutors() {
+    }
+
+    /**
+     * Get the executor that is used to complete asynchronous requests. Tasks
+     * that block, e.g. requests of transports that do not support
+     * non-blocking I/O, have to be run on the {@link #getIoExecutor() I/O
+     * executor} instead, so they do not starve the completions.
+     *
+     * @return The {@link BeowulfJConfig#getAsyncExecutor() configured}
+     * executor, an executor that starts a virtual thread per task if
+     * {@link BeowulfJConfig#isVirtualThreadsEnabled() enabled} and supported
+     * or a shared default executor.
+     */
+    public static Executor getAsyncExecutor() {
+        BeowulfJConfig config = BeowulfJConfig.getInstance();
+        Executor configuredExecutor = config.getAsyncExecutor();
+        if (configuredExecutor != null) {
+            return configuredExecutor;
+        }
+
+        if (config.isVirtualThreadsEnabled() && isVirtualThreadSupported()) {
+            if (virtualThreadExecutor == null) {
+                synchronized (CommunicationExecutors.class) {
+                    if (virtualThreadExecutor == null) {
+                        virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+                    }
+                }
+            }
+            return virtualThreadExecutor;
+        }
+
+        if (defaultAsyncExecutor == null) {
+            synchronized (CommunicationExecutors.class) {
+                if (defaultAsyncExecutor == null) {
+                    int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(), newDaemonThreadFactory("beowulfj-async"));
+                    executor.allowCoreThreadTimeOut(true);
+                    defaultAsyncExecutor = executor;
+                }
+            }
+        }
+
+        return defaultAsyncExecutor;
+    }
+
+    /**
+     * Get the executor that runs blocking calls, e.g. the requests of
+     * transports that do not support non-blocking I/O. Unlike the
+     * {@link #getAsyncExecutor() async executor}, the default executor has
+     * as many threads as {@link BeowulfJConfig#getMaxHttpConnectionsPerEndpoint()
+     * HTTP connections} may be used at the time it is created, and releases
+     * them when they are idle.
+     *
+     * @return The {@link BeowulfJConfig#getAsyncExecutor() configured}
+     * executor, an executor that starts a virtual thread per task if
+     * {@link BeowulfJConfig#isVirtualThreadsEnabled() enabled} and supported
+     * or a shared default executor.
+     */
+    public static Executor getIoExecutor() {
+        BeowulfJConfig config = BeowulfJConfig.getInstance();
+        if (config.getAsyncExecutor() != null
+                || (config.isVirtualThreadsEnabled() && isVirtualThreadSupported())) {
+            return getAsyncExecutor();
+        }
+
+        if (defaultIoExecutor == null) {
+            synchronized (CommunicationExecutors.class) {
+                if (defaultIoExecutor == null) {
+                    int threads = config.getMaxHttpConnectionsPerEndpoint();
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(), newDaemonThreadFactory("beowulfj-io"));
+                    executor.allowCoreThreadTimeOut(true);
+                    defaultIoExecutor = executor;
+                }
+            }
+        }
+
+        return defaultIoExecutor;
+    }
+
+    /**
+     * Get the scheduler used for timeouts and other delayed tasks. The tasks
+     * executed by this scheduler have to be short and must never block.
+     *
+     * @return The shared scheduler.
+     */
+    public static ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            synchronized (CommunicationExecutors.class) {
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(newDaemonThreadFactory("beowulfj-scheduler"));
+                }
+            }
+        }
+
+        return scheduler;
+    }
+
+    /**
+     * Run the given task on the given executor after a delay. The
+     * {@link #getScheduler() scheduler} only hands the task over, as it must
+     * not block.
+     *
+     * @param task       The task.
+     * @param delay      The delay.
+     * @param unit       The unit of the delay.
+     * @param executor   The executor that runs the task, e.g. the
+     *                   {@link #getAsyncExecutor() async executor} or the
+     *                   {@link #getIoExecutor() I/O executor} for blocking
+     *                   tasks.
+     * @param onRejected Called instead of the task if the scheduler or the
+     *                   executor rejected it, e.g. because it has been shut
+     *                   down.
+     */
+    public static void scheduleAsync(Runnable task, long delay, TimeUnit unit, Executor executor,
+                                     Consumer<RejectedExecutionException> onRejected) {
+        try {
+            getScheduler().schedule(() -> {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    onRejected.accept(e);
+                }
+            }, delay, unit);
+        } catch (RejectedExecutionException e) {
+            onRejected.accept(e);
+        }
+    }
+
+    /**
+     * Run the given task on the given executor repeatedly, like
+     * {@link ScheduledExecutorService#scheduleWithFixedDelay(Runnable, long, long, TimeUnit)}.
+     * A run is skipped while the previous run is still in progress, which
+     * lasts until the stage returned by the task completed, so runs do not
+     * pile up if the node answers slowly.
+     *
+     * @param task         The task, which returns a stage that completes once
+     *                     the run is over.
+     * @param initialDelay The delay of the first run.
+     * @param delay        The delay between the end of the scheduled hand
+     *                     over and the next one.
+     * @param unit         The unit of the delays.
+     * @param executor     The executor that runs the task.
+     * @return The future that cancels the repeated runs.
+     */
+    public static ScheduledFuture<?> scheduleAsyncWithFixedDelay(Supplier<? extends CompletionStage<?>> task,
+                                                                 long initialDelay, long delay, TimeUnit unit,
+                                                                 Executor executor) {
+        AtomicBoolean running = new AtomicBoolean();
+        return getScheduler().scheduleWithFixedDelay(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.get().whenComplete((result, throwable) -> running.set(false));
+                    } catch (RuntimeException e) {
+                        running.set(false);
+                        throw e;
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+            }
+        }, initialDelay, delay, unit);
+    }
+
+    /**
+     * Check if the runtime provides virtual threads, which requires Java 21
+     * or newer.
+     *
+     * @return <code>true</code> if virtual threads can be used.
+     */
+    public static boolean isVirtualThreadSupported() {
+        if (virtualThreadsSupported == null) {
+            boolean supported = false;
+            if (VIRTUAL_THREAD_EXECUTOR_FACTORY != null) {
+                try {
+                    // Virtual threads are a preview feature on Java 19 and 20
+                    // and can not be created unless previews are enabled.
+                    ((ExecutorService) VIRTUAL_THREAD_EXECUTOR_FACTORY.invoke()).shutdown();
+                    supported = true;
+                } catch (Throwable e) {
+                    supported = false;
+                }
+            }
+            virtualThreadsSupported = supported;
+        }
+
+        return virtualThreadsSupported;
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     * Callers that want to use the blocking API from many threads at once,
+     * e.g. one thread per watched account, can use it to run their tasks
+     * without tying up a platform thread per task.
+     *
+     * @return A new executor, which has to be shut down by the caller.
+     * @throws UnsupportedOperationException If the runtime does not provide
+     *                                       virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isVirtualThreadSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer.");
+        }
+
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR_FACTORY.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UnsupportedOperationException("Could not create a virtual thread executor.", e);
+        }
+    }
+
+    /**
+     * @return The handle of <code>Executors.newVirtualThreadPerTaskExecutor()</code>
+     * or <code>null</code> if the runtime does not provide it.
+     */
+    private static MethodHandle findVirtualThreadExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a {@link ThreadFactory} for daemon threads, so that BeowulfJ
+     * never prevents the JVM from shutting down.
+     *
+     * @param namePrefix The prefix of the thread names.
+     * @return A new thread factory.
+     */
+    public static ThreadFactory newDaemonThreadFactory(final String namePrefix) {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, namePrefix + "-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -17,45 +17,147 @@
 package com.beowulfchain.beowulfj.communication;
 
 import com.beowulfchain.beowulfj.base.models.serializer.BooleanSerializer;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.RawResultList;
 import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.enums.RequestPriority;
+import com.beowulfchain.beowulfj.enums.ResponseErrorType;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfConnectionException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.URI;
 import java.security.InvalidParameterException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
 
-public class CommunicationHandler {
+public class CommunicationHandler implements AutoCloseable {
     private static final Logger LOGGER = LoggerFactory.getLogger(CommunicationHandler.class);
+    /**
+     * The idempotent reads that may be sent to more than one endpoint.
+     */
+    private static final Set<RequestMethod> HEDGED_METHODS = Collections.unmodifiableSet(EnumSet.of(
+            RequestMethod.GET_BLOCK, RequestMethod.GET_ACCOUNTS, RequestMethod.GET_TRANSACTION,
+            RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES));
+    /**
+     * The methods that change the state of the chain and must never be
+     * coalesced.
+     */
+    private static final Set<RequestMethod> BROADCAST_METHODS = Collections.unmodifiableSet(EnumSet.of(
+            RequestMethod.BROADCAST_TRANSACTION, RequestMethod.BROADCAST_TRANSACTION_SYNCHRONOUS,
+            RequestMethod.BROADCAST_BLOCK));
+    /**
+     * The policy of calls that must only be sent once, because a failed
+     * attempt may still have taken effect on the node.
+     */
+    private static final RetryPolicy NO_RETRIES = new RetryPolicy(0, 0, 0);
+    /**
+     * The broadcasts whose answer can not be recovered once an attempt that
+     * may have reached the node failed, so they are never retried.
+     */
+    private static final Set<RequestMethod> UNREPEATABLE_METHODS = Collections.unmodifiableSet(EnumSet.of(
+            RequestMethod.BROADCAST_TRANSACTION_SYNCHRONOUS, RequestMethod.BROADCAST_BLOCK));
 
     /**
      * A preconfigured mapper instance used for de-/serialization of Json
      * objects.
      */
-    private static ObjectMapper mapper = getObjectMapper();
+    private static volatile ObjectMapper mapper;
+    /**
+     * The {@link ClientProvider} implementations found on the class path.
+     */
+    private static volatile List<ClientProvider> clientProviders;
+    /**
+     * The clients used to send requests, one pool per endpoint.
+     */
+    private final Map<URI, ClientPool> clients = new ConcurrentHashMap<>();
+    /**
+     * The selector that decides which endpoint a request is sent to.
+     */
+    private final EndpointSelector endpointSelector = new EndpointSelector();
+    /**
+     * The endpoints a background probe is currently running for.
+     */
+    private final Set<URI> probedEndpoints = ConcurrentHashMap.newKeySet();
+    /**
+     * The read requests currently in flight, keyed by method, parameters and
+     * result type, so identical concurrent calls can share one round-trip.
+     */
+    private final Map<String, CompletableFuture<List<?>>> inFlightRequests = new ConcurrentHashMap<>();
+    /**
+     * The task that regularly probes all endpoints.
+     */
+    private ScheduledFuture<?> endpointProbe;
+    /**
+     * The endpoints whose connections are currently warmed up.
+     */
+    private final Set<URI> warmingUpEndpoints = ConcurrentHashMap.newKeySet();
     /**
-     * A counter for failed connection tries.
+     * The task that regularly keeps the connections to all endpoints alive.
      */
-    private int numberOfConnectionTries = 0;
+    private ScheduledFuture<?> keepAlive;
     /**
-     * The client used to send requests.
+     * Set once this handler has been {@link #close() closed}, so background
+     * tasks that are already running do not open new connections.
      */
-    private AbstractClient client;
+    private volatile boolean closed;
+    /**
+     * The lock that serializes the (re-)initialization of the clients, which
+     * closes their connections. A monitor would pin virtual threads to their
+     * carrier thread while waiting for that.
+     */
+    private final Lock initializationLock = new ReentrantLock();
+    /**
+     * The cache for data of irreversible blocks or <code>null</code> if it is
+     * disabled.
+     */
+    private final IrreversibleCache irreversibleCache;
+    /**
+     * The last irreversible block reported by the nodes.
+     */
+    private final IrreversibleBlockTracker irreversibleBlockTracker = new IrreversibleBlockTracker();
 
     /**
      * Initialize the Connection Handler.
@@ -63,9 +165,7 @@ public class CommunicationHandler {
      * @throws BeowulfCommunicationException If no connection to the Beowulf Node could be established.
      */
     public CommunicationHandler() throws BeowulfCommunicationException {
-        BeowulfJConfig config = BeowulfJConfig.getInstance();
-        // Create a new connection
-        initializeNewClient(config);
+        this(BeowulfJConfig.getInstance());
     }
 
     /**
@@ -75,6 +175,7 @@ public class CommunicationHandler {
      * @throws BeowulfCommunicationException If no connection to the Beowulf Node could be established.
      */
     public CommunicationHandler(BeowulfJConfig config) throws BeowulfCommunicationException {
+        this.irreversibleCache = IrreversibleCache.of(config);
         // Create a new connection
         initializeNewClient(config);
     }
@@ -86,56 +187,155 @@ public class CommunicationHandler {
      */
     public static ObjectMapper getObjectMapper() {
         if (mapper == null) {
-            mapper = new ObjectMapper();
+            // Get the config before taking the lock, so the locks of both
+            // singletons are never held at the same time.
+            BeowulfJConfig config = BeowulfJConfig.getInstance();
+            synchronized (CommunicationHandler.class) {
+                if (mapper == null) {
+                    ObjectMapper newMapper = new ObjectMapper();
 
-            SimpleDateFormat simpleDateFormat = new SimpleDateFormat(BeowulfJConfig.getInstance().getDateTimePattern());
-            simpleDateFormat.setTimeZone(TimeZone.getTimeZone(BeowulfJConfig.getInstance().getTimeZoneId()));
+                    SimpleDateFormat simpleDateFormat = new SimpleDateFormat(config.getDateTimePattern());
+                    simpleDateFormat.setTimeZone(TimeZone.getTimeZone(config.getTimeZoneId()));
 
-            mapper.setDateFormat(simpleDateFormat);
-            mapper.setTimeZone(TimeZone.getTimeZone(BeowulfJConfig.getInstance().getTimeZoneId()));
-            mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+                    newMapper.setDateFormat(simpleDateFormat);
+                    newMapper.setTimeZone(TimeZone.getTimeZone(config.getTimeZoneId()));
+                    newMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
 
-            SimpleModule simpleModule = new SimpleModule("BooleanAsString", new Version(1, 0, 0, null, null, null));
-            simpleModule.addSerializer(Boolean.class, new BooleanSerializer());
-            simpleModule.addSerializer(boolean.class, new BooleanSerializer());
+                    SimpleModule simpleModule = new SimpleModule("BooleanAsString",
+                            new Version(1, 0, 0, null, null, null));
+                    simpleModule.addSerializer(Boolean.class, new BooleanSerializer());
+                    simpleModule.addSerializer(boolean.class, new BooleanSerializer());
 
-            mapper.registerModule(simpleModule);
+                    newMapper.registerModule(simpleModule);
+                    // Only publish the mapper once it is fully configured.
+                    mapper = newMapper;
+                }
+            }
         }
 
         return mapper;
     }
 
     /**
-     * Initialize a new <code>client</code> by selecting one of the configured
-     * endpoints.
+     * Initialize new clients for the configured endpoints, connect to all of
+     * them and start probing them in the background.
      *
      * @param config The config of beowulf blockchain.
      * @throws BeowulfCommunicationException If no {@link AbstractClient} implementation for the given
      *                                       schema is available.
      */
     public void initializeNewClient(BeowulfJConfig config) throws BeowulfCommunicationException {
-        if (client != null) {
-            try {
-                client.closeConnection();
-            } catch (IOException e) {
-                throw new BeowulfCommunicationException("Could not close the current client connection.", e);
+        initializationLock.lock();
+        try {
+            closed = false;
+            closeClients();
+
+            for (Pair<URI, Boolean> endpoint : config.getEndpointURIs()) {
+                // Fail early for unsupported protocols.
+                getClient(endpoint.getLeft());
             }
+
+            if (endpointProbe != null) {
+                endpointProbe.cancel(false);
+                endpointProbe = null;
+            }
+            if (config.getEndpointProbeInterval() > 0) {
+                endpointProbe = CommunicationExecutors.getScheduler().scheduleWithFixedDelay(this::probeEndpoints,
+                        config.getEndpointProbeInterval(), config.getEndpointProbeInterval(), TimeUnit.MILLISECONDS);
+            }
+
+            if (keepAlive != null) {
+                keepAlive.cancel(false);
+                keepAlive = null;
+            }
+            if (config.isConnectionWarmUpEnabled()) {
+                warmUpEndpoints(config.getEndpointURIs());
+                if (config.getKeepAliveInterval() > 0) {
+                    keepAlive = CommunicationExecutors.getScheduler().scheduleWithFixedDelay(
+                            () -> warmUpEndpoints(BeowulfJConfig.getInstance().getEndpointURIs()),
+                            config.getKeepAliveInterval(), config.getKeepAliveInterval(), TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            initializationLock.unlock();
         }
-        if (numberOfConnectionTries >= config.getEndpointURIs().size()) {
-            numberOfConnectionTries = 0;
+    }
+
+    /**
+     * Stop probing the endpoints and keeping their connections alive, and
+     * close all connections. The scheduler holds on to the background tasks
+     * of a handler, so a handler that is not used anymore has to be closed
+     * explicitly.
+     *
+     * @throws BeowulfCommunicationException If a client could not be closed.
+     */
+    @Override
+    public void close() throws BeowulfCommunicationException {
+        initializationLock.lock();
+        try {
+            closed = true;
+            if (endpointProbe != null) {
+                endpointProbe.cancel(false);
+                endpointProbe = null;
+            }
+            if (keepAlive != null) {
+                keepAlive.cancel(false);
+                keepAlive = null;
+            }
+
+            closeClients();
+        } finally {
+            initializationLock.unlock();
         }
+    }
 
-        // Get a new endpoint URI based on the number of retries.
-        Pair<URI, Boolean> endpoint = config.getNextEndpointURI(numberOfConnectionTries);
+    /**
+     * Get the selector that decides which endpoint a request is sent to and
+     * that keeps track of the health of all endpoints.
+     *
+     * @return The endpoint selector.
+     */
+    public EndpointSelector getEndpointSelector() {
+        return endpointSelector;
+    }
 
-        if (endpoint.getLeft().getScheme().toLowerCase().matches("(http){1}[s]?")) {
-            client = new HttpClient();
-        } else if (endpoint.getLeft().getScheme().toLowerCase().matches("(ws){1}[s]?")) {
-            client = new WebsocketClient();
-        } else {
-            throw new InvalidParameterException("No client implementation for the following protocol available: "
-                    + endpoint.getLeft().getScheme().toLowerCase());
+    /**
+     * Get the cache for data of irreversible blocks.
+     *
+     * @return The cache or <code>null</code> if it is disabled (see
+     * {@link BeowulfJConfig#setIrreversibleCacheSize(int)}).
+     */
+    public IrreversibleCache getIrreversibleCache() {
+        return irreversibleCache;
+    }
+
+    /**
+     * Get the last irreversible block reported by the nodes.
+     *
+     * @return The tracker of the last irreversible block.
+     */
+    public IrreversibleBlockTracker getIrreversibleBlockTracker() {
+        return irreversibleBlockTracker;
+    }
+
+    /**
+     * Check if the given block can not be reverted anymore. The last
+     * irreversible block number is fetched from the node if the block is
+     * above it and it has not been updated recently.
+     *
+     * @param blockNumber The number of the block.
+     * @return <code>true</code> if the block is irreversible.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    public boolean isIrreversible(long blockNumber) throws BeowulfCommunicationException, BeowulfResponseException {
+        if (blockNumber > 0 && !irreversibleBlockTracker.isIrreversible(blockNumber)
+                && irreversibleBlockTracker.isLastIrreversibleBlockNumberOutdated()) {
+            irreversibleBlockTracker.recordLastIrreversibleBlockNumber(getLastIrreversibleBlockNumber(
+                    performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                            RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, Collections.emptyList()), JsonNode.class)));
         }
+        return irreversibleBlockTracker.isIrreversible(blockNumber);
     }
 
     /**
@@ -155,29 +355,1376 @@ public class CommunicationHandler {
      *                                        Java object.
      * @throws BeowulfResponseException       If the Server returned an error object.
      */
+    @SuppressWarnings("unchecked")
     public <T> List<T> performRequest(JsonRPCRequest requestObject, Class<T> targetClass)
             throws BeowulfCommunicationException, BeowulfResponseException {
+        String coalescingKey = getCoalescingKey(requestObject, targetClass);
+        if (coalescingKey == null) {
+            return performSingleRequest(requestObject, targetClass);
+        }
+
+        CompletableFuture<List<?>> call = new CompletableFuture<>();
+        CompletableFuture<List<?>> inFlightCall = inFlightRequests.putIfAbsent(coalescingKey, call);
+        if (inFlightCall != null) {
+            LOGGER.debug("Joining the identical {} request that is already in flight.", requestObject.getMethod());
+            try {
+                return awaitResult((CompletableFuture<List<T>>) (CompletableFuture<?>) inFlightCall,
+                        requestObject.getDeadline());
+            } catch (SharedDeadlineExpiredException e) {
+                logResend(requestObject);
+                return performRequest(requestObject, targetClass);
+            }
+        }
+
+        try {
+            List<T> result = performSingleRequest(requestObject, targetClass);
+            inFlightRequests.remove(coalescingKey, call);
+            call.complete(result);
+            return result;
+        } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+            inFlightRequests.remove(coalescingKey, call);
+            call.completeExceptionally(getSharedFailure(e, requestObject.getDeadline()));
+            throw e;
+        }
+    }
+
+    /**
+     * Like {@link #performRequest(JsonRPCRequest, Class)}, but for requests
+     * whose result does not change anymore once the block it belongs to is
+     * irreversible. Such results are answered from the
+     * {@link IrreversibleCache} if it is enabled.
+     *
+     * @param requestObject A request object that contains all needed parameters.
+     * @param targetClass   The type the response should be transformed to.
+     * @param blockNumberOf Returns the number of the block a result belongs to
+     *                      or <code>0</code> if unknown.
+     * @param <T>           The type that should be returned.
+     * @return The server response transformed into a list of given objects.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    public <T> List<T> performCachedRequest(JsonRPCRequest requestObject, Class<T> targetClass,
+                                            ToLongFunction<T> blockNumberOf)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        String key = irreversibleCache == null ? null : getRequestKey(requestObject, targetClass);
+        if (key == null) {
+            return performRequest(requestObject, targetClass);
+        }
+
+        JavaType resultType = getResultType(targetClass);
+        List<T> cachedResult = irreversibleCache.get(key, resultType);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+
+        // Keep the JSON the result is read from, so it can be cached off the
+        // heap without serializing it again.
+        requestObject.setRawResultKept(true);
+        List<T> rawResultList = performRequest(requestObject, targetClass);
+        byte[] rawResult = getRawResult(rawResultList);
+        List<T> result = new ArrayList<>(rawResultList);
+
+        if (rawResult == null) {
+            return result;
+        }
+
         try {
-            Pair<URI, Boolean> endpoint = BeowulfJConfig.getInstance().getNextEndpointURI(numberOfConnectionTries++);
-            JsonRPCResponse rawJsonResponse = client.invokeAndReadResponse(requestObject, endpoint.getLeft(),
-                    endpoint.getRight());
-            LOGGER.debug("Received {} ", rawJsonResponse);
+            if (isIrreversible(getBlockNumber(result, blockNumberOf))) {
+                irreversibleCache.put(key, rawResult, result);
+            }
+        } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+            LOGGER.debug("Could not fetch the last irreversible block. The result will not be cached.", e);
+        }
+        return result;
+    }
+
+    /**
+     * Perform a request without sharing it with identical requests that are
+     * already in flight.
+     *
+     * @param requestObject A request object that contains all needed parameters.
+     * @param targetClass   The type the response should be transformed to.
+     * @param <T>           The type that should be returned.
+     * @return The server response transformed into a list of given objects.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    private <T> List<T> performSingleRequest(JsonRPCRequest requestObject, Class<T> targetClass)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        if (isHedgingEnabled(requestObject)) {
+            CompletableFuture<List<T>> result = performSingleRequestAsync(requestObject, targetClass, null);
+            try {
+                return awaitResult(result, null);
+            } finally {
+                // Drop the requests that are still in flight if the caller
+                // has been interrupted.
+                result.cancel(false);
+            }
+        }
+
+        // Read the result as part of the attempt, so temporary errors of the
+        // node are retried like transport failures.
+        JavaType resultType = getResultType(requestObject, targetClass);
+        AtomicInteger attempts = new AtomicInteger();
+        return invokeWithRetry((client, endpoint) -> {
+            boolean retried = attempts.getAndIncrement() > 0;
+            try {
+                return readResult(requestObject, targetClass,
+                        client.invokeAndReadResponse(requestObject, endpoint.getLeft(), endpoint.getRight(), resultType));
+            } catch (BeowulfResponseException e) {
+                if (retried && isAcceptedByEarlierAttempt(requestObject, e)) {
+                    return new ArrayList<>();
+                }
+                throw e;
+            }
+        }, requestObject.getPriority(), 1, requestObject.getDeadline(), Collections.emptySet(),
+                getRetryPolicy(requestObject));
+    }
+
+    /**
+     * Send all requests of the given <code>batchRequest</code> to the node in
+     * a single message. The typed result of each request can be read from the
+     * returned {@link JsonRPCBatchResponse} using
+     * {@link JsonRPCBatchResponse#getResult(JsonRPCRequest, Class)}, which
+     * throws the error the node returned for that request only.
+     *
+     * @param batchRequest The batch containing all requests to send.
+     * @return The responses of the node.
+     * @throws BeowulfTimeoutException       If the server was not able to answer the request in the given
+     *                                       time (@see
+     *                                       {@link BeowulfJConfig#setResponseTimeout(int)
+     *                                       setResponseTimeout()})
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the node did not answer with a batch response.
+     */
+    public JsonRPCBatchResponse performBatchRequest(JsonRPCBatchRequest batchRequest)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        if (batchRequest.isEmpty()) {
+            // The specification does not allow empty batches.
+            return new JsonRPCBatchResponse(getObjectMapper().createArrayNode());
+        }
+
+        // Every request of the batch costs the node as much as a single
+        // request.
+        JsonRPCBatchResponse batchResponse = invokeWithRetry((client, endpoint) ->
+                        client.invokeAndReadBatchResponse(batchRequest, endpoint.getLeft(), endpoint.getRight()),
+                batchRequest.getPriority(), batchRequest.size(), batchRequest.getDeadline(), Collections.emptySet());
+
+        LOGGER.debug("Received {} responses for a batch of {} requests.", batchResponse.size(), batchRequest.size());
+
+        return batchResponse;
+    }
+
+    /**
+     * Register a subscription for notices pushed by the node, e.g. for every
+     * applied block. The notices are delivered to the
+     * {@link NoticeListener} of the <code>subscription</code> until it is
+     * {@link Subscription#cancel() cancelled} or the connection is closed.
+     * <p>
+     * Only <code>ws</code> and <code>wss</code> endpoints are able to push
+     * notices, so all other endpoints are skipped.
+     * <p>
+     * The subscription is not retried: a registration that failed, e.g. by
+     * timing out, may still have been registered by the node, and
+     * registering the same callback id at another endpoint would deliver
+     * every notice twice.
+     *
+     * @param requestObject The request registering the subscription, which
+     *                      contains the
+     *                      {@link Subscription#getCallbackId() callback id}.
+     * @param subscription  The subscription the notices should be routed to.
+     * @throws BeowulfCommunicationException If no websocket endpoint is configured or there is a
+     *                                       connection problem.
+     * @throws BeowulfResponseException      If the node rejected the subscription.
+     */
+    public void subscribe(JsonRPCRequest requestObject, Subscription<?> subscription)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        List<Pair<URI, Boolean>> endpoints = BeowulfJConfig.getInstance().getEndpointURIs();
+
+        Set<URI> ineligibleEndpoints = new HashSet<>();
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            String scheme = endpoint.getLeft().getScheme().toLowerCase();
+            if (!"ws".equals(scheme) && !"wss".equals(scheme)) {
+                ineligibleEndpoints.add(endpoint.getLeft());
+            }
+        }
+
+        if (ineligibleEndpoints.size() == endpoints.size()) {
+            throw new BeowulfCommunicationException("Subscriptions require at least one websocket endpoint.");
+        }
+
+        invokeWithRetry((client, endpoint) -> {
+            client.subscribe(requestObject, endpoint.getLeft(), endpoint.getRight(), subscription);
+            return null;
+        }, requestObject.getPriority(), 1, requestObject.getDeadline(), ineligibleEndpoints, NO_RETRIES);
+    }
+
+    /**
+     * Like {@link #performRequest(JsonRPCRequest, Class)}, but returns
+     * immediately instead of blocking the calling thread until the response
+     * has been received.
+     * <p>
+     * Failed requests are retried according to the configured
+     * {@link BeowulfJConfig#setRetryPolicy(RetryPolicy) retry policy}, just
+     * like the blocking variant does, but without blocking a thread while
+     * waiting for the next attempt. The future fails with a
+     * {@link com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException}
+     * once the {@link JsonRPCRequest#getDeadline() deadline} of the request
+     * expired. Cancelling the future stops all further attempts and drops
+     * the request from the transport.
+     *
+     * @param requestObject A request object that contains all needed parameters.
+     * @param targetClass   The type the response should be transformed to.
+     * @param <T>           The type that should be returned.
+     * @return A future that is completed with the server response transformed
+     * into a list of given objects, or exceptionally with the
+     * {@link BeowulfCommunicationException} or
+     * {@link BeowulfResponseException} that
+     * {@link #performRequest(JsonRPCRequest, Class)} would throw.
+     */
+    public <T> CompletableFuture<List<T>> performRequestAsync(JsonRPCRequest requestObject, Class<T> targetClass) {
+        return performRequestAsync(requestObject, targetClass, null);
+    }
+
+    /**
+     * Like {@link #performRequestAsync(JsonRPCRequest, Class)}, but sends the
+     * first attempt to the given endpoint as long as it is healthy, e.g. to
+     * spread a bulk download across all endpoints. Retries fail over to the
+     * other endpoints as usual.
+     *
+     * @param requestObject     A request object that contains all needed parameters.
+     * @param targetClass       The type the response should be transformed to.
+     * @param preferredEndpoint The endpoint to send the request to or
+     *                          <code>null</code> to use the best endpoint.
+     * @param <T>               The type that should be returned.
+     * @return A future that is completed with the server response transformed
+     * into a list of given objects, or exceptionally with the exception the
+     * blocking variant would throw.
+     * @see EndpointSelector#getHealthyEndpoints(List)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<List<T>> performRequestAsync(JsonRPCRequest requestObject, Class<T> targetClass,
+                                                              @Nullable URI preferredEndpoint) {
+        String coalescingKey = getCoalescingKey(requestObject, targetClass);
+        if (coalescingKey == null) {
+            return performSingleRequestAsync(requestObject, targetClass, preferredEndpoint);
+        }
+
+        CompletableFuture<List<?>> call = new CompletableFuture<>();
+        CompletableFuture<List<?>> inFlightCall = inFlightRequests.putIfAbsent(coalescingKey, call);
+        boolean joined = inFlightCall != null;
+        if (joined) {
+            LOGGER.debug("Joining the identical {} request that is already in flight.", requestObject.getMethod());
+        } else {
+            inFlightCall = call;
+            performSingleRequestAsync(requestObject, targetClass, preferredEndpoint).whenComplete((result, throwable) -> {
+                inFlightRequests.remove(coalescingKey, call);
+                if (throwable != null) {
+                    call.completeExceptionally(getSharedFailure(throwable, requestObject.getDeadline()));
+                } else {
+                    call.complete(result);
+                }
+            });
+        }
+
+        // Hand out a separate future, so a caller cancelling its future does
+        // not affect the other callers sharing the request.
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        applyDeadline(result, requestObject.getDeadline());
+        inFlightCall.whenComplete((sharedResult, throwable) -> {
+            Throwable cause = unwrap(throwable);
+            if (cause == null) {
+                result.complete((List<T>) sharedResult);
+            } else if (!(cause instanceof SharedDeadlineExpiredException)) {
+                result.completeExceptionally(cause);
+            } else if (!joined) {
+                result.completeExceptionally(cause.getCause());
+            } else if (!result.isDone()) {
+                logResend(requestObject);
+                CompletableFuture<List<T>> resentCall = performRequestAsync(requestObject, targetClass,
+                        preferredEndpoint);
+                result.whenComplete((response, resentThrowable) -> resentCall.cancel(false));
+                resentCall.whenComplete((response, resentThrowable) -> {
+                    if (resentThrowable != null) {
+                        result.completeExceptionally(unwrap(resentThrowable));
+                    } else {
+                        result.complete(response);
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link #performCachedRequest(JsonRPCRequest, Class, ToLongFunction)}.
+     * If the last irreversible block number is outdated, it is fetched in the
+     * background before the result is cached, so the caller does not have to
+     * wait for it.
+     *
+     * @param requestObject A request object that contains all needed parameters.
+     * @param targetClass   The type the response should be transformed to.
+     * @param blockNumberOf Returns the number of the block a result belongs to
+     *                      or <code>0</code> if unknown.
+     * @param <T>           The type that should be returned.
+     * @return A future that is completed with the server response transformed
+     * into a list of given objects, or exceptionally with the exception the
+     * blocking variant would throw.
+     */
+    public <T> CompletableFuture<List<T>> performCachedRequestAsync(JsonRPCRequest requestObject,
+                                                                    Class<T> targetClass,
+                                                                    ToLongFunction<T> blockNumberOf) {
+        return performCachedRequestAsync(requestObject, targetClass, blockNumberOf, null);
+    }
+
+    /**
+     * Like
+     * {@link #performCachedRequestAsync(JsonRPCRequest, Class, ToLongFunction)},
+     * but a request that can not be answered from the cache is sent to the
+     * given endpoint first, see
+     * {@link #performRequestAsync(JsonRPCRequest, Class, URI)}.
+     *
+     * @param requestObject     A request object that contains all needed parameters.
+     * @param targetClass       The type the response should be transformed to.
+     * @param blockNumberOf     Returns the number of the block a result belongs to
+     *                          or <code>0</code> if unknown.
+     * @param preferredEndpoint The endpoint to send the request to or
+     *                          <code>null</code> to use the best endpoint.
+     * @param <T>               The type that should be returned.
+     * @return A future that is completed with the server response transformed
+     * into a list of given objects, or exceptionally with the exception the
+     * blocking variant would throw.
+     */
+    public <T> CompletableFuture<List<T>> performCachedRequestAsync(JsonRPCRequest requestObject,
+                                                                    Class<T> targetClass,
+                                                                    ToLongFunction<T> blockNumberOf,
+                                                                    @Nullable URI preferredEndpoint) {
+        String key = irreversibleCache == null ? null : getRequestKey(requestObject, targetClass);
+        if (key == null) {
+            return performRequestAsync(requestObject, targetClass, preferredEndpoint);
+        }
+
+        JavaType resultType = getResultType(targetClass);
+        List<T> cachedResult = irreversibleCache.get(key, resultType);
+        if (cachedResult != null) {
+            return CompletableFuture.completedFuture(cachedResult);
+        }
+
+        requestObject.setRawResultKept(true);
+        return performRequestAsync(requestObject, targetClass, preferredEndpoint).thenApply(rawResultList -> {
+            byte[] rawResult = getRawResult(rawResultList);
+            List<T> result = new ArrayList<>(rawResultList);
+            if (rawResult == null) {
+                return result;
+            }
+
+            long blockNumber = getBlockNumber(result, blockNumberOf);
+            if (irreversibleBlockTracker.isIrreversible(blockNumber)) {
+                irreversibleCache.put(key, rawResult, result);
+            } else if (blockNumber > 0 && irreversibleBlockTracker.isLastIrreversibleBlockNumberOutdated()) {
+                performRequestAsync(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                        RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, Collections.emptyList()), JsonNode.class)
+                        .thenAccept(properties -> {
+                            irreversibleBlockTracker.recordLastIrreversibleBlockNumber(
+                                    getLastIrreversibleBlockNumber(properties));
+                            if (irreversibleBlockTracker.isIrreversible(blockNumber)) {
+                                irreversibleCache.put(key, rawResult, result);
+                            }
+                        });
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Like {@link #performRequestAsync(JsonRPCRequest, Class, URI)}, but
+     * without sharing the request with identical requests that are already in
+     * flight.
+     *
+     * @param requestObject     A request object that contains all needed parameters.
+     * @param targetClass       The type the response should be transformed to.
+     * @param preferredEndpoint The endpoint to send the first attempt to or
+     *                          <code>null</code> to use the best endpoint.
+     * @param <T>               The type that should be returned.
+     * @return A future that is completed with the server response.
+     */
+    private <T> CompletableFuture<List<T>> performSingleRequestAsync(JsonRPCRequest requestObject,
+                                                                     Class<T> targetClass,
+                                                                     @Nullable URI preferredEndpoint) {
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        applyDeadline(result, requestObject.getDeadline());
+        performRequestAsync(requestObject, targetClass, new CopyOnWriteArrayList<>(), 0, preferredEndpoint, result);
+        return result;
+    }
+
+    /**
+     * Fail the given future once the deadline expired.
+     *
+     * @param result   The future to fail.
+     * @param deadline The deadline or <code>null</code> if the future should
+     *                 not be limited.
+     */
+    private static void applyDeadline(CompletableFuture<?> result, @Nullable Deadline deadline) {
+        if (deadline == null) {
+            return;
+        }
+
+        try {
+            ScheduledFuture<?> expiry = CommunicationExecutors.getScheduler().schedule(() ->
+                            result.completeExceptionally(deadline.createExpiredException(null)),
+                    deadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            result.whenComplete((response, throwable) -> expiry.cancel(false));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(deadline.createExpiredException(e));
+        }
+    }
+
+    /**
+     * Send the request to the preferred or the best endpoint that did not
+     * fail yet and complete the <code>result</code> once the response has
+     * been received.
+     * If hedging is enabled for the request, it is also sent to a second
+     * endpoint once the first one did not answer in time.
+     *
+     * @param requestObject   A request object that contains all needed parameters.
+     * @param targetClass     The type the response should be transformed to.
+     * @param failedEndpoints   The endpoints that already failed to answer the request.
+     * @param failedAttempts    The number of attempts that failed so far.
+     * @param preferredEndpoint The endpoint to use if it is healthy or
+     *                          <code>null</code> to use the best endpoint.
+     * @param result            The future to complete.
+     * @param <T>               The type that should be returned.
+     */
+    private <T> void performRequestAsync(JsonRPCRequest requestObject, Class<T> targetClass,
+                                         List<URI> failedEndpoints, int failedAttempts,
+                                         @Nullable URI preferredEndpoint, CompletableFuture<List<T>> result) {
+        // The result is already done if the caller cancelled it or the
+        // deadline expired.
+        if (result.isDone()) {
+            return;
+        }
+
+        EndpointPermission endpoint = selectEndpoint(failedEndpoints, preferredEndpoint);
+        if (endpoint == null) {
+            retryAsync(requestObject, targetClass, failedEndpoints, failedAttempts, createNoEndpointException(), result);
+            return;
+        }
+
+        // The number of requests of this attempt that are still in flight.
+        AtomicInteger pendingRequests = new AtomicInteger(1);
+        sendAsync(requestObject, targetClass, endpoint, failedEndpoints, failedAttempts, pendingRequests, result);
+
+        long hedgeDelay = getHedgeDelay(requestObject, endpoint.getEndpointUri());
+        if (hedgeDelay >= 0) {
+            CommunicationExecutors.getScheduler().schedule(() -> {
+                List<URI> excludedEndpoints = new ArrayList<>(failedEndpoints);
+                excludedEndpoints.add(endpoint.getEndpointUri());
+                // Do not hedge if the attempt is already over.
+                if (result.isDone() || pendingRequests.getAndUpdate(pending -> pending == 0 ? 0 : pending + 1) == 0) {
+                    return;
+                }
+
+                EndpointPermission hedgeEndpoint = endpointSelector.select(
+                        BeowulfJConfig.getInstance().getEndpointURIs(), excludedEndpoints);
+                if (hedgeEndpoint == null) {
+                    pendingRequests.decrementAndGet();
+                    return;
+                }
+
+                LOGGER.debug("{} did not answer within {} ms. Hedging the request to {}.",
+                        endpoint.getEndpointUri(), hedgeDelay, hedgeEndpoint.getEndpointUri());
+                try {
+                    CommunicationExecutors.getAsyncExecutor().execute(() -> sendAsync(requestObject, targetClass,
+                            hedgeEndpoint, failedEndpoints, failedAttempts, pendingRequests, result));
+                } catch (RejectedExecutionException e) {
+                    endpointSelector.recordFailure(hedgeEndpoint);
+                    pendingRequests.decrementAndGet();
+                }
+            }, hedgeDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send the request to the given endpoint and complete the
+     * <code>result</code> with the answer, unless another request of the same
+     * attempt answered first.
+     *
+     * @param requestObject   A request object that contains all needed parameters.
+     * @param targetClass     The type the response should be transformed to.
+     * @param endpoint        The endpoint to send the request to.
+     * @param failedEndpoints The endpoints that already failed to answer the request.
+     * @param failedAttempts  The number of attempts that failed so far.
+     * @param pendingRequests The number of requests of this attempt that are still in flight.
+     * @param result          The future to complete.
+     * @param <T>             The type that should be returned.
+     */
+    private <T> void sendAsync(JsonRPCRequest requestObject, Class<T> targetClass, EndpointPermission endpoint,
+                               List<URI> failedEndpoints, int failedAttempts, AtomicInteger pendingRequests,
+                               CompletableFuture<List<T>> result) {
+        CompletableFuture<Void> permit = endpointSelector.getHealth(endpoint.getEndpointUri()).getRateLimiter()
+                .acquireAsync(requestObject.getPriority(), 1);
+        if (permit.isDone()) {
+            invokeAsync(requestObject, targetClass, endpoint, failedEndpoints, failedAttempts, pendingRequests, result);
+            return;
+        }
+
+        // Do not occupy the place in the queue if another request of the
+        // attempt answered in the meantime.
+        result.whenComplete((response, throwable) -> permit.cancel(false));
+        permit.whenCompleteAsync((granted, throwable) -> {
+            if (permit.isCancelled()) {
+                endpointSelector.releasePermission(endpoint);
+                pendingRequests.decrementAndGet();
+                return;
+            }
+            invokeAsync(requestObject, targetClass, endpoint, failedEndpoints, failedAttempts, pendingRequests, result);
+        }, CommunicationExecutors.getAsyncExecutor());
+    }
+
+    /**
+     * Send the request to the given endpoint once the rate limiter granted
+     * the permit.
+     *
+     * @param requestObject   A request object that contains all needed parameters.
+     * @param targetClass     The type the response should be transformed to.
+     * @param endpoint        The endpoint to send the request to.
+     * @param failedEndpoints The endpoints that already failed to answer the request.
+     * @param failedAttempts  The number of attempts that failed so far.
+     * @param pendingRequests The number of requests of this attempt that are still in flight.
+     * @param result          The future to complete.
+     * @param <T>             The type that should be returned.
+     */
+    private <T> void invokeAsync(JsonRPCRequest requestObject, Class<T> targetClass, EndpointPermission endpoint,
+                                 List<URI> failedEndpoints, int failedAttempts, AtomicInteger pendingRequests,
+                                 CompletableFuture<List<T>> result) {
+        long start = System.nanoTime();
+        CompletableFuture<JsonRPCResponse> response;
+        try {
+            response = getClient(endpoint.getEndpointUri()).invokeAndReadResponseAsync(requestObject,
+                    endpoint.getEndpointUri(), endpoint.getEndpoint().getRight(),
+                    getResultType(requestObject, targetClass));
+        } catch (RuntimeException e) {
+            endpointSelector.recordFailure(endpoint);
+            pendingRequests.decrementAndGet();
+            result.completeExceptionally(e);
+            return;
+        }
+
+        // Tell the client that nobody waits for the answer anymore once
+        // another request of the attempt answered, the deadline expired or
+        // the caller cancelled the result.
+        result.whenComplete((ignored, throwable) -> response.cancel(false));
+
+        // Continue on the async executor, so neither the deserialization nor
+        // the callbacks of the caller block the I/O threads of the client.
+        response.whenCompleteAsync((rawJsonResponse, throwable) -> {
+            if (response.isCancelled()) {
+                // Nobody waited for the answer, which says nothing about the
+                // endpoint.
+                endpointSelector.releasePermission(endpoint);
+                pendingRequests.decrementAndGet();
+                return;
+            }
+
+            Throwable cause = unwrap(throwable);
+            if (cause == null && rawJsonResponse.isError()) {
+                try {
+                    cause = rawJsonResponse.handleError(requestObject.getId());
+                } catch (BeowulfCommunicationException e) {
+                    // Reported by reading the result below.
+                }
+            }
+
+            if (failedAttempts > 0 && isAcceptedByEarlierAttempt(requestObject, cause)) {
+                endpointSelector.recordSuccess(endpoint, System.nanoTime() - start);
+                pendingRequests.decrementAndGet();
+                result.complete(new ArrayList<>());
+                return;
+            } else if (cause != null && getRetryPolicy(requestObject).isRetryable(cause)) {
+                endpointSelector.recordFailure(endpoint);
+                failedEndpoints.add(endpoint.getEndpointUri());
+                // Only retry once all requests of this attempt failed.
+                if (pendingRequests.decrementAndGet() == 0 && !result.isDone()) {
+                    retryAsync(requestObject, targetClass, failedEndpoints, failedAttempts, cause, result);
+                }
+                return;
+            }
+
+            // The node answered, even if the answer may be an error.
+            endpointSelector.recordSuccess(endpoint, System.nanoTime() - start);
+            pendingRequests.decrementAndGet();
+            if (result.isDone()) {
+                return;
+            } else if (cause != null) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            try {
+                result.complete(readResult(requestObject, targetClass, rawJsonResponse));
+            } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, CommunicationExecutors.getAsyncExecutor());
+    }
+
+    /**
+     * Check if the given request should be hedged.
+     *
+     * @param requestObject The request to check.
+     * @return <code>true</code> if hedging is enabled and the request is an
+     * idempotent read that may be sent to more than one endpoint.
+     */
+    private boolean isHedgingEnabled(JsonRPCRequest requestObject) {
+        return BeowulfJConfig.getInstance().getHedgedReadPercentile() > 0
+                && BeowulfJConfig.getInstance().getEndpointURIs().size() > 1
+                && HEDGED_METHODS.contains(requestObject.getRequestMethod());
+    }
 
-            if (rawJsonResponse.isError()) {
-                throw rawJsonResponse.handleError(requestObject.getId());
+    /**
+     * Calculate the time after which the request should be sent to a second
+     * endpoint.
+     *
+     * @param requestObject The request.
+     * @param endpointUri   The endpoint the request has been sent to.
+     * @return The time in milliseconds or <code>-1</code> if the request
+     * should not be hedged, e.g. because the latency of the endpoint is not
+     * known yet.
+     */
+    private long getHedgeDelay(JsonRPCRequest requestObject, URI endpointUri) {
+        if (!isHedgingEnabled(requestObject)) {
+            return -1;
+        }
+
+        long latencyNanos = endpointSelector.getHealth(endpointUri)
+                .getLatencyPercentile(BeowulfJConfig.getInstance().getHedgedReadPercentile());
+        return latencyNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    }
+
+    /**
+     * Calculate the key under which identical requests are coalesced.
+     *
+     * @param requestObject The request.
+     * @param targetClass   The type the response should be transformed to.
+     * @return The key or <code>null</code> if the request must not be shared
+     * with other callers.
+     */
+    private String getCoalescingKey(JsonRPCRequest requestObject, Class<?> targetClass) {
+        if (!BeowulfJConfig.getInstance().isRequestCoalescingEnabled()
+                || BROADCAST_METHODS.contains(requestObject.getRequestMethod())) {
+            return null;
+        }
+
+        String requestKey = getRequestKey(requestObject, targetClass);
+        // A result that keeps its JSON can not be shared with a request that
+        // did not ask for it and the other way round.
+        return requestKey == null || !requestObject.isRawResultKept() ? requestKey : requestKey + " raw";
+    }
+
+    /**
+     * Calculate a key that identifies the result of the given request.
+     *
+     * @param requestObject The request.
+     * @param targetClass   The type the response should be transformed to.
+     * @return The key or <code>null</code> if the parameters of the request
+     * can not be serialized.
+     */
+    private String getRequestKey(JsonRPCRequest requestObject, Class<?> targetClass) {
+        try {
+            return requestObject.getMethod() + " " + getObjectMapper().writeValueAsString(requestObject.getParams())
+                    + " " + targetClass.getName();
+        } catch (JsonProcessingException e) {
+            LOGGER.debug("Could not serialize the parameters of {}. The request will not be coalesced or cached.",
+                    requestObject.getMethod(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the failure to hand to the callers sharing a request. If the
+     * request timed out under the deadline of the caller that sent it, the
+     * other callers may still have time left, so they are told to send the
+     * request again under their own deadline.
+     *
+     * @param failure  The reason why the request failed.
+     * @param deadline The deadline of the caller that sent the request or
+     *                 <code>null</code>.
+     * @return The failure for the callers sharing the request.
+     */
+    private static Throwable getSharedFailure(Throwable failure, @Nullable Deadline deadline) {
+        Throwable cause = unwrap(failure);
+        if (deadline != null && cause instanceof BeowulfTimeoutException) {
+            return new SharedDeadlineExpiredException((BeowulfTimeoutException) cause);
+        }
+        return cause;
+    }
+
+    /**
+     * @param throwable The failure of a future or <code>null</code>.
+     * @return The failure without the {@link CompletionException} wrapping
+     * it.
+     */
+    private static Throwable unwrap(@Nullable Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * @param requestObject The request that is sent again.
+     */
+    private static void logResend(JsonRPCRequest requestObject) {
+        LOGGER.debug("The shared {} request expired with the deadline of its sender. Sending it again.",
+                requestObject.getMethod());
+    }
+
+    /**
+     * @param result The result of a request that kept its JSON.
+     * @return The JSON the result has been read from or <code>null</code> if
+     * the node did not return a result.
+     */
+    @Nullable
+    private static byte[] getRawResult(List<?> result) {
+        return result instanceof RawResultList ? ((RawResultList<?>) result).getRawResult() : null;
+    }
+
+    /**
+     * @param result        The result of a request.
+     * @param blockNumberOf Returns the number of the block a result belongs to.
+     * @param <T>           The type of the result elements.
+     * @return The number of the block the result belongs to or <code>0</code>
+     * if the result is empty.
+     */
+    private static <T> long getBlockNumber(List<T> result, ToLongFunction<T> blockNumberOf) {
+        return result.isEmpty() || result.get(0) == null ? 0 : blockNumberOf.applyAsLong(result.get(0));
+    }
+
+    /**
+     * @param properties The dynamic global properties as JSON.
+     * @return The last irreversible block number or <code>-1</code> if
+     * unknown.
+     */
+    private static long getLastIrreversibleBlockNumber(List<JsonNode> properties) {
+        return properties.isEmpty() ? -1 : properties.get(0).path("last_irreversible_block_num").asLong(-1);
+    }
+
+    /**
+     * Block until the given request completed.
+     *
+     * @param request  The request to wait for.
+     * @param deadline The time by which the caller gives up waiting or
+     *                 <code>null</code> to wait until the request completed.
+     * @param <T>      The type that should be returned.
+     * @return The server response transformed into a list of given objects.
+     * @throws BeowulfCommunicationException If there is a connection problem.
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    private <T> List<T> awaitResult(CompletableFuture<List<T>> request, @Nullable Deadline deadline)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        try {
+            if (deadline == null) {
+                return request.get();
+            }
+            return request.get(deadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw deadline.createExpiredException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for a response.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeowulfCommunicationException) {
+                throw (BeowulfCommunicationException) cause;
+            } else if (cause instanceof BeowulfResponseException) {
+                throw (BeowulfResponseException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new BeowulfCommunicationException("The request could not be completed.", cause);
+        }
+    }
+
+    /**
+     * @param requestObject The request.
+     * @return The policy deciding if a failed attempt of the request is
+     * retried.
+     */
+    private static RetryPolicy getRetryPolicy(JsonRPCRequest requestObject) {
+        return UNREPEATABLE_METHODS.contains(requestObject.getRequestMethod()) ? NO_RETRIES
+                : BeowulfJConfig.getInstance().getRetryPolicy();
+    }
+
+    /**
+     * Check if the node rejected a retried broadcast because an earlier
+     * attempt, e.g. one that timed out, has already been accepted.
+     *
+     * @param requestObject The retried request.
+     * @param failure       The reason why the retry failed or
+     *                      <code>null</code>.
+     * @return <code>true</code> if the transaction has been broadcast.
+     */
+    private static boolean isAcceptedByEarlierAttempt(JsonRPCRequest requestObject, @Nullable Throwable failure) {
+        if (requestObject.getRequestMethod() != RequestMethod.BROADCAST_TRANSACTION
+                || !(failure instanceof BeowulfResponseException)
+                || ((BeowulfResponseException) failure).getErrorType() != ResponseErrorType.DUPLICATE_TRANSACTION) {
+            return false;
+        }
+
+        LOGGER.debug("The retried {} request has already been accepted by an earlier attempt.",
+                requestObject.getMethod());
+        return true;
+    }
+
+    /**
+     * Schedule the next attempt of an asynchronous request after the backoff
+     * defined by the retry policy, or fail the <code>result</code> if the
+     * retry budget is exhausted.
+     *
+     * @param requestObject   A request object that contains all needed parameters.
+     * @param targetClass     The type the response should be transformed to.
+     * @param failedEndpoints The endpoints that already failed to answer the request.
+     * @param failedAttempts  The number of attempts that failed before the current one.
+     * @param failure         The reason why the current attempt failed.
+     * @param result          The future to complete.
+     * @param <T>             The type that should be returned.
+     */
+    private <T> void retryAsync(JsonRPCRequest requestObject, Class<T> targetClass, List<URI> failedEndpoints,
+                                int failedAttempts, Throwable failure, CompletableFuture<List<T>> result) {
+        RetryPolicy retryPolicy = getRetryPolicy(requestObject);
+        if (!retryPolicy.canRetry(failedAttempts + 1)) {
+            result.completeExceptionally(failure);
+            return;
+        }
+
+        long backoff = retryPolicy.getBackoff(failedAttempts + 1);
+        Deadline deadline = requestObject.getDeadline();
+        if (deadline != null && deadline.getRemaining(TimeUnit.MILLISECONDS) <= backoff) {
+            result.completeExceptionally(deadline.createExpiredException(failure));
+            return;
+        }
+        logRetry(failure, failedAttempts + 1, backoff);
+
+        Runnable nextAttempt = () -> performRequestAsync(requestObject, targetClass, failedEndpoints,
+                failedAttempts + 1, null, result);
+        CommunicationExecutors.scheduleAsync(nextAttempt, backoff, TimeUnit.MILLISECONDS,
+                CommunicationExecutors.getAsyncExecutor(), e -> result.completeExceptionally(failure));
+    }
+
+    /**
+     * Perform the given <code>invocation</code> against the best endpoint. If
+     * the endpoint can not be reached, does not answer in time or answers
+     * with a {@link com.beowulfchain.beowulfj.enums.ResponseErrorType#isRetryable()
+     * temporary error}, the invocation is retried according to the configured
+     * {@link BeowulfJConfig#setRetryPolicy(RetryPolicy) retry policy},
+     * preferring endpoints that did not fail yet. Every attempt waits until
+     * the {@link RateLimiter} of its endpoint grants the required permits.
+     * No attempt is made once the <code>deadline</code> expired.
+     *
+     * @param invocation          The call to perform.
+     * @param priority            The priority of the call.
+     * @param permits             The number of permits the call requires.
+     * @param deadline            The deadline of the call or <code>null</code>.
+     * @param ineligibleEndpoints The endpoints that are not able to perform
+     *                            the call.
+     * @param <R>                 The type of the response.
+     * @return The response of the first endpoint that answered.
+     * @throws BeowulfCommunicationException If no endpoint answered within the retry budget or the
+     *                                       deadline.
+     * @throws BeowulfResponseException      If the answer is invalid or the node answered with a
+     *                                       deterministic error.
+     */
+    private <R> R invokeWithRetry(ClientInvocation<R> invocation, RequestPriority priority, int permits,
+                                  @Nullable Deadline deadline, Set<URI> ineligibleEndpoints)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return invokeWithRetry(invocation, priority, permits, deadline, ineligibleEndpoints,
+                BeowulfJConfig.getInstance().getRetryPolicy());
+    }
+
+    /**
+     * Like {@link #invokeWithRetry(ClientInvocation, RequestPriority, int, Deadline, Set)},
+     * but retries according to the given <code>retryPolicy</code> instead of
+     * the configured one.
+     *
+     * @param invocation          The call to perform.
+     * @param priority            The priority of the call.
+     * @param permits             The number of permits the call requires.
+     * @param deadline            The deadline of the call or <code>null</code>.
+     * @param ineligibleEndpoints The endpoints that are not able to perform
+     *                            the call.
+     * @param retryPolicy         The policy deciding if a failed call is
+     *                            retried.
+     * @param <R>                 The type of the response.
+     * @return The response of the first endpoint that answered.
+     * @throws BeowulfCommunicationException If no endpoint answered within the retry budget or the
+     *                                       deadline.
+     * @throws BeowulfResponseException      If the answer is invalid or the node answered with a
+     *                                       deterministic error.
+     */
+    private <R> R invokeWithRetry(ClientInvocation<R> invocation, RequestPriority priority, int permits,
+                                  @Nullable Deadline deadline, Set<URI> ineligibleEndpoints,
+                                  RetryPolicy retryPolicy)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        List<URI> failedEndpoints = new ArrayList<>();
+        Exception failure = null;
+
+        for (int failedAttempts = 1; ; failedAttempts++) {
+            if (deadline != null && deadline.isExpired()) {
+                throw deadline.createExpiredException(failure);
+            }
+
+            EndpointPermission endpoint = selectEndpoint(failedEndpoints, ineligibleEndpoints, null);
+            if (endpoint == null) {
+                failure = createNoEndpointException();
             } else {
-                // HANDLE NORMAL RESPONSE
-                JavaType expectedResultType = mapper.getTypeFactory().constructCollectionType(List.class, targetClass);
-                return rawJsonResponse.handleResult(expectedResultType, requestObject.getId());
+                boolean permitted = false;
+                try {
+                    acquirePermits(endpoint.getEndpointUri(), priority, permits, deadline, failure);
+                    permitted = true;
+                } finally {
+                    if (!permitted) {
+                        // No request has been sent, so a reserved trial of a
+                        // half-open breaker has to be handed back.
+                        endpointSelector.releasePermission(endpoint);
+                    }
+                }
+
+                long start = System.nanoTime();
+                try {
+                    R response = invocation.invoke(getClient(endpoint.getEndpointUri()), endpoint.getEndpoint());
+                    endpointSelector.recordSuccess(endpoint, System.nanoTime() - start);
+                    return response;
+                } catch (BeowulfCommunicationException e) {
+                    if (!retryPolicy.isRetryable(e)) {
+                        endpointSelector.recordSuccess(endpoint, System.nanoTime() - start);
+                        throw e;
+                    } else if (deadline != null && deadline.isExpired()) {
+                        // The attempt has been cut short by the deadline of
+                        // the caller, which says nothing about the endpoint.
+                        endpointSelector.releasePermission(endpoint);
+                        throw deadline.createExpiredException(e);
+                    }
+
+                    endpointSelector.recordFailure(endpoint);
+                    failedEndpoints.add(endpoint.getEndpointUri());
+                    failure = e;
+                } catch (BeowulfResponseException e) {
+                    if (!retryPolicy.isRetryable(e)) {
+                        // The node answered, so there is nothing wrong with it.
+                        endpointSelector.recordSuccess(endpoint, System.nanoTime() - start);
+                        throw e;
+                    }
+
+                    LOGGER.debug("The endpoint {} failed temporarily ({}).", endpoint.getEndpointUri(),
+                            e.getErrorType());
+                    endpointSelector.recordFailure(endpoint);
+                    failedEndpoints.add(endpoint.getEndpointUri());
+                    failure = e;
+                } catch (RuntimeException e) {
+                    endpointSelector.recordFailure(endpoint);
+                    throw e;
+                }
             }
-        } catch (BeowulfCommunicationException e) {
-            LOGGER.warn("The connection has been closed. Switching the endpoint and reconnecting.");
-            LOGGER.debug("For the following reason: ", e);
 
-            return performRequest(requestObject, targetClass);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            numberOfConnectionTries = 0;
-            throw new BeowulfCommunicationException("Unable to connect with all the endpoint, please check config or endpoint status.");
+            if (!retryPolicy.canRetry(failedAttempts)) {
+                if (failure instanceof BeowulfResponseException) {
+                    throw (BeowulfResponseException) failure;
+                }
+                throw (BeowulfCommunicationException) failure;
+            }
+
+            long backoff = retryPolicy.getBackoff(failedAttempts);
+            if (deadline != null && deadline.getRemaining(TimeUnit.MILLISECONDS) <= backoff) {
+                // The next attempt would start too late anyway.
+                throw deadline.createExpiredException(failure);
+            }
+            logRetry(failure, failedAttempts, backoff);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BeowulfCommunicationException("Interrupted while waiting for the next attempt.", e);
+            }
+        }
+    }
+
+    /**
+     * Wait until the {@link RateLimiter} of the given endpoint grants the
+     * permits for the next attempt.
+     *
+     * @param endpointUri The endpoint.
+     * @param priority    The priority of the call.
+     * @param permits     The number of permits the call requires.
+     * @param deadline    The deadline of the call or <code>null</code>.
+     * @param failure     The failure of the previous attempt or
+     *                    <code>null</code>.
+     * @throws BeowulfCommunicationException If the thread has been interrupted or the deadline expired
+     *                                       while waiting.
+     */
+    private void acquirePermits(URI endpointUri, RequestPriority priority, int permits, @Nullable Deadline deadline,
+                                @Nullable Exception failure)
+            throws BeowulfCommunicationException {
+        RateLimiter rateLimiter = endpointSelector.getHealth(endpointUri).getRateLimiter();
+        try {
+            if (deadline == null) {
+                rateLimiter.acquire(priority, permits);
+            } else if (!rateLimiter.tryAcquire(priority, permits, deadline.getRemaining(TimeUnit.NANOSECONDS),
+                    TimeUnit.NANOSECONDS)) {
+                throw deadline.createExpiredException(failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for the rate limit.", e);
+        }
+    }
+
+    /**
+     * Select the endpoint for the next attempt, preferring endpoints that did
+     * not fail yet. Once all endpoints failed, they all get another chance.
+     *
+     * @param failedEndpoints   The endpoints that already failed to answer
+     *                          the request.
+     * @param preferredEndpoint The endpoint to use if it is healthy and did
+     *                          not fail yet or <code>null</code> to use the
+     *                          best endpoint.
+     * @return The endpoint to use or <code>null</code> if no endpoint is
+     * available, e.g. because all circuit breakers are open.
+     */
+    private EndpointPermission selectEndpoint(List<URI> failedEndpoints, @Nullable URI preferredEndpoint) {
+        return selectEndpoint(failedEndpoints, Collections.emptySet(), preferredEndpoint);
+    }
+
+    /**
+     * Like {@link #selectEndpoint(List, URI)}, but never selects one of the
+     * given <code>ineligibleEndpoints</code>.
+     *
+     * @param failedEndpoints     The endpoints that already failed to answer
+     *                            the request.
+     * @param ineligibleEndpoints The endpoints that are not able to answer the
+     *                            request.
+     * @param preferredEndpoint   The endpoint to use if possible or
+     *                            <code>null</code>.
+     * @return The endpoint to use or <code>null</code> if no endpoint is
+     * available.
+     */
+    private EndpointPermission selectEndpoint(List<URI> failedEndpoints, Set<URI> ineligibleEndpoints,
+                                              @Nullable URI preferredEndpoint) {
+        List<Pair<URI, Boolean>> endpoints = BeowulfJConfig.getInstance().getEndpointURIs();
+
+        Collection<URI> excludedEndpoints = failedEndpoints;
+        if (!ineligibleEndpoints.isEmpty()) {
+            excludedEndpoints = new HashSet<>(ineligibleEndpoints);
+            excludedEndpoints.addAll(failedEndpoints);
+        }
+        EndpointPermission endpoint = endpointSelector.select(endpoints, excludedEndpoints, preferredEndpoint);
+        if (endpoint == null && !failedEndpoints.isEmpty()) {
+            failedEndpoints.clear();
+            endpoint = endpointSelector.select(endpoints, ineligibleEndpoints);
+        }
+
+        return endpoint;
+    }
+
+    /**
+     * @return The exception indicating that no endpoint could be selected.
+     */
+    private static BeowulfConnectionException createNoEndpointException() {
+        return new BeowulfConnectionException(
+                "Unable to connect with all the endpoint, please check config or endpoint status.");
+    }
+
+    /**
+     * @param failure        The reason why the attempt failed.
+     * @param failedAttempts The number of attempts that failed so far.
+     * @param backoff        The time in milliseconds until the next attempt.
+     */
+    private static void logRetry(Throwable failure, int failedAttempts, long backoff) {
+        LOGGER.warn("Attempt {} failed ({}). Retrying in {} ms.", failedAttempts, failure.getMessage(), backoff);
+        LOGGER.debug("For the following reason: ", failure);
+    }
+
+    /**
+     * Get the client the next request to the given endpoint should be sent
+     * with. The requests are spread across the
+     * {@link BeowulfJConfig#getTransportsPerEndpoint() pool} of clients of the
+     * endpoint.
+     *
+     * @param endpointUri The endpoint.
+     * @return The client for the endpoint.
+     * @throws InvalidParameterException If no {@link AbstractClient}
+     *                                   implementation for the protocol of the
+     *                                   endpoint is available.
+     */
+    private AbstractClient getClient(URI endpointUri) {
+        return getClientPool(endpointUri).next();
+    }
+
+    /**
+     * Get the pool of clients of the given endpoint and create it if needed.
+     *
+     * @param endpointUri The endpoint.
+     * @return The clients of the endpoint.
+     * @throws InvalidParameterException If no {@link AbstractClient}
+     *                                   implementation for the protocol of the
+     *                                   endpoint is available.
+     */
+    private ClientPool getClientPool(URI endpointUri) {
+        return clients.computeIfAbsent(endpointUri, uri -> {
+            ClientProvider clientProvider = getClientProvider(uri);
+            return new ClientPool(() -> clientProvider.createClient(uri),
+                    BeowulfJConfig.getInstance().getTransportsPerEndpoint());
+        });
+    }
+
+    /**
+     * Get the provider that creates the clients for the given endpoint.
+     *
+     * @param endpointUri The endpoint.
+     * @return The provider.
+     * @throws InvalidParameterException If no {@link AbstractClient}
+     *                                   implementation for the protocol of the
+     *                                   endpoint is available.
+     */
+    private static ClientProvider getClientProvider(URI endpointUri) {
+        String scheme = endpointUri.getScheme().toLowerCase();
+
+        ClientProvider configuredProvider = BeowulfJConfig.getInstance().getClientProvider();
+        if (configuredProvider != null && configuredProvider.supports(scheme)) {
+            return configuredProvider;
+        }
+
+        for (ClientProvider clientProvider : getClientProviders()) {
+            if (clientProvider.supports(scheme)) {
+                LOGGER.debug("Using {} for {}.", clientProvider.getClass().getName(), endpointUri);
+                return clientProvider;
+            }
+        }
+
+        throw new InvalidParameterException("No client implementation for the following protocol available: "
+                + scheme);
+    }
+
+    /**
+     * Get all {@link ClientProvider} implementations available on the class
+     * path.
+     *
+     * @return The providers, ordered by their priority.
+     */
+    private static List<ClientProvider> getClientProviders() {
+        if (clientProviders == null) {
+            synchronized (CommunicationHandler.class) {
+                if (clientProviders == null) {
+                    List<ClientProvider> discoveredProviders = new ArrayList<>();
+                    for (ClientProvider clientProvider : ServiceLoader.load(ClientProvider.class,
+                            CommunicationHandler.class.getClassLoader())) {
+                        discoveredProviders.add(clientProvider);
+                    }
+                    // Make sure the default transports are available, even if
+                    // the service file got lost, e.g. while repackaging.
+                    discoveredProviders.add(new DefaultClientProvider());
+                    discoveredProviders.sort(Comparator.comparingInt(ClientProvider::getPriority).reversed());
+
+                    clientProviders = Collections.unmodifiableList(discoveredProviders);
+                }
+            }
+        }
+
+        return clientProviders;
+    }
+
+    /**
+     * Close and forget all clients.
+     *
+     * @throws BeowulfCommunicationException If a client could not be closed.
+     */
+    private void closeClients() throws BeowulfCommunicationException {
+        for (URI endpointUri : clients.keySet()) {
+            ClientPool clientPool = clients.remove(endpointUri);
+            if (clientPool != null) {
+                try {
+                    clientPool.close();
+                } catch (IOException e) {
+                    throw new BeowulfCommunicationException("Could not close the current client connection.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Open the connections to all given endpoints in parallel or keep them
+     * alive, so the first request and a failover to another endpoint can use
+     * a connection that is already established. The connections are opened
+     * on the I/O executor, as the scheduler that calls this method must
+     * not block.
+     *
+     * @param endpoints The endpoints to connect to.
+     */
+    private void warmUpEndpoints(List<Pair<URI, Boolean>> endpoints) {
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            URI endpointUri = endpoint.getLeft();
+            // Do not pile up attempts for endpoints that do not answer.
+            if (!warmingUpEndpoints.add(endpointUri)) {
+                continue;
+            }
+
+            try {
+                CommunicationExecutors.getIoExecutor().execute(() -> {
+                    try {
+                        if (!closed) {
+                            warmUp(endpointUri, endpoint.getRight());
+                        }
+                    } catch (BeowulfCommunicationException | IOException | RuntimeException e) {
+                        // The request path will fail over or reconnect anyway.
+                        LOGGER.debug("Could not warm up the connection to {}.", endpointUri, e);
+                    } finally {
+                        warmingUpEndpoints.remove(endpointUri);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                warmingUpEndpoints.remove(endpointUri);
+                LOGGER.debug("Unable to warm up the connection to {}.", endpointUri, e);
+            }
+        }
+    }
+
+    /**
+     * Open the connections of the given endpoint or keep them alive. If the
+     * handler is closed meanwhile, the connections are closed again, as the
+     * {@link #close()} may have missed them.
+     *
+     * @param endpointUri             The endpoint to connect to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @throws BeowulfCommunicationException If the connection could not be
+     *                                       established.
+     * @throws IOException                   If the connection could not be
+     *                                       closed again.
+     */
+    private void warmUp(URI endpointUri, boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, IOException {
+        ClientPool clientPool = getClientPool(endpointUri);
+        try {
+            clientPool.warmUp(endpointUri, sslVerificationDisabled);
+        } finally {
+            if (closed) {
+                clients.remove(endpointUri, clientPool);
+                clientPool.close();
+            }
+        }
+    }
+
+    /**
+     * Measure the latency and the head block of all configured endpoints. This
+     * keeps the health of endpoints up to date that currently do not receive
+     * any requests, e.g. because they have been ejected.
+     */
+    private void probeEndpoints() {
+        List<Pair<URI, Boolean>> endpoints = BeowulfJConfig.getInstance().getEndpointURIs();
+        if (closed || endpoints.size() < 2) {
+            return;
+        }
+
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            URI endpointUri = endpoint.getLeft();
+            // Do not pile up probes for endpoints that do not answer.
+            if (!probedEndpoints.add(endpointUri)) {
+                continue;
+            }
+
+            JsonRPCRequest probe = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, Collections.emptyList());
+            long start = System.nanoTime();
+            try {
+                getClient(endpointUri).invokeAndReadResponseAsync(probe, endpointUri, endpoint.getRight())
+                        .whenComplete((response, throwable) -> {
+                            probedEndpoints.remove(endpointUri);
+
+                            if (throwable != null || response.isError()) {
+                                LOGGER.debug("The probe of {} failed.", endpointUri, throwable);
+                                endpointSelector.recordFailure(endpointUri);
+                            } else {
+                                JsonNode properties = response.getRawJsonResponse()
+                                        .path(JsonRPCResponse.RESULT_FIELD_NAME);
+                                long headBlockNumber = properties.path("head_block_number").asLong(-1);
+                                irreversibleBlockTracker.recordLastIrreversibleBlockNumber(
+                                        properties.path("last_irreversible_block_num").asLong(-1));
+                                endpointSelector.recordProbe(endpoints, endpointUri, System.nanoTime() - start,
+                                        headBlockNumber);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                probedEndpoints.remove(endpointUri);
+                LOGGER.debug("Unable to probe {}.", endpointUri, e);
+            }
+        }
+    }
+
+    /**
+     * Transform the response received for the given request into the
+     * expected type.
+     *
+     * @param requestObject   The request that has been sent.
+     * @param targetClass     The type the response should be transformed to.
+     * @param rawJsonResponse The response received from the node.
+     * @param <T>             The type that should be returned.
+     * @return The server response transformed into a list of given objects.
+     * @throws BeowulfCommunicationException If the response does not match the request.
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    private <T> List<T> readResult(JsonRPCRequest requestObject, Class<T> targetClass, JsonRPCResponse rawJsonResponse)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        LOGGER.debug("Received {} ", rawJsonResponse);
+
+        if (rawJsonResponse.isError()) {
+            throw rawJsonResponse.handleError(requestObject.getId());
+        } else {
+            // HANDLE NORMAL RESPONSE
+            return rawJsonResponse.handleResult(getResultType(requestObject, targetClass), requestObject.getId());
         }
     }
+
+    /**
+     * @param targetClass The type the response should be transformed to.
+     * @return The type the result of a request is bound to.
+     */
+    private JavaType getResultType(Class<?> targetClass) {
+        return getObjectMapper().getTypeFactory().constructCollectionType(List.class, targetClass);
+    }
+
+    /**
+     * @param requestObject The request.
+     * @param targetClass   The type the response should be transformed to.
+     * @return The type the result of the given request is bound to.
+     */
+    private JavaType getResultType(JsonRPCRequest requestObject, Class<?> targetClass) {
+        if (requestObject.isRawResultKept()) {
+            return getObjectMapper().getTypeFactory().constructCollectionType(RawResultList.class, targetClass);
+        }
+
+        return getResultType(targetClass);
+    }
+
+    /**
+     * Tells the callers sharing a request that it timed out under the
+     * deadline of the caller that sent it.
+     */
+    private static final class SharedDeadlineExpiredException extends BeowulfTimeoutException {
+        private static final long serialVersionUID = 1L;
+
+        private SharedDeadlineExpiredException(BeowulfTimeoutException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * A call of an {@link AbstractClient} method for a given endpoint.
+     *
+     * @param <R> The type of the response.
+     */
+    @FunctionalInterface
+    private interface ClientInvocation<R> {
+        R invoke(AbstractClient client, Pair<URI, Boolean> endpoint)
+                throws BeowulfCommunicationException, BeowulfResponseException;
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a call has to be completed, including all of its
+ * retries and the failover to other endpoints. Every attempt waits at most
+ * for the remaining time instead of the full
+ * {@link com.beowulfchain.beowulfj.configuration.BeowulfJConfig#getResponseTimeout()
+ * response timeout}, and no further attempt is made once the deadline
+ * expired.
+ * <p>
+ * A deadline is attached to the calling thread for a block of calls:
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.after(300, TimeUnit.MILLISECONDS).attach()) {
+ *     CondenserApi.getAccounts(communicationHandler, accountNames);
+ * }
+ * </pre>
+ * Requests pick up the deadline of the thread that created them, so it also
+ * applies to asynchronous calls started within the block.
+ */
+public final class Deadline implements Comparable<Deadline> {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    /**
+     * Create a new {@link Deadline} instance.
+     *
+     * @param deadlineNanos The deadline in terms of {@link System#nanoTime()}.
+     */
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Create a deadline that expires after the given time.
+     *
+     * @param timeout The time the call may take.
+     * @param unit    The unit of the <code>timeout</code>.
+     * @return The new deadline.
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Get the deadline attached to the current thread.
+     *
+     * @return The deadline or <code>null</code> if the calls of the current
+     * thread are only limited by the response timeout.
+     */
+    @Nullable
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attach this deadline to the current thread until the returned scope is
+     * closed. Nested scopes may only shorten the deadline of the enclosing
+     * scope.
+     *
+     * @return The scope, which restores the previous deadline when closed.
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous, this));
+        return new Scope(previous);
+    }
+
+    /**
+     * @return <code>true</code> if the deadline already passed.
+     */
+    public boolean isExpired() {
+        return getRemaining(TimeUnit.NANOSECONDS) == 0;
+    }
+
+    /**
+     * Get the time left until the deadline.
+     *
+     * @param unit The unit of the result.
+     * @return The remaining time or <code>0</code> if the deadline passed.
+     */
+    public long getRemaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Limit the given timeout to the time left until the deadline.
+     *
+     * @param timeout The timeout in milliseconds, where <code>0</code> means
+     *                to wait forever.
+     * @return The timeout in milliseconds, which is at least <code>1</code>,
+     * so it is never mistaken for an infinite timeout.
+     */
+    public int limit(int timeout) {
+        // Round up, so the transport does not give up before the deadline.
+        long remaining = (getRemaining(TimeUnit.MICROSECONDS) + 999) / 1000;
+        long limited = timeout > 0 ? Math.min(timeout, remaining) : remaining;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, limited));
+    }
+
+    /**
+     * Create the exception indicating that the call did not complete in time.
+     *
+     * @param cause The failure of the last attempt or <code>null</code>.
+     * @return The new exception.
+     */
+    public BeowulfTimeoutException createExpiredException(@Nullable Throwable cause) {
+        return new BeowulfTimeoutException("The deadline of the request expired.", cause);
+    }
+
+    /**
+     * @param first  A deadline or <code>null</code>.
+     * @param second A deadline or <code>null</code>.
+     * @return The deadline that expires first or <code>null</code> if none is
+     * set.
+     */
+    @Nullable
+    public static Deadline earliest(@Nullable Deadline first, @Nullable Deadline second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        }
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+        // Compare the difference, as System.nanoTime() may overflow.
+        return Long.signum(deadlineNanos - other.deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("remainingMillis", getRemaining(TimeUnit.MILLISECONDS)).toString();
+    }
+
+    /**
+     * The block of calls a {@link Deadline} is attached to.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Deadline previous;
+
+        private Scope(@Nullable Deadline previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Restore the deadline that has been attached before this scope.
+         */
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import java.net.URI;
+
+/**
+ * The {@link ClientProvider} for the transports shipped with BeowulfJ: the
+ * {@link HttpClient} for <code>http</code> and <code>https</code> endpoints
+ * and the {@link WebsocketClient} for <code>ws</code> and <code>wss</code>
+ * endpoints.
+ */
+public class DefaultClientProvider implements ClientProvider {
+    @Override
+    public boolean supports(String scheme) {
+        return scheme.matches("(http){1}[s]?") || scheme.matches("(ws){1}[s]?");
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public AbstractClient createClient(URI endpointUri) {
+        if (endpointUri.getScheme().toLowerCase().matches("(ws){1}[s]?")) {
+            return new WebsocketClient();
+        }
+
+        return new HttpClient();
+    }
+}
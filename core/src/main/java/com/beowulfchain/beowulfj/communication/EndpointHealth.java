@@ -0,0 +1,262 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.net.URI;
+import java.util.Arrays;
+
+/**
+ * Keeps track of the health of a single endpoint: Its rolling latency, its
+ * rolling error rate, how far its head block lags behind the other endpoints,
+ * its {@link CircuitBreaker} and its {@link RateLimiter}.
+ */
+public class EndpointHealth {
+    /**
+     * The weight of a new latency sample.
+     */
+    private static final double LATENCY_SMOOTHING = 0.2;
+    /**
+     * The weight of a new success/failure sample.
+     */
+    private static final double ERROR_RATE_SMOOTHING = 0.1;
+    /**
+     * The number of recent latency samples used to calculate percentiles.
+     */
+    private static final int LATENCY_SAMPLES = 128;
+    /**
+     * The minimal number of samples required to calculate a percentile.
+     */
+    private static final int MIN_LATENCY_SAMPLES = 10;
+
+    private final URI endpointUri;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+    private int numberOfLatencySamples;
+    private int nextLatencySample;
+    private double latencyNanos = -1;
+    private double errorRate;
+    private long headBlockNumber = -1;
+    private long ejectedUntil;
+
+    /**
+     * Create a new {@link EndpointHealth} instance.
+     *
+     * @param endpointUri The endpoint whose health is tracked.
+     */
+    public EndpointHealth(URI endpointUri) {
+        this.endpointUri = endpointUri;
+        this.circuitBreaker = new CircuitBreaker(BeowulfJConfig.getInstance().getCircuitBreakerFailureThreshold(),
+                BeowulfJConfig.getInstance().getCircuitBreakerOpenTime());
+        this.rateLimiter = new RateLimiter(BeowulfJConfig.getInstance().getRateLimit(),
+                BeowulfJConfig.getInstance().getRateLimitBurst());
+    }
+
+    /**
+     * @return The endpoint whose health is tracked.
+     */
+    public URI getEndpointUri() {
+        return endpointUri;
+    }
+
+    /**
+     * @return The circuit breaker of the endpoint.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return The rate limiter of the endpoint.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Record a request that has been answered by the endpoint.
+     *
+     * @param latencyNanos The time in nanoseconds it took to receive the
+     *                     answer.
+     * @param permission   The permission of the {@link CircuitBreaker} the
+     *                     request has been sent with.
+     */
+    public synchronized void recordSuccess(long latencyNanos, long permission) {
+        this.latencyNanos = this.latencyNanos < 0 ? latencyNanos
+                : this.latencyNanos + LATENCY_SMOOTHING * (latencyNanos - this.latencyNanos);
+        this.errorRate -= ERROR_RATE_SMOOTHING * this.errorRate;
+        this.circuitBreaker.recordSuccess(permission);
+
+        this.latencySamples[nextLatencySample] = latencyNanos;
+        this.nextLatencySample = (nextLatencySample + 1) % LATENCY_SAMPLES;
+        this.numberOfLatencySamples = Math.min(numberOfLatencySamples + 1, LATENCY_SAMPLES);
+    }
+
+    /**
+     * Forget the history of this endpoint and start over with the given
+     * latency, e.g. after an ejected endpoint answered a probe.
+     *
+     * @param latencyNanos The time in nanoseconds it took to receive the
+     *                     answer.
+     */
+    public synchronized void reset(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+        this.errorRate = 0;
+        this.circuitBreaker.reset();
+    }
+
+    /**
+     * Record a request that could not be answered by the endpoint.
+     *
+     * @param now        The current time in milliseconds.
+     * @param permission The permission of the {@link CircuitBreaker} the
+     *                   request has been sent with.
+     */
+    public synchronized void recordFailure(long now, long permission) {
+        this.errorRate += ERROR_RATE_SMOOTHING * (1 - this.errorRate);
+        this.circuitBreaker.recordFailure(now, permission);
+    }
+
+    /**
+     * Record the head block the endpoint reported.
+     *
+     * @param headBlockNumber The number of the head block.
+     */
+    public synchronized void recordHeadBlockNumber(long headBlockNumber) {
+        this.headBlockNumber = headBlockNumber;
+    }
+
+    /**
+     * @return The rolling latency in nanoseconds or <code>-1</code> if no
+     * request has been answered yet.
+     */
+    public synchronized double getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Calculate the given percentile of the recent latencies.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The latency in nanoseconds below which the given percentage of
+     * recent requests have been answered, or <code>-1</code> if not enough
+     * requests have been answered yet.
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (numberOfLatencySamples < MIN_LATENCY_SAMPLES) {
+            return -1;
+        }
+
+        long[] samples = Arrays.copyOf(latencySamples, numberOfLatencySamples);
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile / 100 * samples.length) - 1;
+        return samples[Math.max(0, Math.min(samples.length - 1, index))];
+    }
+
+    /**
+     * @return The rolling share of failed requests between 0 and 1.
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @return The last reported head block number or <code>-1</code> if
+     * unknown.
+     */
+    public synchronized long getHeadBlockNumber() {
+        return headBlockNumber;
+    }
+
+    /**
+     * Stop sending requests to this endpoint for the given time.
+     *
+     * @param now      The current time in milliseconds.
+     * @param duration The time in milliseconds the endpoint should be ejected.
+     */
+    public synchronized void eject(long now, long duration) {
+        this.ejectedUntil = now + duration;
+    }
+
+    /**
+     * Allow requests to this endpoint again.
+     */
+    public synchronized void reinstate() {
+        this.ejectedUntil = 0;
+    }
+
+    /**
+     * @param now The current time in milliseconds.
+     * @return <code>true</code> if the endpoint should currently not receive
+     * any requests.
+     */
+    public synchronized boolean isEjected(long now) {
+        return ejectedUntil > now;
+    }
+
+    /**
+     * @return The time in milliseconds until the endpoint is ejected.
+     */
+    public synchronized long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    /**
+     * Calculate the score of this endpoint, where a lower score is better.
+     * Endpoints that have not been used yet score best, so every endpoint
+     * gets a chance to prove itself.
+     *
+     * @param headBlockLag The number of blocks this endpoint lags behind.
+     * @return The score of this endpoint.
+     */
+    public synchronized double getScore(long headBlockLag) {
+        if (latencyNanos < 0) {
+            return 0;
+        }
+
+        return latencyNanos * (1 + 4 * errorRate) * (1 + Math.max(0, headBlockLag));
+    }
+
+    /**
+     * Describe the health of the endpoint in a single log line. The latency
+     * samples are summarized by their percentiles instead of being listed.
+     */
+    @Override
+    public synchronized String toString() {
+        return new ToStringBuilder(this)
+                .append("endpointUri", endpointUri)
+                .append("score", getScore(0))
+                .append("latencyMillis", toMillis(latencyNanos))
+                .append("p50Millis", toMillis(getLatencyPercentile(50)))
+                .append("p99Millis", toMillis(getLatencyPercentile(99)))
+                .append("errorRate", errorRate)
+                .append("headBlockNumber", headBlockNumber)
+                .append("circuitBreaker", circuitBreaker.getState(System.currentTimeMillis()))
+                .toString();
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds or <code>-1</code> if unknown.
+     * @return The duration in milliseconds or <code>-1</code> if unknown.
+     */
+    private static double toMillis(double nanos) {
+        return nanos < 0 ? -1 : nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.net.URI;
+
+/**
+ * An endpoint selected by the {@link EndpointSelector} together with the
+ * permission its {@link CircuitBreaker} granted for the request. The outcome
+ * of the request has to be recorded with this instance, so only the trial
+ * request of a half-open breaker is able to settle it.
+ */
+public class EndpointPermission {
+    private final Pair<URI, Boolean> endpoint;
+    private final long permission;
+
+    /**
+     * Create a new {@link EndpointPermission} instance.
+     *
+     * @param endpoint   The selected endpoint.
+     * @param permission The permission returned by
+     *                   {@link CircuitBreaker#tryAcquirePermission(long)}.
+     */
+    EndpointPermission(Pair<URI, Boolean> endpoint, long permission) {
+        this.endpoint = endpoint;
+        this.permission = permission;
+    }
+
+    /**
+     * @return The selected endpoint and whether SSL verification is disabled
+     * for it.
+     */
+    public Pair<URI, Boolean> getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return The URI of the selected endpoint.
+     */
+    public URI getEndpointUri() {
+        return endpoint.getLeft();
+    }
+
+    /**
+     * @return The permission returned by
+     * {@link CircuitBreaker#tryAcquirePermission(long)}.
+     */
+    public long getPermission() {
+        return permission;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Routes requests to the healthiest of the configured endpoints, based on
+ * the rolling latency, the rolling error rate and the head block lag tracked
+ * by an {@link EndpointHealth} instance per endpoint.
+ * <p>
+ * Endpoints that are much slower than the fastest endpoint or whose head
+ * block lags behind too far are ejected for a while. If all endpoints are
+ * ejected the best of them is used anyway. Endpoints that fail repeatedly are
+ * not used at all while their {@link CircuitBreaker} is open.
+ */
+public class EndpointSelector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndpointSelector.class);
+
+    /**
+     * An endpoint is considered slow if its latency exceeds the latency of
+     * the fastest endpoint by this factor.
+     */
+    private static final double SLOW_ENDPOINT_FACTOR = 3;
+    /**
+     * Endpoints that answer faster than this are never considered slow.
+     */
+    private static final long MIN_SLOW_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    /**
+     * The time in milliseconds an endpoint is ejected for, unless a probe
+     * reinstates it earlier.
+     */
+    private static final long EJECTION_TIME = 30000L;
+
+    private final Map<URI, EndpointHealth> endpointHealth = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    /**
+     * Create a new {@link EndpointSelector} instance.
+     */
+    public EndpointSelector() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new {@link EndpointSelector} instance.
+     *
+     * @param clock The source of the current time in milliseconds.
+     */
+    EndpointSelector(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Get the health of the given endpoint.
+     *
+     * @param endpointUri The endpoint.
+     * @return The health of the endpoint.
+     */
+    public EndpointHealth getHealth(URI endpointUri) {
+        return endpointHealth.computeIfAbsent(endpointUri, EndpointHealth::new);
+    }
+
+    /**
+     * Select the endpoint the next request should be sent to. The caller has
+     * to {@link #recordSuccess(EndpointPermission, long) record} the outcome
+     * of the request or {@link #releasePermission(EndpointPermission)
+     * release} the permission if no request has been sent, as the selection
+     * may reserve the trial request of a half-open {@link CircuitBreaker}.
+     *
+     * @param endpoints The configured endpoints.
+     * @param excluded  Endpoints that should not be selected, e.g. because
+     *                  they already failed to answer the current request.
+     * @return The best endpoint or <code>null</code> if all endpoints are
+     * excluded or their circuit breakers are open.
+     */
+    public EndpointPermission select(List<Pair<URI, Boolean>> endpoints, Collection<URI> excluded) {
+        long now = clock.getAsLong();
+        Set<URI> denied = new HashSet<>(excluded);
+
+        Pair<URI, Boolean> best;
+        while ((best = findBest(endpoints, denied, now)) != null) {
+            // Another thread may have taken the trial request of a half-open
+            // breaker in the meantime.
+            long permission = getHealth(best.getLeft()).getCircuitBreaker().tryAcquirePermission(now);
+            if (permission != CircuitBreaker.NO_PERMISSION) {
+                return new EndpointPermission(best, permission);
+            }
+            denied.add(best.getLeft());
+        }
+
+        return null;
+    }
+
+    /**
+     * Like {@link #select(List, Collection)}, but selects the
+     * <code>preferred</code> endpoint if it is healthy, e.g. to spread the
+     * requests of a bulk download across all healthy endpoints.
+     *
+     * @param endpoints The configured endpoints.
+     * @param excluded  Endpoints that should not be selected.
+     * @param preferred The endpoint to select if possible or
+     *                  <code>null</code> to select the best one.
+     * @return The selected endpoint or <code>null</code> if all endpoints are
+     * excluded or their circuit breakers are open.
+     */
+    public EndpointPermission select(List<Pair<URI, Boolean>> endpoints, Collection<URI> excluded,
+                                     @Nullable URI preferred) {
+        if (preferred != null && !excluded.contains(preferred)) {
+            long now = clock.getAsLong();
+            for (Pair<URI, Boolean> endpoint : endpoints) {
+                if (endpoint.getLeft().equals(preferred)) {
+                    EndpointHealth health = getHealth(preferred);
+                    long permission = health.isEjected(now) ? CircuitBreaker.NO_PERMISSION
+                            : health.getCircuitBreaker().tryAcquirePermission(now);
+                    if (permission != CircuitBreaker.NO_PERMISSION) {
+                        return new EndpointPermission(endpoint, permission);
+                    }
+                    break;
+                }
+            }
+        }
+
+        return select(endpoints, excluded);
+    }
+
+    /**
+     * Get the endpoints that currently receive requests, which are all
+     * endpoints that are neither ejected nor blocked by their
+     * {@link CircuitBreaker}. If all endpoints are ejected, the best of them
+     * is returned anyway.
+     *
+     * @param endpoints The configured endpoints.
+     * @return The healthy endpoints in their configured order.
+     */
+    public List<URI> getHealthyEndpoints(List<Pair<URI, Boolean>> endpoints) {
+        long now = clock.getAsLong();
+        List<URI> healthyEndpoints = new ArrayList<>();
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            EndpointHealth health = getHealth(endpoint.getLeft());
+            if (!health.isEjected(now) && health.getCircuitBreaker().isRequestAllowed(now)) {
+                healthyEndpoints.add(endpoint.getLeft());
+            }
+        }
+
+        if (healthyEndpoints.isEmpty()) {
+            Pair<URI, Boolean> best = findBest(endpoints, Collections.emptySet(), now);
+            if (best != null) {
+                healthyEndpoints.add(best.getLeft());
+            }
+        }
+        return healthyEndpoints;
+    }
+
+    /**
+     * Record a request that has been answered by the selected endpoint.
+     *
+     * @param endpoint     The endpoint returned by
+     *                     {@link #select(List, Collection)}.
+     * @param latencyNanos The time in nanoseconds it took to receive the
+     *                     answer.
+     */
+    public void recordSuccess(EndpointPermission endpoint, long latencyNanos) {
+        getHealth(endpoint.getEndpointUri()).recordSuccess(latencyNanos, endpoint.getPermission());
+    }
+
+    /**
+     * Record a request that has been answered by the given endpoint, but has
+     * not been sent with a permission of its {@link CircuitBreaker}, so it
+     * does not close a breaker that is not closed.
+     *
+     * @param endpointUri  The endpoint.
+     * @param latencyNanos The time in nanoseconds it took to receive the
+     *                     answer.
+     */
+    public void recordSuccess(URI endpointUri, long latencyNanos) {
+        getHealth(endpointUri).recordSuccess(latencyNanos, CircuitBreaker.CLOSED_PERMISSION);
+    }
+
+    /**
+     * Record a request that could not be answered by the selected endpoint.
+     *
+     * @param endpoint The endpoint returned by
+     *                 {@link #select(List, Collection)}.
+     */
+    public void recordFailure(EndpointPermission endpoint) {
+        getHealth(endpoint.getEndpointUri()).recordFailure(clock.getAsLong(), endpoint.getPermission());
+    }
+
+    /**
+     * Record a request that could not be answered by the given endpoint, but
+     * has not been sent with a permission of its {@link CircuitBreaker}, e.g.
+     * a probe.
+     *
+     * @param endpointUri The endpoint.
+     */
+    public void recordFailure(URI endpointUri) {
+        getHealth(endpointUri).recordFailure(clock.getAsLong(), CircuitBreaker.CLOSED_PERMISSION);
+    }
+
+    /**
+     * Hand back the permission reserved by {@link #select(List, Collection)}
+     * for a request that has not been sent to the selected endpoint or whose
+     * outcome says nothing about the endpoint.
+     *
+     * @param endpoint The endpoint returned by
+     *                 {@link #select(List, Collection)}.
+     */
+    public void releasePermission(EndpointPermission endpoint) {
+        getHealth(endpoint.getEndpointUri()).getCircuitBreaker().releasePermission(endpoint.getPermission());
+    }
+
+    /**
+     * Record the result of a successful background probe and reinstate the
+     * endpoint if it is ejected, but healthy again.
+     *
+     * @param endpoints       The configured endpoints.
+     * @param endpointUri     The endpoint that has been probed.
+     * @param latencyNanos    The time in nanoseconds it took to receive the
+     *                        answer.
+     * @param headBlockNumber The head block number reported by the endpoint or
+     *                        <code>-1</code> if unknown.
+     */
+    public void recordProbe(List<Pair<URI, Boolean>> endpoints, URI endpointUri, long latencyNanos,
+                            long headBlockNumber) {
+        long now = clock.getAsLong();
+        EndpointHealth health = getHealth(endpointUri);
+
+        if (headBlockNumber >= 0) {
+            health.recordHeadBlockNumber(headBlockNumber);
+        }
+
+        if (!health.isEjected(now)) {
+            health.recordSuccess(latencyNanos, CircuitBreaker.CLOSED_PERMISSION);
+            return;
+        }
+
+        // An ejected endpoint does not receive any requests, so its history
+        // is outdated.
+        health.reset(latencyNanos);
+        if (!shouldBeEjected(health, getBestLatency(endpoints, now), getMaxHeadBlockNumber(endpoints))) {
+            LOGGER.info("Reinstating the endpoint {}.", endpointUri);
+            health.reinstate();
+        }
+    }
+
+    /**
+     * Find the endpoint with the best score.
+     *
+     * @param endpoints The configured endpoints.
+     * @param excluded  Endpoints that should not be selected.
+     * @param now       The current time in milliseconds.
+     * @return The best endpoint or <code>null</code> if no endpoint is
+     * available.
+     */
+    private Pair<URI, Boolean> findBest(List<Pair<URI, Boolean>> endpoints, Collection<URI> excluded, long now) {
+        long maxHeadBlockNumber = getMaxHeadBlockNumber(endpoints);
+        double bestLatency = getBestLatency(endpoints, now);
+
+        Pair<URI, Boolean> best = null;
+        double bestScore = Double.MAX_VALUE;
+        boolean bestIsEjected = true;
+
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            EndpointHealth health = getHealth(endpoint.getLeft());
+            if (excluded.contains(endpoint.getLeft()) || !health.getCircuitBreaker().isRequestAllowed(now)) {
+                continue;
+            }
+
+            if (!health.isEjected(now) && shouldBeEjected(health, bestLatency, maxHeadBlockNumber)) {
+                LOGGER.warn("Ejecting the endpoint {} ({}).", endpoint.getLeft(), health);
+                health.eject(now, EJECTION_TIME);
+            }
+
+            boolean ejected = health.isEjected(now);
+            double score = health.getScore(getHeadBlockLag(health, maxHeadBlockNumber));
+            // Prefer endpoints that are not ejected and keep the configured
+            // order for endpoints with the same score.
+            if (best == null || (bestIsEjected && !ejected) || (bestIsEjected == ejected && score < bestScore)) {
+                best = endpoint;
+                bestScore = score;
+                bestIsEjected = ejected;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Check if the given endpoint should not receive any requests for a
+     * while.
+     *
+     * @param health             The health of the endpoint.
+     * @param bestLatency        The latency of the fastest endpoint or
+     *                           <code>-1</code> if unknown.
+     * @param maxHeadBlockNumber The highest head block number reported by any
+     *                           endpoint.
+     * @return <code>true</code> if the endpoint should be ejected.
+     */
+    private boolean shouldBeEjected(EndpointHealth health, double bestLatency, long maxHeadBlockNumber) {
+        if (getHeadBlockLag(health, maxHeadBlockNumber) > BeowulfJConfig.getInstance().getMaxHeadBlockLag()) {
+            return true;
+        }
+
+        double latency = health.getLatencyNanos();
+        return bestLatency > 0 && latency > MIN_SLOW_LATENCY_NANOS && latency > bestLatency * SLOW_ENDPOINT_FACTOR;
+    }
+
+    /**
+     * @param health             The health of the endpoint.
+     * @param maxHeadBlockNumber The highest head block number reported by any
+     *                           endpoint.
+     * @return The number of blocks the endpoint lags behind or <code>0</code>
+     * if unknown.
+     */
+    private long getHeadBlockLag(EndpointHealth health, long maxHeadBlockNumber) {
+        long headBlockNumber = health.getHeadBlockNumber();
+        return headBlockNumber < 0 ? 0 : maxHeadBlockNumber - headBlockNumber;
+    }
+
+    /**
+     * @param endpoints The configured endpoints.
+     * @return The highest head block number reported by any endpoint.
+     */
+    private long getMaxHeadBlockNumber(List<Pair<URI, Boolean>> endpoints) {
+        long maxHeadBlockNumber = -1;
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            maxHeadBlockNumber = Math.max(maxHeadBlockNumber, getHealth(endpoint.getLeft()).getHeadBlockNumber());
+        }
+        return maxHeadBlockNumber;
+    }
+
+    /**
+     * @param endpoints The configured endpoints.
+     * @param now       The current time in milliseconds.
+     * @return The lowest latency of all endpoints that are not ejected or
+     * <code>-1</code> if unknown.
+     */
+    private double getBestLatency(List<Pair<URI, Boolean>> endpoints, long now) {
+        double bestLatency = -1;
+        for (Pair<URI, Boolean> endpoint : endpoints) {
+            EndpointHealth health = getHealth(endpoint.getLeft());
+            double latency = health.getLatencyNanos();
+            if (!health.isEjected(now) && latency >= 0 && (bestLatency < 0 || latency < bestLatency)) {
+                bestLatency = latency;
+            }
+        }
+        return bestLatency;
+    }
+}
@@ -16,63 +16,307 @@
  */
 package com.beowulfchain.beowulfj.communication;
 
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.GZipEncoding;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.http.apache.ApacheHttpTransport;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.params.HttpParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class HttpClient extends AbstractClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClient.class);
 
+    /**
+     * The pooled transport used for endpoints whose certificate should be
+     * validated.
+     */
+    private ApacheHttpTransport transport;
+    /**
+     * The pooled transport used for endpoints whose certificate should not be
+     * validated.
+     */
+    private ApacheHttpTransport unvalidatedTransport;
+    /**
+     * The task that regularly closes connections which have been idle for too
+     * long.
+     */
+    private ScheduledFuture<?> idleConnectionEviction;
+    /**
+     * The lock guarding the transports. A {@link ReentrantLock} is used
+     * instead of a monitor, as shutting a transport down closes its
+     * connections and blocking while holding a monitor pins virtual threads
+     * to their carrier thread.
+     */
+    private final Lock transportLock = new ReentrantLock();
+
     @Override
     public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
                                                  boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, null);
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException {
         try {
-            NetHttpTransport.Builder builder = new NetHttpTransport.Builder();
-            // Disable SSL verification if needed
-            if (sslVerificationDisabled && endpointUri.getScheme().equals("https")) {
-                builder.doNotValidateCertificate();
-            }
+            return post(requestObject.toJson(), requestObject.getDeadline(), endpointUri, sslVerificationDisabled,
+                    content -> {
+                        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory()
+                                .createParser(content)) {
+                            return JsonRPCResponse.read(parser, resultType);
+                        }
+                    });
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    @Override
+    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                           boolean sslVerificationDisabled) throws BeowulfCommunicationException, BeowulfResponseException {
+        try {
+            return new JsonRPCBatchResponse(post(batchRequest.toJson(), batchRequest.getDeadline(), endpointUri,
+                    sslVerificationDisabled, content -> CommunicationHandler.getObjectMapper().readTree(content)));
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
 
-            String requestPayload = requestObject.toJson();
-            HttpRequest httpRequest = builder.build().createRequestFactory(new HttpClientRequestInitializer())
-                    .buildPostRequest(new GenericUrl(endpointUri),
-                            ByteArrayContent.fromString("application/json", requestPayload));
+    /**
+     * HTTP has no ping, so a cheap request is sent instead, which opens a
+     * pooled keep-alive connection, including its TLS session, or keeps it
+     * from being evicted as idle. An error object in the answer does not
+     * matter, as it proves that the endpoint is reachable.
+     */
+    @Override
+    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_HARDFORK_VERSION, Collections.emptyList());
+        try {
+            post(request.toJson(), null, endpointUri, sslVerificationDisabled, content -> {
+                IOUtils.skip(content, Long.MAX_VALUE);
+                return null;
+            });
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    /**
+     * Send the given payload to the <code>endpointUri</code> and read the
+     * answer straight from the connection, without buffering it as a String.
+     *
+     * @param requestPayload          The JSON to send.
+     * @param deadline                The deadline of the request or <code>null</code>.
+     * @param endpointUri             The endpoint to send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @param responseReader          Reads the answer of the node.
+     * @param <R>                     The type of the answer.
+     * @return The answer of the node.
+     * @throws BeowulfCommunicationException In case of communication problems.
+     */
+    private <R> R post(String requestPayload, @Nullable Deadline deadline, URI endpointUri,
+                       boolean sslVerificationDisabled, ResponseReader<R> responseReader)
+            throws BeowulfCommunicationException {
+        try {
+            byte[] payload = requestPayload.getBytes(StandardCharsets.UTF_8);
+            HttpRequest httpRequest = getTransport(sslVerificationDisabled && endpointUri.getScheme().equals("https"))
+                    .createRequestFactory(new HttpClientRequestInitializer(deadline))
+                    .buildPostRequest(new GenericUrl(endpointUri), new ByteArrayContent("application/json", payload));
+
+            BeowulfJConfig config = BeowulfJConfig.getInstance();
+            if (config.isCompressionEnabled() && payload.length >= config.getCompressionThreshold()) {
+                httpRequest.setEncoding(new GZipEncoding());
+            }
+            // Compressed responses are decoded transparently.
+            httpRequest.getHeaders().setAcceptEncoding("gzip");
 
             LOGGER.debug("Sending {}.", requestPayload);
 
             HttpResponse httpResponse = httpRequest.execute();
-            httpResponse.getMediaType().setCharsetParameter(StandardCharsets.UTF_8);
 
             int status = httpResponse.getStatusCode();
-            String responsePayload = httpResponse.parseAsString();
-
-            if (status >= 200 && status < 300 && responsePayload != null) {
-                return new JsonRPCResponse(CommunicationHandler.getObjectMapper().readTree(responsePayload));
-            } else {
+            if (status < 200 || status >= 300) {
+                httpResponse.ignore();
                 throw new ClientProtocolException("Unexpected response status: " + status);
             }
 
+            // Closing the content returns the connection to the pool.
+            try (InputStream content = httpResponse.getContent()) {
+                if (content == null) {
+                    throw new ClientProtocolException("The response does not have a body.");
+                }
+
+                return responseReader.read(content);
+            }
+
         } catch (GeneralSecurityException | IOException e) {
             throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
         }
     }
 
     @Override
-    public void closeConnection() {
-        // A connection is used for exactly one request and closed afterwards.
-        // Due to that there is no need to close it here.
+    public void closeConnection() throws IOException {
+        transportLock.lock();
+        try {
+            if (idleConnectionEviction != null) {
+                idleConnectionEviction.cancel(false);
+                idleConnectionEviction = null;
+            }
+            if (transport != null) {
+                transport.shutdown();
+                transport = null;
+            }
+            if (unvalidatedTransport != null) {
+                unvalidatedTransport.shutdown();
+                unvalidatedTransport = null;
+            }
+        } finally {
+            transportLock.unlock();
+        }
+    }
+
+    /**
+     * Get the long-lived transport of this client, which keeps connections
+     * alive and reuses them, including their TLS sessions, across requests.
+     *
+     * @param doNotValidateCertificate Define if the SSL verification should be
+     *                                 disabled.
+     * @return The transport to use.
+     * @throws GeneralSecurityException If the SSL context could not be created.
+     */
+    private ApacheHttpTransport getTransport(boolean doNotValidateCertificate) throws GeneralSecurityException {
+        transportLock.lock();
+        try {
+            if (doNotValidateCertificate) {
+                if (unvalidatedTransport == null) {
+                    unvalidatedTransport = createTransport(true);
+                }
+                return unvalidatedTransport;
+            }
+
+            if (transport == null) {
+                transport = createTransport(false);
+            }
+            return transport;
+        } finally {
+            transportLock.unlock();
+        }
+    }
+
+    /**
+     * Create a new transport with a bounded connection pool configured by
+     * {@link BeowulfJConfig#setMaxHttpConnections(int)} and
+     * {@link BeowulfJConfig#setMaxHttpConnectionsPerEndpoint(int)}.
+     *
+     * @param doNotValidateCertificate Define if the SSL verification should be
+     *                                 disabled.
+     * @return The new transport.
+     * @throws GeneralSecurityException If the SSL context could not be created.
+     */
+    private ApacheHttpTransport createTransport(boolean doNotValidateCertificate) throws GeneralSecurityException {
+        BeowulfJConfig config = BeowulfJConfig.getInstance();
+
+        ApacheHttpTransport.Builder builder = new ApacheHttpTransport.Builder();
+        if (doNotValidateCertificate) {
+            builder.doNotValidateCertificate();
+        }
+
+        HttpParams httpParams = builder.getHttpParams();
+        ConnManagerParams.setMaxTotalConnections(httpParams, config.getMaxHttpConnections());
+        ConnManagerParams.setMaxConnectionsPerRoute(httpParams,
+                new ConnPerRouteBean(config.getMaxHttpConnectionsPerEndpoint()));
+
+        scheduleIdleConnectionEviction(config.getIdleTimeout());
+
+        return builder.build();
+    }
+
+    /**
+     * Close pooled connections that have been idle for longer than the
+     * <code>idleTimeout</code>, so a request does not pick up a connection the
+     * node has already closed.
+     *
+     * @param idleTimeout The time in milliseconds an unused connection is kept
+     *                    open, or a value of 0 or less to keep them forever.
+     */
+    private void scheduleIdleConnectionEviction(int idleTimeout) {
+        if (idleConnectionEviction != null || idleTimeout <= 0) {
+            return;
+        }
+
+        long period = Math.max(1000L, idleTimeout / 2L);
+        idleConnectionEviction = CommunicationExecutors.getScheduler().scheduleAtFixedRate(() -> {
+            for (ApacheHttpTransport pooledTransport : getTransports()) {
+                ClientConnectionManager connectionManager = pooledTransport.getHttpClient().getConnectionManager();
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The transports that have been created so far.
+     */
+    private List<ApacheHttpTransport> getTransports() {
+        List<ApacheHttpTransport> transports = new ArrayList<>(2);
+        transportLock.lock();
+        try {
+            if (transport != null) {
+                transports.add(transport);
+            }
+            if (unvalidatedTransport != null) {
+                transports.add(unvalidatedTransport);
+            }
+        } finally {
+            transportLock.unlock();
+        }
+        return transports;
+    }
+
+    /**
+     * Reads the body of a response.
+     *
+     * @param <R> The type of the answer.
+     */
+    @FunctionalInterface
+    private interface ResponseReader<R> {
+        R read(InputStream content) throws BeowulfTransformationException, IOException;
     }
 }
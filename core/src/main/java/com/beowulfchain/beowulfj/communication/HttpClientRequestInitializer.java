@@ -19,14 +19,39 @@ package com.beowulfchain.beowulfj.communication;
 import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestInitializer;
+
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 public class HttpClientRequestInitializer implements HttpRequestInitializer {
+    /**
+     * The deadline of the request or <code>null</code>.
+     */
+    private final Deadline deadline;
+
+    /**
+     * Create a new {@link HttpClientRequestInitializer} that applies the
+     * configured timeouts.
+     */
+    public HttpClientRequestInitializer() {
+        this(null);
+    }
+
+    /**
+     * Create a new {@link HttpClientRequestInitializer} that limits the
+     * configured timeouts to the time left until the given deadline.
+     *
+     * @param deadline The deadline of the request or <code>null</code>.
+     */
+    public HttpClientRequestInitializer(@Nullable Deadline deadline) {
+        this.deadline = deadline;
+    }
 
     @Override
     public void initialize(HttpRequest request) throws IOException {
-        request.setConnectTimeout(BeowulfJConfig.getInstance().getIdleTimeout());
-        request.setReadTimeout(BeowulfJConfig.getInstance().getResponseTimeout());
+        int connectTimeout = BeowulfJConfig.getInstance().getIdleTimeout();
+        request.setConnectTimeout(deadline == null ? connectTimeout : deadline.limit(connectTimeout));
+        request.setReadTimeout(AbstractClient.getResponseTimeout(deadline));
         request.setNumberOfRetries(0);
     }
 }
@@ -0,0 +1,96 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the last irreversible block reported by the nodes, which tells data
+ * that can not change anymore apart from data that may still be reverted by a
+ * fork. The {@link CommunicationHandler} keeps one instance that is shared by
+ * the {@link IrreversibleCache} and other components storing irreversible
+ * data.
+ */
+public class IrreversibleBlockTracker {
+    /**
+     * The time in milliseconds after which the last irreversible block number
+     * is considered outdated.
+     */
+    private static final long LAST_IRREVERSIBLE_BLOCK_MAX_AGE = 3000L;
+
+    private final LongSupplier clock;
+    private final AtomicLong lastIrreversibleBlockNumber = new AtomicLong(-1);
+    /**
+     * The time in milliseconds the last irreversible block number has been
+     * recorded at.
+     */
+    private volatile long lastIrreversibleBlockUpdate;
+
+    /**
+     * Create a new {@link IrreversibleBlockTracker} instance.
+     */
+    public IrreversibleBlockTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new {@link IrreversibleBlockTracker} instance.
+     *
+     * @param clock The source of the current time in milliseconds.
+     */
+    IrreversibleBlockTracker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param blockNumber The number of a block.
+     * @return <code>true</code> if the block is known to be irreversible.
+     */
+    public boolean isIrreversible(long blockNumber) {
+        return blockNumber > 0 && blockNumber <= lastIrreversibleBlockNumber.get();
+    }
+
+    /**
+     * Record the last irreversible block number reported by a node.
+     *
+     * @param blockNumber The last irreversible block number.
+     */
+    public void recordLastIrreversibleBlockNumber(long blockNumber) {
+        if (blockNumber > 0) {
+            lastIrreversibleBlockNumber.accumulateAndGet(blockNumber, Math::max);
+            lastIrreversibleBlockUpdate = clock.getAsLong();
+        }
+    }
+
+    /**
+     * @return The last irreversible block number or <code>-1</code> if
+     * unknown.
+     */
+    public long getLastIrreversibleBlockNumber() {
+        return lastIrreversibleBlockNumber.get();
+    }
+
+    /**
+     * @return <code>true</code> if the last irreversible block number should
+     * be fetched again before deciding that a block is reversible.
+     */
+    public boolean isLastIrreversibleBlockNumberOutdated() {
+        return lastIrreversibleBlockNumber.get() < 0
+                || clock.getAsLong() - lastIrreversibleBlockUpdate > LAST_IRREVERSIBLE_BLOCK_MAX_AGE;
+    }
+}
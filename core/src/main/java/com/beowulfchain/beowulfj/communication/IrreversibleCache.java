@@ -0,0 +1,166 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the results of requests for data that can not change anymore
+ * because it belongs to an irreversible block, like blocks, block headers and
+ * transactions.
+ * <p>
+ * The cache has two tiers: The most recently used results are kept on the
+ * heap as Java objects, while a larger number of results is kept as JSON in
+ * an {@link OffHeapStore} outside of the heap. Results are only admitted if
+ * their block number is at or below the last irreversible block tracked by
+ * the {@link IrreversibleBlockTracker}, so data that may still be reverted by
+ * a fork is never cached.
+ * <p>
+ * The cached objects are shared by all callers and must not be modified.
+ */
+public class IrreversibleCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IrreversibleCache.class);
+
+    private final Map<String, List<?>> onHeapResults;
+    private final OffHeapStore offHeapResults;
+
+    /**
+     * Create a new {@link IrreversibleCache} instance.
+     *
+     * @param maxEntries     The maximum number of results kept on the heap.
+     * @param offHeapMaxSize The maximum size of all results kept off the heap
+     *                       in bytes or <code>0</code> to keep results on the
+     *                       heap only.
+     */
+    public IrreversibleCache(int maxEntries, long offHeapMaxSize) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The number of entries has to be greater than 0.");
+        }
+
+        this.onHeapResults = new LinkedHashMap<String, List<?>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<?>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.offHeapResults = offHeapMaxSize > 0 ? new OffHeapStore(offHeapMaxSize) : null;
+    }
+
+    /**
+     * Create the cache configured by the given config.
+     *
+     * @param config The config.
+     * @return The cache or <code>null</code> if caching is disabled.
+     */
+    static IrreversibleCache of(BeowulfJConfig config) {
+        if (config.getIrreversibleCacheSize() == 0) {
+            return null;
+        }
+        return new IrreversibleCache(config.getIrreversibleCacheSize(), config.getIrreversibleCacheOffHeapSize());
+    }
+
+    /**
+     * Get a cached result. Results found off the heap are moved back onto the
+     * heap.
+     *
+     * @param key        The key of the request.
+     * @param resultType The type the result is bound to.
+     * @param <T>        The type of the result elements.
+     * @return The result or <code>null</code> if it is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String key, JavaType resultType) {
+        synchronized (onHeapResults) {
+            List<?> result = onHeapResults.get(key);
+            if (result != null) {
+                return (List<T>) result;
+            }
+        }
+
+        byte[] rawResult = offHeapResults == null ? null : offHeapResults.get(key);
+        if (rawResult == null) {
+            return null;
+        }
+
+        try {
+            List<T> result = CommunicationHandler.getObjectMapper().readValue(rawResult, resultType);
+            synchronized (onHeapResults) {
+                onHeapResults.put(key, result);
+            }
+            return result;
+        } catch (IOException e) {
+            LOGGER.debug("Could not read the cached result of {}.", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Cache the result of a request. The caller has to make sure that the
+     * result belongs to an
+     * {@link IrreversibleBlockTracker#isIrreversible(long) irreversible} block.
+     *
+     * @param key       The key of the request.
+     * @param rawResult The result as JSON.
+     * @param result    The result bound to its type.
+     */
+    public void put(String key, byte[] rawResult, List<?> result) {
+        synchronized (onHeapResults) {
+            onHeapResults.put(key, result);
+        }
+        if (offHeapResults != null) {
+            offHeapResults.put(key, rawResult);
+        }
+    }
+
+    /**
+     * @return The number of results kept on the heap.
+     */
+    public int getOnHeapSize() {
+        synchronized (onHeapResults) {
+            return onHeapResults.size();
+        }
+    }
+
+    /**
+     * @return The size of all results kept off the heap in bytes.
+     */
+    public long getOffHeapSize() {
+        return offHeapResults == null ? 0 : offHeapResults.size();
+    }
+
+    /**
+     * Remove all cached results.
+     */
+    public void clear() {
+        synchronized (onHeapResults) {
+            onHeapResults.clear();
+        }
+        if (offHeapResults != null) {
+            offHeapResults.clear();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+/**
+ * Receives the notices a node pushes for a {@link Subscription}.
+ * <p>
+ * The methods of a listener are never called concurrently for the same
+ * subscription and notices are delivered in the order they have been
+ * received. They are called on the
+ * {@link CommunicationExecutors#getAsyncExecutor() async executor}, so a
+ * slow listener does not block the connection.
+ *
+ * @param <T> The type of the notices.
+ */
+public interface NoticeListener<T> {
+    /**
+     * Called for every notice the node pushed.
+     *
+     * @param notice The notice.
+     */
+    void onNotice(T notice);
+
+    /**
+     * Called if a notice could not be transformed or if the subscription
+     * ended because the connection has been closed. The node forgets all
+     * callbacks of a closed connection, so no further notices are delivered
+     * afterwards and the subscription has to be registered again.
+     *
+     * @param cause The reason of the failure.
+     */
+    default void onError(Throwable cause) {
+    }
+}
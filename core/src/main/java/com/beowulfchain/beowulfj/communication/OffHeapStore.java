@@ -0,0 +1,218 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A byte store that keeps its values in direct buffers outside of the Java
+ * heap, so large amounts of cached data do not increase the garbage
+ * collection pauses. The least recently used values are evicted once the
+ * total size of all values exceeds the capacity.
+ * <p>
+ * The memory is split into chunks of a fixed size, which are taken from
+ * slabs that are allocated once when they are needed first and are reused
+ * afterwards. A value occupies as many chunks as it needs, so evicting values
+ * returns their chunks to the store instead of leaving buffers to the garbage
+ * collector.
+ */
+class OffHeapStore {
+    /**
+     * The default size of a chunk in bytes.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+    /**
+     * The minimum number of chunks, so small stores can hold several values.
+     */
+    private static final int MIN_CHUNK_COUNT = 64;
+    /**
+     * The maximum size of a slab in bytes.
+     */
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+
+    private final long capacity;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final int chunksPerSlab;
+    private final ByteBuffer[] slabs;
+    /**
+     * The stored values in access order.
+     */
+    private final LinkedHashMap<String, Entry> values = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The chunks that have been used before and are free again.
+     */
+    private int[] freeChunks = new int[16];
+    private int freeChunkCount;
+    /**
+     * The number of chunks that have been handed out at least once.
+     */
+    private int usedChunkCount;
+    private long size;
+
+    /**
+     * Create a new {@link OffHeapStore} instance.
+     *
+     * @param capacity The maximum total size of all values in bytes.
+     */
+    OffHeapStore(long capacity) {
+        this(capacity, (int) Math.min(DEFAULT_CHUNK_SIZE, capacity / MIN_CHUNK_COUNT));
+    }
+
+    /**
+     * Create a new {@link OffHeapStore} instance.
+     *
+     * @param capacity  The maximum total size of all values in bytes.
+     * @param chunkSize The size of a chunk in bytes.
+     */
+    OffHeapStore(long capacity, int chunkSize) {
+        this.capacity = capacity;
+        this.chunkSize = (int) Math.max(1, Math.min(chunkSize, capacity));
+        this.chunkCount = (int) Math.min(capacity / this.chunkSize, Integer.MAX_VALUE);
+        this.chunksPerSlab = Math.max(1, MAX_SLAB_SIZE / this.chunkSize);
+        this.slabs = new ByteBuffer[(int) (((long) chunkCount + chunksPerSlab - 1) / chunksPerSlab)];
+    }
+
+    /**
+     * Get a copy of the value stored under the given key.
+     *
+     * @param key The key.
+     * @return The value or <code>null</code> if it is not stored.
+     */
+    synchronized byte[] get(String key) {
+        Entry value = values.get(key);
+        if (value == null) {
+            return null;
+        }
+
+        byte[] bytes = new byte[value.length];
+        for (int i = 0; i < value.chunks.length; i++) {
+            ByteBuffer slab = slabs[value.chunks[i] / chunksPerSlab];
+            slab.position((value.chunks[i] % chunksPerSlab) * chunkSize);
+            slab.get(bytes, i * chunkSize, Math.min(chunkSize, value.length - i * chunkSize));
+        }
+        return bytes;
+    }
+
+    /**
+     * Store the given value and evict the least recently used values if the
+     * capacity is exceeded. Values larger than the capacity are not stored.
+     *
+     * @param key   The key.
+     * @param bytes The value.
+     */
+    synchronized void put(String key, byte[] bytes) {
+        int requiredChunks = (bytes.length + chunkSize - 1) / chunkSize;
+        if (bytes.length > capacity || requiredChunks > chunkCount) {
+            return;
+        }
+
+        Entry previous = values.remove(key);
+        if (previous != null) {
+            release(previous);
+        }
+
+        Iterator<Map.Entry<String, Entry>> eldest = values.entrySet().iterator();
+        while (freeChunkCount + chunkCount - usedChunkCount < requiredChunks && eldest.hasNext()) {
+            release(eldest.next().getValue());
+            eldest.remove();
+        }
+
+        int[] chunks = new int[requiredChunks];
+        for (int i = 0; i < requiredChunks; i++) {
+            chunks[i] = allocate();
+            ByteBuffer slab = slabs[chunks[i] / chunksPerSlab];
+            slab.position((chunks[i] % chunksPerSlab) * chunkSize);
+            slab.put(bytes, i * chunkSize, Math.min(chunkSize, bytes.length - i * chunkSize));
+        }
+
+        values.put(key, new Entry(bytes.length, chunks));
+        size += bytes.length;
+    }
+
+    /**
+     * @return The total size of all stored values in bytes.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Remove all values. The slabs are kept for later values.
+     */
+    synchronized void clear() {
+        for (Entry value : values.values()) {
+            release(value);
+        }
+        values.clear();
+    }
+
+    /**
+     * Take a free chunk, allocating its slab if this has not been done yet.
+     * There has to be a free chunk.
+     *
+     * @return The index of the chunk.
+     */
+    private int allocate() {
+        if (freeChunkCount > 0) {
+            return freeChunks[--freeChunkCount];
+        }
+
+        int chunk = usedChunkCount++;
+        int slab = chunk / chunksPerSlab;
+        if (slabs[slab] == null) {
+            int slabChunks = Math.min(chunksPerSlab, chunkCount - slab * chunksPerSlab);
+            slabs[slab] = ByteBuffer.allocateDirect(slabChunks * chunkSize);
+        }
+        return chunk;
+    }
+
+    /**
+     * Return the chunks of the given value to the store.
+     *
+     * @param value The value that has been removed.
+     */
+    private void release(Entry value) {
+        if (freeChunkCount + value.chunks.length > freeChunks.length) {
+            freeChunks = Arrays.copyOf(freeChunks, Math.max(freeChunks.length * 2, freeChunkCount + value.chunks.length));
+        }
+        for (int chunk : value.chunks) {
+            freeChunks[freeChunkCount++] = chunk;
+        }
+        size -= value.length;
+    }
+
+    /**
+     * A stored value.
+     */
+    private static final class Entry {
+        private final int length;
+        /**
+         * The chunks holding the value in order.
+         */
+        private final int[] chunks;
+
+        private Entry(int length, int[] chunks) {
+            this.length = length;
+            this.chunks = chunks;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import org.glassfish.tyrus.core.ProtocolException;
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+
+import javax.websocket.Extension;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A client side implementation of the <code>permessage-deflate</code>
+ * WebSocket extension (RFC 7692) for Tyrus.
+ * <p>
+ * Outgoing messages are only compressed if they are at least
+ * {@link BeowulfJConfig#getCompressionThreshold() compressionThreshold}
+ * bytes long. Incoming messages are decompressed whenever the node
+ * compressed them.
+ */
+public class PerMessageDeflateExtension implements ExtendedExtension {
+    /**
+     * The name of the extension.
+     */
+    public static final String NAME = "permessage-deflate";
+
+    private static final String DEFLATER = NAME + ".deflater";
+    private static final String INFLATER = NAME + ".inflater";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String INCOMING_MESSAGE_COMPRESSED = NAME + ".incomingMessageCompressed";
+    private static final byte OPCODE_CONTINUATION = 0x0;
+    private static final byte OPCODE_TEXT = 0x1;
+    private static final byte OPCODE_BINARY = 0x2;
+    /**
+     * The bytes a sync flush ends with, which are removed from the end of
+     * every compressed message.
+     */
+    private static final byte[] TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Parameter> getParameters() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Frame processOutgoing(ExtensionContext context, Frame frame) {
+        // Fragmented messages are sent as they are.
+        if (frame.isControlFrame() || frame.isRsv1() || !frame.isFin()
+                || (frame.getOpcode() != OPCODE_TEXT && frame.getOpcode() != OPCODE_BINARY)
+                || frame.getPayloadLength() < BeowulfJConfig.getInstance().getCompressionThreshold()) {
+            return frame;
+        }
+
+        Deflater deflater = (Deflater) context.getProperties().computeIfAbsent(DEFLATER,
+                key -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+        if (Boolean.TRUE.equals(context.getProperties().get(CLIENT_NO_CONTEXT_TAKEOVER))) {
+            deflater.reset();
+        }
+
+        byte[] payload = frame.getPayloadData();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 4 + TAIL.length);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        deflater.setInput(payload);
+        int length;
+        do {
+            length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            compressed.write(buffer, 0, length);
+        } while (length == buffer.length);
+
+        // Remove the tail of the sync flush, as required by the RFC.
+        byte[] compressedPayload = compressed.toByteArray();
+        byte[] data = new byte[compressedPayload.length - TAIL.length];
+        System.arraycopy(compressedPayload, 0, data, 0, data.length);
+
+        return Frame.builder(frame).rsv1(true).payloadData(data).payloadLength(data.length).build();
+    }
+
+    @Override
+    public Frame processIncoming(ExtensionContext context, Frame frame) {
+        if (frame.isControlFrame()) {
+            return frame;
+        }
+
+        // Only the first frame of a compressed message has the RSV1 bit set.
+        boolean compressed = frame.getOpcode() == OPCODE_CONTINUATION
+                ? Boolean.TRUE.equals(context.getProperties().get(INCOMING_MESSAGE_COMPRESSED)) : frame.isRsv1();
+        context.getProperties().put(INCOMING_MESSAGE_COMPRESSED, compressed && !frame.isFin());
+        if (!compressed) {
+            return frame;
+        }
+
+        Inflater inflater = (Inflater) context.getProperties().computeIfAbsent(INFLATER, key -> new Inflater(true));
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream((int) frame.getPayloadLength() * 4);
+        try {
+            inflate(inflater, frame.getPayloadData(), decompressed);
+            if (frame.isFin()) {
+                inflate(inflater, TAIL, decompressed);
+                if (inflater.finished() || Boolean.TRUE.equals(context.getProperties().get(SERVER_NO_CONTEXT_TAKEOVER))) {
+                    inflater.reset();
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ProtocolException("Unable to decompress the message: " + e.getMessage());
+        }
+
+        byte[] data = decompressed.toByteArray();
+        return Frame.builder(frame).rsv1(false).payloadData(data).payloadLength(data.length).build();
+    }
+
+    @Override
+    public List<Parameter> onExtensionNegotiation(ExtensionContext context, List<Parameter> requestedParameters) {
+        // This extension is only used on the client side.
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
+        for (Extension.Parameter parameter : responseParameters) {
+            if (CLIENT_NO_CONTEXT_TAKEOVER.equals(parameter.getName())) {
+                context.getProperties().put(CLIENT_NO_CONTEXT_TAKEOVER, true);
+            } else if (SERVER_NO_CONTEXT_TAKEOVER.equals(parameter.getName())) {
+                context.getProperties().put(SERVER_NO_CONTEXT_TAKEOVER, true);
+            }
+        }
+    }
+
+    @Override
+    public void destroy(ExtensionContext context) {
+        Object deflater = context.getProperties().remove(DEFLATER);
+        if (deflater != null) {
+            ((Deflater) deflater).end();
+        }
+        Object inflater = context.getProperties().remove(INFLATER);
+        if (inflater != null) {
+            ((Inflater) inflater).end();
+        }
+    }
+
+    /**
+     * Decompress the given data.
+     *
+     * @param inflater The inflater of the connection.
+     * @param data     The compressed data.
+     * @param out      The stream to write the decompressed data to.
+     * @throws DataFormatException If the data is not valid.
+     */
+    private static void inflate(Inflater inflater, byte[] data, ByteArrayOutputStream out)
+            throws DataFormatException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        inflater.setInput(data);
+        int length;
+        do {
+            length = inflater.inflate(buffer);
+            out.write(buffer, 0, length);
+        } while (length == buffer.length || (length > 0 && !inflater.needsInput()));
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.enums.RequestPriority;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket that limits the rate of requests sent to a single endpoint.
+ * <p>
+ * The bucket holds up to <code>burst</code> permits and is refilled with
+ * <code>permitsPerSecond</code> permits per second. Requests that find the
+ * bucket empty wait in a queue per {@link RequestPriority}: Waiting requests
+ * of a higher priority are always served first, so e.g. broadcasts do not
+ * queue behind bulk reads. Requests of the same priority are served in the
+ * order they arrived.
+ */
+public class RateLimiter {
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final double permitsPerNano;
+    private final int burst;
+    private final LongSupplier clock;
+    private final Map<RequestPriority, Deque<Waiter>> waiters = new EnumMap<>(RequestPriority.class);
+    private double availablePermits;
+    private long lastRefill;
+    private ScheduledFuture<?> drain;
+
+    /**
+     * Create a new {@link RateLimiter} instance.
+     *
+     * @param permitsPerSecond The number of permits added per second or
+     *                         <code>0</code> to not limit the rate at all.
+     * @param burst            The maximal number of permits that can be
+     *                         used at once.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * Create a new {@link RateLimiter} instance.
+     *
+     * @param permitsPerSecond The number of permits added per second or
+     *                         <code>0</code> to not limit the rate at all.
+     * @param burst            The maximal number of permits that can be
+     *                         used at once.
+     * @param clock            The source of the current time in nanoseconds.
+     */
+    RateLimiter(double permitsPerSecond, int burst, LongSupplier clock) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.clock = clock;
+        this.availablePermits = this.burst;
+        this.lastRefill = clock.getAsLong();
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            waiters.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return <code>true</code> if this limiter limits the rate of requests.
+     */
+    public boolean isLimited() {
+        return permitsPerNano > 0;
+    }
+
+    /**
+     * Wait until the given number of permits is available.
+     *
+     * @param priority The priority of the request.
+     * @param permits  The number of permits, which is capped at the burst.
+     * @throws InterruptedException If the thread has been interrupted while
+     *                              waiting.
+     */
+    public void acquire(RequestPriority priority, int permits) throws InterruptedException {
+        CompletableFuture<Void> permit = acquireAsync(priority, permits);
+        if (permit.isDone()) {
+            return;
+        }
+
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            // Give up the place in the queue. The permits are lost if they
+            // have been granted in the meantime.
+            permit.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A permit has been completed exceptionally.", e.getCause());
+        }
+    }
+
+    /**
+     * Wait until the given number of permits is available, but at most for
+     * the given time.
+     *
+     * @param priority The priority of the request.
+     * @param permits  The number of permits, which is capped at the burst.
+     * @param timeout  The maximal time to wait.
+     * @param unit     The unit of the <code>timeout</code>.
+     * @return <code>true</code> if the permits have been granted or
+     * <code>false</code> if the time elapsed before.
+     * @throws InterruptedException If the thread has been interrupted while
+     *                              waiting.
+     */
+    public boolean tryAcquire(RequestPriority priority, int permits, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        CompletableFuture<Void> permit = acquireAsync(priority, permits);
+        if (permit.isDone()) {
+            return true;
+        }
+
+        try {
+            permit.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            // Give up the place in the queue, unless the permits have been
+            // granted in the meantime.
+            return !permit.cancel(false);
+        } catch (InterruptedException e) {
+            permit.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A permit has been completed exceptionally.", e.getCause());
+        }
+    }
+
+    /**
+     * Request the given number of permits without blocking.
+     *
+     * @param priority The priority of the request.
+     * @param permits  The number of permits, which is capped at the burst.
+     * @return A future that is completed once the permits have been granted.
+     * Cancelling the future gives up the place in the queue.
+     */
+    public CompletableFuture<Void> acquireAsync(RequestPriority priority, int permits) {
+        if (!isLimited()) {
+            return GRANTED;
+        }
+
+        int requiredPermits = Math.max(1, Math.min(permits, burst));
+        synchronized (this) {
+            refill();
+            if (!hasWaiters(priority) && availablePermits >= requiredPermits) {
+                availablePermits -= requiredPermits;
+                return GRANTED;
+            }
+
+            Waiter waiter = new Waiter(requiredPermits);
+            waiters.get(priority).add(waiter);
+            scheduleDrain();
+            return waiter.permit;
+        }
+    }
+
+    /**
+     * Grant the permits of all waiters that can be served now, in the order
+     * of their priority, and schedule the next run if waiters remain.
+     */
+    private void drain() {
+        List<CompletableFuture<Void>> grantedPermits = new ArrayList<>();
+
+        synchronized (this) {
+            drain = null;
+            refill();
+
+            for (RequestPriority priority : RequestPriority.values()) {
+                Deque<Waiter> queue = waiters.get(priority);
+                Waiter waiter;
+                while ((waiter = queue.peek()) != null) {
+                    if (waiter.permit.isDone()) {
+                        // The waiter gave up.
+                        queue.poll();
+                    } else if (availablePermits >= waiter.permits) {
+                        availablePermits -= waiter.permits;
+                        grantedPermits.add(queue.poll().permit);
+                    } else {
+                        break;
+                    }
+                }
+
+                // Waiters of a lower priority have to wait until this one has
+                // been served.
+                if (!queue.isEmpty()) {
+                    break;
+                }
+            }
+
+            scheduleDrain();
+        }
+
+        // Complete the permits outside of the lock, as completing a future
+        // runs the dependent actions.
+        for (CompletableFuture<Void> grantedPermit : grantedPermits) {
+            grantedPermit.complete(null);
+        }
+    }
+
+    /**
+     * Schedule the next run of {@link #drain()} for the time the first
+     * waiter can be served, unless a run is already scheduled.
+     */
+    private void scheduleDrain() {
+        if (drain != null) {
+            return;
+        }
+
+        Waiter next = null;
+        for (RequestPriority priority : RequestPriority.values()) {
+            next = waiters.get(priority).peek();
+            if (next != null) {
+                break;
+            }
+        }
+        if (next == null) {
+            return;
+        }
+
+        long delay = (long) Math.ceil(Math.max(0, next.permits - availablePermits) / permitsPerNano);
+        try {
+            drain = CommunicationExecutors.getScheduler().schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // The scheduler is shutting down, so nobody has to wait anymore.
+            for (Deque<Waiter> queue : waiters.values()) {
+                for (Waiter waiter : queue) {
+                    waiter.permit.completeExceptionally(e);
+                }
+                queue.clear();
+            }
+        }
+    }
+
+    /**
+     * Add the permits that accumulated since the last refill.
+     */
+    private void refill() {
+        long now = clock.getAsLong();
+        availablePermits = Math.min(burst, availablePermits + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+    /**
+     * @param priority The priority of a new request.
+     * @return <code>true</code> if requests of the same or a higher priority
+     * are already waiting.
+     */
+    private boolean hasWaiters(RequestPriority priority) {
+        for (RequestPriority waitingPriority : RequestPriority.values()) {
+            if (waitingPriority.compareTo(priority) > 0) {
+                break;
+            }
+            if (!waiters.get(waitingPriority).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+    /**
+     * A request waiting for permits.
+     */
+    private static class Waiter {
+        private final int permits;
+        private final CompletableFuture<Void> permit = new CompletableFuture<>();
+
+        private Waiter(int permits) {
+            this.permits = permits;
+        }
+    }
+}
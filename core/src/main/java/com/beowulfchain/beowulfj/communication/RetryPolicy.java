@@ -0,0 +1,138 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.enums.ResponseErrorType;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines how often and how fast a failed request is retried.
+ * <p>
+ * Between two attempts BeowulfJ waits for a random time between 0 and an
+ * exponentially growing upper bound ("full jitter"), so clients that failed
+ * at the same time do not retry at the same time.
+ */
+public class RetryPolicy {
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    /**
+     * Create a new {@link RetryPolicy} instance.
+     *
+     * @param maxRetries     The number of times a failed request is retried.
+     *                       <code>0</code> disables retries.
+     * @param initialBackoff The upper bound in milliseconds of the time to
+     *                       wait before the first retry.
+     * @param maxBackoff     The upper bound in milliseconds of the time to
+     *                       wait before any retry.
+     * @throws IllegalArgumentException If one of the values is negative or
+     *                                  <code>maxBackoff</code> is smaller than
+     *                                  <code>initialBackoff</code>.
+     */
+    public RetryPolicy(int maxRetries, long initialBackoff, long maxBackoff) {
+        if (maxRetries < 0 || initialBackoff < 0 || maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("The retry policy values must not be negative and the maximum "
+                    + "backoff must not be smaller than the initial backoff.");
+        }
+
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * @return The number of times a failed request is retried.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return The upper bound in milliseconds of the time to wait before the
+     * first retry.
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @return The upper bound in milliseconds of the time to wait before any
+     * retry.
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Check if another attempt should be made after the given number of
+     * failed attempts.
+     *
+     * @param failedAttempts The number of attempts that failed so far.
+     * @return <code>true</code> if the retry budget is not exhausted yet.
+     */
+    public boolean canRetry(int failedAttempts) {
+        return failedAttempts <= maxRetries;
+    }
+
+    /**
+     * Calculate the time to wait before the next attempt.
+     *
+     * @param failedAttempts The number of attempts that failed so far,
+     *                       starting with 1.
+     * @return The time to wait in milliseconds.
+     */
+    public long getBackoff(int failedAttempts) {
+        long upperBound = initialBackoff;
+        for (int i = 1; i < failedAttempts && upperBound < maxBackoff; i++) {
+            upperBound *= 2;
+        }
+        upperBound = Math.min(upperBound, maxBackoff);
+
+        return upperBound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(upperBound + 1);
+    }
+
+    /**
+     * Check if the given failure may not occur again on a further attempt.
+     * This is the case for failures of the transport and for
+     * {@link ResponseErrorType#isRetryable() temporary errors} of the node.
+     * All other errors returned by the node, like a missing authority, and
+     * responses that can not be transformed are deterministic and fail
+     * immediately instead of being sent to the remaining endpoints.
+     *
+     * @param failure The reason why the attempt failed.
+     * @return <code>true</code> if the request should be retried.
+     */
+    public boolean isRetryable(Throwable failure) {
+        if (failure instanceof BeowulfResponseException) {
+            return ((BeowulfResponseException) failure).getErrorType().isRetryable();
+        }
+
+        return failure instanceof BeowulfCommunicationException
+                && !(failure instanceof BeowulfTransformationException);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
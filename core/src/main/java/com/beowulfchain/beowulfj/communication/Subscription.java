@@ -0,0 +1,177 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registration for notices a node pushes over a websocket connection, e.g.
+ * for every applied block. The node tags every notice with the callback id
+ * the subscription has been registered with, which is used to route the
+ * notice to its {@link NoticeListener}, separately from the responses to
+ * ordinary requests.
+ *
+ * @param <T> The type of the notices.
+ */
+public class Subscription<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Subscription.class);
+
+    /**
+     * The source of the callback ids, which only have to be unique per
+     * connection.
+     */
+    private static final AtomicLong CALLBACK_IDS = new AtomicLong();
+
+    private final long callbackId = CALLBACK_IDS.getAndIncrement();
+    private final JavaType noticeType;
+    private final NoticeListener<T> listener;
+    /**
+     * The last notice that has been handed to the executor. Every notice waits
+     * for its predecessor, so the listener sees them in order.
+     */
+    private CompletableFuture<Void> lastDelivery = CompletableFuture.completedFuture(null);
+    private volatile boolean active = true;
+    private volatile Runnable cancellation;
+
+    /**
+     * Create a new subscription.
+     *
+     * @param noticeClass The type the notices should be transformed to.
+     * @param listener    The listener that receives the notices.
+     */
+    public Subscription(Class<T> noticeClass, NoticeListener<T> listener) {
+        this.noticeType = CommunicationHandler.getObjectMapper().getTypeFactory().constructType(noticeClass);
+        this.listener = listener;
+    }
+
+    /**
+     * Get the id the node uses to tag the notices of this subscription. The
+     * id has to be sent as a parameter of the request registering the
+     * subscription.
+     *
+     * @return The callback id.
+     */
+    public long getCallbackId() {
+        return callbackId;
+    }
+
+    /**
+     * @return <code>true</code> as long as notices are delivered to the
+     * listener.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Stop delivering notices to the listener. Notices that are still pushed
+     * by the node are dropped.
+     */
+    public void cancel() {
+        active = false;
+
+        Runnable currentCancellation = cancellation;
+        if (currentCancellation != null) {
+            currentCancellation.run();
+        }
+    }
+
+    /**
+     * Set the action that unregisters this subscription from the client it
+     * has been registered with. Called by {@link AbstractClient}
+     * implementations.
+     *
+     * @param cancellation The action to run once the subscription has been
+     *                     cancelled.
+     */
+    public void setCancellation(Runnable cancellation) {
+        this.cancellation = cancellation;
+        if (!active) {
+            cancellation.run();
+        }
+    }
+
+    /**
+     * Deliver a notice to the listener. Called by {@link AbstractClient}
+     * implementations for every notice tagged with the
+     * {@link #getCallbackId() callback id} of this subscription.
+     *
+     * @param notice The payload of the notice.
+     */
+    public synchronized void dispatch(JsonNode notice) {
+        if (!active) {
+            return;
+        }
+
+        lastDelivery = deliverAfter(lastDelivery, () -> {
+            T transformedNotice;
+            try {
+                transformedNotice = CommunicationHandler.getObjectMapper().convertValue(notice, noticeType);
+            } catch (IllegalArgumentException e) {
+                listener.onError(new BeowulfTransformationException("Unable to transform the notice into a "
+                        + noticeType + ".", e));
+                return;
+            }
+
+            if (active) {
+                listener.onNotice(transformedNotice);
+            }
+        });
+    }
+
+    /**
+     * End this subscription, e.g. because the connection it has been
+     * registered on has been closed.
+     *
+     * @param cause The reason why the subscription ended.
+     */
+    public synchronized void terminate(Throwable cause) {
+        if (!active) {
+            return;
+        }
+
+        active = false;
+        lastDelivery = deliverAfter(lastDelivery, () -> listener.onError(cause));
+    }
+
+    /**
+     * Run the given delivery on the async executor once the previous delivery
+     * has been finished.
+     *
+     * @param previousDelivery The previous delivery.
+     * @param delivery         The delivery to run.
+     * @return The future of the delivery.
+     */
+    private static CompletableFuture<Void> deliverAfter(CompletableFuture<Void> previousDelivery, Runnable delivery) {
+        // A delivery that has been rejected by the executor must not stop
+        // all following deliveries.
+        return previousDelivery.exceptionally(throwable -> null).thenRunAsync(() -> {
+            try {
+                delivery.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("The listener of a subscription failed.", e);
+            }
+        }, CommunicationExecutors.getAsyncExecutor());
+    }
+}
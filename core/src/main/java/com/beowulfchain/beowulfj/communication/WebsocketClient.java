@@ -16,27 +16,46 @@
  */
 package com.beowulfchain.beowulfj.communication;
 
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
 import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.glassfish.tyrus.client.ClientManager;
 import org.glassfish.tyrus.client.ClientProperties;
 import org.glassfish.tyrus.client.SslContextConfigurator;
 import org.glassfish.tyrus.client.SslEngineConfigurator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import javax.annotation.Nullable;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLSession;
+import javax.websocket.ClientEndpointConfig;
 import javax.websocket.DeploymentException;
 import javax.websocket.EncodeException;
+import javax.websocket.Extension;
 import javax.websocket.Session;
 import java.io.IOException;
 import java.net.URI;
-import java.util.concurrent.CountDownLatch;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class WebsocketClient extends AbstractClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketClient.class);
@@ -46,22 +65,27 @@ public class WebsocketClient extends AbstractClient {
      */
     private ClientManager client;
     /**
-     * A {@link CountDownLatch} used to indicate that a message is expected.
+     * A lock used to make sure that only one thread at a time writes to the
+     * session, as the basic remote endpoint does not support concurrent
+     * sends.
      */
-    private CountDownLatch responseCountDownLatch;
+    private final Lock sendLock = new ReentrantLock();
     /**
-     * The current session.
+     * A lock used to make sure that only one thread at a time establishes a
+     * connection. A {@link ReentrantLock} is used instead of a monitor, as
+     * waiting for a monitor pins virtual threads to their carrier thread.
      */
-    private Session session;
+    private final Lock connectLock = new ReentrantLock();
     /**
-     * The {@link WebsocketEndpoint} instance that will handle the incoming
-     * messages.
+     * The {@link WebsocketEndpoint} instance that handles the incoming
+     * messages of the current connection or <code>null</code> if no
+     * connection has been established yet.
      */
-    private WebsocketEndpoint websocketEndpoint;
+    private volatile WebsocketEndpoint websocketEndpoint;
     /**
      * The endpoint this client instance is currently connected to.
      */
-    private URI currentEndpointUri;
+    private volatile URI currentEndpointUri;
 
     /**
      * Initialize a new Websocket Client.
@@ -71,90 +95,336 @@ public class WebsocketClient extends AbstractClient {
         this.client = ClientManager.createClient();
 
         this.client.setDefaultMaxSessionIdleTimeout(BeowulfJConfig.getInstance().getIdleTimeout());
-        this.client.getProperties().put(ClientProperties.RECONNECT_HANDLER, new WebsocketReconnectHandler());
-
-        this.websocketEndpoint = new WebsocketEndpoint(this);
-        this.responseCountDownLatch = new CountDownLatch(1);
     }
 
     @Override
     public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
                                                  boolean sslVerificationDisabled) throws BeowulfCommunicationException, BeowulfResponseException {
-        if (session == null || !session.isOpen() || currentEndpointUri == null
-                || !currentEndpointUri.equals(endpointUri)) {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, null);
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        if (!isConnectedTo(endpointUri)) {
             connect(endpointUri, sslVerificationDisabled);
-            // "Save" the URI we are currently connected to.
-            currentEndpointUri = endpointUri;
         }
 
-        responseCountDownLatch = new CountDownLatch(1);
+        String request;
+        try {
+            request = requestObject.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("Could not transform the request into JSON.", e);
+        }
 
+        return readResponse(sendAndAwaitResponse(websocketEndpoint, requestObject.getId(), request,
+                getResponseTimeout(requestObject.getDeadline())), resultType);
+    }
+
+    @Override
+    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                           boolean sslVerificationDisabled) throws BeowulfCommunicationException, BeowulfResponseException {
+        if (!isConnectedTo(endpointUri)) {
+            connect(endpointUri, sslVerificationDisabled);
+        }
+
+        String request;
         try {
-            String request = requestObject.toJson();
-            LOGGER.debug("Sending {}.", request);
-            session.getBasicRemote().sendObject(request);
-        } catch (IOException | EncodeException e) {
-            // Throw an Exception and let the CommunicationHandler handle the
-            // reconnect to another node.
-            throw new BeowulfCommunicationException("Could not transfer the data to the Beowulf Node. - Reconnecting.", e);
+            request = batchRequest.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("Could not transform the request into JSON.", e);
+        }
+
+        // The WebsocketEndpoint routes a batch response by the id of any of
+        // its elements, so registering the batch under one id is enough.
+        return new JsonRPCBatchResponse(parseResponse(sendAndAwaitResponse(websocketEndpoint, batchRequest.getId(),
+                request, getResponseTimeout(batchRequest.getDeadline()))));
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+                                                                         URI endpointUri,
+                                                                         boolean sslVerificationDisabled,
+                                                                         @Nullable JavaType resultType) {
+        if (!isConnectedTo(endpointUri)) {
+            // Establishing a connection blocks, so let the I/O executor
+            // take care of it.
+            return super.invokeAndReadResponseAsync(requestObject, endpointUri, sslVerificationDisabled, resultType);
         }
 
+        CompletableFuture<JsonRPCResponse> result = new CompletableFuture<>();
+        CompletableFuture<TokenBuffer> pendingResponse;
         try {
-            // Wait until we received a response from the Server.
-            do {
-                if (BeowulfJConfig.getInstance().getResponseTimeout() == 0) {
-                    responseCountDownLatch.await();
-                } else {
-                    if (!responseCountDownLatch.await(BeowulfJConfig.getInstance().getResponseTimeout(),
-                            TimeUnit.MILLISECONDS)) {
-                        throw new BeowulfTimeoutException(
-                                "Timeout occured. The WebSocket server was not able to answer in "
-                                        + BeowulfJConfig.getInstance().getResponseTimeout() + " millisecond(s).");
-                    }
-                }
-            } while (websocketEndpoint.getLatestResponse() == null);
+            pendingResponse = sendRequest(websocketEndpoint, requestObject.getId(), requestObject.toJson());
+        } catch (JsonProcessingException e) {
+            result.completeExceptionally(new BeowulfCommunicationException("Could not transform the request into JSON.", e));
+            return result;
+        } catch (BeowulfCommunicationException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        // Drop the pending request if the caller cancelled the result.
+        result.whenComplete((response, throwable) -> pendingResponse.cancel(false));
+
+        int responseTimeout = getResponseTimeout(requestObject.getDeadline());
+        if (responseTimeout > 0) {
+            ScheduledFuture<?> timeout = CommunicationExecutors.getScheduler().schedule(() ->
+                            pendingResponse.completeExceptionally(createTimeoutException(responseTimeout, null)),
+                    responseTimeout, TimeUnit.MILLISECONDS);
+            result.whenComplete((response, throwable) -> timeout.cancel(false));
+        }
+
+        pendingResponse.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+
+            try {
+                result.complete(readResponse(response, resultType));
+            } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public void subscribe(JsonRPCRequest requestObject, URI endpointUri, boolean sslVerificationDisabled,
+                          Subscription<?> subscription) throws BeowulfCommunicationException, BeowulfResponseException {
+        if (!isConnectedTo(endpointUri)) {
+            connect(endpointUri, sslVerificationDisabled);
+        }
+
+        String request;
+        try {
+            request = requestObject.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("Could not transform the request into JSON.", e);
+        }
+
+        // Register the subscription before sending the request, so the first
+        // notice can not overtake the registration.
+        WebsocketEndpoint connection = websocketEndpoint;
+        connection.registerSubscription(subscription);
+        try {
+            JsonRPCResponse response = readResponse(sendAndAwaitResponse(connection, requestObject.getId(), request,
+                    getResponseTimeout(requestObject.getDeadline())), null);
+            if (response.isError()) {
+                throw response.handleError(requestObject.getId());
+            }
+        } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+            connection.removeSubscription(subscription);
+            throw e;
+        }
+
+        subscription.setCancellation(() -> connection.removeSubscription(subscription));
+    }
+
+    @Override
+    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        if (!isConnectedTo(endpointUri)) {
+            connect(endpointUri, sslVerificationDisabled);
+            return;
+        }
+
+        // A ping keeps the idle session from being closed by the node or by
+        // a proxy in between.
+        try {
+            sendLock.lock();
+            try {
+                getSession().getBasicRemote().sendPing(ByteBuffer.allocate(0));
+            } finally {
+                sendLock.unlock();
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.debug("Could not ping {}. - Reconnecting.", endpointUri, e);
+            try {
+                closeConnection();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            connect(endpointUri, sslVerificationDisabled);
+        }
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        WebsocketEndpoint connection = websocketEndpoint;
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Get the current {@link Session}.
+     *
+     * @return The session used by this instance or <code>null</code> if no
+     * connection has been established yet.
+     */
+    protected Session getSession() {
+        WebsocketEndpoint connection = websocketEndpoint;
+        return connection == null ? null : connection.getSession();
+    }
+
+    /**
+     * Send the given request and wait until the node answered it.
+     *
+     * @param connection      The connection to send the request over.
+     * @param id              The id used to correlate the request with its response.
+     * @param request         The JSON to send.
+     * @param responseTimeout The time in milliseconds to wait for the
+     *                        response or <code>0</code> to wait forever.
+     * @return The tokens of the response.
+     * @throws BeowulfCommunicationException If the request could not be sent
+     *                                       or has not been answered in time.
+     */
+    private TokenBuffer sendAndAwaitResponse(WebsocketEndpoint connection, long id, String request,
+                                             int responseTimeout) throws BeowulfCommunicationException {
+        CompletableFuture<TokenBuffer> pendingResponse = sendRequest(connection, id, request);
+
+        try {
+            // Wait until we received the response for this request.
+            if (responseTimeout == 0) {
+                return pendingResponse.get();
+            } else {
+                return pendingResponse.get(responseTimeout, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            pendingResponse.cancel(false);
+            throw createTimeoutException(responseTimeout, e);
+        } catch (ExecutionException e) {
+            throw new BeowulfCommunicationException("The request could not be completed. - Reconnecting.", e.getCause());
         } catch (InterruptedException e) {
+            pendingResponse.cancel(false);
             LOGGER.warn("Thread has been interrupted.", e);
             Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for a response.", e);
+        }
+    }
+
+    /**
+     * Register the given request as pending and send it to the node the
+     * given connection is connected to.
+     *
+     * @param connection The connection to send the request over.
+     * @param id         The id used to correlate the request with its response.
+     * @param request    The JSON to send.
+     * @return A future that will be completed with the tokens of the
+     * response.
+     * @throws BeowulfCommunicationException If the request could not be sent.
+     */
+    private CompletableFuture<TokenBuffer> sendRequest(WebsocketEndpoint connection, long id, String request)
+            throws BeowulfCommunicationException {
+        // Register the request before sending it, so a fast response can not
+        // overtake the registration.
+        CompletableFuture<TokenBuffer> pendingResponse = connection.registerPendingRequest(id);
+
+        try {
+            LOGGER.debug("Sending {}.", request);
+            sendLock.lock();
+            try {
+                connection.getSession().getBasicRemote().sendObject(request);
+            } finally {
+                sendLock.unlock();
+            }
+        } catch (IOException | EncodeException | IllegalStateException e) {
+            pendingResponse.cancel(false);
+            // Throw an Exception and let the CommunicationHandler handle the
+            // reconnect to another node.
+            throw new BeowulfCommunicationException("Could not transfer the data to the Beowulf Node. - Reconnecting.", e);
         }
 
-        return websocketEndpoint.getLatestResponse();
+        return pendingResponse;
     }
 
-    @Override
-    public void closeConnection() throws IOException {
-        if (session != null && session.isOpen()) {
-            LOGGER.debug("Closing existing session.");
-            session.close();
+    /**
+     * Build the JSON tree of a response.
+     *
+     * @param response The tokens of the response.
+     * @return The parsed response.
+     * @throws BeowulfResponseException If the response is no valid JSON.
+     */
+    private JsonNode parseResponse(TokenBuffer response) throws BeowulfResponseException {
+        try (JsonParser parser = response.asParser()) {
+            return CommunicationHandler.getObjectMapper().readTree(parser);
+        } catch (IOException e) {
+            throw new BeowulfResponseException("Unable to parse the response.", e);
         }
     }
 
     /**
-     * Get the {@link CountDownLatch} used by this instance to change its
-     * counter.
+     * Read a response and bind its result to the <code>resultType</code>
+     * without building a JSON tree first.
      *
-     * @return The {@link CountDownLatch} used by this instance.
+     * @param response   The tokens of the response.
+     * @param resultType The type the result will be requested as or
+     *                   <code>null</code> to keep the result as JSON.
+     * @return The response.
+     * @throws BeowulfTransformationException If the result could not be bound
+     *                                        to the <code>resultType</code>.
+     * @throws BeowulfResponseException       If the response is no valid JSON.
      */
-    protected CountDownLatch getResponseCountDownLatch() {
-        return this.responseCountDownLatch;
+    private JsonRPCResponse readResponse(TokenBuffer response, @Nullable JavaType resultType)
+            throws BeowulfTransformationException, BeowulfResponseException {
+        try (JsonParser parser = response.asParser()) {
+            return JsonRPCResponse.read(parser, resultType);
+        } catch (IOException e) {
+            throw new BeowulfResponseException("Unable to parse the response.", e);
+        }
     }
 
     /**
-     * Get the current {@link Session}.
+     * @param responseTimeout The time in milliseconds the request has been
+     *                        waiting for.
+     * @param cause           The cause of the timeout or <code>null</code>.
+     * @return The exception indicating that the node did not answer in time.
+     */
+    private static BeowulfTimeoutException createTimeoutException(int responseTimeout, Throwable cause) {
+        return new BeowulfTimeoutException("Timeout occured. The WebSocket server was not able to answer in "
+                + responseTimeout + " millisecond(s).", cause);
+    }
+
+    /**
+     * Check if this client has an open session to the given
+     * <code>endpointURI</code>.
      *
-     * @return The session used by this instance.
+     * @param endpointURI The endpoint to check.
+     * @return <code>true</code> if requests can be sent to the endpoint
+     * without connecting first.
      */
-    protected Session getSession() {
-        return session;
+    private boolean isConnectedTo(URI endpointURI) {
+        Session currentSession = getSession();
+        return currentSession != null && currentSession.isOpen() && endpointURI.equals(currentEndpointUri);
     }
 
     /**
-     * Update the {@link Session} this instance should use.
+     * Get the configuration used to connect, which requests the
+     * {@link PerMessageDeflateExtension permessage-deflate} extension if
+     * {@link BeowulfJConfig#isCompressionEnabled() compression} is enabled.
      *
-     * @param session The session to set.
+     * @return The configuration of the client endpoint.
      */
-    protected void setSession(Session session) {
-        this.session = session;
+    private ClientEndpointConfig getClientEndpointConfig() {
+        ClientEndpointConfig configuredEndpointConfig = BeowulfJConfig.getInstance().getClientEndpointConfig();
+        if (!BeowulfJConfig.getInstance().isCompressionEnabled()) {
+            return configuredEndpointConfig;
+        }
+
+        List<Extension> extensions = new ArrayList<>(configuredEndpointConfig.getExtensions());
+        extensions.add(new PerMessageDeflateExtension());
+
+        ClientEndpointConfig endpointConfig = ClientEndpointConfig.Builder.create()
+                .configurator(configuredEndpointConfig.getConfigurator())
+                .preferredSubprotocols(configuredEndpointConfig.getPreferredSubprotocols())
+                .encoders(configuredEndpointConfig.getEncoders())
+                .decoders(configuredEndpointConfig.getDecoders())
+                .extensions(extensions).build();
+        endpointConfig.getUserProperties().putAll(configuredEndpointConfig.getUserProperties());
+        return endpointConfig;
     }
 
     /**
@@ -162,8 +432,37 @@ public class WebsocketClient extends AbstractClient {
      *
      * @throws BeowulfCommunicationException
      */
-    private synchronized void connect(URI endpointURI, boolean sslVerificationDisabled)
+    private void connect(URI endpointURI, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        try {
+            connectLock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for the connection.", e);
+        }
+
+        try {
+            // Another thread may have connected while this one was waiting
+            // for the lock.
+            if (!isConnectedTo(endpointURI)) {
+                establishConnection(endpointURI, sslVerificationDisabled);
+            }
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    /**
+     * Establish a new connection while holding the connect lock.
+     *
+     * @param endpointURI             The endpoint to connect to.
+     * @param sslVerificationDisabled Define if the SSL verification should be
+     *                                disabled.
+     * @throws BeowulfCommunicationException If the connection could not be
+     *                                       established.
+     */
+    private void establishConnection(URI endpointURI, boolean sslVerificationDisabled)
             throws BeowulfCommunicationException {
+
         // Tyrus expects a SSL connection if the SSL_ENGINE_CONFIGURATOR
         // property is present. This leads to a "connection failed" error when
         // a non SSL secured protocol is used. Due to this we only add the
@@ -188,8 +487,14 @@ public class WebsocketClient extends AbstractClient {
 
             LOGGER.info("Connecting to {}.", endpointURI);
 
-            session = client.connectToServer(websocketEndpoint, BeowulfJConfig.getInstance().getClientEndpointConfig(),
-                    endpointURI);
+            // Every connection gets its own endpoint, so the callbacks of an
+            // old session can not affect the requests sent over this one.
+            WebsocketEndpoint connection = new WebsocketEndpoint();
+            client.getProperties().put(ClientProperties.RECONNECT_HANDLER, new WebsocketReconnectHandler(connection));
+            client.connectToServer(connection, getClientEndpointConfig(), endpointURI);
+            websocketEndpoint = connection;
+            // "Save" the URI we are currently connected to.
+            currentEndpointUri = endpointURI;
         } catch (DeploymentException | IOException e) {
             // Throw an Exception and let the CommunicationHandler handle the
             // reconnect to another node.
@@ -17,57 +17,143 @@
 package com.beowulfchain.beowulfj.communication;
 
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
-import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.websocket.*;
 import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class WebsocketEndpoint extends Endpoint implements MessageHandler.Whole<String> {
+/**
+ * Receives the messages of a single WebSocket connection and routes them to
+ * the requests and subscriptions that have been sent over it. A new instance
+ * is used for every connection, so the end of a connection never affects the
+ * requests sent over a newer one.
+ */
+public class WebsocketEndpoint extends Endpoint implements MessageHandler.Whole<Reader> {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketEndpoint.class);
 
     /**
-     * The latest response received from a Beowulf Node.
+     * The requests that have been sent but not answered yet, keyed by their
+     * JSON RPC id.
+     */
+    private final Map<Long, CompletableFuture<TokenBuffer>> pendingRequests = new ConcurrentHashMap<>();
+    /**
+     * The subscriptions registered on this connection, keyed by their
+     * callback id.
      */
-    private String latestResponse;
+    private final Map<Long, Subscription<?>> subscriptions = new ConcurrentHashMap<>();
     /**
-     * The {@link WebsocketClient} whose session object should be updated.
+     * The session of this connection or <code>null</code> if it has not been
+     * opened yet.
      */
-    private WebsocketClient websocketClient;
+    private volatile Session session;
+    /**
+     * Set once the client stopped using this connection.
+     */
+    private volatile boolean closed;
 
     /**
-     * Create a new {@link WebsocketEndpoint} instance.
+     * Get the {@link Session} of this connection.
      *
-     * @param websocketClient The @link WebsocketClient} whose session object should be
-     *                        updated.
+     * @return The session or <code>null</code> if it has not been opened yet.
      */
-    public WebsocketEndpoint(WebsocketClient websocketClient) {
-        this.websocketClient = websocketClient;
+    protected Session getSession() {
+        return session;
     }
 
     /**
-     * Pull the latest response.
+     * Check if the client stopped using this connection, in which case it
+     * must not be reopened.
      *
-     * @return In case a response has already been received a new
-     * {@link JsonRPCResponse} instance that wraps the response,
-     * otherwise the method will return <code>null</code>.
-     * @throws BeowulfResponseException In case the response can not be parsed as a tree.
+     * @return <code>true</code> if the connection has been closed by the
+     * client.
      */
-    protected JsonRPCResponse getLatestResponse() throws BeowulfResponseException {
-        try {
-            if (latestResponse != null)
-                return new JsonRPCResponse(CommunicationHandler.getObjectMapper().readTree(latestResponse));
+    protected boolean isClosed() {
+        return closed;
+    }
 
-            return null;
-        } catch (IOException e) {
-            throw new BeowulfResponseException("Unable to parse the response.", e);
+    /**
+     * Stop using this connection and close its session. A session that is
+     * opened afterwards by an automatic reconnect is closed right away.
+     *
+     * @throws IOException If the session could not be closed.
+     */
+    protected void close() throws IOException {
+        closed = true;
+        Session currentSession = session;
+        if (currentSession != null && currentSession.isOpen()) {
+            LOGGER.debug("Closing existing session.");
+            currentSession.close();
         }
     }
 
+    /**
+     * Register a request that is about to be sent, so the matching response
+     * can be routed back to the caller.
+     *
+     * @param id The id of the request.
+     * @return A future that will be completed with the tokens of the
+     * response once a message with the given <code>id</code> has been
+     * received. Completing or cancelling it, e.g. because the caller gave up
+     * waiting, removes the request.
+     */
+    protected CompletableFuture<TokenBuffer> registerPendingRequest(long id) {
+        CompletableFuture<TokenBuffer> response = new CompletableFuture<>();
+        pendingRequests.put(id, response);
+        response.whenComplete((result, throwable) -> pendingRequests.remove(id, response));
+        return response;
+    }
+
+    /**
+     * Register a subscription that is about to be sent, so the notices tagged
+     * with its callback id are routed to it.
+     *
+     * @param subscription The subscription.
+     */
+    protected void registerSubscription(Subscription<?> subscription) {
+        subscriptions.put(subscription.getCallbackId(), subscription);
+    }
+
+    /**
+     * Stop routing notices to the given subscription.
+     *
+     * @param subscription The subscription.
+     */
+    protected void removeSubscription(Subscription<?> subscription) {
+        subscriptions.remove(subscription.getCallbackId(), subscription);
+    }
+
+    /**
+     * @return The number of requests that are still waiting for a response.
+     */
+    protected int getNumberOfPendingRequests() {
+        return pendingRequests.size();
+    }
+
     @Override
     public void onClose(Session session, CloseReason closeReason) {
+        if (session != this.session) {
+            // The session has been reopened automatically after the client
+            // closed this connection, so nothing has been sent over it.
+            LOGGER.debug("A session that is not used anymore has been closed.");
+            return;
+        }
+
         LOGGER.info("Connection has been closed (Code: {}, Reason: {}).", closeReason.getCloseCode(),
                 closeReason.getReasonPhrase());
+
+        failPendingRequests(new BeowulfCommunicationException("The connection has been closed before a response has been received (Code: "
+                + closeReason.getCloseCode() + ", Reason: " + closeReason.getReasonPhrase() + ")."));
+        terminateSubscriptions(new BeowulfCommunicationException("The connection has been closed (Code: "
+                + closeReason.getCloseCode() + ", Reason: " + closeReason.getReasonPhrase() + ")."));
     }
 
     @Override
@@ -77,22 +163,98 @@ public class WebsocketEndpoint extends Endpoint implements MessageHandler.Whole<
 
     @Override
     public void onOpen(Session session, EndpointConfig config) {
-        this.websocketClient.setSession(session);
-        this.websocketClient.getSession().addMessageHandler(this);
+        if (closed) {
+            // The client stopped using this connection while it has been
+            // reopened automatically.
+            LOGGER.debug("Closing a session that is not used anymore.");
+            try {
+                session.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close the session.", e);
+            }
+            return;
+        }
+
+        this.session = session;
+        session.addMessageHandler(this);
 
         LOGGER.info("Connection has been established.");
     }
 
+    /**
+     * Route a message to the request it answers or to the subscription of
+     * the notice it contains. The message is read only once: Its tokens are
+     * buffered, so the result can be bound from them by the waiting caller.
+     *
+     * @param rawMessage The message received from the node.
+     */
     @Override
-    public void onMessage(String message) {
-        latestResponse = message;
+    public void onMessage(Reader rawMessage) {
+        TokenBuffer message;
+        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(rawMessage)) {
+            message = JsonRPCResponse.readMessage(parser);
+        } catch (IOException e) {
+            LOGGER.error("Received an unexpected message.");
+            LOGGER.debug("Unable to read the message.", e);
+            return;
+        }
+
+        CompletableFuture<TokenBuffer> pendingRequest = null;
+        for (Long id : JsonRPCResponse.readIds(message)) {
+            pendingRequest = pendingRequests.remove(id);
+            if (pendingRequest != null) {
+                break;
+            }
+        }
 
-        if (this.websocketClient.getResponseCountDownLatch().getCount() > 0) {
-            this.websocketClient.getResponseCountDownLatch().countDown();
+        if (pendingRequest != null) {
+            pendingRequest.complete(message);
+            return;
+        }
+
+        // Notices do not have an id, so their tree is only built once it is
+        // clear that the message does not answer a request.
+        Pair<Long, JsonNode> notice = JsonRPCResponse.readNotice(message);
+        Subscription<?> subscription = notice == null ? null : subscriptions.get(notice.getLeft());
+        if (subscription != null) {
+            subscription.dispatch(notice.getRight());
+        } else if (notice != null) {
+            LOGGER.debug("Dropping a notice for the unknown callback {}.", notice.getLeft());
         } else {
             // Sadly it is not possible to throw an exception here, so the
             // only useful thing we can do is to log it.
             LOGGER.error("Received an unexpected message.");
+            LOGGER.debug("Unexpected message: {}", message);
+        }
+    }
+
+    /**
+     * Complete all pending requests exceptionally, so that no caller waits for
+     * a response that will never arrive.
+     *
+     * @param cause The reason why the requests failed.
+     */
+    protected void failPendingRequests(Throwable cause) {
+        for (Long id : pendingRequests.keySet()) {
+            CompletableFuture<TokenBuffer> pendingRequest = pendingRequests.remove(id);
+            if (pendingRequest != null) {
+                pendingRequest.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * End all subscriptions, as the node forgets them once the connection is
+     * gone.
+     *
+     * @param cause The reason why the subscriptions ended.
+     */
+    protected void terminateSubscriptions(Throwable cause) {
+        for (Long callbackId : subscriptions.keySet()) {
+            Subscription<?> subscription = subscriptions.remove(callbackId);
+            if (subscription != null) {
+                subscription.terminate(cause);
+            }
         }
     }
 }
@@ -25,11 +25,39 @@ import javax.websocket.CloseReason;
 public class WebsocketReconnectHandler extends ReconnectHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketReconnectHandler.class);
 
+    /**
+     * The connection this handler reconnects or <code>null</code> to decide
+     * by the configuration only.
+     */
+    private final WebsocketEndpoint websocketEndpoint;
+
+    /**
+     * Create a new {@link WebsocketReconnectHandler} instance that decides by
+     * the configuration only.
+     */
+    public WebsocketReconnectHandler() {
+        this(null);
+    }
+
+    /**
+     * Create a new {@link WebsocketReconnectHandler} instance for a single
+     * connection, which is not reopened once the client stopped using it.
+     *
+     * @param websocketEndpoint The connection to reconnect.
+     */
+    public WebsocketReconnectHandler(WebsocketEndpoint websocketEndpoint) {
+        this.websocketEndpoint = websocketEndpoint;
+    }
+
     @Override
     public boolean onDisconnect(CloseReason closeReason) {
         LOGGER.debug("The connection has been closed (Code: {}, Reason: {}).", closeReason.getCloseCode(),
                 closeReason.getReasonPhrase());
 
+        if (websocketEndpoint != null && websocketEndpoint.isClosed()) {
+            return false;
+        }
+
         if (BeowulfJConfig.getInstance().getIdleTimeout() <= 0) {
             LOGGER.info(
                     "The connection has been closed, but BeowulfJ is configured to never close the conenction. Initiating reconnect.");
@@ -0,0 +1,143 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.jrpc;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.Deadline;
+import com.beowulfchain.beowulfj.enums.RequestPriority;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A JSON RPC 2.0 batch, which allows to send several {@link JsonRPCRequest}
+ * objects to a node in a single HTTP POST or WebSocket frame.
+ */
+public class JsonRPCBatchRequest {
+    /**
+     * The requests of this batch.
+     */
+    private final List<JsonRPCRequest> requests = new ArrayList<>();
+
+    /**
+     * Instantiate a new, empty batch.
+     */
+    public JsonRPCBatchRequest() {
+    }
+
+    /**
+     * Instantiate a new batch containing the given <code>requests</code>.
+     *
+     * @param requests The requests to add.
+     */
+    public JsonRPCBatchRequest(List<JsonRPCRequest> requests) {
+        this.requests.addAll(requests);
+    }
+
+    /**
+     * Add a request to this batch.
+     *
+     * @param request The request to add.
+     * @return The added request, which is needed to read its result from the
+     * {@link JsonRPCBatchResponse}.
+     */
+    public JsonRPCRequest add(JsonRPCRequest request) {
+        this.requests.add(request);
+        return request;
+    }
+
+    /**
+     * Get the requests of this batch.
+     *
+     * @return The requests of this batch.
+     */
+    public List<JsonRPCRequest> getRequests() {
+        return Collections.unmodifiableList(requests);
+    }
+
+    /**
+     * Get the id used to correlate the whole batch with its response, which
+     * is the id of the first request.
+     *
+     * @return The id of this batch.
+     * @throws IllegalStateException If the batch is empty.
+     */
+    public long getId() {
+        if (requests.isEmpty()) {
+            throw new IllegalStateException("An empty batch does not have an id.");
+        }
+
+        return requests.get(0).getId();
+    }
+
+    /**
+     * @return <code>true</code> if this batch does not contain any request.
+     */
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    /**
+     * @return The number of requests in this batch.
+     */
+    public int size() {
+        return requests.size();
+    }
+
+    /**
+     * @return The highest priority of the requests in this batch.
+     */
+    public RequestPriority getPriority() {
+        RequestPriority priority = RequestPriority.BULK;
+        for (JsonRPCRequest request : requests) {
+            if (request.getPriority().compareTo(priority) < 0) {
+                priority = request.getPriority();
+            }
+        }
+        return priority;
+    }
+
+    /**
+     * @return The earliest deadline of the requests in this batch or
+     * <code>null</code> if none of them has a deadline.
+     */
+    @Nullable
+    public Deadline getDeadline() {
+        Deadline deadline = null;
+        for (JsonRPCRequest request : requests) {
+            deadline = Deadline.earliest(deadline, request.getDeadline());
+        }
+        return deadline;
+    }
+
+    /**
+     * @return The json representation of this object.
+     * @throws JsonProcessingException If the object can not be transformed into valid json.
+     */
+    public String toJson() throws JsonProcessingException {
+        return CommunicationHandler.getObjectMapper().writeValueAsString(requests);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.jrpc;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps the answer of a node to a {@link JsonRPCBatchRequest}. The elements of
+ * the batch are matched with their requests by id, so the order in which the
+ * node returns them does not matter.
+ */
+public class JsonRPCBatchResponse {
+    /**
+     * The responses of this batch, keyed by their id.
+     */
+    private final Map<Long, JsonRPCResponse> responses = new HashMap<>();
+    /**
+     * The raw JSON array returned by the node.
+     */
+    private final JsonNode rawJsonResponse;
+
+    /**
+     * Create a new {@link JsonRPCBatchResponse} instance.
+     *
+     * @param rawJsonResponse The raw JSON array returned by the node.
+     * @throws BeowulfResponseException If the node did not answer with an
+     *                                  array, e.g. because it does not
+     *                                  support batches.
+     */
+    public JsonRPCBatchResponse(JsonNode rawJsonResponse) throws BeowulfResponseException {
+        if (!rawJsonResponse.isArray()) {
+            throw new BeowulfResponseException("The node did not answer with a batch response: " + rawJsonResponse);
+        }
+
+        this.rawJsonResponse = rawJsonResponse;
+        for (JsonNode element : rawJsonResponse) {
+            JsonNode id = element.get(JsonRPCResponse.ID_FIELD_NAME);
+            if (id != null && id.canConvertToLong()) {
+                responses.put(id.asLong(), new JsonRPCResponse(element));
+            }
+        }
+    }
+
+    /**
+     * Get the raw JSON array that is wrapped by this
+     * {@link JsonRPCBatchResponse} instance.
+     *
+     * @return The raw JSON array returned by the node.
+     */
+    public JsonNode getRawJsonResponse() {
+        return rawJsonResponse;
+    }
+
+    /**
+     * Get the raw response for the given request.
+     *
+     * @param request The request that has been part of the batch.
+     * @return The response or <code>null</code> if the node did not answer
+     * the request.
+     */
+    public JsonRPCResponse getResponse(JsonRPCRequest request) {
+        return responses.get(request.getId());
+    }
+
+    /**
+     * Check if the node answered the given request with an error.
+     *
+     * @param request The request that has been part of the batch.
+     * @return <code>true</code> if the response to the request contains an
+     * error.
+     */
+    public boolean isError(JsonRPCRequest request) {
+        JsonRPCResponse response = getResponse(request);
+        return response != null && response.isError();
+    }
+
+    /**
+     * Transform the result of the given request into the given type.
+     *
+     * @param request     The request that has been part of the batch.
+     * @param targetClass The type the result should be transformed to.
+     * @param <T>         The type that should be returned.
+     * @return The result transformed into a list of given objects, which is
+     * a {@link RawResultList} if the request
+     * {@link JsonRPCRequest#setRawResultKept(boolean) keeps} its JSON.
+     * @throws BeowulfCommunicationException If the node did not answer the
+     *                                       request or if the result could not
+     *                                       be transformed.
+     * @throws BeowulfResponseException      If the node answered this request
+     *                                       with an error object.
+     */
+    public <T> List<T> getResult(JsonRPCRequest request, Class<T> targetClass)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        JsonRPCResponse response = getResponse(request);
+
+        if (response == null) {
+            throw new BeowulfCommunicationException(
+                    "The batch response does not contain an answer for the request with the id " + request.getId() + ".");
+        } else if (response.isError()) {
+            throw response.handleError(request.getId());
+        }
+
+        JavaType expectedResultType = CommunicationHandler.getObjectMapper().getTypeFactory()
+                .constructCollectionType(request.isRawResultKept() ? RawResultList.class : List.class, targetClass);
+        return response.handleResult(expectedResultType, request.getId());
+    }
+
+    /**
+     * @return The number of responses in this batch.
+     */
+    public int size() {
+        return responses.size();
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -17,8 +17,11 @@
 package com.beowulfchain.beowulfj.communication.jrpc;
 
 import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.Deadline;
 import com.beowulfchain.beowulfj.enums.BeowulfApiType;
 import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.enums.RequestPriority;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -41,8 +44,24 @@ public class JsonRPCRequest {
      */
     private final long id = randomGenerator.nextLong();
     private String method;
+    /**
+     * The method this request calls.
+     */
+    private final RequestMethod requestMethod;
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private Object params;
+    /**
+     * The priority of this request.
+     */
+    private RequestPriority priority;
+    /**
+     * The deadline of this request.
+     */
+    private Deadline deadline;
+    /**
+     * Defines if the result should keep the JSON it has been read from.
+     */
+    private boolean rawResultKept;
 
     /**
      * Instantiate a new RequestObject.
@@ -61,7 +80,10 @@ public class JsonRPCRequest {
             namespaceAndMethod = beowulfApiType.name().toLowerCase() + ".";
         }
         this.method = namespaceAndMethod + requestMethod.name().toLowerCase();
+        this.requestMethod = requestMethod;
         this.params = params;
+        this.priority = RequestPriority.of(requestMethod);
+        this.deadline = Deadline.current();
     }
 
     /**
@@ -91,6 +113,87 @@ public class JsonRPCRequest {
         return method;
     }
 
+    /**
+     * Get the method without its namespace.
+     *
+     * @return The method this request calls.
+     */
+    @JsonIgnore
+    public RequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+    /**
+     * Get the priority this request has when the rate of requests is limited.
+     *
+     * @return The priority of this request.
+     */
+    @JsonIgnore
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Override the priority this request has when the
+     * {@link com.beowulfchain.beowulfj.configuration.BeowulfJConfig#setRateLimit(double)
+     * rate of requests is limited}. By default broadcasts have a
+     * {@link RequestPriority#HIGH high} and bulk reads like
+     * <code>get_block</code> a {@link RequestPriority#BULK low} priority.
+     *
+     * @param priority The priority of this request.
+     */
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Get the deadline by which this request has to be answered, including
+     * all retries.
+     *
+     * @return The deadline or <code>null</code> if every attempt is only
+     * limited by the response timeout.
+     */
+    @JsonIgnore
+    @Nullable
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Override the deadline of this request. By default a request uses the
+     * deadline {@link Deadline#attach() attached} to the thread that created
+     * it.
+     *
+     * @param deadline The deadline or <code>null</code> to only limit every
+     *                 attempt by the response timeout.
+     */
+    public void setDeadline(@Nullable Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Check if the result of this request keeps the JSON it has been read
+     * from.
+     *
+     * @return <code>true</code> if the result is returned as a
+     * {@link RawResultList}.
+     */
+    @JsonIgnore
+    public boolean isRawResultKept() {
+        return rawResultKept;
+    }
+
+    /**
+     * Define if the result of this request should keep the JSON it has been
+     * read from, e.g. to cache it without serializing it again. The result is
+     * then returned as a {@link RawResultList}.
+     *
+     * @param rawResultKept <code>true</code> to keep the JSON of the result.
+     */
+    public void setRawResultKept(boolean rawResultKept) {
+        this.rawResultKept = rawResultKept;
+    }
+
     /**
      * Get the additional parameters.
      *
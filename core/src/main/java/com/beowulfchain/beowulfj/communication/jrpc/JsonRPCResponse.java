@@ -19,12 +19,22 @@ package com.beowulfchain.beowulfj.communication.jrpc;
 import com.beowulfchain.beowulfj.communication.CommunicationHandler;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -70,6 +80,15 @@ public class JsonRPCResponse {
      * The raw JSON String returned by a node.
      */
     private JsonNode rawJsonResponse;
+    /**
+     * The type the result has been bound to while reading the response or
+     * <code>null</code> if the result is part of the raw JSON response.
+     */
+    private JavaType decodedResultType;
+    /**
+     * The result that has been bound while reading the response.
+     */
+    private List<?> decodedResult;
 
     /**
      * Create a new {@link JsonRPCResponse} instance.
@@ -81,9 +100,106 @@ public class JsonRPCResponse {
         this.rawJsonResponse = rawJsonResponse;
     }
 
+    /**
+     * Create a new {@link JsonRPCResponse} instance whose result has already
+     * been bound to its type.
+     *
+     * @param envelope          The JSON response without its result.
+     * @param decodedResultType The type the result has been bound to.
+     * @param decodedResult     The result or <code>null</code> if the node
+     *                          returned <code>null</code>.
+     */
+    private JsonRPCResponse(ObjectNode envelope, JavaType decodedResultType, List<?> decodedResult) {
+        this.rawJsonResponse = envelope;
+        this.decodedResultType = decodedResultType;
+        this.decodedResult = decodedResult;
+    }
+
+    /**
+     * Read a response from the given <code>parser</code>. If a
+     * <code>resultType</code> is given, the result is bound directly to that
+     * type while reading, instead of building a JSON tree for it first and
+     * converting that tree afterwards, which saves a lot of CPU and heap for
+     * large results like blocks.
+     *
+     * @param parser     The parser to read the response from.
+     * @param resultType The type the result will be requested as using
+     *                   {@link #handleResult(JavaType, long)} or
+     *                   <code>null</code> to keep the result as JSON.
+     * @return The response.
+     * @throws BeowulfTransformationException If the result could not be bound
+     *                                        to the <code>resultType</code>.
+     * @throws IOException                    If the response is no valid JSON.
+     */
+    public static JsonRPCResponse read(JsonParser parser, @Nullable JavaType resultType)
+            throws BeowulfTransformationException, IOException {
+        ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return new JsonRPCResponse(MissingNode.getInstance());
+        } else if (token != JsonToken.START_OBJECT || resultType == null) {
+            return new JsonRPCResponse(mapper.<JsonNode>readTree(parser));
+        }
+
+        ObjectNode envelope = mapper.createObjectNode();
+        List<?> result = null;
+        boolean hasResult = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            token = parser.nextToken();
+
+            if (token == JsonToken.VALUE_NULL) {
+                envelope.putNull(fieldName);
+            } else if (RESULT_FIELD_NAME.equals(fieldName)) {
+                try {
+                    result = readResult(mapper, parser, resultType);
+                } catch (JsonMappingException e) {
+                    throw new BeowulfTransformationException("Unable to transform the result into " + resultType + ".", e);
+                }
+                hasResult = true;
+            } else {
+                envelope.set(fieldName, mapper.<JsonNode>readTree(parser));
+            }
+        }
+
+        if (!hasResult) {
+            // Error responses and null results are handled like before.
+            return new JsonRPCResponse(envelope);
+        }
+
+        return new JsonRPCResponse(envelope, resultType, result);
+    }
+
+    /**
+     * Bind the result the <code>parser</code> points to. If the result is
+     * requested as a {@link RawResultList}, its tokens are buffered while
+     * reading, so the JSON of the result can be kept without parsing it
+     * twice.
+     *
+     * @param mapper     The mapper to bind the result with.
+     * @param parser     The parser pointing to the start of the result.
+     * @param resultType The type to bind the result to.
+     * @return The result.
+     * @throws IOException If the result could not be read.
+     */
+    private static List<?> readResult(ObjectMapper mapper, JsonParser parser, JavaType resultType)
+            throws IOException {
+        if (!RawResultList.class.equals(resultType.getRawClass())) {
+            return mapper.readValue(parser, resultType);
+        }
+
+        TokenBuffer rawResult = new TokenBuffer(parser);
+        rawResult.copyCurrentStructure(parser);
+        RawResultList<?> result = mapper.readValue(rawResult.asParser(), resultType);
+        result.setRawResult(mapper.writeValueAsBytes(rawResult));
+        return result;
+    }
+
     /**
      * Get the raw JSON response that is wrapped by this {@link JsonRPCResponse}
-     * instance.
+     * instance. If the result has been bound to its type while reading the
+     * response, the result is not part of the raw JSON response.
      *
      * @return The raw JSON response that is wrapped by this
      * {@link JsonRPCResponse} instance.
@@ -118,7 +234,7 @@ public class JsonRPCResponse {
      * not.
      */
     private boolean isResult() {
-        return rawJsonResponse.has(RESULT_FIELD_NAME);
+        return decodedResultType != null || rawJsonResponse.has(RESULT_FIELD_NAME);
     }
 
     /**
@@ -166,6 +282,7 @@ public class JsonRPCResponse {
      *                                       or if the response could not be transformed into the expected
      *                                       <code>type</code>.
      */
+    @SuppressWarnings("unchecked")
     public <T> List<T> handleResult(JavaType type, long id) throws BeowulfCommunicationException {
         if (isResponseValid()) {
             if (!isResult()) {
@@ -179,9 +296,29 @@ public class JsonRPCResponse {
                             "The id of this response does not match the expected id. This can cause an unexpected behavior.");
                 }
 
-                if (!isResultEmpty())
-                    return CommunicationHandler.getObjectMapper().convertValue(responseAsObject.get(RESULT_FIELD_NAME),
-                            type);
+                if (decodedResultType != null) {
+                    if (!decodedResultType.equals(type)) {
+                        throw new BeowulfTransformationException("The result has already been transformed into "
+                                + decodedResultType + " and can not be transformed into " + type + ".");
+                    }
+
+                    return (List<T>) decodedResult;
+                }
+
+                if (isResultEmpty()) {
+                    return new ArrayList<>();
+                } else if (RawResultList.class.equals(type.getRawClass())) {
+                    try (JsonParser parser = responseAsObject.get(RESULT_FIELD_NAME).traverse()) {
+                        parser.nextToken();
+                        return (List<T>) readResult(CommunicationHandler.getObjectMapper(), parser, type);
+                    } catch (IOException e) {
+                        throw new BeowulfTransformationException("Unable to transform the result into " + type + ".",
+                                e);
+                    }
+                }
+
+                return CommunicationHandler.getObjectMapper().convertValue(responseAsObject.get(RESULT_FIELD_NAME),
+                        type);
             }
         }
 
@@ -277,6 +414,124 @@ public class JsonRPCResponse {
         return (response.get(fieldName) == null || response.get(fieldName).isNull());
     }
 
+    /**
+     * Read a whole message into a {@link TokenBuffer}, so its ids can be
+     * looked up and its result can be {@link #read(JsonParser, JavaType)
+     * bound} afterwards without parsing the JSON again.
+     *
+     * @param parser The parser of the raw message received from the node.
+     * @return The tokens of the message.
+     * @throws IOException If the message is no valid JSON.
+     */
+    public static TokenBuffer readMessage(JsonParser parser) throws IOException {
+        TokenBuffer message = new TokenBuffer(parser);
+        if (parser.nextToken() != null) {
+            message.copyCurrentStructure(parser);
+        }
+        return message;
+    }
+
+    /**
+     * Extract the {@link #ID_FIELD_NAME ids} of a message without building
+     * the whole JSON tree. A single response has at most one id, while a
+     * batch response has one id per element.
+     *
+     * @param message The message received from the node.
+     * @return The numeric ids found in the message.
+     */
+    public static List<Long> readIds(TokenBuffer message) {
+        List<Long> ids = new ArrayList<>();
+
+        try (JsonParser parser = message.asParser()) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                // The rest of the message is not of interest.
+                addIfPresent(readId(parser), ids);
+            } else if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                    if (token == JsonToken.START_OBJECT) {
+                        if (addIfPresent(readId(parser), ids)) {
+                            // Skip the remaining fields of this element.
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                parser.nextToken();
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read the id of the message.", e);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Read a notice the node pushed for a callback that has been registered
+     * before. A notice has the form
+     * <code>{"method":"notice","params":[callbackId,[notice]]}</code>.
+     *
+     * @param message The message received from the node.
+     * @return The callback id and the notice or <code>null</code> if the
+     * message is no notice.
+     */
+    @Nullable
+    public static Pair<Long, JsonNode> readNotice(TokenBuffer message) {
+        JsonNode notice;
+        try (JsonParser parser = message.asParser()) {
+            notice = CommunicationHandler.getObjectMapper().readTree(parser);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read the message.", e);
+            return null;
+        }
+
+        if (notice == null || !CALLBACK_METHOD_NAME.equals(notice.path(METHOD_FIELD_NAME).asText())) {
+            return null;
+        }
+
+        JsonNode parameters = notice.path(PARAMETERS_FIELD_NAME);
+        if (!parameters.isArray() || parameters.size() < 2 || !parameters.get(0).canConvertToLong()) {
+            return null;
+        }
+
+        // The arguments of the callback are sent as an array.
+        JsonNode arguments = parameters.get(1);
+        return Pair.of(parameters.get(0).asLong(),
+                arguments.isArray() && arguments.size() > 0 ? arguments.get(0) : arguments);
+    }
+
+    /**
+     * Read the fields of the object the <code>parser</code> is positioned at
+     * until the {@link #ID_FIELD_NAME id} has been found.
+     *
+     * @param parser The parser positioned at the start of an object.
+     * @return The id or <code>null</code> if the object does not contain a
+     * numeric id, in which case the parser is positioned at the end of the
+     * object.
+     * @throws IOException If the JSON could not be read.
+     */
+    private static Long readId(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (ID_FIELD_NAME.equals(fieldName) && value == JsonToken.VALUE_NUMBER_INT) {
+                return parser.getLongValue();
+            }
+
+            parser.skipChildren();
+        }
+
+        return null;
+    }
+
+    private static boolean addIfPresent(Long id, List<Long> ids) {
+        return id != null && ids.add(id);
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.reflectionToString(this);
@@ -0,0 +1,53 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.jrpc;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+
+/**
+ * A result that also keeps the JSON it has been read from, so it can be
+ * stored without serializing it again. A request returns its result as this
+ * type if {@link JsonRPCRequest#setRawResultKept(boolean)} is set.
+ *
+ * @param <T> The type of the result elements.
+ */
+public class RawResultList<T> extends ArrayList<T> {
+    private static final long serialVersionUID = 2331674119196728269L;
+    /**
+     * The JSON the result has been read from.
+     */
+    private transient byte[] rawResult;
+
+    /**
+     * Get the JSON this result has been read from.
+     *
+     * @return The JSON or <code>null</code> if the node did not return a
+     * result.
+     */
+    @Nullable
+    public byte[] getRawResult() {
+        return rawResult;
+    }
+
+    /**
+     * @param rawResult The JSON this result has been read from.
+     */
+    void setRawResult(byte[] rawResult) {
+        this.rawResult = rawResult;
+    }
+}
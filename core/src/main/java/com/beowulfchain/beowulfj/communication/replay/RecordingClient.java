@@ -0,0 +1,271 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.Subscription;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Decorates another {@link AbstractClient} and records every request, its
+ * response and its duration using a {@link TrafficRecorder}. The recording
+ * can be served by a {@link ReplayClient} later on.
+ * <p>
+ * As the complete responses are recorded, results are not bound to their
+ * type while reading the response, which makes recording a bit slower than
+ * using the decorated client directly. Notices of subscriptions are not
+ * recorded. Failing to write a record is logged, but does not affect the
+ * request.
+ */
+public class RecordingClient extends AbstractClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordingClient.class);
+
+    private final AbstractClient delegate;
+    private final TrafficRecorder recorder;
+
+    /**
+     * Create a new {@link RecordingClient} instance.
+     *
+     * @param delegate The client that sends the requests.
+     * @param recorder The recorder the traffic is written to. The recorder
+     *                 can be shared by several clients and is not closed by
+     *                 this client.
+     */
+    public RecordingClient(AbstractClient delegate, TrafficRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        long start = System.nanoTime();
+        try {
+            JsonRPCResponse response = delegate.invokeAndReadResponse(requestObject, endpointUri,
+                    sslVerificationDisabled, null);
+            record(start, endpointUri, requestObject, response, null);
+            return response;
+        } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+            record(start, endpointUri, requestObject, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled);
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+                                                                         URI endpointUri,
+                                                                         boolean sslVerificationDisabled,
+                                                                         @Nullable JavaType resultType) {
+        long start = System.nanoTime();
+        CompletableFuture<JsonRPCResponse> response = delegate.invokeAndReadResponseAsync(requestObject,
+                endpointUri, sslVerificationDisabled, null);
+        // The future of the delegate is returned, so cancellations still
+        // reach the transport.
+        response.whenComplete((result, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (result != null || cause instanceof BeowulfCommunicationException
+                    || cause instanceof BeowulfResponseException) {
+                record(start, endpointUri, requestObject, result, cause);
+            }
+        });
+        return response;
+    }
+
+    @Override
+    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                           boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        long start = System.nanoTime();
+        try {
+            JsonRPCBatchResponse response = delegate.invokeAndReadBatchResponse(batchRequest, endpointUri,
+                    sslVerificationDisabled);
+            record(start, endpointUri, batchRequest, response, null);
+            return response;
+        } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+            record(start, endpointUri, batchRequest, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void subscribe(JsonRPCRequest requestObject, URI endpointUri, boolean sslVerificationDisabled,
+                          Subscription<?> subscription) throws BeowulfCommunicationException, BeowulfResponseException {
+        delegate.subscribe(requestObject, endpointUri, sslVerificationDisabled, subscription);
+    }
+
+    @Override
+    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        delegate.warmUp(endpointUri, sslVerificationDisabled);
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        delegate.closeConnection();
+    }
+
+    /**
+     * Record a single request.
+     *
+     * @param start         The value of {@link System#nanoTime()} when the
+     *                      request has been sent.
+     * @param endpointUri   The endpoint.
+     * @param requestObject The request.
+     * @param response      The response or <code>null</code> if the request
+     *                      failed.
+     * @param error         The reason why the request failed.
+     */
+    private void record(long start, URI endpointUri, JsonRPCRequest requestObject,
+                        @Nullable JsonRPCResponse response, @Nullable Throwable error) {
+        try {
+            byte[] responseBytes = null;
+            if (response != null) {
+                ObjectNode recordedResponse = CommunicationHandler.getObjectMapper().createObjectNode();
+                JsonNode rawResponse = response.getRawJsonResponse();
+                if (rawResponse.isObject()) {
+                    recordedResponse.setAll((ObjectNode) rawResponse);
+                }
+                recordedResponse.remove(JsonRPCResponse.ID_FIELD_NAME);
+                responseBytes = toBytes(recordedResponse);
+            }
+
+            record(start, endpointUri, false, requestObject.toJson(), responseBytes, error);
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Unable to record a request.", e);
+        }
+    }
+
+    /**
+     * Record a batch.
+     *
+     * @param start        The value of {@link System#nanoTime()} when the
+     *                     batch has been sent.
+     * @param endpointUri  The endpoint.
+     * @param batchRequest The batch.
+     * @param response     The response or <code>null</code> if the batch
+     *                     failed.
+     * @param error        The reason why the batch failed.
+     */
+    private void record(long start, URI endpointUri, JsonRPCBatchRequest batchRequest,
+                        @Nullable JsonRPCBatchResponse response, @Nullable Throwable error) {
+        try {
+            byte[] responseBytes = null;
+            if (response != null) {
+                List<JsonRPCRequest> requests = batchRequest.getRequests();
+                Map<Long, Integer> indexes = new HashMap<>();
+                for (int i = 0; i < requests.size(); i++) {
+                    indexes.put(requests.get(i).getId(), i);
+                }
+
+                ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+                ArrayNode recordedResponse = mapper.createArrayNode();
+                for (JsonNode element : response.getRawJsonResponse()) {
+                    Integer index = indexes.get(element.path(JsonRPCResponse.ID_FIELD_NAME).asLong());
+                    if (element.isObject() && index != null) {
+                        ObjectNode recordedElement = recordedResponse.addObject();
+                        recordedElement.setAll((ObjectNode) element);
+                        recordedElement.put(JsonRPCResponse.ID_FIELD_NAME, index);
+                    }
+                }
+                responseBytes = toBytes(recordedResponse);
+            }
+
+            record(start, endpointUri, true, batchRequest.toJson(), responseBytes, error);
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Unable to record a batch.", e);
+        }
+    }
+
+    /**
+     * Write a record.
+     *
+     * @param start       The value of {@link System#nanoTime()} when the
+     *                    request has been sent.
+     * @param endpointUri The endpoint.
+     * @param batch       <code>true</code> if the request is a batch.
+     * @param request     The request as JSON.
+     * @param response    The normalized response or <code>null</code> if the
+     *                    request failed.
+     * @param error       The reason why the request failed.
+     */
+    private void record(long start, URI endpointUri, boolean batch, String request, @Nullable byte[] response,
+                        @Nullable Throwable error) {
+        long duration = System.nanoTime() - start;
+
+        TrafficRecord.Outcome outcome = TrafficRecord.Outcome.RESPONSE;
+        if (response == null) {
+            if (error instanceof BeowulfTimeoutException) {
+                outcome = TrafficRecord.Outcome.TIMEOUT;
+            } else if (error instanceof BeowulfResponseException) {
+                outcome = TrafficRecord.Outcome.RESPONSE_ERROR;
+            } else {
+                outcome = TrafficRecord.Outcome.COMMUNICATION_ERROR;
+            }
+            String message = error == null || error.getMessage() == null ? "" : error.getMessage();
+            response = message.getBytes(StandardCharsets.UTF_8);
+        }
+
+        try {
+            recorder.record(new TrafficRecord(recorder.toTimestamp(start), duration, endpointUri.toString(), batch,
+                    outcome, request.getBytes(StandardCharsets.UTF_8), response));
+        } catch (IOException e) {
+            LOGGER.warn("Unable to record a request.", e);
+        }
+    }
+
+    /**
+     * @param json A JSON tree.
+     * @return The UTF-8 encoded JSON.
+     * @throws JsonProcessingException If the tree could not be serialized.
+     */
+    private static byte[] toBytes(JsonNode json) throws JsonProcessingException {
+        return CommunicationHandler.getObjectMapper().writeValueAsBytes(json);
+    }
+}
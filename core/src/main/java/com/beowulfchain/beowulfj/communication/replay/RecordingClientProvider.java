@@ -0,0 +1,66 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.ClientProvider;
+
+import java.net.URI;
+
+/**
+ * A {@link ClientProvider} that wraps the clients of another provider in a
+ * {@link RecordingClient}.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * TrafficRecorder recorder = new TrafficRecorder(new File("traffic.bjtr"));
+ * BeowulfJConfig.getInstance().setClientProvider(
+ *         new RecordingClientProvider(new DefaultClientProvider(), recorder));
+ * </pre>
+ */
+public class RecordingClientProvider implements ClientProvider {
+    private final ClientProvider delegate;
+    private final TrafficRecorder recorder;
+
+    /**
+     * Create a new {@link RecordingClientProvider} instance.
+     *
+     * @param delegate The provider creating the clients that send the
+     *                 requests.
+     * @param recorder The recorder the traffic of all clients is written to.
+     */
+    public RecordingClientProvider(ClientProvider delegate, TrafficRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public boolean supports(String scheme) {
+        return delegate.supports(scheme);
+    }
+
+    @Override
+    public int getPriority() {
+        return delegate.getPriority();
+    }
+
+    @Override
+    public AbstractClient createClient(URI endpointUri) {
+        return new RecordingClient(delegate.createClient(endpointUri), recorder);
+    }
+}
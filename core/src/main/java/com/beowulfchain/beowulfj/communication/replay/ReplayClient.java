@@ -0,0 +1,312 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.Deadline;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers requests with the responses recorded by a {@link RecordingClient},
+ * without any connection to a node. Clients are created by a
+ * {@link ReplayClientProvider}, which describes how requests are matched with
+ * the records.
+ * <p>
+ * The recorded responses are parsed exactly like the responses of a real
+ * node, so replaying a recording measures the throughput and the allocations
+ * of BeowulfJ itself. The recorded durations are kept, divided by the speed of
+ * the replay, but still limited by the response timeout and the
+ * {@link Deadline} of a request. Recorded failures are thrown again.
+ */
+public class ReplayClient extends AbstractClient {
+    private final ReplayIndex index;
+    private final double speed;
+
+    /**
+     * Create a new {@link ReplayClient} instance.
+     *
+     * @param index The recorded traffic.
+     * @param speed The factor the recorded durations are divided by.
+     */
+    ReplayClient(ReplayIndex index, double speed) {
+        this.index = index;
+        this.speed = speed;
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, null);
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        TrafficRecord record = find(requestObject);
+        await(record, requestObject.getDeadline());
+        return readResponse(record, requestObject.getId(), resultType);
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+                                                                         URI endpointUri,
+                                                                         boolean sslVerificationDisabled,
+                                                                         @Nullable JavaType resultType) {
+        CompletableFuture<JsonRPCResponse> response = new CompletableFuture<>();
+        try {
+            TrafficRecord record = find(requestObject);
+            long delay = getDelay(record);
+            long responseTimeout = getResponseTimeoutNanos(requestObject.getDeadline());
+
+            Runnable answer = () -> {
+                try {
+                    if (delay > responseTimeout) {
+                        throw createTimeoutException();
+                    }
+                    response.complete(readResponse(record, requestObject.getId(), resultType));
+                } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+                    response.completeExceptionally(e);
+                }
+            };
+
+            long wait = Math.min(delay, responseTimeout);
+            if (wait > 0) {
+                CommunicationExecutors.getScheduler().schedule(
+                        () -> CommunicationExecutors.getAsyncExecutor().execute(answer), wait, TimeUnit.NANOSECONDS);
+            } else {
+                CommunicationExecutors.getAsyncExecutor().execute(answer);
+            }
+        } catch (BeowulfCommunicationException | RuntimeException e) {
+            response.completeExceptionally(e instanceof RejectedExecutionException
+                    ? new BeowulfCommunicationException("The request has been rejected.", e) : e);
+        }
+        return response;
+    }
+
+    @Override
+    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                           boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        TrafficRecord record = find(batchRequest);
+        await(record, batchRequest.getDeadline());
+        throwRecordedFailure(record);
+
+        ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+        JsonNode response;
+        try {
+            response = mapper.readTree(record.getResponseBytes());
+        } catch (IOException e) {
+            throw new BeowulfResponseException("Unable to parse the response.", e);
+        }
+
+        // The recorded ids are the indexes of the requests within the batch.
+        List<JsonRPCRequest> requests = batchRequest.getRequests();
+        for (JsonNode element : response) {
+            int requestIndex = element.path(JsonRPCResponse.ID_FIELD_NAME).asInt(-1);
+            if (element.isObject() && requestIndex >= 0 && requestIndex < requests.size()) {
+                ((ObjectNode) element).put(JsonRPCResponse.ID_FIELD_NAME, requests.get(requestIndex).getId());
+            }
+        }
+        return new JsonRPCBatchResponse(response);
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        // There is no connection.
+    }
+
+    /**
+     * @param requestObject The request.
+     * @return The record that answers the request.
+     * @throws BeowulfCommunicationException If no request with the same method
+     *                                       has been recorded.
+     */
+    private TrafficRecord find(JsonRPCRequest requestObject) throws BeowulfCommunicationException {
+        try {
+            return find(requestObject.toJson());
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    /**
+     * @param batchRequest The batch.
+     * @return The record that answers the batch.
+     * @throws BeowulfCommunicationException If no batch with the same methods
+     *                                       has been recorded.
+     */
+    private TrafficRecord find(JsonRPCBatchRequest batchRequest) throws BeowulfCommunicationException {
+        try {
+            return find(batchRequest.toJson());
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    /**
+     * @param request The request as JSON.
+     * @return The record that answers the request.
+     * @throws BeowulfCommunicationException If no request with the same method
+     *                                       has been recorded.
+     */
+    private TrafficRecord find(String request) throws BeowulfCommunicationException {
+        TrafficRecord record;
+        try {
+            record = index.find(CommunicationHandler.getObjectMapper().readTree(request));
+        } catch (IOException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+
+        if (record == null) {
+            throw new BeowulfCommunicationException("No response has been recorded for the request " + request + ".");
+        }
+        return record;
+    }
+
+    /**
+     * Wait for the recorded duration of the request.
+     *
+     * @param record   The record that answers the request.
+     * @param deadline The deadline of the request or <code>null</code>.
+     * @throws BeowulfCommunicationException If the response timeout or the
+     *                                       deadline expired first or if the
+     *                                       thread has been interrupted.
+     */
+    private void await(TrafficRecord record, @Nullable Deadline deadline) throws BeowulfCommunicationException {
+        long delay = getDelay(record);
+        long responseTimeout = getResponseTimeoutNanos(deadline);
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.min(delay, responseTimeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for the response.", e);
+        }
+
+        if (delay > responseTimeout) {
+            throw createTimeoutException();
+        }
+    }
+
+    /**
+     * Get the time a request may wait for its answer.
+     *
+     * @param deadline The deadline of the request or <code>null</code>.
+     * @return The time in nanoseconds or {@link Long#MAX_VALUE} if the
+     * response timeout is <code>0</code> and no deadline is set, so the
+     * request waits forever.
+     */
+    private static long getResponseTimeoutNanos(@Nullable Deadline deadline) {
+        int responseTimeout = getResponseTimeout(deadline);
+        return responseTimeout > 0 ? TimeUnit.MILLISECONDS.toNanos(responseTimeout) : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param record The record that answers a request.
+     * @return The time in nanoseconds the answer is delayed by.
+     */
+    private long getDelay(TrafficRecord record) {
+        return (long) (record.getDurationNanos() / speed);
+    }
+
+    /**
+     * Recreate the response of a single request.
+     *
+     * @param record     The record that answers the request.
+     * @param id         The id of the request.
+     * @param resultType The type the result will be requested as or
+     *                   <code>null</code> to keep the result as JSON.
+     * @return The response.
+     * @throws BeowulfCommunicationException If the recorded request failed or
+     *                                       the result could not be bound to
+     *                                       the <code>resultType</code>.
+     * @throws BeowulfResponseException      If the recorded request failed or
+     *                                       the response is no valid JSON.
+     */
+    private static JsonRPCResponse readResponse(TrafficRecord record, long id, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        throwRecordedFailure(record);
+
+        // The recorded response does not contain an id, so the id of the
+        // request is appended to the serialized object.
+        byte[] recordedResponse = record.getResponseBytes();
+        byte[] idField = ((recordedResponse.length > 2 ? "," : "") + "\"" + JsonRPCResponse.ID_FIELD_NAME + "\":"
+                + id + "}").getBytes(StandardCharsets.UTF_8);
+        byte[] response = new byte[recordedResponse.length - 1 + idField.length];
+        System.arraycopy(recordedResponse, 0, response, 0, recordedResponse.length - 1);
+        System.arraycopy(idField, 0, response, recordedResponse.length - 1, idField.length);
+
+        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(response)) {
+            return JsonRPCResponse.read(parser, resultType);
+        } catch (IOException e) {
+            throw new BeowulfResponseException("Unable to parse the response.", e);
+        }
+    }
+
+    /**
+     * @param record The record that answers a request.
+     * @throws BeowulfCommunicationException If the recorded request failed
+     *                                       with a communication problem.
+     * @throws BeowulfResponseException      If the recorded request failed
+     *                                       with an invalid response.
+     */
+    private static void throwRecordedFailure(TrafficRecord record)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        switch (record.getOutcome()) {
+            case TIMEOUT:
+                throw new BeowulfTimeoutException(record.getResponse());
+            case COMMUNICATION_ERROR:
+                throw new BeowulfCommunicationException(record.getResponse());
+            case RESPONSE_ERROR:
+                throw new BeowulfResponseException(record.getResponse());
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @return The exception indicating that the recorded response arrives too
+     * late.
+     */
+    private static BeowulfTimeoutException createTimeoutException() {
+        return new BeowulfTimeoutException("The server was not able to answer in time.");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.ClientProvider;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * A {@link ClientProvider} whose {@link ReplayClient ReplayClients} answer
+ * all requests with the traffic recorded in a file, regardless of the
+ * endpoint, so a recording can be replayed with a different endpoint
+ * configuration.
+ * <p>
+ * A request is answered with the oldest unused record of a request with the
+ * same method and parameters. If there is none, e.g. because the parameters
+ * contain a freshly signed transaction, the oldest unused record of a request
+ * with the same method is used instead. Once all matching records have been
+ * used, the last one is reused. Only the positions of the records are kept
+ * in memory, the responses are read from the file when they are replayed, so
+ * the provider has to be closed once it is not needed anymore.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * BeowulfJConfig.getInstance().setClientProvider(
+ *         new ReplayClientProvider(new File("traffic.bjtr"), 10));
+ * </pre>
+ */
+public class ReplayClientProvider implements ClientProvider, Closeable {
+    private final ReplayIndex index;
+    private final double speed;
+
+    /**
+     * Create a new {@link ReplayClientProvider} instance.
+     *
+     * @param file  The file written by a {@link TrafficRecorder}.
+     * @param speed The speed of the replay: <code>1</code> keeps the recorded
+     *              durations, <code>10</code> answers ten times faster and
+     *              {@link Double#POSITIVE_INFINITY} answers immediately.
+     * @throws IOException              If the file could not be read.
+     * @throws IllegalArgumentException If the speed is not positive.
+     */
+    public ReplayClientProvider(File file, double speed) throws IOException {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("The speed has to be positive.");
+        }
+
+        this.index = new ReplayIndex(file);
+        this.speed = speed;
+    }
+
+    /**
+     * @return The number of recorded requests.
+     */
+    public int getNumberOfRecords() {
+        return index.size();
+    }
+
+    @Override
+    public boolean supports(String scheme) {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public AbstractClient createClient(URI endpointUri) {
+        return new ReplayClient(index, speed);
+    }
+
+    /**
+     * Close the file. The clients created by this provider can not answer
+     * any requests afterwards.
+     *
+     * @throws IOException If the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+}
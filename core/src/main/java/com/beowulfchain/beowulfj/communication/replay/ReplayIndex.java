@@ -0,0 +1,177 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The records of a traffic file, indexed by the methods and parameters of
+ * their requests. See {@link ReplayClientProvider} for how requests are
+ * matched with the records.
+ * <p>
+ * Only the offsets of the records are kept in memory. A record is read from
+ * the file when it is used to answer a request.
+ */
+final class ReplayIndex implements Closeable {
+    private final Map<String, Deque<Long>> offsetsByRequest = new HashMap<>();
+    private final Map<String, Deque<Long>> offsetsByMethod = new HashMap<>();
+    private final FileChannel channel;
+    private final int size;
+
+    /**
+     * Index all records of the given file.
+     *
+     * @param file The file written by a {@link TrafficRecorder}.
+     * @throws IOException If the file could not be read.
+     */
+    ReplayIndex(File file) throws IOException {
+        int numberOfRecords = 0;
+        try (TrafficReader reader = new TrafficReader(file)) {
+            long offset = reader.getPosition();
+            byte[] request;
+            while ((request = reader.nextRequest()) != null) {
+                Pair<String, String> keys = createKeys(CommunicationHandler.getObjectMapper().readTree(request));
+                offsetsByRequest.computeIfAbsent(keys.getLeft(), k -> new ArrayDeque<>()).add(offset);
+                offsetsByMethod.computeIfAbsent(keys.getRight(), k -> new ArrayDeque<>()).add(offset);
+                numberOfRecords++;
+                offset = reader.getPosition();
+            }
+        }
+        this.size = numberOfRecords;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * @return The number of records.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Find the record that answers the given request.
+     *
+     * @param request The request as JSON.
+     * @return The record or <code>null</code> if no request with the same
+     * method has been recorded.
+     * @throws IOException If the record could not be read.
+     */
+    TrafficRecord find(JsonNode request) throws IOException {
+        Long offset;
+        synchronized (this) {
+            Pair<String, String> keys = createKeys(request);
+            offset = take(offsetsByRequest.get(keys.getLeft()));
+            if (offset == null) {
+                offset = take(offsetsByMethod.get(keys.getRight()));
+            }
+        }
+
+        if (offset == null) {
+            return null;
+        }
+        // Positional reads do not change the position of the channel, so
+        // several records can be read in parallel.
+        return TrafficRecord.readFrom(new DataInputStream(new BufferedInputStream(
+                new ChannelInputStream(channel, offset))));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @param offsets The offsets of the matching records or <code>null</code>.
+     * @return The offset of the oldest unused record or of the last record if
+     * all have been used.
+     */
+    private static Long take(Deque<Long> offsets) {
+        if (offsets == null) {
+            return null;
+        }
+        return offsets.size() > 1 ? offsets.poll() : offsets.peek();
+    }
+    /**
+     * @param request A single request or a batch.
+     * @return The key covering the methods and parameters and the key
+     * covering only the methods of the request.
+     */
+    private static Pair<String, String> createKeys(JsonNode request) {
+        if (!request.isArray()) {
+            String method = request.path("method").asText();
+            return Pair.of(method + request.path("params"), method);
+        }
+
+        StringBuilder requestKey = new StringBuilder("[");
+        StringBuilder methodKey = new StringBuilder("[");
+        for (JsonNode element : request) {
+            String method = element.path("method").asText();
+            requestKey.append(method).append(element.path("params")).append('\n');
+            methodKey.append(method).append('\n');
+        }
+        return Pair.of(requestKey.toString(), methodKey.toString());
+    }
+
+    /**
+     * Reads the file from the given offset on without changing the position
+     * of the shared channel.
+     */
+    private static final class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+
+        private ChannelInputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] value = new byte[1];
+            return read(value, 0, 1) < 0 ? -1 : value[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            int read = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+}
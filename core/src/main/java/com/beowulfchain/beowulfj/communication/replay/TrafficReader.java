@@ -0,0 +1,194 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the {@link TrafficRecord TrafficRecords} written by a
+ * {@link TrafficRecorder} in the order they have been recorded.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * try (TrafficReader reader = new TrafficReader(file)) {
+ *     TrafficRecord record;
+ *     while ((record = reader.next()) != null) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public class TrafficReader implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficReader.class);
+
+    private final PositionInputStream positionInputStream;
+    private final DataInputStream inputStream;
+
+    /**
+     * Create a new {@link TrafficReader} instance.
+     *
+     * @param file The file to read.
+     * @throws IOException If the file could not be opened or has not been
+     *                     written by a {@link TrafficRecorder}.
+     */
+    public TrafficReader(File file) throws IOException {
+        this.positionInputStream = new PositionInputStream(new BufferedInputStream(new FileInputStream(file)));
+        this.inputStream = new DataInputStream(positionInputStream);
+        try {
+            if (inputStream.readInt() != TrafficRecorder.MAGIC) {
+                throw new IOException("The file " + file + " does not contain recorded traffic.");
+            }
+
+            int version = inputStream.readInt();
+            if (version != TrafficRecorder.VERSION) {
+                throw new IOException("The version " + version + " of the file " + file + " is not supported.");
+            }
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the next record. If the file ends within a record, e.g. because the
+     * recording process has been killed, the incomplete record is skipped.
+     *
+     * @return The next record or <code>null</code> if all records have been
+     * read.
+     * @throws IOException If the file could not be read.
+     */
+    public TrafficRecord next() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+
+        try {
+            return TrafficRecord.readFrom(inputStream);
+        } catch (EOFException e) {
+            LOGGER.warn("Skipping the incomplete last record.");
+            return null;
+        }
+    }
+
+    /**
+     * Like {@link #next()}, but only reads the request of the next record and
+     * skips its response, so the records can be indexed without loading all
+     * responses.
+     *
+     * @return The UTF-8 encoded request of the next record or
+     * <code>null</code> if all records have been read.
+     * @throws IOException If the file could not be read.
+     */
+    byte[] nextRequest() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+
+        try {
+            return TrafficRecord.readRequestFrom(inputStream);
+        } catch (EOFException e) {
+            LOGGER.warn("Skipping the incomplete last record.");
+            return null;
+        }
+    }
+
+    /**
+     * @return The offset of the next record within the file.
+     */
+    long getPosition() {
+        return positionInputStream.position;
+    }
+
+    /**
+     * @return <code>true</code> if the file contains at least one more byte.
+     * @throws IOException If the file could not be read.
+     */
+    private boolean hasNext() throws IOException {
+        inputStream.mark(1);
+        if (inputStream.read() < 0) {
+            return false;
+        }
+        inputStream.reset();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    /**
+     * Keeps track of the number of bytes read from the file.
+     */
+    private static final class PositionInputStream extends FilterInputStream {
+        private long position;
+        private long markedPosition;
+
+        private PositionInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                position++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            super.mark(readlimit);
+            markedPosition = position;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            position = markedPosition;
+        }
+    }
+}
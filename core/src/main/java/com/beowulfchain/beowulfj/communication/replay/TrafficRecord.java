@@ -0,0 +1,278 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A request and its outcome as captured by a {@link RecordingClient}.
+ * <p>
+ * The ids of the requests are kept, so the requests can be inspected or sent
+ * again, but the ids are removed from the responses: The id of a single
+ * response is omitted and the id of every element of a batch response is
+ * replaced by the index of its request within the batch. This allows the
+ * {@link ReplayClient} to answer requests with new ids.
+ */
+public final class TrafficRecord {
+    /**
+     * The outcome of a recorded request.
+     */
+    public enum Outcome {
+        /**
+         * The node answered, which includes JSON RPC errors.
+         */
+        RESPONSE,
+        /**
+         * The request failed with a
+         * {@link com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException}.
+         */
+        COMMUNICATION_ERROR,
+        /**
+         * The request failed with a
+         * {@link com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException}.
+         */
+        TIMEOUT,
+        /**
+         * The request failed with a
+         * {@link com.beowulfchain.beowulfj.exceptions.BeowulfResponseException}.
+         */
+        RESPONSE_ERROR
+    }
+
+    private final long timestamp;
+    private final long durationNanos;
+    private final String endpoint;
+    private final boolean batch;
+    private final Outcome outcome;
+    private final byte[] request;
+    private final byte[] response;
+
+    /**
+     * Create a new {@link TrafficRecord} instance.
+     *
+     * @param timestamp     The time in microseconds since the epoch the
+     *                      request has been sent at.
+     * @param durationNanos The time in nanoseconds it took to complete the
+     *                      request.
+     * @param endpoint      The endpoint the request has been sent to.
+     * @param batch         <code>true</code> if the request is a batch.
+     * @param outcome       The outcome of the request.
+     * @param request       The request as UTF-8 encoded JSON.
+     * @param response      The UTF-8 encoded response as described in the
+     *                      class comment or the error message.
+     */
+    TrafficRecord(long timestamp, long durationNanos, String endpoint, boolean batch, Outcome outcome,
+                  byte[] request, byte[] response) {
+        this.timestamp = timestamp;
+        this.durationNanos = durationNanos;
+        this.endpoint = endpoint;
+        this.batch = batch;
+        this.outcome = outcome;
+        this.request = request;
+        this.response = response;
+    }
+
+    /**
+     * @return The time in microseconds since the epoch the request has been
+     * sent at.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The time in nanoseconds it took to complete the request.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return The endpoint the request has been sent to.
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return <code>true</code> if the request is a batch.
+     */
+    public boolean isBatch() {
+        return batch;
+    }
+
+    /**
+     * @return The outcome of the request.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The request as JSON.
+     */
+    public String getRequest() {
+        return new String(request, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The response as described in the class comment or the error
+     * message if the request failed.
+     */
+    public String getResponse() {
+        return new String(response, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The UTF-8 encoded response or error message.
+     */
+    byte[] getResponseBytes() {
+        return response;
+    }
+
+    /**
+     * Recreate the recorded requests, e.g. to send them to a node again at
+     * their recorded pace. The recreated requests get new ids.
+     *
+     * @return The request or the requests of the batch.
+     * @throws IOException If the recorded request is no valid JSON or uses an
+     *                     unknown method.
+     */
+    public List<JsonRPCRequest> toRequests() throws IOException {
+        JsonNode recordedRequest = CommunicationHandler.getObjectMapper().readTree(request);
+        if (!recordedRequest.isArray()) {
+            return Collections.singletonList(toRequest(recordedRequest));
+        }
+
+        List<JsonRPCRequest> requests = new ArrayList<>();
+        for (JsonNode element : recordedRequest) {
+            requests.add(toRequest(element));
+        }
+        return requests;
+    }
+
+    /**
+     * Write this record to the given stream.
+     *
+     * @param outputStream The stream.
+     * @throws IOException If the record could not be written.
+     */
+    void writeTo(DataOutputStream outputStream) throws IOException {
+        outputStream.writeLong(timestamp);
+        outputStream.writeLong(durationNanos);
+        outputStream.writeUTF(endpoint);
+        outputStream.writeBoolean(batch);
+        outputStream.writeByte(outcome.ordinal());
+        outputStream.writeInt(request.length);
+        outputStream.write(request);
+        outputStream.writeInt(response.length);
+        outputStream.write(response);
+    }
+
+    /**
+     * Read a record from the given stream.
+     *
+     * @param inputStream The stream positioned at the start of a record.
+     * @return The record.
+     * @throws IOException If the record could not be read.
+     */
+    static TrafficRecord readFrom(DataInputStream inputStream) throws IOException {
+        long timestamp = inputStream.readLong();
+        long durationNanos = inputStream.readLong();
+        String endpoint = inputStream.readUTF();
+        boolean batch = inputStream.readBoolean();
+        int outcome = inputStream.readUnsignedByte();
+        if (outcome >= Outcome.values().length) {
+            throw new IOException("Unknown outcome " + outcome + ".");
+        }
+
+        byte[] request = new byte[inputStream.readInt()];
+        inputStream.readFully(request);
+        byte[] response = new byte[inputStream.readInt()];
+        inputStream.readFully(response);
+
+        return new TrafficRecord(timestamp, durationNanos, endpoint, batch, Outcome.values()[outcome], request,
+                response);
+    }
+
+    /**
+     * Read only the request of a record from the given stream and skip the
+     * rest of the record.
+     *
+     * @param inputStream The stream positioned at the start of a record.
+     * @return The UTF-8 encoded request.
+     * @throws IOException If the record could not be read.
+     */
+    static byte[] readRequestFrom(DataInputStream inputStream) throws IOException {
+        // The timestamp and the duration.
+        inputStream.readLong();
+        inputStream.readLong();
+        inputStream.readUTF();
+        inputStream.readBoolean();
+        inputStream.readUnsignedByte();
+
+        byte[] request = new byte[inputStream.readInt()];
+        inputStream.readFully(request);
+        // Skipping by reading detects a truncated response, unlike skipping
+        // within the file.
+        IOUtils.skipFully(inputStream, inputStream.readInt());
+
+        return request;
+    }
+
+    /**
+     * @param recordedRequest A single recorded request.
+     * @return The recreated request.
+     * @throws IOException If the method is unknown.
+     */
+    private static JsonRPCRequest toRequest(JsonNode recordedRequest) throws IOException {
+        String method = recordedRequest.path("method").asText();
+        int separator = method.indexOf('.');
+        try {
+            BeowulfApiType apiType = separator < 0 ? null
+                    : BeowulfApiType.valueOf(method.substring(0, separator).toUpperCase(Locale.ROOT));
+            RequestMethod requestMethod = RequestMethod.valueOf(method.substring(separator + 1)
+                    .toUpperCase(Locale.ROOT));
+            JsonNode params = recordedRequest.get("params");
+            return new JsonRPCRequest(apiType, requestMethod, params == null || params.isNull() ? null : params);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The method " + method + " is not known.", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("timestamp", timestamp).append("durationNanos", durationNanos)
+                .append("endpoint", endpoint).append("outcome", outcome).append("request", getRequest())
+                .append("response", getResponse()).toString();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends {@link TrafficRecord TrafficRecords} to a file. A file can be
+ * extended by several recorders one after another, e.g. one per process run,
+ * but not by multiple recorders at the same time.
+ * <p>
+ * The file starts with a short header followed by the records in a compact
+ * binary format, which can be read using a {@link TrafficReader}. Records are
+ * buffered, so the recorder has to be {@link #close() closed} to make sure
+ * all records have been written.
+ */
+public class TrafficRecorder implements Closeable {
+    /**
+     * The first bytes of every traffic file ("BJTR").
+     */
+    static final int MAGIC = 0x424A5452;
+    /**
+     * The version of the file format.
+     */
+    static final int VERSION = 1;
+
+    private final DataOutputStream outputStream;
+    /**
+     * The time in microseconds since the epoch this recorder has been created
+     * at.
+     */
+    private final long startTimestamp = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final long startNanos = System.nanoTime();
+    private boolean closed;
+
+    /**
+     * Create a new {@link TrafficRecorder} instance.
+     *
+     * @param file The file the records are appended to. The file is created if
+     *             it does not exist.
+     * @throws IOException If the file could not be opened.
+     */
+    public TrafficRecorder(File file) throws IOException {
+        boolean empty = !file.exists() || file.length() == 0;
+        this.outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (empty) {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Convert a value of {@link System#nanoTime()} into a timestamp for a
+     * {@link TrafficRecord}.
+     *
+     * @param nanoTime A value of {@link System#nanoTime()}.
+     * @return The time in microseconds since the epoch.
+     */
+    long toTimestamp(long nanoTime) {
+        return startTimestamp + TimeUnit.NANOSECONDS.toMicros(nanoTime - startNanos);
+    }
+
+    /**
+     * Append a record to the file.
+     *
+     * @param record The record.
+     * @throws IOException If the record could not be written or the recorder
+     *                     has been closed.
+     */
+    public synchronized void record(TrafficRecord record) throws IOException {
+        if (closed) {
+            throw new IOException("The recorder has been closed.");
+        }
+
+        record.writeTo(outputStream);
+    }
+
+    /**
+     * Write all buffered records to the file.
+     *
+     * @throws IOException If the records could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            outputStream.close();
+        }
+    }
+}
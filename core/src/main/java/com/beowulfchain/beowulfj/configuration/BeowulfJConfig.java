@@ -17,8 +17,11 @@
 package com.beowulfchain.beowulfj.configuration;
 
 import com.beowulfchain.beowulfj.BeowulfJ;
+import com.beowulfchain.beowulfj.chain.BlockSource;
 import com.beowulfchain.beowulfj.chain.NetworkProperties;
 import com.beowulfchain.beowulfj.chain.network.Testnet;
+import com.beowulfchain.beowulfj.communication.ClientProvider;
+import com.beowulfchain.beowulfj.communication.RetryPolicy;
 import com.beowulfchain.beowulfj.enums.AddressPrefixType;
 import com.beowulfchain.beowulfj.enums.PrivateKeyType;
 import com.beowulfchain.beowulfj.enums.SynchronizationType;
@@ -42,6 +45,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 /**
  * This class stores the configuration that is used for the communication to the
@@ -70,7 +74,7 @@ public class BeowulfJConfig {
     /**
      * The inner {@link BeowulfJConfig} instance.
      */
-    private static BeowulfJConfig beowulfJConfigInstance;
+    private static volatile BeowulfJConfig beowulfJConfigInstance;
     private ClientEndpointConfig clientEndpointConfig;
     private List<Pair<URI, Boolean>> endpointURIs;
     private int responseTimeout;
@@ -92,6 +96,31 @@ public class BeowulfJConfig {
     private AssetSymbol tokenSymbol;
     private AssetSymbol vestsSymbol;
     private NetworkProperties network;
+    private Executor asyncExecutor;
+    private ClientProvider clientProvider;
+    private BlockSource blockSource;
+    private int maxHttpConnections;
+    private int maxHttpConnectionsPerEndpoint;
+    private int endpointProbeInterval;
+    private boolean connectionWarmUpEnabled;
+    private int keepAliveInterval;
+    private int chainHeadRefreshInterval;
+    private int irreversibleCacheSize;
+    private long irreversibleCacheOffHeapSize;
+    private int blockStreamConcurrency;
+    private int blockStreamBufferSize;
+    private int maxHeadBlockLag;
+    private RetryPolicy retryPolicy;
+    private int circuitBreakerFailureThreshold;
+    private int circuitBreakerOpenTime;
+    private double hedgedReadPercentile;
+    private boolean requestCoalescingEnabled;
+    private boolean compressionEnabled;
+    private int compressionThreshold;
+    private double rateLimit;
+    private int rateLimitBurst;
+    private int transportsPerEndpoint;
+    private boolean virtualThreadsEnabled;
 
     /**
      * Default constructor that will set all default values.
@@ -101,6 +130,24 @@ public class BeowulfJConfig {
         this.setDefaultBeowulfApiUri(DEFAULT_BEOWULF_API_URI);
         this.setResponseTimeout(10000);
         this.setIdleTimeout(60000);
+        this.setMaxHttpConnections(200);
+        this.setMaxHttpConnectionsPerEndpoint(20);
+        this.setEndpointProbeInterval(10000);
+        this.setConnectionWarmUpEnabled(true);
+        this.setKeepAliveInterval(20000);
+        this.setChainHeadRefreshInterval(3000);
+        this.setIrreversibleCacheSize(0);
+        this.setIrreversibleCacheOffHeapSize(64L * 1024 * 1024);
+        this.setBlockStreamConcurrency(8);
+        this.setBlockStreamBufferSize(64);
+        this.setMaxHeadBlockLag(5);
+        this.setRetryPolicy(new RetryPolicy(3, 100, 5000));
+        this.setRequestCoalescingEnabled(true);
+        this.setCompressionThreshold(1024);
+        this.setRateLimitBurst(10);
+        this.setTransportsPerEndpoint(1);
+        this.setCircuitBreakerFailureThreshold(3);
+        this.setCircuitBreakerOpenTime(30000);
         this.setDateTime("yyyy-MM-dd'T'HH:mm:ss", "GMT");
         this.setApiUsername(new AccountName(System.getProperty("beowulfj.api.username", "")));
         this.setApiPassword(System.getProperty("beowulfj.api.password", "").toCharArray());
@@ -137,7 +184,11 @@ public class BeowulfJConfig {
      */
     public static BeowulfJConfig getInstance() {
         if (beowulfJConfigInstance == null) {
-            beowulfJConfigInstance = new BeowulfJConfig();
+            synchronized (BeowulfJConfig.class) {
+                if (beowulfJConfigInstance == null) {
+                    beowulfJConfigInstance = new BeowulfJConfig();
+                }
+            }
         }
 
         return beowulfJConfigInstance;
@@ -151,8 +202,10 @@ public class BeowulfJConfig {
      * @return A BeowulfJConfig instance.
      */
     public static BeowulfJConfig getNewInstance() {
-        beowulfJConfigInstance = new BeowulfJConfig();
-        return beowulfJConfigInstance;
+        synchronized (BeowulfJConfig.class) {
+            beowulfJConfigInstance = new BeowulfJConfig();
+            return beowulfJConfigInstance;
+        }
     }
 
     /**
@@ -482,6 +535,711 @@ public class BeowulfJConfig {
         this.idleTimeout = idleTimeout;
     }
 
+    /**
+     * Get the maximum number of HTTP connections BeowulfJ keeps open in total.
+     *
+     * @return The maximum number of pooled HTTP connections.
+     */
+    public int getMaxHttpConnections() {
+        return maxHttpConnections;
+    }
+
+    /**
+     * Override the maximum number of HTTP connections BeowulfJ keeps open in
+     * total. Connections are kept alive and reused by subsequent requests
+     * until they have been unused for longer than the
+     * {@link #setIdleTimeout(int) idle timeout}. The value is applied when
+     * the HTTP client is created.
+     *
+     * @param maxHttpConnections The maximum number of pooled HTTP connections.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setMaxHttpConnections(int maxHttpConnections) {
+        if (maxHttpConnections <= 0) {
+            throw new IllegalArgumentException("The maximum number of HTTP connections has to be greater than 0.");
+        }
+
+        this.maxHttpConnections = maxHttpConnections;
+    }
+
+    /**
+     * Get the maximum number of HTTP connections BeowulfJ keeps open to a
+     * single endpoint.
+     *
+     * @return The maximum number of pooled HTTP connections per endpoint.
+     */
+    public int getMaxHttpConnectionsPerEndpoint() {
+        return maxHttpConnectionsPerEndpoint;
+    }
+
+    /**
+     * Override the maximum number of HTTP connections BeowulfJ keeps open to
+     * a single endpoint. Requests that exceed this limit wait for a pooled
+     * connection to become available. The value is applied when the HTTP
+     * client is created.
+     *
+     * @param maxHttpConnectionsPerEndpoint The maximum number of pooled HTTP
+     *                                      connections per endpoint.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setMaxHttpConnectionsPerEndpoint(int maxHttpConnectionsPerEndpoint) {
+        if (maxHttpConnectionsPerEndpoint <= 0) {
+            throw new IllegalArgumentException(
+                    "The maximum number of HTTP connections per endpoint has to be greater than 0.");
+        }
+
+        this.maxHttpConnectionsPerEndpoint = maxHttpConnectionsPerEndpoint;
+    }
+
+    /**
+     * Get the interval in which BeowulfJ probes all configured endpoints in
+     * the background to measure their latency and head block.
+     *
+     * @return The interval in milliseconds or <code>0</code> if probing is
+     * disabled.
+     */
+    public int getEndpointProbeInterval() {
+        return endpointProbeInterval;
+    }
+
+    /**
+     * Override the interval in which BeowulfJ probes all configured endpoints
+     * in the background. Probes keep the health information of endpoints
+     * that currently do not receive requests up to date and reinstate
+     * ejected endpoints once they are healthy again. Probing only happens if
+     * more than one endpoint is configured. The value is applied when the
+     * {@link com.beowulfchain.beowulfj.communication.CommunicationHandler
+     * CommunicationHandler} is created.
+     *
+     * @param endpointProbeInterval The interval in milliseconds or
+     *                              <code>0</code> to disable probing.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setEndpointProbeInterval(int endpointProbeInterval) {
+        if (endpointProbeInterval < 0) {
+            throw new IllegalArgumentException("The probe interval has to be greater than 0. (0 will disable probing).");
+        }
+
+        this.endpointProbeInterval = endpointProbeInterval;
+    }
+
+    /**
+     * Check if BeowulfJ connects to all configured endpoints as soon as the
+     * {@link com.beowulfchain.beowulfj.communication.CommunicationHandler
+     * CommunicationHandler} is created.
+     *
+     * @return <code>true</code> if the connections are warmed up at startup.
+     */
+    public boolean isConnectionWarmUpEnabled() {
+        return connectionWarmUpEnabled;
+    }
+
+    /**
+     * Define if BeowulfJ should connect to all configured endpoints in
+     * parallel as soon as the
+     * {@link com.beowulfchain.beowulfj.communication.CommunicationHandler
+     * CommunicationHandler} is created, instead of connecting lazily on the
+     * first request. Together with the {@link #setKeepAliveInterval(int)
+     * keep-alive} this keeps a hot standby connection to every endpoint, so a
+     * failover does not have to pay for the handshakes. The connections are
+     * opened in the background, so a failed warm-up does not prevent the
+     * creation of the handler.
+     *
+     * @param connectionWarmUpEnabled <code>true</code> to warm up the
+     *                                connections (default <code>true</code>).
+     */
+    public void setConnectionWarmUpEnabled(boolean connectionWarmUpEnabled) {
+        this.connectionWarmUpEnabled = connectionWarmUpEnabled;
+    }
+
+    /**
+     * Get the interval in which BeowulfJ keeps the connections to all
+     * configured endpoints alive.
+     *
+     * @return The interval in milliseconds or <code>0</code> if the
+     * connections are not kept alive.
+     */
+    public int getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    /**
+     * Override the interval in which BeowulfJ keeps the connections to all
+     * configured endpoints alive. WebSocket sessions are pinged and
+     * reopened if they have been closed, while HTTP connections are kept
+     * from being evicted by a cheap request. The interval should be lower
+     * than the {@link #setIdleTimeout(int) idle timeout}. The value is
+     * applied when the
+     * {@link com.beowulfchain.beowulfj.communication.CommunicationHandler
+     * CommunicationHandler} is created and only if
+     * {@link #setConnectionWarmUpEnabled(boolean) warm-up} is enabled.
+     *
+     * @param keepAliveInterval The interval in milliseconds or <code>0</code>
+     *                          to disable the keep-alive.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setKeepAliveInterval(int keepAliveInterval) {
+        if (keepAliveInterval < 0) {
+            throw new IllegalArgumentException(
+                    "The keep-alive interval has to be greater than 0. (0 will disable the keep-alive).");
+        }
+
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    /**
+     * Get the interval in which BeowulfJ refreshes the reference block used
+     * to sign transactions.
+     *
+     * @return The interval in milliseconds or <code>0</code> if the reference
+     * block is fetched for every transaction.
+     */
+    public int getChainHeadRefreshInterval() {
+        return chainHeadRefreshInterval;
+    }
+
+    /**
+     * Override the interval in which BeowulfJ refreshes the reference block
+     * and the time of the node that are used to sign transactions (see
+     * {@link com.beowulfchain.beowulfj.chain.ChainHeadTracker
+     * ChainHeadTracker}). The refresh starts in the background once the first
+     * transaction is signed, so signing does not require a request to the
+     * node anymore. The default is the block interval. The value is applied
+     * when the refresh starts.
+     *
+     * @param chainHeadRefreshInterval The interval in milliseconds or
+     *                                 <code>0</code> to fetch the reference
+     *                                 block for every transaction.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setChainHeadRefreshInterval(int chainHeadRefreshInterval) {
+        if (chainHeadRefreshInterval < 0) {
+            throw new IllegalArgumentException(
+                    "The refresh interval has to be greater than 0. (0 will disable the refresh).");
+        }
+
+        this.chainHeadRefreshInterval = chainHeadRefreshInterval;
+    }
+
+    /**
+     * Get the number of blocks, block headers and transactions of
+     * irreversible blocks that are cached on the heap.
+     *
+     * @return The number of cached results or <code>0</code> if the cache is
+     * disabled.
+     */
+    public int getIrreversibleCacheSize() {
+        return irreversibleCacheSize;
+    }
+
+    /**
+     * Override the number of blocks, block headers and transactions of
+     * irreversible blocks that are cached on the heap (see
+     * {@link com.beowulfchain.beowulfj.communication.IrreversibleCache
+     * IrreversibleCache}). Data of blocks that may still be reverted is never
+     * cached. The cache is disabled by default. The value is applied when the
+     * {@link com.beowulfchain.beowulfj.communication.CommunicationHandler
+     * CommunicationHandler} is created.
+     *
+     * @param irreversibleCacheSize The number of cached results or
+     *                              <code>0</code> to disable the cache.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setIrreversibleCacheSize(int irreversibleCacheSize) {
+        if (irreversibleCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    "The cache size has to be greater than 0. (0 will disable the cache).");
+        }
+
+        this.irreversibleCacheSize = irreversibleCacheSize;
+    }
+
+    /**
+     * Get the maximum size of the cached results that are kept outside of
+     * the heap.
+     *
+     * @return The size in bytes or <code>0</code> if results are only cached
+     * on the heap.
+     */
+    public long getIrreversibleCacheOffHeapSize() {
+        return irreversibleCacheOffHeapSize;
+    }
+
+    /**
+     * Override the maximum size of the cached results that are kept outside
+     * of the heap, in addition to the results cached on the heap. The least
+     * recently used results are evicted once the size is exceeded. The
+     * default is 64 MiB. Only used if the
+     * {@link #setIrreversibleCacheSize(int) cache} is enabled.
+     *
+     * @param irreversibleCacheOffHeapSize The size in bytes or <code>0</code>
+     *                                     to cache results on the heap only.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setIrreversibleCacheOffHeapSize(long irreversibleCacheOffHeapSize) {
+        if (irreversibleCacheOffHeapSize < 0) {
+            throw new IllegalArgumentException(
+                    "The off-heap size has to be greater than 0. (0 will disable the off-heap cache).");
+        }
+
+        this.irreversibleCacheOffHeapSize = irreversibleCacheOffHeapSize;
+    }
+
+    /**
+     * Get the number of blocks a
+     * {@link com.beowulfchain.beowulfj.chain.BlockStream BlockStream} fetches
+     * at the same time.
+     *
+     * @return The number of concurrent requests.
+     */
+    public int getBlockStreamConcurrency() {
+        return blockStreamConcurrency;
+    }
+
+    /**
+     * Override the number of blocks a
+     * {@link com.beowulfchain.beowulfj.chain.BlockStream BlockStream} fetches
+     * at the same time. The requests are routed like any other request, so
+     * they are spread over the configured endpoints based on their health.
+     * The value is applied when the stream is created.
+     *
+     * @param blockStreamConcurrency The number of concurrent requests.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setBlockStreamConcurrency(int blockStreamConcurrency) {
+        if (blockStreamConcurrency < 1) {
+            throw new IllegalArgumentException("The concurrency has to be greater than 0.");
+        }
+
+        this.blockStreamConcurrency = blockStreamConcurrency;
+    }
+
+    /**
+     * Get the number of blocks a
+     * {@link com.beowulfchain.beowulfj.chain.BlockStream BlockStream} fetches
+     * ahead of the consumer.
+     *
+     * @return The number of blocks.
+     */
+    public int getBlockStreamBufferSize() {
+        return blockStreamBufferSize;
+    }
+
+    /**
+     * Override the number of blocks a
+     * {@link com.beowulfchain.beowulfj.chain.BlockStream BlockStream} fetches
+     * ahead of the consumer. Once the buffer is full, no further blocks are
+     * fetched until the consumer took the next block, which bounds the memory
+     * used by a slow consumer. The value is applied when the stream is
+     * created.
+     *
+     * @param blockStreamBufferSize The number of blocks.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setBlockStreamBufferSize(int blockStreamBufferSize) {
+        if (blockStreamBufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size has to be greater than 0.");
+        }
+
+        this.blockStreamBufferSize = blockStreamBufferSize;
+    }
+
+    /**
+     * Get the maximum number of blocks the head block of an endpoint may lag
+     * behind the most recent head block seen on any endpoint.
+     *
+     * @return The maximum number of blocks.
+     */
+    public int getMaxHeadBlockLag() {
+        return maxHeadBlockLag;
+    }
+
+    /**
+     * Override the maximum number of blocks the head block of an endpoint may
+     * lag behind the most recent head block seen on any endpoint. Endpoints
+     * that lag behind further do not receive requests until they caught up.
+     *
+     * @param maxHeadBlockLag The maximum number of blocks.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setMaxHeadBlockLag(int maxHeadBlockLag) {
+        if (maxHeadBlockLag < 0) {
+            throw new IllegalArgumentException("The maximum head block lag can't be negative.");
+        }
+
+        this.maxHeadBlockLag = maxHeadBlockLag;
+    }
+
+    /**
+     * Get the policy that defines how failed requests are retried.
+     *
+     * @return The retry policy.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Override the policy that defines how often and after which delay a
+     * request is retried if the endpoint could not be reached or did not
+     * answer in time. Errors returned by the node are never retried.
+     *
+     * @param retryPolicy The retry policy.
+     * @throws IllegalArgumentException If the retry policy is
+     *                                  <code>null</code>.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("The retry policy can't be null.");
+        }
+
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Get the number of failed requests in a row after which an endpoint is
+     * not used anymore.
+     *
+     * @return The number of failed requests.
+     */
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Override the number of failed requests in a row after which the circuit
+     * breaker of an endpoint opens, so no requests are sent to it for the
+     * {@link #setCircuitBreakerOpenTime(int) open time}. The value is applied
+     * to endpoints that have not been used yet.
+     *
+     * @param circuitBreakerFailureThreshold The number of failed requests.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        if (circuitBreakerFailureThreshold <= 0) {
+            throw new IllegalArgumentException("The failure threshold has to be greater than 0.");
+        }
+
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Get the time an endpoint is not used after its circuit breaker opened.
+     *
+     * @return The time in milliseconds.
+     */
+    public int getCircuitBreakerOpenTime() {
+        return circuitBreakerOpenTime;
+    }
+
+    /**
+     * Override the time an endpoint is not used after its circuit breaker
+     * opened. Afterwards a single trial request is sent to the endpoint,
+     * which closes the breaker if it succeeds. The value is applied to
+     * endpoints that have not been used yet.
+     *
+     * @param circuitBreakerOpenTime The time in milliseconds.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setCircuitBreakerOpenTime(int circuitBreakerOpenTime) {
+        if (circuitBreakerOpenTime < 0) {
+            throw new IllegalArgumentException("The open time can't be negative.");
+        }
+
+        this.circuitBreakerOpenTime = circuitBreakerOpenTime;
+    }
+
+    /**
+     * Get the latency percentile after which an idempotent read is sent to a
+     * second endpoint.
+     *
+     * @return The percentile between 0 and 100 or <code>0</code> if hedging
+     * is disabled.
+     */
+    public double getHedgedReadPercentile() {
+        return hedgedReadPercentile;
+    }
+
+    /**
+     * Enable hedged reads. If the endpoint a <code>get_block</code>,
+     * <code>get_accounts</code>, <code>get_transaction</code> or
+     * <code>get_dynamic_global_properties</code> request has been sent to did
+     * not answer within the given percentile of its recently observed
+     * latencies, the same request is sent to a second endpoint and the first
+     * answer wins. A percentile of 95 sends about 5% of those reads twice.
+     * Hedging requires at least two configured endpoints.
+     *
+     * @param hedgedReadPercentile The percentile between 0 and 100 or
+     *                             <code>0</code> to disable hedging.
+     * @throws IllegalArgumentException If the value is not between 0 and 100.
+     */
+    public void setHedgedReadPercentile(double hedgedReadPercentile) {
+        if (hedgedReadPercentile < 0 || hedgedReadPercentile > 100) {
+            throw new IllegalArgumentException("The percentile has to be between 0 and 100. (0 will disable hedging).");
+        }
+
+        this.hedgedReadPercentile = hedgedReadPercentile;
+    }
+
+    /**
+     * Check if identical read requests that are in flight at the same time
+     * share one round-trip.
+     *
+     * @return <code>true</code> if requests are coalesced.
+     */
+    public boolean isRequestCoalescingEnabled() {
+        return requestCoalescingEnabled;
+    }
+
+    /**
+     * Define if concurrent read requests with the same method and parameters
+     * should share one round-trip to the node. All callers receive the same
+     * deserialized result objects, so they should not be modified. Broadcasts
+     * are never coalesced.
+     *
+     * @param requestCoalescingEnabled <code>true</code> to coalesce identical
+     *                                 read requests (default).
+     */
+    public void setRequestCoalescingEnabled(boolean requestCoalescingEnabled) {
+        this.requestCoalescingEnabled = requestCoalescingEnabled;
+    }
+
+    /**
+     * Check if the payloads sent to the node are compressed.
+     *
+     * @return <code>true</code> if compression is enabled.
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Define if payloads should be compressed. If enabled, HTTP request
+     * bodies are sent gzip encoded and WebSocket connections negotiate the
+     * <code>permessage-deflate</code> extension, as long as the payload is at
+     * least {@link #setCompressionThreshold(int) compressionThreshold} bytes
+     * long. Compressed HTTP responses are accepted in any case.
+     * <p>
+     * Please make sure the node, or the proxy in front of it, supports gzip
+     * encoded requests before enabling this option.
+     *
+     * @param compressionEnabled <code>true</code> to compress payloads.
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Get the size below which payloads are not compressed.
+     *
+     * @return The size in bytes.
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Override the size below which payloads are sent uncompressed, as
+     * compressing small payloads costs more CPU than it saves bandwidth.
+     *
+     * @param compressionThreshold The size in bytes (default 1024).
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("The compression threshold can't be negative.");
+        }
+
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Get the maximal number of requests per second sent to a single
+     * endpoint.
+     *
+     * @return The number of requests per second or <code>0</code> if the
+     * rate is not limited.
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Limit the number of requests per second sent to a single endpoint, e.g.
+     * to stay below the limits of public nodes that throttle aggressive
+     * clients. Requests exceeding the limit wait for their turn, where
+     * broadcasts are served before ordinary requests and ordinary requests
+     * before bulk reads like <code>get_block</code>, see
+     * {@link com.beowulfchain.beowulfj.enums.RequestPriority RequestPriority}.
+     * The value is applied to endpoints that have not been used yet.
+     *
+     * @param rateLimit The number of requests per second or <code>0</code> to
+     *                  not limit the rate (default).
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setRateLimit(double rateLimit) {
+        if (rateLimit < 0 || Double.isNaN(rateLimit)) {
+            throw new IllegalArgumentException("The rate limit can't be negative.");
+        }
+
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Get the number of requests that can be sent to an idle endpoint at
+     * once, before the {@link #getRateLimit() rate limit} applies.
+     *
+     * @return The number of requests.
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * Override the number of requests that can be sent to an idle endpoint
+     * at once, before the {@link #setRateLimit(double) rate limit} applies.
+     * The value is applied to endpoints that have not been used yet.
+     *
+     * @param rateLimitBurst The number of requests (default 10).
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setRateLimitBurst(int rateLimitBurst) {
+        if (rateLimitBurst <= 0) {
+            throw new IllegalArgumentException("The burst has to be positive.");
+        }
+
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    /**
+     * Get the number of transports used per endpoint.
+     *
+     * @return The number of transports.
+     */
+    public int getTransportsPerEndpoint() {
+        return transportsPerEndpoint;
+    }
+
+    /**
+     * Override the number of transports, i.e. WebSocket sessions or HTTP
+     * connection pools, used per endpoint. The requests to an endpoint are
+     * spread across its transports, which reduces the contention on a single
+     * WebSocket session when many threads share one client. Every HTTP
+     * transport has its own pool of up to
+     * {@link #setMaxHttpConnectionsPerEndpoint(int)
+     * maxHttpConnectionsPerEndpoint} connections. The value is applied to
+     * endpoints that have not been used yet.
+     *
+     * @param transportsPerEndpoint The number of transports (default 1).
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    public void setTransportsPerEndpoint(int transportsPerEndpoint) {
+        if (transportsPerEndpoint <= 0) {
+            throw new IllegalArgumentException("At least one transport per endpoint is required.");
+        }
+
+        this.transportsPerEndpoint = transportsPerEndpoint;
+    }
+
+    /**
+     * Check if asynchronous requests are executed on virtual threads.
+     *
+     * @return <code>true</code> if virtual threads are used where the runtime
+     * supports them.
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Define if BeowulfJ should use a virtual thread per task instead of its
+     * shared default executor to complete asynchronous requests. This only
+     * has an effect on Java 21 or newer and if no
+     * {@link #setAsyncExecutor(Executor) executor} has been configured. The
+     * transports never block while holding a monitor, so the blocking API
+     * can also be called from a large number of virtual threads, e.g. one
+     * per watched account, see
+     * {@link com.beowulfchain.beowulfj.communication.CommunicationExecutors#newVirtualThreadPerTaskExecutor()}.
+     *
+     * @param virtualThreadsEnabled <code>true</code> to use virtual threads
+     *                              (default <code>false</code>).
+     */
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * Get the configured executor that is used to complete asynchronous
+     * requests.
+     *
+     * @return The configured executor or <code>null</code> if BeowulfJ should
+     * use its shared default executor.
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Override the executor that is used to complete asynchronous requests.
+     * Callbacks registered on the futures returned by the asynchronous API
+     * are executed by this executor. Transports that do not support
+     * non-blocking I/O also use it to perform their requests.
+     *
+     * @param asyncExecutor The executor to use or <code>null</code> to use the
+     *                      shared default executor.
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Get the explicitly configured transport provider.
+     *
+     * @return The configured provider or <code>null</code> if the provider
+     * is chosen from the ones available on the class path.
+     */
+    public ClientProvider getClientProvider() {
+        return clientProvider;
+    }
+
+    /**
+     * Override the {@link ClientProvider} used to create the clients that
+     * send requests to the endpoints. By default, the provider with the
+     * highest priority that supports the scheme of an endpoint is discovered
+     * using the {@link java.util.ServiceLoader}. The configured provider is
+     * only used for the schemes it supports. The change only affects
+     * endpoints no client has been created for yet.
+     *
+     * @param clientProvider The provider to use or <code>null</code> to
+     *                       discover the provider.
+     */
+    public void setClientProvider(ClientProvider clientProvider) {
+        this.clientProvider = clientProvider;
+    }
+
+    /**
+     * Get the configured source of blocks.
+     *
+     * @return The configured source or <code>null</code> if blocks are
+     * requested from the node directly.
+     */
+    public BlockSource getBlockSource() {
+        return blockSource;
+    }
+
+    /**
+     * Set a {@link BlockSource}, e.g. a local archive of irreversible blocks,
+     * that is consulted by {@link BeowulfJ#getBlock(long)},
+     * {@link BeowulfJ#getBlockHeader(long)} and their asynchronous variants
+     * instead of requesting the blocks from the node directly.
+     *
+     * @param blockSource The source to use or <code>null</code> to request
+     *                    blocks from the node.
+     */
+    public void setBlockSource(BlockSource blockSource) {
+        this.blockSource = blockSource;
+    }
+
     /**
      * Get the currently configured time zone id.
      *
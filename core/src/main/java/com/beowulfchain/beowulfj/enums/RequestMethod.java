@@ -48,6 +48,11 @@ public enum RequestMethod {
      *
      */
     GET_BLOCK_HEADER,
+    /**
+     * Register a callback that is notified with the header of every applied
+     * block.
+     */
+    SET_BLOCK_APPLIED_CALLBACK,
     // chain_api
     /**
      *
@@ -139,6 +144,11 @@ public enum RequestMethod {
      *
      */
     BROADCAST_TRANSACTION_SYNCHRONOUS,
+    /**
+     * Broadcast a transaction and register a callback that is notified once
+     * the transaction has been applied or has expired.
+     */
+    BROADCAST_TRANSACTION_WITH_CALLBACK,
     /**
      *
      */
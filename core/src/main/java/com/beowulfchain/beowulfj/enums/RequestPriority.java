@@ -0,0 +1,59 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.enums;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum RequestPriority {
+    /**
+     * Requests that are time critical, like broadcasts, which have to reach
+     * the node before the transaction expires.
+     */
+    HIGH,
+    /**
+     * Ordinary requests.
+     */
+    NORMAL,
+    /**
+     * Requests that are typically sent in large numbers, like backfilling
+     * blocks, and that can wait for more important requests.
+     */
+    BULK;
+
+    private static final Set<RequestMethod> HIGH_PRIORITY_METHODS = EnumSet.of(RequestMethod.BROADCAST_TRANSACTION,
+            RequestMethod.BROADCAST_TRANSACTION_SYNCHRONOUS, RequestMethod.BROADCAST_TRANSACTION_WITH_CALLBACK,
+            RequestMethod.BROADCAST_BLOCK);
+    private static final Set<RequestMethod> BULK_METHODS = EnumSet.of(RequestMethod.GET_BLOCK,
+            RequestMethod.GET_OPS_IN_BLOCK, RequestMethod.GET_ACCOUNT_HISTORY, RequestMethod.LOOKUP_ACCOUNTS,
+            RequestMethod.LOOKUP_SUPERNODE_ACCOUNTS);
+
+    /**
+     * Get the priority requests of the given method have by default.
+     *
+     * @param requestMethod The method.
+     * @return The default priority of the method.
+     */
+    public static RequestPriority of(RequestMethod requestMethod) {
+        if (HIGH_PRIORITY_METHODS.contains(requestMethod)) {
+            return HIGH;
+        } else if (BULK_METHODS.contains(requestMethod)) {
+            return BULK;
+        }
+        return NORMAL;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.enums;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The kinds of errors a node may answer a request with. The kind is derived
+ * from the code, the message and the data of the error object, so callers do
+ * not have to match the messages of the node themselves.
+ * <p>
+ * Only {@link #TEMPORARY_FAILURE temporary failures} may succeed on a
+ * further attempt. All other errors are deterministic and would be returned
+ * by every endpoint again.
+ */
+public enum ResponseErrorType {
+    /**
+     * The transaction is already known to the node, e.g. because a previous
+     * attempt to broadcast it reached the node although its answer got lost.
+     */
+    DUPLICATE_TRANSACTION(false),
+    /**
+     * The transaction has expired or its expiration is too far in the
+     * future.
+     */
+    EXPIRED_TRANSACTION(false),
+    /**
+     * The reference block of the transaction is unknown to the node or does
+     * not match the block the transaction has been signed for.
+     */
+    INVALID_REFERENCE_BLOCK(false),
+    /**
+     * The transaction lacks a signature of a required authority.
+     */
+    MISSING_AUTHORITY(false),
+    /**
+     * An account does not own enough funds to apply an operation.
+     */
+    INSUFFICIENT_BALANCE(false),
+    /**
+     * Any other assertion of the node failed, e.g. because an operation is
+     * invalid.
+     */
+    ASSERTION_FAILED(false),
+    /**
+     * The request could not be parsed, names an unknown method or has
+     * invalid parameters.
+     */
+    INVALID_REQUEST(false),
+    /**
+     * The node is overloaded or had an internal problem and may answer the
+     * same request on a further attempt.
+     */
+    TEMPORARY_FAILURE(true),
+    /**
+     * The error could not be classified.
+     */
+    UNKNOWN(false);
+
+    private static final int PARSE_ERROR = -32700;
+    private static final int INVALID_REQUEST_ERROR = -32600;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INVALID_PARAMS = -32602;
+    private static final int INTERNAL_ERROR = -32603;
+    /**
+     * Matches the descriptions of errors caused by an overloaded node, e.g.
+     * "Unable to acquire database lock".
+     */
+    private static final Pattern TEMPORARY_FAILURE_PATTERN = Pattern.compile(
+            "\\b(lock|timeout|timed out|busy|too many requests|unavailable|try again)\\b");
+
+    private final boolean retryable;
+
+    ResponseErrorType(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    /**
+     * Check if a further attempt of the request may succeed.
+     *
+     * @return <code>true</code> if the error is not deterministic.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Classify an error returned by a node.
+     *
+     * @param code    The code of the error or <code>null</code>.
+     * @param message The message of the error or <code>null</code>.
+     * @param data    The data attached to the error or <code>null</code>.
+     * @return The kind of the error.
+     */
+    public static ResponseErrorType of(Integer code, String message, JsonNode data) {
+        String description = describe(message, data);
+
+        if (description.contains("duplicate transaction") || description.contains("duplicate_transaction")) {
+            return DUPLICATE_TRANSACTION;
+        } else if (description.contains("expiration") || description.contains("expired")) {
+            return EXPIRED_TRANSACTION;
+        } else if (description.contains("ref_block") || description.contains("tapos")) {
+            return INVALID_REFERENCE_BLOCK;
+        } else if (description.contains("missing") && description.contains("auth")) {
+            return MISSING_AUTHORITY;
+        } else if (description.contains("insufficient") || description.contains("sufficient funds")
+                || description.contains("sufficient balance")) {
+            return INSUFFICIENT_BALANCE;
+        } else if (code != null && (code == PARSE_ERROR || code == INVALID_REQUEST_ERROR
+                || code == METHOD_NOT_FOUND || code == INVALID_PARAMS)) {
+            return INVALID_REQUEST;
+        } else if (description.contains("assert")) {
+            return ASSERTION_FAILED;
+        } else if ((code != null && code == INTERNAL_ERROR) || TEMPORARY_FAILURE_PATTERN.matcher(description).find()) {
+            return TEMPORARY_FAILURE;
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * Collect the texts of an error object that describe the error. Beside
+     * the message, the nodes put the name of the exception and the failed
+     * assertions into the <code>data</code> field.
+     *
+     * @param message The message of the error or <code>null</code>.
+     * @param data    The data attached to the error or <code>null</code>.
+     * @return The lower case description.
+     */
+    private static String describe(String message, JsonNode data) {
+        StringBuilder description = new StringBuilder();
+        if (message != null) {
+            description.append(message);
+        }
+
+        if (data != null) {
+            description.append(' ').append(data.path("name").asText());
+            description.append(' ').append(data.path("message").asText());
+            for (JsonNode stackEntry : data.path("stack")) {
+                description.append(' ').append(stackEntry.path("format").asText());
+            }
+        }
+
+        return description.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -16,6 +16,7 @@
  */
 package com.beowulfchain.beowulfj.exceptions;
 
+import com.beowulfchain.beowulfj.enums.ResponseErrorType;
 import com.fasterxml.jackson.databind.JsonNode;
 
 public class BeowulfResponseException extends Exception {
@@ -31,6 +32,10 @@ public class BeowulfResponseException extends Exception {
      * The error data.
      */
     private final JsonNode data;
+    /**
+     * The kind of the error, derived from its code, message and data.
+     */
+    private final ResponseErrorType errorType;
 
     /**
      * Create a new {@link BeowulfResponseException} instance.
@@ -42,6 +47,7 @@ public class BeowulfResponseException extends Exception {
 
         this.code = null;
         this.data = null;
+        this.errorType = ResponseErrorType.UNKNOWN;
     }
 
     /**
@@ -55,6 +61,7 @@ public class BeowulfResponseException extends Exception {
 
         this.code = null;
         this.data = null;
+        this.errorType = ResponseErrorType.UNKNOWN;
     }
 
     /**
@@ -69,6 +76,7 @@ public class BeowulfResponseException extends Exception {
 
         this.code = code;
         this.data = data;
+        this.errorType = ResponseErrorType.of(code, message, data);
     }
 
     /**
@@ -84,6 +92,7 @@ public class BeowulfResponseException extends Exception {
 
         this.code = code;
         this.data = data;
+        this.errorType = ResponseErrorType.of(code, message, data);
     }
 
     /**
@@ -103,4 +112,15 @@ public class BeowulfResponseException extends Exception {
     public JsonNode getData() {
         return data;
     }
+
+    /**
+     * Get the kind of the error, which allows to distinguish e.g. a
+     * duplicate transaction from a missing authority without matching the
+     * message.
+     *
+     * @return The kind of the error.
+     */
+    public ResponseErrorType getErrorType() {
+        return errorType;
+    }
 }
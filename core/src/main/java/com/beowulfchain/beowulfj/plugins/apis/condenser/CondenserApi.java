@@ -22,6 +22,8 @@ import com.beowulfchain.beowulfj.base.models.ScheduledHardfork;
 import com.beowulfchain.beowulfj.chain.CompletedTransaction;
 import com.beowulfchain.beowulfj.chain.SignedTransaction;
 import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.NoticeListener;
+import com.beowulfchain.beowulfj.communication.Subscription;
 import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
 import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
 import com.beowulfchain.beowulfj.enums.BeowulfApiType;
@@ -45,6 +47,7 @@ import org.joou.ULong;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class implements the "condenser_api".
@@ -88,6 +91,26 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, ExtendedDynamicGlobalProperties.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getDynamicGlobalProperties(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<ExtendedDynamicGlobalProperties> getDynamicGlobalPropertiesAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, Collections.emptyList());
+
+        return communicationHandler.performRequestAsync(requestObject, ExtendedDynamicGlobalProperties.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * @param communicationHandler A
      *                             {@link CommunicationHandler
@@ -117,6 +140,27 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, ExtendedAccount.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getExtAccounts(CommunicationHandler, List)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param accounts             List accounts name.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<ExtendedAccount>> getExtAccountsAsync(
+            CommunicationHandler communicationHandler, List<AccountName> accounts) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_ACCOUNTS,
+                Collections.singletonList(accounts)
+        );
+
+        return communicationHandler.performRequestAsync(requestObject, ExtendedAccount.class);
+    }
+
     /**
      * Get the hardfork version the node you are connected to is using.
      *
@@ -146,6 +190,25 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, String.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getHardforkVersion(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<String> getHardforkVersionAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_HARDFORK_VERSION,
+                Collections.emptyList());
+
+        return communicationHandler.performRequestAsync(requestObject, String.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (get_block_header)
      *
@@ -173,7 +236,56 @@ public class CondenserApi {
         JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK_HEADER,
                 Collections.singletonList(blockNum));
 
-        return communicationHandler.performRequest(requestObject, BlockHeader.class).get(0);
+        return communicationHandler.performCachedRequest(requestObject, BlockHeader.class, header -> blockNum).get(0);
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getBlockHeader(CommunicationHandler, long)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param blockNum             The block number.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<BlockHeader> getBlockHeaderAsync(
+            CommunicationHandler communicationHandler, long blockNum) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK_HEADER,
+                Collections.singletonList(blockNum));
+
+        return communicationHandler.performCachedRequestAsync(requestObject, BlockHeader.class, header -> blockNum)
+                .thenApply(result -> result.get(0));
+    }
+
+    /**
+     * Subscribe to the headers of all blocks applied by the node, instead of
+     * polling for new blocks. Requires a websocket endpoint.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param listener             The listener that receives the block headers.
+     * @return The subscription, which can be used to stop receiving block
+     * headers.
+     * @throws BeowulfCommunicationException <ul>
+     *                                       <li>If no websocket endpoint is configured.</li>
+     *                                       <li>If there is a connection problem.</li>
+     *                                       </ul>
+     * @throws BeowulfResponseException      If the Server returned an error object.
+     */
+    public static Subscription<BlockHeader> setBlockAppliedCallback(CommunicationHandler communicationHandler,
+                                                                    NoticeListener<BlockHeader> listener)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        Subscription<BlockHeader> subscription = new Subscription<>(BlockHeader.class, listener);
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.SET_BLOCK_APPLIED_CALLBACK, Collections.singletonList(subscription.getCallbackId()));
+
+        communicationHandler.subscribe(requestObject, subscription);
+        return subscription;
     }
 
     /**
@@ -203,7 +315,27 @@ public class CondenserApi {
         JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
                 Collections.singletonList(blockNum));
 
-        return communicationHandler.performRequest(requestObject, Block.class).get(0);
+        return communicationHandler.performCachedRequest(requestObject, Block.class, block -> blockNum).get(0);
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getBlock(CommunicationHandler, long)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param blockNum             The block number.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Block> getBlockAsync(CommunicationHandler communicationHandler, long blockNum) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
+                Collections.singletonList(blockNum));
+
+        return communicationHandler.performCachedRequestAsync(requestObject, Block.class, block -> blockNum)
+                .thenApply(result -> result.get(0));
     }
 
     /**
@@ -235,6 +367,25 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, AccountName.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getActiveSuperNodes(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<AccountName>> getActiveSuperNodesAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_ACTIVE_SUPERNODES,
+                Collections.emptyList());
+
+        return communicationHandler.performRequestAsync(requestObject, AccountName.class);
+    }
+
     /**
      * (get_config)
      *
@@ -264,6 +415,25 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, Config.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getConfig(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Config> getConfigAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG,
+                Collections.emptyList());
+
+        return communicationHandler.performRequestAsync(requestObject, Config.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (get_accounts)
      *
@@ -295,6 +465,27 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, Account.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getAccounts(CommunicationHandler, List)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param accounts             List account name.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<Account>> getAccountsAsync(
+            CommunicationHandler communicationHandler, List<AccountName> accounts) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_ACCOUNTS,
+                Collections.singletonList(accounts)
+        );
+
+        return communicationHandler.performRequestAsync(requestObject, Account.class);
+    }
+
 
     /**
      * Get all operations performed by the specified <code>accountName</code>.
@@ -359,6 +550,28 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, String.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getTransactionHex(CommunicationHandler, SignedTransaction)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param transaction          get serialized of Signed Transaction.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<String> getTransactionHexAsync(
+            CommunicationHandler communicationHandler, SignedTransaction transaction) {
+
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_TRANSACTION_HEX, Collections.singletonList(transaction));
+
+        return communicationHandler.performRequestAsync(requestObject, String.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (find_smt_tokens_by_name)
      *
@@ -390,6 +603,27 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, FindSmtTokenByName.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #findSmtTokenByName(CommunicationHandler, List)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param names                List name token.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<FindSmtTokenByName>> findSmtTokenByNameAsync(
+            CommunicationHandler communicationHandler, List<String> names) {
+
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.FIND_SMT_TOKENS_BY_NAME, Collections.singletonList(names));
+
+        return communicationHandler.performRequestAsync(requestObject, FindSmtTokenByName.class);
+    }
+
     /**
      * (get_next_scheduled_hardfork)
      *
@@ -418,6 +652,25 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, ScheduledHardfork.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getNextScheduleHardfork(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<ScheduledHardfork> getNextScheduleHardforkAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_NEXT_SCHEDULED_HARDFORK, Collections.emptyList());
+        return communicationHandler.performRequestAsync(requestObject, ScheduledHardfork.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (get_key_references)
      *
@@ -447,6 +700,27 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, List.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getKeyReferences(CommunicationHandler, List)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param publicKeys           List public keys.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    @SuppressWarnings("unchecked")
+    public static CompletableFuture<List<String>> getKeyReferencesAsync(
+            CommunicationHandler communicationHandler, List<PublicKey> publicKeys) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_KEY_REFERENCES, Collections.singleton(publicKeys));
+        return communicationHandler.performRequestAsync(requestObject, List.class)
+                .thenApply(result -> (List<String>) result.get(0));
+    }
+
     /**
      * (get_account_count
      *
@@ -475,6 +749,24 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, ULong.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getAccountCount(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<ULong> getAccountCountAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_ACCOUNT_COUNT, Collections.emptyList());
+        return communicationHandler.performRequestAsync(requestObject, ULong.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (get_supernode_by_account)
      *
@@ -504,6 +796,26 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, Supernode.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getSupernodeByAccount(CommunicationHandler, AccountName)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param supernodeAccount     The acoount name.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Supernode> getSupernodeByAccountAsync(
+            CommunicationHandler communicationHandler, AccountName supernodeAccount) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_SUPERNODE_BY_ACCOUNT, Collections.singleton(supernodeAccount));
+        return communicationHandler.performRequestAsync(requestObject, Supernode.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (get_supernodes_by_vote)
      *
@@ -535,6 +847,27 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, Supernode.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getSupernodesByVote(CommunicationHandler, AccountName, int, int)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param supernodeAccount     The acoount name.
+     * @param limit                The number limit.
+     * @param vestingShare         The number coin.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<Supernode>> getSupernodesByVoteAsync(
+            CommunicationHandler communicationHandler, AccountName supernodeAccount, int limit, int vestingShare) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_SUPERNODES_BY_VOTE, Arrays.asList(supernodeAccount, limit, vestingShare));
+        return communicationHandler.performRequestAsync(requestObject, Supernode.class);
+    }
+
     /**
      * (get_supernode_schedule)
      *
@@ -563,6 +896,25 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, SupernodeSchedule.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getSupernodeSchedule(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<SupernodeSchedule> getSupernodeScheduleAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_SUPERNODE_SCHEDULE, Collections.emptyList());
+        return communicationHandler.performRequestAsync(requestObject, SupernodeSchedule.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * (get_supernode_count)
      *
@@ -591,6 +943,24 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, UInteger.class).get(0).intValue();
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getSupernodeCount(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Integer> getSupernodeCountAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_SUPERNODE_COUNT, Collections.emptyList());
+        return communicationHandler.performRequestAsync(requestObject, UInteger.class)
+                .thenApply(result -> result.get(0).intValue());
+    }
+
     /**
      * (lookupSupernodeAccounts)
      *
@@ -621,6 +991,26 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, String.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #lookupSupernodeAccounts(CommunicationHandler, String, int)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param pattern              The pattern name to search.
+     * @param limit                The number limit.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<String>> lookupSupernodeAccountsAsync(
+            CommunicationHandler communicationHandler, String pattern, int limit) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.LOOKUP_SUPERNODE_ACCOUNTS, Arrays.asList(pattern, limit));
+        return communicationHandler.performRequestAsync(requestObject, String.class);
+    }
+
     /**
      * (lookupSupernodeAccounts)
      *
@@ -651,6 +1041,26 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, String.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #lookupAccounts(CommunicationHandler, String, int)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param pattern              The pattern name to search.
+     * @param limit                The number limit.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<String>> lookupAccountsAsync(
+            CommunicationHandler communicationHandler, String pattern, int limit) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.LOOKUP_ACCOUNTS, Arrays.asList(pattern, limit));
+        return communicationHandler.performRequestAsync(requestObject, String.class);
+    }
+
     /**
      * (get_transaction)
      *
@@ -679,7 +1089,30 @@ public class CondenserApi {
         JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
                 RequestMethod.GET_TRANSACTION, Collections.singletonList(trx_id));
 
-        return communicationHandler.performRequest(requestObject, CompletedTransaction.class).get(0);
+        return communicationHandler.performCachedRequest(requestObject, CompletedTransaction.class,
+                CompletedTransaction::getBlockNum).get(0);
+    }
+
+    /**
+     * Asynchronous variant of
+     * {@link #getTransactionDetail(CommunicationHandler, String)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param trx_id               The transaction id.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<CompletedTransaction> getTransactionDetailAsync(
+            CommunicationHandler communicationHandler, String trx_id) {
+
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_TRANSACTION, Collections.singletonList(trx_id));
+
+        return communicationHandler.performCachedRequestAsync(requestObject, CompletedTransaction.class,
+                CompletedTransaction::getBlockNum).thenApply(result -> result.get(0));
     }
 
     /**
@@ -711,6 +1144,28 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, Boolean.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #verifyAccountAuthority(CommunicationHandler, AccountName, List)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param accountName          The account name.
+     * @param publicKeys           List public keys.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Boolean> verifyAccountAuthorityAsync(
+            CommunicationHandler communicationHandler, AccountName accountName, List<PublicKey> publicKeys) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.VERIFY_ACCOUNT_AUTHORITY, Arrays.asList(accountName, publicKeys));
+
+        return communicationHandler.performRequestAsync(requestObject, Boolean.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Broadcast a whole block.
      *
@@ -741,6 +1196,27 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, Asset.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getBalance(CommunicationHandler, String, AssetInfo)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param accountName          account get balance
+     * @param assetInfo            asset type
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Asset> getBalanceAsync(
+            CommunicationHandler communicationHandler, String accountName, AssetInfo assetInfo) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_BALANCE, Arrays.asList(accountName, assetInfo));
+        return communicationHandler.performRequestAsync(requestObject, Asset.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Broadcast a whole block.
      *
@@ -770,6 +1246,27 @@ public class CondenserApi {
         communicationHandler.performRequest(requestObject, Object.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastBlock(CommunicationHandler, SignedBlock)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param signedBlock          The {@link SignedBlock} object to broadcast.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Void> broadcastBlockAsync(
+            CommunicationHandler communicationHandler, SignedBlock signedBlock) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.BROADCAST_BLOCK, Collections.singleton(signedBlock));
+
+        return communicationHandler.performRequestAsync(requestObject, Object.class)
+                .thenApply(result -> null);
+    }
+
     /**
      * Broadcast a transaction on the Beowulf blockchain. This method will
      * validate the transaction and return immediately. Please notice that this
@@ -811,6 +1308,34 @@ public class CondenserApi {
         return transaction.generateTransactionId();
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransaction(CommunicationHandler, SignedTransaction)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param transaction          The {@link SignedTransaction} object to broadcast.
+     *
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     * @throws BeowulfInvalidTransactionException In case the provided transaction is not valid.
+     */
+    public static CompletableFuture<TransactionId> broadcastTransactionAsync(
+            CommunicationHandler communicationHandler, SignedTransaction transaction) throws BeowulfInvalidTransactionException {
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.BROADCAST_TRANSACTION, Collections.singletonList(transaction));
+
+        TransactionId transactionId = transaction.generateTransactionId();
+
+        return communicationHandler.performRequestAsync(requestObject, Object.class)
+                .thenApply(result -> transactionId);
+    }
+
     /**
      * Broadcast a transaction on the Beowulf blockchain. This method will
      * validate the transaction and return after it has been accepted and
@@ -852,6 +1377,69 @@ public class CondenserApi {
         return communicationHandler.performRequest(requestObject, BroadcastTransactionSynchronousReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransactionSynchronous(CommunicationHandler, SignedTransaction)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param transaction          The {@link SignedTransaction} object to broadcast.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     * @throws BeowulfInvalidTransactionException In case the provided transaction is not valid.
+     */
+    public static CompletableFuture<BroadcastTransactionSynchronousReturn> broadcastTransactionSynchronousAsync(
+            CommunicationHandler communicationHandler, SignedTransaction transaction) throws BeowulfInvalidTransactionException {
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.BROADCAST_TRANSACTION_SYNCHRONOUS, Collections.singletonList(transaction));
+
+        return communicationHandler.performRequestAsync(requestObject, BroadcastTransactionSynchronousReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
+    /**
+     * Broadcast a transaction on the Beowulf blockchain and get notified once
+     * it has been applied or has expired, without blocking a thread while
+     * waiting for it. Requires a websocket endpoint.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param transaction          The {@link SignedTransaction} object to broadcast.
+     * @param listener             The listener that receives the confirmation.
+     * @return The subscription for the confirmation.
+     * @throws BeowulfCommunicationException      <ul>
+     *                                            <li>If no websocket endpoint is configured.</li>
+     *                                            <li>If there is a connection problem.</li>
+     *                                            </ul>
+     * @throws BeowulfResponseException           If the Server returned an error object.
+     * @throws BeowulfInvalidTransactionException In case the provided transaction is not valid.
+     */
+    public static Subscription<BroadcastTransactionSynchronousReturn> broadcastTransactionWithCallback(
+            CommunicationHandler communicationHandler, SignedTransaction transaction,
+            NoticeListener<BroadcastTransactionSynchronousReturn> listener)
+            throws BeowulfCommunicationException, BeowulfResponseException, BeowulfInvalidTransactionException {
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+
+        Subscription<BroadcastTransactionSynchronousReturn> subscription = new Subscription<>(
+                BroadcastTransactionSynchronousReturn.class, listener);
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.BROADCAST_TRANSACTION_WITH_CALLBACK,
+                Arrays.asList(subscription.getCallbackId(), transaction));
+
+        communicationHandler.subscribe(requestObject, subscription);
+        return subscription;
+    }
+
 
     /*
      * (get_version) (get_state)
@@ -38,6 +38,7 @@ import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
 import com.beowulfchain.beowulfj.protocol.AccountName;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -75,6 +76,21 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, Config.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getConfig(CommunicationHandler)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Config> getConfigAsync(CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API, RequestMethod.GET_CONFIG, null);
+
+        return communicationHandler.performRequestAsync(requestObject, Config.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get the global properties.
      *
@@ -101,6 +117,23 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, DynamicGlobalProperty.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getDynamicGlobalProperties(CommunicationHandler)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<DynamicGlobalProperty> getDynamicGlobalPropertiesAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API,
+                RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null);
+
+        return communicationHandler.performRequestAsync(requestObject, DynamicGlobalProperty.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get the supernode schedule.
      *
@@ -127,6 +160,23 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, SupernodeSchedule.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getSupernodeSchedule(CommunicationHandler)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<SupernodeSchedule> getSupernodeScheduleAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API, RequestMethod.GET_SUPERNODE_SCHEDULE,
+                null);
+
+        return communicationHandler.performRequestAsync(requestObject, SupernodeSchedule.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Get the list of the current active supernodes.
      *
@@ -156,6 +206,25 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, AccountName.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getActiveSupernodes(CommunicationHandler)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<List<AccountName>> getActiveSupernodesAsync(
+            CommunicationHandler communicationHandler) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API, RequestMethod.GET_ACTIVE_SUPERNODES,
+                null);
+
+        return communicationHandler.performRequestAsync(requestObject, AccountName.class);
+    }
+
     /**
      * @param communicationHandler The communication handler.
      * @param getTransactionHexArgs The TransactionHexArgs.
@@ -181,6 +250,24 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, GetTransactionHexReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getTransactionHex(CommunicationHandler, GetTransactionHexArgs)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @param getTransactionHexArgs The TransactionHexArgs.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<GetTransactionHexReturn> getTransactionHexAsync(
+            CommunicationHandler communicationHandler, GetTransactionHexArgs getTransactionHexArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API, RequestMethod.GET_TRANSACTION_HEX,
+                getTransactionHexArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetTransactionHexReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * @param communicationHandler The communication handler.
      * @param getRequiredSignaturesArgs The RequiredSignaturesArgs.
@@ -207,6 +294,24 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, GetRequiredSignaturesReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getRequiredSignatures(CommunicationHandler, GetRequiredSignaturesArgs)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @param getRequiredSignaturesArgs The RequiredSignaturesArgs.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<GetRequiredSignaturesReturn> getRequiredSignaturesAsync(
+            CommunicationHandler communicationHandler, GetRequiredSignaturesArgs getRequiredSignaturesArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API,
+                RequestMethod.GET_REQUIRED_SIGNATURES, getRequiredSignaturesArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetRequiredSignaturesReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * @param communicationHandler The communication handler.
      * @param getPotentialSignaturesArgs The PotentialSignaturesArgs.
@@ -233,6 +338,24 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, GetPotentialSignaturesReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #getPotentialSignatures(CommunicationHandler, GetPotentialSignaturesArgs)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @param getPotentialSignaturesArgs The PotentialSignaturesArgs.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<GetPotentialSignaturesReturn> getPotentialSignaturesAsync(
+            CommunicationHandler communicationHandler, GetPotentialSignaturesArgs getPotentialSignaturesArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API,
+                RequestMethod.GET_POTENTIAL_SIGNATURES, getPotentialSignaturesArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, GetPotentialSignaturesReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * @param communicationHandler The communication handler.
      * @param verifyAuthorityArgs The verify Authority Args.
@@ -258,6 +381,24 @@ public class DatabaseApi {
         return communicationHandler.performRequest(requestObject, VerifyAuthorityReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #verifyAuthority(CommunicationHandler, VerifyAuthorityArgs)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @param verifyAuthorityArgs The verify Authority Args.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<VerifyAuthorityReturn> verifyAuthorityAsync(
+            CommunicationHandler communicationHandler, VerifyAuthorityArgs verifyAuthorityArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API, RequestMethod.VERIFY_AUTHORITY,
+                verifyAuthorityArgs);
+
+        return communicationHandler.performRequestAsync(requestObject, VerifyAuthorityReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * @param communicationHandler The communication handler.
      * @param verifyAccountAuthorityArgs The verifyAccountAuthorityArgs.
@@ -283,4 +424,22 @@ public class DatabaseApi {
 
         return communicationHandler.performRequest(requestObject, VerifyAccountAuthorityReturn.class).get(0);
     }
+
+    /**
+     * Asynchronous variant of
+     * {@link #verifyAccountAuthority(CommunicationHandler, VerifyAccountAuthorityArgs)}.
+     *
+     * @param communicationHandler The communication handler.
+     * @param verifyAccountAuthorityArgs The verifyAccountAuthorityArgs.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<VerifyAccountAuthorityReturn> verifyAccountAuthorityAsync(
+            CommunicationHandler communicationHandler, VerifyAccountAuthorityArgs verifyAccountAuthorityArgs) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.DATABASE_API,
+                RequestMethod.VERIFY_ACCOUNT_AUTHORITY, null);
+
+        return communicationHandler.performRequestAsync(requestObject, VerifyAccountAuthorityReturn.class)
+                .thenApply(result -> result.get(0));
+    }
 }
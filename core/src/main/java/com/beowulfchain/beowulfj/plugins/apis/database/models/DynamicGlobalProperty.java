@@ -103,6 +103,13 @@ public class DynamicGlobalProperty {
         return headBlockId;
     }
 
+    /**
+     * @return the time of the head block
+     */
+    public TimePointSec getTime() {
+        return time;
+    }
+
     /**
      * @return the currentWitness
      */
@@ -28,6 +28,8 @@ import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
 import com.beowulfchain.beowulfj.plugins.apis.network.broadcast.models.BroadcastTransactionSynchronousReturn;
 import com.beowulfchain.beowulfj.protocol.SignedBlock;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This class implements the network broadcast api which is required to send
  * transactions.
@@ -79,6 +81,32 @@ public class NetworkBroadcastApi {
         communicationHandler.performRequest(requestObject, Object.class);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransaction(CommunicationHandler, SignedTransaction)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param transaction          The {@link SignedTransaction} object to broadcast.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     * @throws BeowulfInvalidTransactionException In case the provided transaction is not valid.
+     */
+    public static CompletableFuture<Void> broadcastTransactionAsync(
+            CommunicationHandler communicationHandler, SignedTransaction transaction) throws BeowulfInvalidTransactionException {
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.NETWORK_BROADCAST_API,
+                RequestMethod.BROADCAST_TRANSACTION, transaction);
+
+        return communicationHandler.performRequestAsync(requestObject, Object.class)
+                .thenApply(result -> null);
+    }
+
     /**
      * Broadcast a transaction on the Beowulf blockchain. This method will
      * validate the transaction and return after it has been accepted and
@@ -119,6 +147,32 @@ public class NetworkBroadcastApi {
         return communicationHandler.performRequest(requestObject, BroadcastTransactionSynchronousReturn.class).get(0);
     }
 
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastTransactionSynchronous(CommunicationHandler, SignedTransaction)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param transaction          The {@link SignedTransaction} object to broadcast.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     * @throws BeowulfInvalidTransactionException In case the provided transaction is not valid.
+     */
+    public static CompletableFuture<BroadcastTransactionSynchronousReturn> broadcastTransactionSynchronousAsync(
+            CommunicationHandler communicationHandler, SignedTransaction transaction) throws BeowulfInvalidTransactionException {
+        if (transaction.getSignatures() == null || transaction.getSignatures().isEmpty()) {
+            transaction.sign();
+        }
+
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.NETWORK_BROADCAST_API,
+                RequestMethod.BROADCAST_TRANSACTION_SYNCHRONOUS, transaction);
+
+        return communicationHandler.performRequestAsync(requestObject, BroadcastTransactionSynchronousReturn.class)
+                .thenApply(result -> result.get(0));
+    }
+
     /**
      * Broadcast a whole block.
      *
@@ -147,4 +201,25 @@ public class NetworkBroadcastApi {
 
         communicationHandler.performRequest(requestObject, Object.class);
     }
+
+    /**
+     * Asynchronous variant of
+     * {@link #broadcastBlock(CommunicationHandler, SignedBlock)}.
+     *
+     * @param communicationHandler A
+     *                             {@link CommunicationHandler
+     *                             CommunicationHandler} instance that should be used to send the
+     *                             request.
+     * @param signedBlock          The {@link SignedBlock} object to broadcast.
+     * @return A future that is completed with the result, or exceptionally
+     * with the exception the blocking variant would throw.
+     */
+    public static CompletableFuture<Void> broadcastBlockAsync(
+            CommunicationHandler communicationHandler, SignedBlock signedBlock) {
+        JsonRPCRequest requestObject = new JsonRPCRequest(BeowulfApiType.NETWORK_BROADCAST_API,
+                RequestMethod.BROADCAST_BLOCK, signedBlock);
+
+        return communicationHandler.performRequestAsync(requestObject, Object.class)
+                .thenApply(result -> null);
+    }
 }
@@ -16,15 +16,14 @@
  */
 package com.beowulfchain.beowulfj.protocol;
 
-import com.beowulfchain.beowulfj.BeowulfJ;
 import com.beowulfchain.beowulfj.base.models.deserializer.AssetDeserializer;
 import com.beowulfchain.beowulfj.base.models.serializer.AssetSerializer;
+import com.beowulfchain.beowulfj.chain.smt.SmtTokenRegistry;
 import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
 import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfInvalidTransactionException;
 import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
 import com.beowulfchain.beowulfj.interfaces.ByteTransformable;
-import com.beowulfchain.beowulfj.plugins.apis.condenser.models.FindSmtTokenByName;
 import com.beowulfchain.beowulfj.protocol.enums.AssetSymbolType;
 import com.beowulfchain.beowulfj.util.BeowulfJUtils;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -35,7 +34,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.security.InvalidParameterException;
-import java.util.Collections;
 
 @JsonDeserialize(using = AssetDeserializer.class)
 @JsonSerialize(using = AssetSerializer.class)
@@ -120,27 +118,32 @@ public class Asset implements ByteTransformable {
     }
 
     /**
-     * Create a new asset object by providing all required fields.
+     * Create a new asset object by providing all required fields. The
+     * precision of a SMT token is taken from the {@link SmtTokenRegistry},
+     * so the node is only asked for tokens that are not known yet.
      *
      * @param amount The amount.
      * @param name   String.
      * @return Asset instance contain precision from network
      * @throws BeowulfCommunicationException The BeowulfCommunicationException.
      * @throws BeowulfResponseException The BeowulfResponseException.
+     * @throws InvalidParameterException If the node does not know the token.
      */
     public static Asset createAsset(BigDecimal amount, String name) throws BeowulfCommunicationException, BeowulfResponseException {
-        Asset asset = new Asset();
-        if (AssetSymbolType.getNativeAsset(name) != null) {
-            asset.setPrecision(UInteger.valueOf(5));
-            asset.setName(name);
-            asset.setAmount(amount);
-        } else {
-            FindSmtTokenByName tokenInfo = BeowulfJ.getInstance().findSmtTokenByName(Collections.singletonList(name)).get(0);
-            UInteger decimals = tokenInfo.getLiquid_symbol().getDecimals();
-            asset.setPrecision(decimals);
-            asset.setName(name);
-            asset.setAmount(amount);
+        SmtTokenRegistry smtTokenRegistry = SmtTokenRegistry.getInstance();
+        UInteger decimals = smtTokenRegistry.getDecimals(name);
+        if (decimals == null) {
+            AssetInfo tokenInfo = smtTokenRegistry.resolve(name);
+            if (tokenInfo == null) {
+                throw new InvalidParameterException("The token " + name + " is unknown.");
+            }
+            decimals = tokenInfo.getDecimals();
         }
+
+        Asset asset = new Asset();
+        asset.setPrecision(decimals);
+        asset.setName(name);
+        asset.setAmount(amount);
         return asset;
     }
 
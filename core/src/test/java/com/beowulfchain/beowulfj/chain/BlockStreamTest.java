@@ -0,0 +1,290 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain;
+
+import com.beowulfchain.beowulfj.base.models.Block;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.RetryPolicy;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the {@link BlockStream} against a node whose answers arrive out of
+ * order.
+ */
+public class BlockStreamTest {
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+    private static final Pattern BLOCK_NUMBER_PATTERN = Pattern.compile("\\[\\s*(\\d+)\\s*]");
+
+    private HttpServer server;
+    private HttpHandler handler;
+    private ExecutorService serverExecutor;
+    private AtomicInteger numberOfRequests;
+    private AtomicInteger requestsInFlight;
+    private AtomicInteger maxRequestsInFlight;
+    private AtomicLong failingBlockNumber;
+    private CommunicationHandler communicationHandler;
+
+    @Before
+    public void setUp() throws Exception {
+        numberOfRequests = new AtomicInteger();
+        requestsInFlight = new AtomicInteger();
+        maxRequestsInFlight = new AtomicInteger();
+        failingBlockNumber = new AtomicLong(-1);
+
+        handler = exchange -> {
+            numberOfRequests.incrementAndGet();
+            maxRequestsInFlight.accumulateAndGet(requestsInFlight.incrementAndGet(), Math::max);
+            try {
+                String request = new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                Matcher idMatcher = ID_PATTERN.matcher(request);
+                String id = idMatcher.find() ? idMatcher.group(1) : "0";
+                Matcher blockNumberMatcher = BLOCK_NUMBER_PATTERN.matcher(request);
+                long blockNumber = blockNumberMatcher.find() ? Long.parseLong(blockNumberMatcher.group(1)) : 0;
+
+                // Answer out of order.
+                Thread.sleep(ThreadLocalRandom.current().nextInt(1, 15));
+
+                String answer;
+                if (request.contains("get_dynamic_global_properties")) {
+                    answer = "\"result\":{\"head_block_number\":1000,\"last_irreversible_block_num\":1000}";
+                } else if (failingBlockNumber.compareAndSet(blockNumber, -1)) {
+                    answer = "\"error\":{\"code\":-32000,\"message\":\"Bad Cast\"}";
+                } else {
+                    answer = "\"result\":{\"previous\":\"" + getBlockId(blockNumber - 1) + "\",\"block_id\":\""
+                            + getBlockId(blockNumber) + "\",\"transactions\":[]}";
+                }
+                byte[] body = ("{\"jsonrpc\":\"2.0\"," + answer + ",\"id\":" + id + "}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                requestsInFlight.decrementAndGet();
+            }
+        };
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", handler);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"), false));
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setRetryPolicy(new RetryPolicy(2, 1, 5));
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+        config.setBlockStreamConcurrency(4);
+        config.setBlockStreamBufferSize(8);
+
+        communicationHandler = new CommunicationHandler();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Requests that are shared with other callers keep running after a
+        // stream has been closed. Let them finish, so they are not retried
+        // against the endpoints of the next test.
+        awaitIdleServer();
+
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that blocks fetched concurrently are handed out in order.
+     */
+    @Test
+    public void testBlocksAreDeliveredInOrder() {
+        List<Long> blockNumbers;
+        try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 50)) {
+            blockNumbers = blockStream.stream().map(block -> (long) block.getBlockId().getNumberFromHash())
+                    .collect(Collectors.toList());
+        }
+
+        assertThat(blockNumbers, equalTo(LongStream.rangeClosed(1, 50).boxed().collect(Collectors.toList())));
+        assertThat(numberOfRequests.get(), equalTo(50));
+        assertThat(maxRequestsInFlight.get(), greaterThan(1));
+        assertThat(maxRequestsInFlight.get(), lessThanOrEqualTo(4));
+    }
+
+    /**
+     * Test that no more blocks are fetched than fit into the buffer.
+     */
+    @Test
+    public void testSlowConsumersAreNotOverrun() throws Exception {
+        try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 50)) {
+            blockStream.nextBlock();
+            Thread.sleep(300);
+
+            // The buffer holds the blocks 2 to 9.
+            assertThat(numberOfRequests.get(), equalTo(9));
+        }
+    }
+
+    /**
+     * Test that a stream can be resumed at its checkpoint.
+     */
+    @Test
+    public void testStreamCanBeResumedAtCheckpoint() throws Exception {
+        long checkpoint;
+        try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 50)) {
+            for (int i = 0; i < 10; i++) {
+                blockStream.nextBlock();
+            }
+            checkpoint = blockStream.getCheckpoint();
+        }
+        assertThat(checkpoint, equalTo(11L));
+
+        try (BlockStream blockStream = new BlockStream(communicationHandler, checkpoint, 50)) {
+            Block block = blockStream.nextBlock();
+            assertThat(block.getBlockId().getNumberFromHash(), equalTo(11));
+        }
+    }
+
+    /**
+     * Test that a block that could not be fetched is reported and fetched
+     * again instead of being skipped.
+     */
+    @Test
+    public void testFailedBlocksAreNotSkipped() throws Exception {
+        failingBlockNumber.set(3);
+
+        try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 5)) {
+            blockStream.nextBlock();
+            blockStream.nextBlock();
+            try {
+                blockStream.nextBlock();
+                fail("The error of the node has not been reported.");
+            } catch (BeowulfResponseException e) {
+                assertThat(blockStream.getCheckpoint(), equalTo(3L));
+            }
+
+            assertThat(blockStream.nextBlock().getBlockId().getNumberFromHash(), equalTo(3));
+            assertThat(blockStream.nextBlock().getBlockId().getNumberFromHash(), equalTo(4));
+            assertThat(blockStream.nextBlock().getBlockId().getNumberFromHash(), equalTo(5));
+            assertThat(blockStream.hasNext(), equalTo(false));
+        }
+    }
+
+    /**
+     * Test that the requests are spread across all healthy endpoints.
+     */
+    @Test
+    public void testRequestsAreSpreadAcrossEndpoints() throws Exception {
+        AtomicInteger secondServerRequests = new AtomicInteger();
+        HttpServer secondServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        secondServer.createContext("/", exchange -> {
+            secondServerRequests.incrementAndGet();
+            handler.handle(exchange);
+        });
+        secondServer.setExecutor(serverExecutor);
+        secondServer.start();
+        try {
+            List<Pair<URI, Boolean>> endpoints = new ArrayList<>(BeowulfJConfig.getInstance().getEndpointURIs());
+            endpoints.add(new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + secondServer.getAddress().getPort() + "/"), false));
+            BeowulfJConfig.getInstance().setEndpointURIs(endpoints);
+            communicationHandler = new CommunicationHandler();
+
+            try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 40)) {
+                assertThat(blockStream.stream().count(), equalTo(40L));
+            }
+
+            assertThat(numberOfRequests.get(), equalTo(40));
+            assertThat(secondServerRequests.get(), equalTo(20));
+        } finally {
+            awaitIdleServer();
+            secondServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that irreversible blocks are read through the irreversible cache.
+     */
+    @Test
+    public void testIrreversibleBlocksAreCached() throws Exception {
+        BeowulfJConfig.getInstance().setIrreversibleCacheSize(100);
+        communicationHandler = new CommunicationHandler();
+
+        try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 20)) {
+            assertThat(blockStream.stream().count(), equalTo(20L));
+        }
+        // The blocks are cached once the last irreversible block is known.
+        awaitIdleServer();
+        int requestsOfFirstStream = numberOfRequests.get();
+
+        try (BlockStream blockStream = new BlockStream(communicationHandler, 1, 20)) {
+            assertThat(blockStream.nextBlock().getBlockId().getNumberFromHash(), equalTo(1));
+            assertThat(blockStream.stream().count(), equalTo(19L));
+        }
+        assertThat(numberOfRequests.get(), equalTo(requestsOfFirstStream));
+    }
+
+    /**
+     * Wait until the server did not receive any requests for a while.
+     */
+    private void awaitIdleServer() throws InterruptedException {
+        int seenRequests;
+        do {
+            seenRequests = numberOfRequests.get();
+            Thread.sleep(100);
+        } while (seenRequests != numberOfRequests.get() || requestsInFlight.get() > 0);
+    }
+
+    private static String getBlockId(long blockNumber) {
+        return String.format("%08x%032x", blockNumber, 0);
+    }
+}
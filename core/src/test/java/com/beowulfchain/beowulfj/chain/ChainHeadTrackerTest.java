@@ -0,0 +1,162 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain;
+
+import com.beowulfchain.beowulfj.base.models.BlockId;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.fc.TimePointSec;
+import com.beowulfchain.beowulfj.protocol.AccountName;
+import com.beowulfchain.beowulfj.protocol.Asset;
+import com.beowulfchain.beowulfj.protocol.enums.AssetSymbolType;
+import com.beowulfchain.beowulfj.protocol.operations.Operation;
+import com.beowulfchain.beowulfj.protocol.operations.TransferOperation;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.joou.UShort;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test the {@link ChainHeadTracker}.
+ */
+public class ChainHeadTrackerTest {
+    private static final String HEAD_BLOCK_ID = "000003e8c0ffee11223344556677889900aabbcc";
+    private static final String NODE_TIME = "2026-10-18T12:00:00";
+
+    private HttpServer server;
+    private AtomicInteger numberOfRequests;
+    private AtomicLong now;
+    private ChainHeadTracker chainHeadTracker;
+    private List<Operation> operations;
+
+    @Before
+    public void setUp() throws Exception {
+        numberOfRequests = new AtomicInteger();
+        Pattern idPattern = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            numberOfRequests.incrementAndGet();
+            String request = new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            Matcher matcher = idPattern.matcher(request);
+            String id = matcher.find() ? matcher.group(1) : "0";
+
+            byte[] body = ("{\"jsonrpc\":\"2.0\",\"result\":{\"head_block_number\":1000,\"head_block_id\":\""
+                    + HEAD_BLOCK_ID + "\",\"time\":\"" + NODE_TIME + "\"},\"id\":" + id + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"), false));
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+        // Keep the background refresh out of the way of the request count.
+        config.setChainHeadRefreshInterval(60000);
+
+        // The local clock is one hour behind the node.
+        now = new AtomicLong(new TimePointSec(NODE_TIME).getDateTimeAsTimestamp() - 3600000L);
+        chainHeadTracker = new ChainHeadTracker(new CommunicationHandler(), now::get);
+        operations = Collections.singletonList(new TransferOperation(new AccountName("alice"),
+                new AccountName("bob"), new Asset(1, AssetSymbolType.BWF), new Asset(1, AssetSymbolType.W), ""));
+    }
+
+    @After
+    public void tearDown() {
+        chainHeadTracker.stop();
+        server.stop(0);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that the reference block is fetched once and reused for further
+     * transactions.
+     */
+    @Test
+    public void testReferenceBlockIsReused() throws Exception {
+        SignedTransaction first = chainHeadTracker.createTransaction(operations, null);
+        now.addAndGet(1000);
+        SignedTransaction second = chainHeadTracker.createTransaction(operations, null);
+        chainHeadTracker.createTransactionAsync(operations, null).get();
+
+        assertThat(numberOfRequests.get(), equalTo(1));
+
+        BlockId headBlockId = new BlockId(HEAD_BLOCK_ID);
+        assertThat(second.getRefBlockNum(), equalTo(UShort.valueOf(1000)));
+        assertThat(second.getRefBlockPrefix(), equalTo(headBlockId.getHashValue()));
+        assertThat(chainHeadTracker.getReferenceBlockId().getHashValue(), equalTo(headBlockId.getHashValue()));
+
+        // The expiration is based on the time of the node, not on the local
+        // clock.
+        long expectedExpiration = new TimePointSec(NODE_TIME).getDateTimeAsTimestamp()
+                + BeowulfJConfig.getInstance().getMaximumExpirationDateOffset() - 60000L;
+        assertThat(first.getExpirationDate().getDateTimeAsTimestamp(), equalTo(expectedExpiration));
+        assertThat(second.getExpirationDate().getDateTimeAsTimestamp(), equalTo(expectedExpiration + 1000));
+    }
+
+    /**
+     * Test that an outdated reference block is fetched again.
+     */
+    @Test
+    public void testOutdatedReferenceBlockIsFetched() throws Exception {
+        chainHeadTracker.createTransaction(operations, null);
+        now.addAndGet(61000);
+        chainHeadTracker.createTransaction(operations, null);
+
+        assertThat(numberOfRequests.get(), equalTo(2));
+    }
+
+    /**
+     * Test that the reference block is fetched for every transaction if the
+     * refresh is disabled.
+     */
+    @Test
+    public void testReferenceBlockIsFetchedForEveryTransactionIfDisabled() throws Exception {
+        BeowulfJConfig.getInstance().setChainHeadRefreshInterval(0);
+
+        chainHeadTracker.createTransaction(operations, null);
+        chainHeadTracker.createTransactionAsync(operations, null).get();
+
+        assertThat(numberOfRequests.get(), equalTo(2));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.chain.smt;
+
+import com.beowulfchain.beowulfj.plugins.apis.condenser.models.FindSmtTokenByName;
+import com.beowulfchain.beowulfj.protocol.AssetInfo;
+import org.joou.UInteger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test the {@link SmtTokenRegistry}.
+ */
+public class SmtTokenRegistryTest {
+    /**
+     * Test that unknown tokens are fetched in bulk and that known tokens are
+     * looked up without asking the node again.
+     */
+    @Test
+    public void testMissingTokensAreFetchedInBulk() throws Exception {
+        List<List<String>> requests = new ArrayList<>();
+        SmtTokenRegistry smtTokenRegistry = new SmtTokenRegistry(names -> {
+            requests.add(names);
+            List<FindSmtTokenByName> tokens = new ArrayList<>();
+            for (String name : names) {
+                if (!"NONE".equals(name)) {
+                    tokens.add(createToken(name, name.length()));
+                }
+            }
+            return tokens;
+        });
+
+        assertThat(smtTokenRegistry.getDecimals("BWF"), equalTo(UInteger.valueOf(5)));
+        assertThat(smtTokenRegistry.getDecimals("ABC"), nullValue());
+
+        smtTokenRegistry.preload(Arrays.asList("ABC", "BWF", "ABCD", "ABC"));
+        assertThat(requests, equalTo(Collections.singletonList(Arrays.asList("ABC", "ABCD"))));
+        assertThat(smtTokenRegistry.getDecimals("ABC"), equalTo(UInteger.valueOf(3)));
+        assertThat(smtTokenRegistry.getDecimals("ABCD"), equalTo(UInteger.valueOf(4)));
+
+        assertThat(smtTokenRegistry.resolve("ABC").getDecimals(), equalTo(UInteger.valueOf(3)));
+        assertThat(smtTokenRegistry.resolve("NONE"), nullValue());
+        assertThat(requests.size(), equalTo(2));
+
+        smtTokenRegistry.refresh();
+        assertThat(requests.size(), equalTo(3));
+        assertThat(requests.get(2).size(), equalTo(2));
+    }
+
+    /**
+     * Test that tokens recorded as missing are fetched together in the
+     * background and that tokens unknown to the node are not requested again
+     * until the next refresh.
+     */
+    @Test
+    public void testRecordedTokensAreFetchedInBackground() throws Exception {
+        List<List<String>> requests = new CopyOnWriteArrayList<>();
+        SmtTokenRegistry smtTokenRegistry = new SmtTokenRegistry(names -> {
+            requests.add(names);
+            List<FindSmtTokenByName> tokens = new ArrayList<>();
+            for (String name : names) {
+                if (!"NONE".equals(name)) {
+                    tokens.add(createToken(name, name.length()));
+                }
+            }
+            return tokens;
+        });
+
+        smtTokenRegistry.recordMissing("ABC");
+        smtTokenRegistry.recordMissing("NONE");
+        smtTokenRegistry.recordMissing("ABC");
+        smtTokenRegistry.recordMissing("BWF");
+        assertThat(smtTokenRegistry.getDecimals("ABC"), nullValue());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requests.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertThat(requests.size(), equalTo(1));
+        assertThat(new HashSet<>(requests.get(0)), equalTo(new HashSet<>(Arrays.asList("ABC", "NONE"))));
+        assertThat(smtTokenRegistry.getDecimals("ABC"), equalTo(UInteger.valueOf(3)));
+
+        smtTokenRegistry.recordMissing("NONE");
+        Thread.sleep(300);
+        assertThat(requests.size(), equalTo(1));
+
+        smtTokenRegistry.refresh();
+        assertThat(requests.get(1), equalTo(Arrays.asList("ABC", "NONE")));
+    }
+
+    private static FindSmtTokenByName createToken(String name, int decimals) {
+        FindSmtTokenByName token = new FindSmtTokenByName();
+        try {
+            token.setLiquid_symbol(new AssetInfo(name, UInteger.valueOf(decimals)));
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Test the state transitions of the {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+    /**
+     * Test that the breaker opens after the configured number of failures in
+     * a row and that a success resets the counter.
+     */
+    @Test
+    public void testBreakerOpensAfterConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 1000);
+
+        circuitBreaker.recordFailure(0, CircuitBreaker.CLOSED_PERMISSION);
+        circuitBreaker.recordSuccess(CircuitBreaker.CLOSED_PERMISSION);
+        circuitBreaker.recordFailure(0, CircuitBreaker.CLOSED_PERMISSION);
+        assertThat(circuitBreaker.getState(0), equalTo(CircuitBreaker.State.CLOSED));
+
+        circuitBreaker.recordFailure(10, CircuitBreaker.CLOSED_PERMISSION);
+        assertThat(circuitBreaker.getState(10), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(500), equalTo(CircuitBreaker.NO_PERMISSION));
+    }
+
+    /**
+     * Test that a half-open breaker allows exactly one trial request and
+     * closes or opens again depending on its outcome.
+     */
+    @Test
+    public void testHalfOpenBreakerAllowsSingleTrial() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1000);
+        circuitBreaker.recordFailure(0, CircuitBreaker.CLOSED_PERMISSION);
+
+        assertThat(circuitBreaker.getState(1000), equalTo(CircuitBreaker.State.HALF_OPEN));
+        long trial = circuitBreaker.tryAcquirePermission(1000);
+        assertThat(trial > CircuitBreaker.CLOSED_PERMISSION, equalTo(true));
+        assertThat(circuitBreaker.tryAcquirePermission(1000), equalTo(CircuitBreaker.NO_PERMISSION));
+
+        circuitBreaker.recordFailure(1100, trial);
+        assertThat(circuitBreaker.getState(1100), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(1500), equalTo(CircuitBreaker.NO_PERMISSION));
+
+        trial = circuitBreaker.tryAcquirePermission(2100);
+        circuitBreaker.recordSuccess(trial);
+        assertThat(circuitBreaker.getState(2100), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(circuitBreaker.tryAcquirePermission(2100), equalTo(CircuitBreaker.CLOSED_PERMISSION));
+        assertThat(circuitBreaker.tryAcquirePermission(2100), equalTo(CircuitBreaker.CLOSED_PERMISSION));
+    }
+
+    /**
+     * Test that a released trial request is granted to the next caller.
+     */
+    @Test
+    public void testReleasedTrialIsGrantedAgain() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1000);
+        circuitBreaker.recordFailure(0, CircuitBreaker.CLOSED_PERMISSION);
+
+        long trial = circuitBreaker.tryAcquirePermission(1000);
+        assertThat(circuitBreaker.tryAcquirePermission(1000), equalTo(CircuitBreaker.NO_PERMISSION));
+
+        circuitBreaker.releasePermission(trial);
+        assertThat(circuitBreaker.getState(1000), equalTo(CircuitBreaker.State.HALF_OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(1000), not(equalTo(CircuitBreaker.NO_PERMISSION)));
+    }
+
+    /**
+     * Test that only the holder of the trial request settles a half-open
+     * breaker, while the outcomes of requests that have been permitted
+     * earlier are ignored.
+     */
+    @Test
+    public void testOnlyTrialSettlesHalfOpenBreaker() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1000);
+        long stale = circuitBreaker.tryAcquirePermission(0);
+        circuitBreaker.recordFailure(0, CircuitBreaker.CLOSED_PERMISSION);
+
+        long released = circuitBreaker.tryAcquirePermission(1000);
+        circuitBreaker.releasePermission(released);
+        long trial = circuitBreaker.tryAcquirePermission(1000);
+
+        // Neither a request sent while the breaker was closed nor a trial
+        // that has been handed back affect the current trial.
+        circuitBreaker.recordSuccess(stale);
+        circuitBreaker.releasePermission(stale);
+        circuitBreaker.recordFailure(1100, released);
+        circuitBreaker.releasePermission(released);
+        assertThat(circuitBreaker.getState(1100), equalTo(CircuitBreaker.State.HALF_OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(1100), equalTo(CircuitBreaker.NO_PERMISSION));
+
+        circuitBreaker.recordSuccess(trial);
+        assertThat(circuitBreaker.getState(1100), equalTo(CircuitBreaker.State.CLOSED));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the virtual thread integration and the thread pools of the
+ * {@link CommunicationExecutors}.
+ */
+public class CommunicationExecutorsTest {
+    @After
+    public void resetConfig() {
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that asynchronous requests run on virtual threads if enabled and
+     * supported by the runtime, and on the shared pool otherwise.
+     */
+    @Test
+    public void testVirtualThreadsAreUsedIfSupported() throws Exception {
+        BeowulfJConfig.getInstance().setVirtualThreadsEnabled(true);
+
+        CompletableFuture<Thread> thread = CompletableFuture.supplyAsync(Thread::currentThread,
+                CommunicationExecutors.getAsyncExecutor());
+
+        if (CommunicationExecutors.isVirtualThreadSupported()) {
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread.get(5, TimeUnit.SECONDS)),
+                    equalTo((Object) true));
+        } else {
+            assertThat(thread.get(5, TimeUnit.SECONDS).getName(), startsWith("beowulfj-async"));
+        }
+    }
+
+    /**
+     * Test that blocking calls run on their own pool, which has a thread per
+     * HTTP connection, so they can not starve the completions on the async
+     * executor.
+     */
+    @Test
+    public void testBlockingCallsDoNotOccupyTheAsyncExecutor() throws Exception {
+        BeowulfJConfig.getInstance().setVirtualThreadsEnabled(false);
+        int threads = BeowulfJConfig.getInstance().getMaxHttpConnectionsPerEndpoint();
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                CommunicationExecutors.getIoExecutor().execute(() -> {
+                    assertThat(Thread.currentThread().getName(), startsWith("beowulfj-io"));
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+            assertThat(CompletableFuture.supplyAsync(() -> true, CommunicationExecutors.getAsyncExecutor())
+                    .get(5, TimeUnit.SECONDS), equalTo(true));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Test that a repeated task runs on the given executor and is skipped
+     * while its previous run is still in progress.
+     */
+    @Test
+    public void testRepeatedTaskDoesNotPileUp() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Void> firstRun = new CompletableFuture<>();
+        CountDownLatch secondRun = new CountDownLatch(1);
+
+        ScheduledFuture<?> task = CommunicationExecutors.scheduleAsyncWithFixedDelay(() -> {
+            assertThat(Thread.currentThread().getName(), startsWith("beowulfj-io"));
+            if (runs.incrementAndGet() == 1) {
+                return firstRun;
+            }
+            secondRun.countDown();
+            return CompletableFuture.completedFuture(null);
+        }, 0, 1, TimeUnit.MILLISECONDS, CommunicationExecutors.getIoExecutor());
+
+        try {
+            Thread.sleep(50);
+            assertThat(runs.get(), equalTo(1));
+
+            firstRun.complete(null);
+            assertThat(secondRun.await(5, TimeUnit.SECONDS), equalTo(true));
+        } finally {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Test that a virtual thread executor is only handed out if the runtime
+     * provides virtual threads.
+     */
+    @Test
+    public void testVirtualThreadPerTaskExecutor() throws Exception {
+        if (CommunicationExecutors.isVirtualThreadSupported()) {
+            CommunicationExecutors.newVirtualThreadPerTaskExecutor().shutdown();
+            return;
+        }
+
+        try {
+            CommunicationExecutors.newVirtualThreadPerTaskExecutor();
+            fail("An executor has been created although virtual threads are not supported.");
+        } catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,811 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.enums.ResponseErrorType;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the retry, deadline, hedging and coalescing handling of the
+ * {@link CommunicationHandler}.
+ */
+public class CommunicationHandlerTest {
+    private HttpServer server;
+    private AtomicInteger numberOfRequests;
+    private volatile int status;
+    private volatile String response;
+
+    @Before
+    public void setUp() throws Exception {
+        numberOfRequests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            numberOfRequests.incrementAndGet();
+            IOUtils.toByteArray(exchange.getRequestBody());
+
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"), false));
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setRetryPolicy(new RetryPolicy(2, 1, 5));
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that transport errors are retried until the retry budget is
+     * exhausted.
+     */
+    @Test
+    public void testTransportErrorsAreRetriedWithinBudget() throws Exception {
+        status = 503;
+        response = "{}";
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            communicationHandler.performRequest(
+                    new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null), Object.class);
+            fail("The request should have failed.");
+        } catch (BeowulfCommunicationException e) {
+            assertThat(numberOfRequests.get(), equalTo(3));
+        }
+    }
+
+    /**
+     * Test that errors returned by the node are not retried.
+     */
+    @Test
+    public void testResponseErrorsAreNotRetried() throws Exception {
+        status = 200;
+        response = "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000,\"message\":\"Bad Cast\"},\"id\":0}";
+
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        response = response.replace("\"id\":0", "\"id\":" + request.getId());
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            communicationHandler.performRequest(request, Object.class);
+            fail("The request should have failed.");
+        } catch (BeowulfResponseException e) {
+            assertThat(e.getMessage(), equalTo("Bad Cast"));
+            assertThat(numberOfRequests.get(), equalTo(1));
+        }
+    }
+
+    /**
+     * Test that temporary errors of the node are retried like transport
+     * errors.
+     */
+    @Test
+    public void testTemporaryResponseErrorsAreRetried() throws Exception {
+        status = 200;
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        response = "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32003,\"message\":\"Unable to acquire database "
+                + "lock\"},\"id\":" + request.getId() + "}";
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            communicationHandler.performRequest(request, Object.class);
+            fail("The request should have failed.");
+        } catch (BeowulfResponseException e) {
+            assertThat(e.getErrorType(), equalTo(ResponseErrorType.TEMPORARY_FAILURE));
+            assertThat(numberOfRequests.get(), equalTo(3));
+        }
+    }
+
+    /**
+     * Test that an idempotent read is sent to a second endpoint if the first
+     * one does not answer in time and that the first answer wins.
+     */
+    @Test
+    public void testSlowReadsAreHedged() throws Exception {
+        AtomicBoolean delayNextRequest = new AtomicBoolean();
+        HttpServer first = createEchoServer(delayNextRequest);
+        HttpServer second = createEchoServer(delayNextRequest);
+        try {
+            Pair<URI, Boolean> firstEndpoint = new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + first.getAddress().getPort() + "/"), false);
+            Pair<URI, Boolean> secondEndpoint = new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + second.getAddress().getPort() + "/"), false);
+
+            BeowulfJConfig config = BeowulfJConfig.getInstance();
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            // Collect enough latency samples for both endpoints.
+            for (Pair<URI, Boolean> endpoint : new Pair[]{firstEndpoint, secondEndpoint}) {
+                config.setEndpointURIs(Collections.singletonList(endpoint));
+                for (int i = 0; i < 20; i++) {
+                    communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                            RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null), Object.class);
+                }
+            }
+
+            List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+            endpoints.add(firstEndpoint);
+            endpoints.add(secondEndpoint);
+            config.setEndpointURIs(endpoints);
+            config.setHedgedReadPercentile(95);
+
+            delayNextRequest.set(true);
+            long start = System.nanoTime();
+            List<Object> result = communicationHandler.performRequest(new JsonRPCRequest(
+                    BeowulfApiType.CONDENSER_API, RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null), Object.class);
+
+            assertThat(result.size(), equalTo(1));
+            assertThat(System.nanoTime() - start, lessThan(1_000_000_000L));
+        } finally {
+            first.stop(0);
+            second.stop(0);
+        }
+    }
+
+    /**
+     * Test that identical reads that are in flight at the same time share one
+     * round-trip and its result.
+     */
+    @Test
+    public void testIdenticalReadsAreCoalesced() throws Exception {
+        AtomicBoolean delayNextRequest = new AtomicBoolean(true);
+        HttpServer echoServer = createEchoServer(delayNextRequest);
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Collections.singletonList(new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + echoServer.getAddress().getPort() + "/"), false)));
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            List<CompletableFuture<List<Object>>> results = new ArrayList<>();
+            results.add(communicationHandler.performRequestAsync(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null), Object.class));
+            while (numberOfRequests.get() == 0) {
+                Thread.sleep(10);
+            }
+
+            for (int i = 0; i < 10; i++) {
+                results.add(communicationHandler.performRequestAsync(new JsonRPCRequest(
+                        BeowulfApiType.CONDENSER_API, RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null), Object.class));
+            }
+            // A request with other parameters is not shared.
+            communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, new Object[]{1}), Object.class);
+
+            for (CompletableFuture<List<Object>> result : results) {
+                assertThat(result.get().get(0), sameInstance(results.get(0).get().get(0)));
+            }
+            assertThat(numberOfRequests.get(), equalTo(2));
+
+            // Once completed, the next request is sent again.
+            communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null), Object.class);
+            assertThat(numberOfRequests.get(), equalTo(3));
+        } finally {
+            echoServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that callers sharing a request are not failed by the deadline of
+     * the caller that sent it.
+     */
+    @Test
+    public void testCoalescedCallersKeepTheirOwnDeadline() throws Exception {
+        AtomicBoolean delayNextRequest = new AtomicBoolean();
+        HttpServer echoServer = createEchoServer(delayNextRequest);
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Collections.singletonList(new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + echoServer.getAddress().getPort() + "/"), false)));
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+            // Open the connection, so the short deadline is not spent on it.
+            communicationHandler.performRequest(
+                    new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null), Object.class);
+            numberOfRequests.set(0);
+            delayNextRequest.set(true);
+
+            JsonRPCRequest hurriedRequest = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null);
+            hurriedRequest.setDeadline(Deadline.after(200, TimeUnit.MILLISECONDS));
+            CompletableFuture<List<Object>> hurriedResult = communicationHandler.performRequestAsync(hurriedRequest,
+                    Object.class);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (numberOfRequests.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            JsonRPCRequest patientAsyncRequest = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null);
+            patientAsyncRequest.setDeadline(Deadline.after(10, TimeUnit.SECONDS));
+            CompletableFuture<List<Object>> patientAsyncResult = communicationHandler.performRequestAsync(
+                    patientAsyncRequest, Object.class);
+            JsonRPCRequest patientRequest = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null);
+            patientRequest.setDeadline(Deadline.after(10, TimeUnit.SECONDS));
+
+            assertThat(communicationHandler.performRequest(patientRequest, Object.class).size(), equalTo(1));
+            assertThat(patientAsyncResult.get(10, TimeUnit.SECONDS).size(), equalTo(1));
+            try {
+                hurriedResult.get();
+                fail("The request should have failed.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause().getClass() == BeowulfTimeoutException.class, equalTo(true));
+            }
+            assertThat(numberOfRequests.get(), greaterThanOrEqualTo(2));
+            assertThat(numberOfRequests.get(), lessThan(4));
+        } finally {
+            echoServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that a deadline limits the whole call, including the backoff
+     * between retries, for blocking and asynchronous requests.
+     */
+    @Test
+    public void testDeadlineCoversRetriesAndSlowAnswers() throws Exception {
+        status = 503;
+        response = "{}";
+        BeowulfJConfig.getInstance().setRetryPolicy(new RetryPolicy(50, 200, 200));
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        long start = System.nanoTime();
+        try (Deadline.Scope scope = Deadline.after(300, TimeUnit.MILLISECONDS).attach()) {
+            communicationHandler.performRequest(
+                    new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null), Object.class);
+            fail("The request should have failed.");
+        } catch (BeowulfTimeoutException e) {
+            // The retry budget has not been exhausted.
+            assertThat(numberOfRequests.get(), lessThan(51));
+            assertThat(System.nanoTime() - start, lessThan(1_000_000_000L));
+        }
+        assertThat(Deadline.current(), equalTo(null));
+
+        AtomicBoolean delayNextRequest = new AtomicBoolean(true);
+        HttpServer echoServer = createEchoServer(delayNextRequest);
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Collections.singletonList(new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + echoServer.getAddress().getPort() + "/"), false)));
+
+            JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_DYNAMIC_GLOBAL_PROPERTIES, null);
+            request.setDeadline(Deadline.after(300, TimeUnit.MILLISECONDS));
+
+            start = System.nanoTime();
+            try {
+                communicationHandler.performRequestAsync(request, Object.class).get(5, TimeUnit.SECONDS);
+                fail("The request should have failed.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause() instanceof BeowulfTimeoutException, equalTo(true));
+                assertThat(System.nanoTime() - start, lessThan(1_000_000_000L));
+            }
+        } finally {
+            echoServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that the trial request of a half-open circuit breaker is handed
+     * back if the deadline expired before the request could be sent.
+     */
+    @Test
+    public void testUnsentTrialRequestIsReleased() throws Exception {
+        status = 503;
+        response = "{}";
+        BeowulfJConfig.getInstance().setRetryPolicy(new RetryPolicy(0, 1, 1));
+        BeowulfJConfig.getInstance().setCircuitBreakerFailureThreshold(1);
+        BeowulfJConfig.getInstance().setCircuitBreakerOpenTime(50);
+        BeowulfJConfig.getInstance().setRateLimit(1);
+        BeowulfJConfig.getInstance().setRateLimitBurst(1);
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        try {
+            communicationHandler.performRequest(
+                    new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null), Object.class);
+            fail("The request should have failed.");
+        } catch (BeowulfCommunicationException e) {
+            // Opens the circuit breaker.
+        }
+        Thread.sleep(100);
+
+        // The trial request waits for the rate limiter until its deadline
+        // expired.
+        JsonRPCRequest expiringRequest = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG,
+                null);
+        expiringRequest.setDeadline(Deadline.after(100, TimeUnit.MILLISECONDS));
+        try {
+            communicationHandler.performRequest(expiringRequest, Object.class);
+            fail("The request should have failed.");
+        } catch (BeowulfTimeoutException e) {
+            assertThat(numberOfRequests.get(), equalTo(1));
+        }
+
+        status = 200;
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        response = "{\"jsonrpc\":\"2.0\",\"result\":null,\"id\":" + request.getId() + "}";
+        assertThat(communicationHandler.performRequest(request, Object.class).size(), equalTo(0));
+        assertThat(numberOfRequests.get(), equalTo(2));
+    }
+
+    /**
+     * Test that an explicitly configured {@link ClientProvider} is used to
+     * create the clients.
+     */
+    @Test
+    public void testConfiguredClientProviderIsUsed() throws Exception {
+        status = 200;
+        response = "{\"jsonrpc\":\"2.0\",\"result\":null,\"id\":0}";
+        List<URI> createdClients = new ArrayList<>();
+        BeowulfJConfig.getInstance().setClientProvider(new ClientProvider() {
+            @Override
+            public boolean supports(String scheme) {
+                return "http".equals(scheme);
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+
+            @Override
+            public AbstractClient createClient(URI endpointUri) {
+                createdClients.add(endpointUri);
+                return new HttpClient();
+            }
+        });
+
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        response = response.replace("\"id\":0", "\"id\":" + request.getId());
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        assertThat(communicationHandler.performRequest(request, Object.class).size(), equalTo(0));
+        assertThat(createdClients, equalTo(Collections.singletonList(
+                BeowulfJConfig.getInstance().getEndpointURIs().get(0).getLeft())));
+    }
+
+    /**
+     * Test that the requests to an endpoint are spread across the configured
+     * number of transports, even if many threads share one handler.
+     */
+    @Test
+    public void testRequestsAreSpreadAcrossTheTransportPool() throws Exception {
+        HttpServer echoServer = createEchoServer(new AtomicBoolean());
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Collections.singletonList(new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + echoServer.getAddress().getPort() + "/"), false)));
+            BeowulfJConfig.getInstance().setTransportsPerEndpoint(3);
+            BeowulfJConfig.getInstance().setRequestCoalescingEnabled(false);
+            List<AtomicInteger> requestsPerClient = new CopyOnWriteArrayList<>();
+            BeowulfJConfig.getInstance().setClientProvider(new DefaultClientProvider() {
+                @Override
+                public AbstractClient createClient(URI endpointUri) {
+                    AtomicInteger numberOfClientRequests = new AtomicInteger();
+                    requestsPerClient.add(numberOfClientRequests);
+                    return new HttpClient() {
+                        @Override
+                        public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                                     boolean sslVerificationDisabled,
+                                                                     JavaType resultType)
+                                throws BeowulfCommunicationException {
+                            numberOfClientRequests.incrementAndGet();
+                            return super.invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled,
+                                    resultType);
+                        }
+                    };
+                }
+            });
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            ExecutorService executorService = Executors.newFixedThreadPool(10);
+            try {
+                List<Future<List<Object>>> results = new ArrayList<>();
+                for (int i = 0; i < 30; i++) {
+                    results.add(executorService.submit(() -> communicationHandler.performRequest(
+                            new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null),
+                            Object.class)));
+                }
+                for (Future<List<Object>> result : results) {
+                    assertThat(result.get().size(), equalTo(1));
+                }
+            } finally {
+                executorService.shutdown();
+            }
+
+            assertThat(requestsPerClient.size(), equalTo(3));
+            for (AtomicInteger numberOfClientRequests : requestsPerClient) {
+                assertThat(numberOfClientRequests.get(), equalTo(10));
+            }
+        } finally {
+            echoServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that the connections to all endpoints are opened at startup,
+     * before the first request is performed.
+     */
+    @Test
+    public void testConnectionsAreWarmedUpAtStartup() throws Exception {
+        HttpServer firstServer = createEchoServer(new AtomicBoolean());
+        HttpServer secondServer = createEchoServer(new AtomicBoolean());
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Arrays.asList(
+                    new ImmutablePair<>(URI.create("http://127.0.0.1:" + firstServer.getAddress().getPort() + "/"),
+                            false),
+                    new ImmutablePair<>(URI.create("http://127.0.0.1:" + secondServer.getAddress().getPort() + "/"),
+                            false)));
+            BeowulfJConfig.getInstance().setConnectionWarmUpEnabled(true);
+            BeowulfJConfig.getInstance().setKeepAliveInterval(0);
+
+            new CommunicationHandler();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (numberOfRequests.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(numberOfRequests.get(), equalTo(2));
+        } finally {
+            firstServer.stop(0);
+            secondServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that a closed handler does not probe or keep alive the endpoints
+     * anymore.
+     */
+    @Test
+    public void testCloseCancelsBackgroundTasks() throws Exception {
+        HttpServer firstServer = createEchoServer(new AtomicBoolean());
+        HttpServer secondServer = createEchoServer(new AtomicBoolean());
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Arrays.asList(
+                    new ImmutablePair<>(URI.create("http://127.0.0.1:" + firstServer.getAddress().getPort() + "/"),
+                            false),
+                    new ImmutablePair<>(URI.create("http://127.0.0.1:" + secondServer.getAddress().getPort() + "/"),
+                            false)));
+            BeowulfJConfig.getInstance().setEndpointProbeInterval(20);
+            BeowulfJConfig.getInstance().setConnectionWarmUpEnabled(true);
+            BeowulfJConfig.getInstance().setKeepAliveInterval(20);
+
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (numberOfRequests.get() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(numberOfRequests.get(), greaterThanOrEqualTo(10));
+
+            communicationHandler.close();
+            // Let the tasks that already started finish.
+            Thread.sleep(200);
+            int requestsAfterClose = numberOfRequests.get();
+            Thread.sleep(300);
+
+            assertThat(numberOfRequests.get(), equalTo(requestsAfterClose));
+        } finally {
+            firstServer.stop(0);
+            secondServer.stop(0);
+        }
+    }
+
+    /**
+     * Test that a warm-up that is still running while the handler is closed
+     * does not leave its connection open.
+     */
+    @Test
+    public void testWarmUpRunningWhileClosingDoesNotReconnect() throws Exception {
+        CountDownLatch warmUpStarted = new CountDownLatch(1);
+        CountDownLatch continueWarmUp = new CountDownLatch(1);
+        AtomicInteger openConnections = new AtomicInteger();
+        BeowulfJConfig.getInstance().setClientProvider(new ClientProvider() {
+            @Override
+            public boolean supports(String scheme) {
+                return true;
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+
+            @Override
+            public AbstractClient createClient(URI endpointUri) {
+                return new AbstractClient() {
+                    private boolean open;
+
+                    @Override
+                    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                                 boolean sslVerificationDisabled) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest,
+                                                                           URI endpointUri,
+                                                                           boolean sslVerificationDisabled) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) {
+                        warmUpStarted.countDown();
+                        try {
+                            continueWarmUp.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        synchronized (this) {
+                            if (!open) {
+                                open = true;
+                                openConnections.incrementAndGet();
+                            }
+                        }
+                    }
+
+                    @Override
+                    public synchronized void closeConnection() {
+                        if (open) {
+                            open = false;
+                            openConnections.decrementAndGet();
+                        }
+                    }
+                };
+            }
+        });
+        BeowulfJConfig.getInstance().setTransportsPerEndpoint(1);
+        BeowulfJConfig.getInstance().setConnectionWarmUpEnabled(true);
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        assertThat(warmUpStarted.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        communicationHandler.close();
+        continueWarmUp.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (openConnections.get() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Give a late reconnect the chance to show up.
+        Thread.sleep(100);
+
+        assertThat(openConnections.get(), equalTo(0));
+    }
+
+    /**
+     * Test that a subscription which failed at one endpoint is not registered
+     * again at another endpoint, where the same callback id would deliver
+     * every notice twice.
+     */
+    @Test
+    public void testSubscriptionIsNotRetriedAtAnotherEndpoint() throws Exception {
+        List<URI> subscribedEndpoints = new CopyOnWriteArrayList<>();
+        BeowulfJConfig.getInstance().setClientProvider(new ClientProvider() {
+            @Override
+            public boolean supports(String scheme) {
+                return true;
+            }
+
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+
+            @Override
+            public AbstractClient createClient(URI endpointUri) {
+                return new AbstractClient() {
+                    @Override
+                    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                                 boolean sslVerificationDisabled) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest,
+                                                                           URI endpointUri,
+                                                                           boolean sslVerificationDisabled) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public void subscribe(JsonRPCRequest requestObject, URI endpointUri,
+                                          boolean sslVerificationDisabled, Subscription<?> subscription)
+                            throws BeowulfCommunicationException {
+                        subscribedEndpoints.add(endpointUri);
+                        throw new BeowulfTimeoutException("The node did not confirm the subscription in time.");
+                    }
+
+                    @Override
+                    public void closeConnection() {
+                    }
+                };
+            }
+        });
+        BeowulfJConfig.getInstance().setEndpointURIs(Arrays.asList(
+                new ImmutablePair<>(URI.create("ws://127.0.0.1:1/"), false),
+                new ImmutablePair<>(URI.create("ws://127.0.0.1:2/"), false)));
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            communicationHandler.subscribe(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.SET_BLOCK_APPLIED_CALLBACK, null), new Subscription<>(Object.class, notice -> {
+            }));
+            fail("The subscription should have failed.");
+        } catch (BeowulfTimeoutException e) {
+            assertThat(subscribedEndpoints.size(), equalTo(1));
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * Test that a broadcast which timed out, but has been accepted by the
+     * node, is not reported as failed because the retry is rejected as a
+     * duplicate, and that broadcasts whose answer can not be recovered are
+     * not retried at all.
+     */
+    @Test
+    public void testTimedOutBroadcastIsNotReportedAsDuplicate() throws Exception {
+        Pattern idPattern = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+        AtomicInteger broadcasts = new AtomicInteger();
+        HttpServer broadcastServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        broadcastServer.setExecutor(Executors.newCachedThreadPool());
+        broadcastServer.createContext("/", exchange -> {
+            Matcher id = idPattern.matcher(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            id.find();
+            String answer;
+            if (broadcasts.getAndIncrement() % 2 == 0) {
+                // Accept the transaction, but answer too late.
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                answer = "\"result\":{}";
+            } else {
+                answer = "\"error\":{\"code\":-32000,\"message\":\"Duplicate transaction check failed\"}";
+            }
+
+            byte[] body = ("{\"jsonrpc\":\"2.0\"," + answer + ",\"id\":" + id.group(1) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        broadcastServer.start();
+
+        try {
+            BeowulfJConfig.getInstance().setEndpointURIs(Collections.singletonList(new ImmutablePair<>(
+                    URI.create("http://127.0.0.1:" + broadcastServer.getAddress().getPort() + "/"), false)));
+            BeowulfJConfig.getInstance().setResponseTimeout(200);
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            assertThat(communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.BROADCAST_TRANSACTION, null), Object.class).isEmpty(), equalTo(true));
+            assertThat(broadcasts.get(), equalTo(2));
+
+            assertThat(communicationHandler.performRequestAsync(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.BROADCAST_TRANSACTION, null), Object.class).get(5, TimeUnit.SECONDS).isEmpty(),
+                    equalTo(true));
+            assertThat(broadcasts.get(), equalTo(4));
+
+            try {
+                communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                        RequestMethod.BROADCAST_TRANSACTION_SYNCHRONOUS, null), Object.class);
+                fail("The broadcast should have timed out.");
+            } catch (BeowulfCommunicationException e) {
+                assertThat(broadcasts.get(), equalTo(5));
+            }
+            communicationHandler.close();
+        } finally {
+            broadcastServer.stop(0);
+        }
+    }
+
+    /**
+     * Create a server that answers every request with an empty object and
+     * delays the answer of the next request if requested.
+     *
+     * @param delayNextRequest Set to <code>true</code> to delay the next
+     *                         request received by any server sharing the flag.
+     * @return The started server.
+     */
+    private HttpServer createEchoServer(AtomicBoolean delayNextRequest) throws Exception {
+        Pattern idPattern = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+        HttpServer echoServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        echoServer.createContext("/", exchange -> {
+            numberOfRequests.incrementAndGet();
+            String request = new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            Matcher matcher = idPattern.matcher(request);
+            String id = matcher.find() ? matcher.group(1) : "0";
+
+            if (delayNextRequest.compareAndSet(true, false)) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            byte[] body = ("{\"jsonrpc\":\"2.0\",\"result\":{},\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        echoServer.start();
+        return echoServer;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test the endpoint selection of the {@link EndpointSelector}.
+ */
+public class EndpointSelectorTest {
+    private static final URI FIRST = URI.create("https://first.example.com/rpc");
+    private static final URI SECOND = URI.create("https://second.example.com/rpc");
+    private static final URI THIRD = URI.create("https://third.example.com/rpc");
+
+    private List<Pair<URI, Boolean>> endpoints;
+    private long now;
+    private EndpointSelector endpointSelector;
+
+    @Before
+    public void setUp() {
+        endpoints = Arrays.asList(new ImmutablePair<>(FIRST, false), new ImmutablePair<>(SECOND, false),
+                new ImmutablePair<>(THIRD, false));
+        now = 1000000L;
+        endpointSelector = new EndpointSelector(() -> now);
+    }
+
+    /**
+     * Test that unused endpoints are tried first and that afterwards the
+     * fastest endpoint is preferred.
+     */
+    @Test
+    public void testFastestEndpointIsPreferred() {
+        assertThat(select(), equalTo(FIRST));
+        endpointSelector.recordSuccess(FIRST, millis(40));
+        assertThat(select(), equalTo(SECOND));
+        endpointSelector.recordSuccess(SECOND, millis(10));
+        assertThat(select(), equalTo(THIRD));
+        endpointSelector.recordSuccess(THIRD, millis(30));
+
+        assertThat(select(), equalTo(SECOND));
+        assertThat(endpointSelector.select(endpoints, Collections.singletonList(SECOND)).getEndpointUri(), equalTo(THIRD));
+        assertThat(endpointSelector.select(endpoints, Arrays.asList(FIRST, SECOND, THIRD)), nullValue());
+    }
+
+    /**
+     * Test that an endpoint which is much slower than the others is ejected
+     * and reinstated by a successful probe.
+     */
+    @Test
+    public void testSlowEndpointIsEjectedAndReinstatedByProbe() {
+        endpointSelector.recordSuccess(FIRST, millis(100));
+        endpointSelector.recordSuccess(SECOND, millis(10));
+        endpointSelector.recordSuccess(THIRD, millis(12));
+
+        assertThat(select(), equalTo(SECOND));
+        assertThat(endpointSelector.getHealth(FIRST).isEjected(now), equalTo(true));
+        assertThat(endpointSelector.select(endpoints, Arrays.asList(SECOND, THIRD)).getEndpointUri(), equalTo(FIRST));
+
+        endpointSelector.recordProbe(endpoints, FIRST, millis(9), -1);
+        assertThat(endpointSelector.getHealth(FIRST).isEjected(now), equalTo(false));
+        assertThat(select(), equalTo(FIRST));
+    }
+
+    /**
+     * Test that an endpoint that failed repeatedly is skipped while its
+     * circuit breaker is open and gets a single trial request afterwards.
+     */
+    @Test
+    public void testFailingEndpointIsSkippedWhileCircuitIsOpen() {
+        for (int i = 0; i < 3; i++) {
+            endpointSelector.recordFailure(FIRST);
+        }
+
+        assertThat(select(), equalTo(SECOND));
+        endpointSelector.recordSuccess(SECOND, millis(10));
+        assertThat(endpointSelector.select(endpoints, Arrays.asList(SECOND, THIRD)), nullValue());
+
+        now += TimeUnit.MINUTES.toMillis(1);
+        EndpointPermission trial = endpointSelector.select(endpoints, Arrays.asList(SECOND, THIRD));
+        assertThat(trial.getEndpointUri(), equalTo(FIRST));
+        // Only one trial request is allowed at a time.
+        assertThat(endpointSelector.select(endpoints, Arrays.asList(SECOND, THIRD)), nullValue());
+
+        // A success without the permission of the trial does not close the
+        // breaker.
+        endpointSelector.recordSuccess(FIRST, millis(10));
+        assertThat(endpointSelector.getHealth(FIRST).getCircuitBreaker().getState(now),
+                equalTo(CircuitBreaker.State.HALF_OPEN));
+
+        endpointSelector.recordSuccess(trial, millis(10));
+        assertThat(endpointSelector.getHealth(FIRST).getCircuitBreaker().getState(now),
+                equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    /**
+     * Test that a preferred endpoint is selected as long as it is healthy and
+     * that only healthy endpoints are offered for spreading requests.
+     */
+    @Test
+    public void testPreferredEndpointIsSelectedWhileHealthy() {
+        endpointSelector.recordSuccess(FIRST, millis(10));
+        endpointSelector.recordSuccess(SECOND, millis(12));
+        endpointSelector.recordSuccess(THIRD, millis(11));
+        assertThat(endpointSelector.getHealthyEndpoints(endpoints), equalTo(Arrays.asList(FIRST, SECOND, THIRD)));
+        assertThat(endpointSelector.select(endpoints, Collections.emptyList(), THIRD).getEndpointUri(), equalTo(THIRD));
+        assertThat(endpointSelector.select(endpoints, Collections.singletonList(THIRD), THIRD).getEndpointUri(),
+                equalTo(FIRST));
+
+        for (int i = 0; i < 3; i++) {
+            endpointSelector.recordFailure(THIRD);
+        }
+        assertThat(endpointSelector.getHealthyEndpoints(endpoints), equalTo(Arrays.asList(FIRST, SECOND)));
+        assertThat(endpointSelector.select(endpoints, Collections.emptyList(), THIRD).getEndpointUri(), equalTo(FIRST));
+    }
+
+    /**
+     * Test that an endpoint whose head block lags behind is ejected.
+     */
+    @Test
+    public void testLaggingEndpointIsEjected() {
+        endpointSelector.recordProbe(endpoints, FIRST, millis(5), 100);
+        endpointSelector.recordProbe(endpoints, SECOND, millis(10), 200);
+        endpointSelector.recordProbe(endpoints, THIRD, millis(10), 199);
+
+        // The lag of a single block is tolerated, but still costs score.
+        assertThat(select(), equalTo(SECOND));
+        assertThat(endpointSelector.getHealth(THIRD).isEjected(now), equalTo(false));
+        assertThat(endpointSelector.getHealth(FIRST).isEjected(now), equalTo(true));
+    }
+
+    private URI select() {
+        return endpointSelector.select(endpoints, Collections.<URI>emptyList()).getEndpointUri();
+    }
+
+    /**
+     * Test that the description of an endpoint, which is logged on every
+     * ejection, summarizes the latency samples instead of listing them.
+     */
+    @Test
+    public void testHealthIsDescribedBySummary() {
+        for (int i = 0; i < 20; i++) {
+            endpointSelector.recordSuccess(FIRST, millis(10 + i));
+        }
+
+        String description = endpointSelector.getHealth(FIRST).toString();
+        assertThat(description, containsString("p50Millis=19.0"));
+        assertThat(description, containsString("p99Millis=29.0"));
+        assertThat(description, containsString("circuitBreaker=CLOSED"));
+        assertThat(description, not(containsString("latencySamples")));
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
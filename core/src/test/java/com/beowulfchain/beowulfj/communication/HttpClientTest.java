@@ -0,0 +1,136 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test the connection handling of the {@link HttpClient}.
+ */
+public class HttpClientTest {
+    private HttpServer server;
+    private Set<Integer> clientPorts;
+    private List<String> requestEncodings;
+
+    @Before
+    public void startServer() throws Exception {
+        clientPorts = ConcurrentHashMap.newKeySet();
+        requestEncodings = new CopyOnWriteArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            requestEncodings.add(String.valueOf(exchange.getRequestHeaders().getFirst("Content-Encoding")));
+            try (GZIPInputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                IOUtils.toByteArray(in);
+            }
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = new GZIPOutputStream(exchange.getResponseBody())) {
+                body.write("{\"jsonrpc\":\"2.0\",\"result\":2,\"id\":1}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            IOUtils.toByteArray(exchange.getRequestBody());
+
+            byte[] response = "{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that subsequent requests reuse the same kept-alive connection
+     * instead of opening a new one per request.
+     */
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/rpc");
+        HttpClient httpClient = new HttpClient();
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                JsonRPCResponse response = httpClient.invokeAndReadResponse(
+                        new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null), endpoint,
+                        false);
+                assertThat(response.getRawJsonResponse().get("result").asInt(), equalTo(1));
+            }
+        } finally {
+            httpClient.closeConnection();
+        }
+
+        assertThat(clientPorts.size(), equalTo(1));
+    }
+
+    /**
+     * Test that request bodies above the threshold are gzip encoded and that
+     * gzip encoded responses are decoded.
+     */
+    @Test
+    public void testPayloadsAreCompressed() throws Exception {
+        BeowulfJConfig.getNewInstance().setCompressionEnabled(true);
+        BeowulfJConfig.getInstance().setCompressionThreshold(0);
+
+        URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/gzip");
+        HttpClient httpClient = new HttpClient();
+
+        try {
+            JsonRPCResponse response = httpClient.invokeAndReadResponse(
+                    new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null), endpoint, false);
+            assertThat(response.getRawJsonResponse().get("result").asInt(), equalTo(2));
+        } finally {
+            httpClient.closeConnection();
+        }
+
+        assertThat(requestEncodings, equalTo(Collections.singletonList("gzip")));
+    }
+}
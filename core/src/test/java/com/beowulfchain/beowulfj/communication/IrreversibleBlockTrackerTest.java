@@ -0,0 +1,51 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test the {@link IrreversibleBlockTracker}.
+ */
+public class IrreversibleBlockTrackerTest {
+    private long now;
+
+    /**
+     * Test that blocks only become irreversible once the last irreversible
+     * block passed them.
+     */
+    @Test
+    public void testIrreversibility() {
+        IrreversibleBlockTracker tracker = new IrreversibleBlockTracker(() -> now);
+        assertThat(tracker.isLastIrreversibleBlockNumberOutdated(), equalTo(true));
+
+        tracker.recordLastIrreversibleBlockNumber(100);
+        tracker.recordLastIrreversibleBlockNumber(90);
+
+        assertThat(tracker.getLastIrreversibleBlockNumber(), equalTo(100L));
+        assertThat(tracker.isIrreversible(100), equalTo(true));
+        assertThat(tracker.isIrreversible(101), equalTo(false));
+        assertThat(tracker.isIrreversible(0), equalTo(false));
+        assertThat(tracker.isLastIrreversibleBlockNumberOutdated(), equalTo(false));
+
+        now += 3001;
+        assertThat(tracker.isLastIrreversibleBlockNumberOutdated(), equalTo(true));
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.plugins.apis.condenser.CondenserApi;
+import com.beowulfchain.beowulfj.protocol.BlockHeader;
+import com.fasterxml.jackson.databind.JavaType;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test the {@link IrreversibleCache} and its use by the
+ * {@link CommunicationHandler}.
+ */
+public class IrreversibleCacheTest {
+    private static final String PREVIOUS = "0000003100000000000000000000000000000000";
+
+    private HttpServer server;
+    private AtomicInteger numberOfRequests;
+
+    @Before
+    public void setUp() throws Exception {
+        numberOfRequests = new AtomicInteger();
+        Pattern idPattern = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            numberOfRequests.incrementAndGet();
+            String request = new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            Matcher matcher = idPattern.matcher(request);
+            String id = matcher.find() ? matcher.group(1) : "0";
+
+            String result = request.contains("get_dynamic_global_properties")
+                    ? "{\"head_block_number\":120,\"last_irreversible_block_num\":100}"
+                    : "{\"previous\":\"" + PREVIOUS + "\",\"timestamp\":\"2026-10-18T12:00:00\","
+                    + "\"supernode\":\"alice\",\"extensions\":[]}";
+            byte[] body = ("{\"jsonrpc\":\"2.0\",\"result\":" + result + ",\"id\":" + id + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"), false));
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+        config.setIrreversibleCacheSize(10);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that the data of irreversible blocks is only fetched once.
+     */
+    @Test
+    public void testIrreversibleResultsAreCached() throws Exception {
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        BlockHeader first = CondenserApi.getBlockHeader(communicationHandler, 50);
+        BlockHeader second = CondenserApi.getBlockHeader(communicationHandler, 50);
+        BlockHeader third = CondenserApi.getBlockHeaderAsync(communicationHandler, 50).get();
+
+        // The header and the last irreversible block.
+        assertThat(numberOfRequests.get(), equalTo(2));
+        assertThat(second.getPrevious().getNumberFromHash(), equalTo(first.getPrevious().getNumberFromHash()));
+        assertThat(third, equalTo(second));
+    }
+
+    /**
+     * Test that the data of blocks that may still be reverted is not cached.
+     */
+    @Test
+    public void testReversibleResultsAreNotCached() throws Exception {
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        CondenserApi.getBlockHeader(communicationHandler, 110);
+        CondenserApi.getBlockHeader(communicationHandler, 110);
+
+        // The last irreversible block is not fetched again for the second
+        // header, as it is still up to date.
+        assertThat(numberOfRequests.get(), equalTo(3));
+        assertThat(communicationHandler.getIrreversibleCache().getOnHeapSize(), equalTo(0));
+    }
+
+    /**
+     * Test that the cache is disabled by default.
+     */
+    @Test
+    public void testCacheIsDisabledByDefault() throws Exception {
+        BeowulfJConfig.getInstance().setIrreversibleCacheSize(0);
+
+        assertThat(new CommunicationHandler().getIrreversibleCache(), nullValue());
+    }
+
+    /**
+     * Test that results evicted from the heap are still found off the heap.
+     */
+    @Test
+    public void testEvictedResultsAreFoundOffHeap() throws Exception {
+        IrreversibleCache cache = new IrreversibleCache(1, 1024);
+        JavaType resultType = CommunicationHandler.getObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, Integer.class);
+
+        cache.put("a", "[1]".getBytes(StandardCharsets.UTF_8), Collections.singletonList(1));
+        cache.put("b", "[2]".getBytes(StandardCharsets.UTF_8), Collections.singletonList(2));
+
+        assertThat(cache.getOnHeapSize(), equalTo(1));
+        assertThat(cache.getOffHeapSize(), equalTo(6L));
+        assertThat(cache.<Integer>get("a", resultType), equalTo(Collections.singletonList(1)));
+        assertThat(cache.<Integer>get("c", resultType), nullValue());
+    }
+
+    /**
+     * Test that the least recently used results are evicted once the off-heap
+     * store is full.
+     */
+    @Test
+    public void testOffHeapStoreEvictsLeastRecentlyUsed() {
+        OffHeapStore store = new OffHeapStore(10);
+
+        store.put("a", new byte[4]);
+        store.put("b", new byte[4]);
+        store.get("a");
+        store.put("c", new byte[4]);
+        store.put("d", new byte[11]);
+
+        assertThat(store.size(), equalTo(8L));
+        assertThat(store.get("a").length, equalTo(4));
+        assertThat(store.get("b"), nullValue());
+        assertThat(store.get("d"), nullValue());
+    }
+
+    /**
+     * Test that values spanning several chunks are kept intact while the
+     * chunks of evicted values are reused.
+     */
+    @Test
+    public void testOffHeapStoreReusesChunks() {
+        OffHeapStore store = new OffHeapStore(16, 4);
+
+        for (int i = 0; i < 10; i++) {
+            byte[] value = new byte[5 + i % 4];
+            Arrays.fill(value, (byte) i);
+            store.put("v" + i, value);
+        }
+
+        assertThat(store.get("v9"), equalTo(new byte[]{9, 9, 9, 9, 9, 9}));
+        assertThat(store.get("v8"), equalTo(new byte[]{8, 8, 8, 8, 8}));
+        assertThat(store.get("v7"), nullValue());
+        assertThat(store.size(), equalTo(11L));
+
+        store.put("v8", new byte[0]);
+        assertThat(store.get("v8").length, equalTo(0));
+        store.clear();
+        assertThat(store.size(), equalTo(0L));
+        assertThat(store.get("v9"), nullValue());
+    }
+}
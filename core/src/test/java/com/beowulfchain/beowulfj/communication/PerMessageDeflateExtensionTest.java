@@ -0,0 +1,153 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Test the {@link PerMessageDeflateExtension}.
+ */
+public class PerMessageDeflateExtensionTest {
+    private static final String BLOCK = "{\"jsonrpc\":\"2.0\",\"result\":{\"transactions\":[{\"operations\":[],"
+            + "\"extensions\":[],\"signatures\":[]},{\"operations\":[],\"extensions\":[],\"signatures\":[]},"
+            + "{\"operations\":[],\"extensions\":[],\"signatures\":[]},{\"operations\":[],\"extensions\":[]}]},"
+            + "\"id\":1}";
+
+    private PerMessageDeflateExtension extension;
+    private ExtendedExtension.ExtensionContext clientContext;
+    private ExtendedExtension.ExtensionContext serverContext;
+
+    @Before
+    public void setUp() {
+        BeowulfJConfig.getNewInstance().setCompressionThreshold(100);
+        extension = new PerMessageDeflateExtension();
+        clientContext = createContext();
+        serverContext = createContext();
+    }
+
+    @After
+    public void tearDown() {
+        extension.destroy(clientContext);
+        extension.destroy(serverContext);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that large messages are compressed and can be decompressed again,
+     * also when the compression context is kept between messages.
+     */
+    @Test
+    public void testLargeMessagesAreCompressed() {
+        for (int i = 0; i < 3; i++) {
+            Frame compressed = extension.processOutgoing(clientContext, createFrame(BLOCK, (byte) 0x1, true));
+
+            assertThat(compressed.isRsv1(), equalTo(true));
+            assertThat(compressed.getPayloadLength(), lessThan((long) BLOCK.length()));
+
+            Frame decompressed = extension.processIncoming(serverContext, compressed);
+            assertThat(decompressed.isRsv1(), equalTo(false));
+            assertThat(new String(decompressed.getPayloadData(), StandardCharsets.UTF_8), equalTo(BLOCK));
+        }
+    }
+
+    /**
+     * Test that messages below the threshold are sent as they are.
+     */
+    @Test
+    public void testSmallMessagesAreNotCompressed() {
+        Frame frame = createFrame("{\"id\":1}", (byte) 0x1, true);
+
+        assertThat(extension.processOutgoing(clientContext, frame) == frame, equalTo(true));
+        assertThat(extension.processIncoming(serverContext, frame) == frame, equalTo(true));
+    }
+
+    /**
+     * Test that a compressed message split into several frames is
+     * decompressed.
+     */
+    @Test
+    public void testFragmentedMessagesAreDecompressed() {
+        byte[] compressed = extension.processOutgoing(clientContext, createFrame(BLOCK, (byte) 0x1, true))
+                .getPayloadData();
+        int half = compressed.length / 2;
+
+        Frame first = Frame.builder().opcode((byte) 0x1).fin(false).rsv1(true)
+                .payloadData(Arrays.copyOfRange(compressed, 0, half)).payloadLength(half).build();
+        Frame second = Frame.builder().opcode((byte) 0x0).fin(true)
+                .payloadData(Arrays.copyOfRange(compressed, half, compressed.length))
+                .payloadLength(compressed.length - half).build();
+
+        String message = new String(extension.processIncoming(serverContext, first).getPayloadData(),
+                StandardCharsets.UTF_8)
+                + new String(extension.processIncoming(serverContext, second).getPayloadData(),
+                StandardCharsets.UTF_8);
+        assertThat(message, equalTo(BLOCK));
+    }
+
+    /**
+     * Test that the compression context is reset for every message if the
+     * node asked for it.
+     */
+    @Test
+    public void testNoContextTakeover() {
+        extension.onHandshakeResponse(clientContext, Collections.singletonList(new TestParameter()));
+
+        byte[] first = extension.processOutgoing(clientContext, createFrame(BLOCK, (byte) 0x1, true))
+                .getPayloadData();
+        byte[] second = extension.processOutgoing(clientContext, createFrame(BLOCK, (byte) 0x1, true))
+                .getPayloadData();
+
+        assertThat(Arrays.equals(first, second), equalTo(true));
+    }
+
+    private static Frame createFrame(String payload, byte opcode, boolean fin) {
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        return Frame.builder().opcode(opcode).fin(fin).payloadData(data).payloadLength(data.length).build();
+    }
+
+    private static ExtendedExtension.ExtensionContext createContext() {
+        Map<String, Object> properties = new HashMap<>();
+        return () -> properties;
+    }
+
+    private static class TestParameter implements javax.websocket.Extension.Parameter {
+        @Override
+        public String getName() {
+            return "client_no_context_takeover";
+        }
+
+        @Override
+        public String getValue() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.enums.RequestPriority;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test the token bucket and the priority queues of the {@link RateLimiter}.
+ */
+public class RateLimiterTest {
+    /**
+     * Test that waiting requests are served in the order of their priority
+     * once new permits are available.
+     */
+    @Test
+    public void testWaitersAreServedByPriority() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter rateLimiter = new RateLimiter(10, 1, clock::get);
+
+        assertThat(rateLimiter.acquireAsync(RequestPriority.BULK, 1).isDone(), equalTo(true));
+
+        CompletableFuture<Void> bulk = rateLimiter.acquireAsync(RequestPriority.BULK, 1);
+        CompletableFuture<Void> normal = rateLimiter.acquireAsync(RequestPriority.NORMAL, 1);
+        CompletableFuture<Void> high = rateLimiter.acquireAsync(RequestPriority.HIGH, 1);
+        assertThat(bulk.isDone() || normal.isDone() || high.isDone(), equalTo(false));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        high.get(5, TimeUnit.SECONDS);
+        assertThat(bulk.isDone() || normal.isDone(), equalTo(false));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        normal.get(5, TimeUnit.SECONDS);
+        assertThat(bulk.isDone(), equalTo(false));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        bulk.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Test that a request never waits for more permits than the bucket can
+     * hold and that an unlimited limiter grants all requests immediately.
+     */
+    @Test
+    public void testPermitsAreCappedAtTheBurst() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter rateLimiter = new RateLimiter(1, 5, clock::get);
+        assertThat(rateLimiter.acquireAsync(RequestPriority.NORMAL, 50).isDone(), equalTo(true));
+        assertThat(rateLimiter.acquireAsync(RequestPriority.HIGH, 1).isDone(), equalTo(false));
+
+        RateLimiter unlimited = new RateLimiter(0, 1, clock::get);
+        for (int i = 0; i < 100; i++) {
+            assertThat(unlimited.acquireAsync(RequestPriority.BULK, 1).isDone(), equalTo(true));
+        }
+    }
+}
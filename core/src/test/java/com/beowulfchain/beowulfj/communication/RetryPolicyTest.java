@@ -0,0 +1,87 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Test the {@link RetryPolicy}.
+ */
+public class RetryPolicyTest {
+    /**
+     * Test that the retry budget is respected.
+     */
+    @Test
+    public void testRetryBudget() {
+        RetryPolicy retryPolicy = new RetryPolicy(2, 100, 1000);
+
+        assertThat(retryPolicy.canRetry(1), equalTo(true));
+        assertThat(retryPolicy.canRetry(2), equalTo(true));
+        assertThat(retryPolicy.canRetry(3), equalTo(false));
+        assertThat(new RetryPolicy(0, 0, 0).canRetry(1), equalTo(false));
+    }
+
+    /**
+     * Test that the backoff grows exponentially, but never exceeds the
+     * maximum.
+     */
+    @Test
+    public void testBackoffIsBounded() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.getBackoff(1), lessThanOrEqualTo(100L));
+            assertThat(retryPolicy.getBackoff(3), lessThanOrEqualTo(400L));
+            assertThat(retryPolicy.getBackoff(10), lessThanOrEqualTo(1000L));
+        }
+        assertThat(new RetryPolicy(3, 0, 0).getBackoff(3), equalTo(0L));
+    }
+
+    /**
+     * Test that only transport errors and temporary errors of the node are
+     * retried.
+     */
+    @Test
+    public void testOnlyTransientErrorsAreRetryable() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000);
+
+        assertThat(retryPolicy.isRetryable(new BeowulfCommunicationException("closed")), equalTo(true));
+        assertThat(retryPolicy.isRetryable(new BeowulfTimeoutException("timeout")), equalTo(true));
+        assertThat(retryPolicy.isRetryable(new BeowulfTransformationException("mapping")), equalTo(false));
+        assertThat(retryPolicy.isRetryable(new BeowulfResponseException(-32000, "error", null)), equalTo(false));
+        assertThat(retryPolicy.isRetryable(new BeowulfResponseException(-32000,
+                "Missing Active Authority alice", null)), equalTo(false));
+        assertThat(retryPolicy.isRetryable(new BeowulfResponseException(-32003,
+                "Unable to acquire database lock", null)), equalTo(true));
+    }
+
+    /**
+     * Test that invalid values are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBackoffIsRejected() {
+        new RetryPolicy(1, 1000, 100);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication;
+
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.junit.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test the request/response routing of the {@link WebsocketEndpoint}.
+ */
+public class WebsocketEndpointTest {
+    /**
+     * Test that responses are routed to their requests by id, even if they
+     * arrive in a different order than the requests have been sent.
+     */
+    @Test
+    public void testResponsesAreRoutedById() throws Exception {
+        WebsocketEndpoint websocketEndpoint = new WebsocketEndpoint();
+
+        CompletableFuture<TokenBuffer> first = websocketEndpoint.registerPendingRequest(1L);
+        CompletableFuture<TokenBuffer> second = websocketEndpoint.registerPendingRequest(-42L);
+
+        String secondResponse = "{\"jsonrpc\":\"2.0\",\"result\":{\"a\":[1,2]},\"id\":-42}";
+        String firstResponse = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"foo\"}";
+
+        websocketEndpoint.onMessage(new StringReader(secondResponse));
+        assertThat(first.isDone(), equalTo(false));
+        assertThat(toJson(second.get()), equalTo(secondResponse));
+
+        websocketEndpoint.onMessage(new StringReader(firstResponse));
+        assertThat(toJson(first.get()), equalTo(firstResponse));
+        assertThat(websocketEndpoint.getNumberOfPendingRequests(), equalTo(0));
+    }
+
+    /**
+     * Test that a batch response is routed to the pending batch, no matter
+     * which of its elements has been used to register it.
+     */
+    @Test
+    public void testBatchResponsesAreRoutedByAnyElementId() throws Exception {
+        WebsocketEndpoint websocketEndpoint = new WebsocketEndpoint();
+
+        CompletableFuture<TokenBuffer> batch = websocketEndpoint.registerPendingRequest(2L);
+
+        String batchResponse = "[{\"jsonrpc\":\"2.0\",\"result\":[{\"id\":5}],\"id\":3},"
+                + "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000},\"id\":2}]";
+
+        websocketEndpoint.onMessage(new StringReader(batchResponse));
+        assertThat(toJson(batch.get()), equalTo(batchResponse));
+        assertThat(websocketEndpoint.getNumberOfPendingRequests(), equalTo(0));
+    }
+
+    /**
+     * Test that messages without a matching pending request are ignored.
+     */
+    @Test
+    public void testUnexpectedMessagesAreIgnored() {
+        WebsocketEndpoint websocketEndpoint = new WebsocketEndpoint();
+
+        CompletableFuture<TokenBuffer> pending = websocketEndpoint.registerPendingRequest(7L);
+        websocketEndpoint.onMessage(new StringReader("{\"jsonrpc\":\"2.0\",\"id\":8,\"result\":null}"));
+        websocketEndpoint.onMessage(new StringReader("not json"));
+
+        assertThat(pending.isDone(), equalTo(false));
+        assertThat(websocketEndpoint.getNumberOfPendingRequests(), equalTo(1));
+    }
+
+    /**
+     * Test that notices are routed to their subscription in order, separately
+     * from the responses, and that the subscriptions end with the connection.
+     */
+    @Test
+    public void testNoticesAreRoutedToTheirSubscription() throws Exception {
+        WebsocketEndpoint websocketEndpoint = new WebsocketEndpoint();
+
+        BlockingQueue<Object> notices = new LinkedBlockingQueue<>();
+        Subscription<Integer> subscription = new Subscription<>(Integer.class, new NoticeListener<Integer>() {
+            @Override
+            public void onNotice(Integer notice) {
+                notices.add(notice);
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+                notices.add(cause);
+            }
+        });
+        websocketEndpoint.registerSubscription(subscription);
+        CompletableFuture<TokenBuffer> pending = websocketEndpoint.registerPendingRequest(9L);
+
+        for (int i = 0; i < 20; i++) {
+            websocketEndpoint.onMessage(new StringReader("{\"method\":\"notice\",\"params\":["
+                    + subscription.getCallbackId() + ",[" + i + "]]}"));
+        }
+        websocketEndpoint.onMessage(new StringReader("{\"method\":\"notice\",\"params\":["
+                + (subscription.getCallbackId() + 1) + ",[99]]}"));
+        for (int i = 0; i < 20; i++) {
+            assertThat(notices.poll(5, TimeUnit.SECONDS), equalTo((Object) i));
+        }
+        assertThat(pending.isDone(), equalTo(false));
+
+        websocketEndpoint.onClose(null, new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Restart"));
+        assertThat(notices.poll(5, TimeUnit.SECONDS), instanceOf(BeowulfCommunicationException.class));
+        assertThat(subscription.isActive(), equalTo(false));
+        assertThat(pending.isCompletedExceptionally(), equalTo(true));
+    }
+
+    /**
+     * Test that the end of a session the connection does not use anymore
+     * does not affect its requests, and that a session that is reopened
+     * after the client closed the connection is closed right away.
+     */
+    @Test
+    public void testCallbacksOfOtherSessionsAreIgnored() throws Exception {
+        WebsocketEndpoint websocketEndpoint = new WebsocketEndpoint();
+        List<String> closedSessions = new ArrayList<>();
+
+        Session current = newSession("current", closedSessions);
+        websocketEndpoint.onOpen(current, null);
+        CompletableFuture<TokenBuffer> pending = websocketEndpoint.registerPendingRequest(1L);
+
+        websocketEndpoint.onClose(newSession("stale", closedSessions),
+                new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Restart"));
+        assertThat(pending.isDone(), equalTo(false));
+
+        websocketEndpoint.close();
+        websocketEndpoint.onOpen(newSession("reopened", closedSessions), null);
+        assertThat(websocketEndpoint.getSession(), sameInstance(current));
+        assertThat(closedSessions, equalTo(Arrays.asList("current", "reopened")));
+
+        websocketEndpoint.onClose(current, new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, ""));
+        assertThat(pending.isCompletedExceptionally(), equalTo(true));
+    }
+
+    /**
+     * @param name           The name of the session.
+     * @param closedSessions The list the name is added to once the session
+     *                       has been closed.
+     * @return A session that is open and does nothing else.
+     */
+    private static Session newSession(String name, List<String> closedSessions) {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "isOpen":
+                            return true;
+                        case "close":
+                            closedSessions.add(name);
+                            return null;
+                        case "equals":
+                            return proxy == arguments[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return name;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * @param message The tokens of a message.
+     * @return The JSON of the message.
+     */
+    private static String toJson(TokenBuffer message) throws Exception {
+        return CommunicationHandler.getObjectMapper().writeValueAsString(message);
+    }
+}
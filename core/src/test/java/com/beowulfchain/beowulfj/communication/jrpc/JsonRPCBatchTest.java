@@ -0,0 +1,105 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.jrpc;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the {@link JsonRPCBatchRequest} and {@link JsonRPCBatchResponse}
+ * classes.
+ */
+public class JsonRPCBatchTest {
+    /**
+     * Test that a batch is serialized as an array of requests.
+     */
+    @Test
+    public void testBatchRequestSerialization() throws Exception {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        JsonRPCRequest first = batchRequest.add(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_BLOCK, Arrays.asList(1L)));
+        JsonRPCRequest second = batchRequest.add(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_CONFIG, null));
+
+        JsonNode json = CommunicationHandler.getObjectMapper().readTree(batchRequest.toJson());
+
+        assertThat(json.isArray(), equalTo(true));
+        assertThat(json.size(), equalTo(2));
+        assertThat(json.get(0).get("id").asLong(), equalTo(first.getId()));
+        assertThat(json.get(1).get("method").asText(), equalTo("condenser_api.get_config"));
+        assertThat(batchRequest.getId(), equalTo(first.getId()));
+        assertThat(second.getId() == first.getId(), equalTo(false));
+    }
+
+    /**
+     * Test that the elements of a batch response are routed to their requests
+     * by id and that errors only affect the request they belong to.
+     */
+    @Test
+    public void testBatchResponseRoutesResultsAndErrorsById() throws Exception {
+        JsonRPCRequest first = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK, null);
+        JsonRPCRequest second = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK, null);
+        JsonRPCRequest third = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK, null);
+
+        // The node may answer in a different order.
+        String response = "[{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000,\"message\":\"boom\"},\"id\":"
+                + second.getId() + "},{\"jsonrpc\":\"2.0\",\"result\":42,\"id\":" + first.getId() + "}]";
+
+        JsonRPCBatchResponse batchResponse = new JsonRPCBatchResponse(
+                CommunicationHandler.getObjectMapper().readTree(response));
+
+        assertThat(batchResponse.size(), equalTo(2));
+        assertThat(batchResponse.isError(first), equalTo(false));
+        assertThat(batchResponse.getResult(first, Integer.class).get(0), equalTo(42));
+
+        assertThat(batchResponse.isError(second), equalTo(true));
+        try {
+            batchResponse.getResult(second, Integer.class);
+            fail("The error of the second request has not been surfaced.");
+        } catch (BeowulfResponseException e) {
+            assertThat(e.getCode(), equalTo(-32000));
+            assertThat(e.getMessage(), equalTo("boom"));
+        }
+
+        try {
+            batchResponse.getResult(third, Integer.class);
+            fail("A missing answer has not been detected.");
+        } catch (BeowulfCommunicationException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test that a response which is not an array is rejected.
+     */
+    @Test(expected = BeowulfResponseException.class)
+    public void testNonArrayBatchResponseIsRejected() throws Exception {
+        new JsonRPCBatchResponse(CommunicationHandler.getObjectMapper()
+                .readTree("{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32600},\"id\":null}"));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.jrpc;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.enums.ResponseErrorType;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTransformationException;
+import com.beowulfchain.beowulfj.plugins.apis.database.models.DynamicGlobalProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the streaming decoding of the {@link JsonRPCResponse} class.
+ */
+public class JsonRPCResponseTest {
+    /**
+     * Test that the result is bound to the requested type while reading,
+     * independent of the position of the id.
+     */
+    @Test
+    public void testResultIsBoundWhileReading() throws Exception {
+        JsonRPCResponse response = read("{\"jsonrpc\":\"2.0\",\"result\":{\"head_block_number\":42},\"id\":7}",
+                DynamicGlobalProperty.class);
+
+        assertThat(response.getRawJsonResponse().has(JsonRPCResponse.RESULT_FIELD_NAME), equalTo(false));
+        assertThat(response.isError(), equalTo(false));
+
+        List<DynamicGlobalProperty> result = response.handleResult(getType(DynamicGlobalProperty.class), 7);
+        assertThat(result.size(), equalTo(1));
+        assertThat(result.get(0).getHeadBlockNumber(), equalTo(42L));
+    }
+
+    /**
+     * Test that a <code>null</code> result and errors are handled like
+     * before.
+     */
+    @Test
+    public void testNullResultsAndErrors() throws Exception {
+        JsonRPCResponse response = read("{\"id\":3,\"jsonrpc\":\"2.0\",\"result\":null}", Object.class);
+        assertThat(response.handleResult(getType(Object.class), 3).size(), equalTo(0));
+
+        response = read("{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000,\"message\":\"Bad Cast\"},\"id\":3}",
+                Object.class);
+        assertThat(response.isError(), equalTo(true));
+        assertThat(response.handleError(3).getMessage(), equalTo("Bad Cast"));
+        assertThat(response.handleError(3).getCode(), equalTo(-32000));
+    }
+
+    /**
+     * Test that the kind of an error is derived from the error object of the
+     * node.
+     */
+    @Test
+    public void testErrorsAreClassified() throws Exception {
+        assertThat(getErrorType("{\"code\":-32000,\"message\":\"Bad Cast\"}"), equalTo(ResponseErrorType.UNKNOWN));
+        assertThat(getErrorType("{\"code\":-32602,\"message\":\"Invalid params\"}"),
+                equalTo(ResponseErrorType.INVALID_REQUEST));
+        assertThat(getErrorType("{\"code\":-32000,\"message\":\"Assert Exception\",\"data\":{\"code\":10,"
+                        + "\"name\":\"assert_exception\",\"message\":\"Assert Exception\",\"stack\":[{\"format\":"
+                        + "\"_is_producing || !is_known_transaction( trx_id ): Duplicate transaction check failed\"}]}}"),
+                equalTo(ResponseErrorType.DUPLICATE_TRANSACTION));
+        assertThat(getErrorType("{\"code\":-32000,\"message\":\"Assert Exception\",\"data\":{\"stack\":["
+                        + "{\"format\":\"now < trx.expiration: \"}]}}"),
+                equalTo(ResponseErrorType.EXPIRED_TRANSACTION));
+        assertThat(getErrorType("{\"code\":-32000,\"message\":\"Missing Active Authority alice\","
+                + "\"data\":{\"name\":\"tx_missing_active_auth\"}}"), equalTo(ResponseErrorType.MISSING_AUTHORITY));
+        assertThat(getErrorType("{\"code\":-32000,\"message\":\"Assert Exception:_db.get_balance( from_account, "
+                        + "o.amount.symbol ) >= o.amount: Account does not have sufficient funds for transfer.\"}"),
+                equalTo(ResponseErrorType.INSUFFICIENT_BALANCE));
+        assertThat(getErrorType("{\"code\":-32000,\"message\":\"Assert Exception:false: Unknown block 42\"}"),
+                equalTo(ResponseErrorType.ASSERTION_FAILED));
+        assertThat(getErrorType("{\"code\":-32003,\"message\":\"Unable to acquire database lock\"}"),
+                equalTo(ResponseErrorType.TEMPORARY_FAILURE));
+        assertThat(getErrorType("{\"code\":-32603,\"message\":\"Internal Error\"}"),
+                equalTo(ResponseErrorType.TEMPORARY_FAILURE));
+    }
+
+    /**
+     * Test that a result which does not match the requested type causes a
+     * transformation exception instead of a communication problem.
+     */
+    @Test
+    public void testMismatchingResultCausesTransformationException() throws Exception {
+        try {
+            read("{\"jsonrpc\":\"2.0\",\"result\":{\"head_block_number\":\"abc\"},\"id\":1}",
+                    DynamicGlobalProperty.class);
+            fail("The result should not be transformable.");
+        } catch (BeowulfTransformationException e) {
+            assertThat(e.getCause() == null, equalTo(false));
+        }
+    }
+
+    /**
+     * Test that the result is kept as JSON if no type is requested.
+     */
+    @Test
+    public void testResultIsKeptWithoutType() throws Exception {
+        JsonRPCResponse response = read("{\"jsonrpc\":\"2.0\",\"result\":[1,2],\"id\":1}", null);
+
+        assertThat(response.getRawJsonResponse().get(JsonRPCResponse.RESULT_FIELD_NAME).size(), equalTo(2));
+        assertThat(response.handleResult(getType(Integer.class), 1).get(1), equalTo(2));
+        assertThat(read("", null).getRawJsonResponse().isMissingNode(), equalTo(true));
+        assertThat(read("[]", Object.class).getRawJsonResponse().isArray(), equalTo(true));
+        assertThat(response.getRawJsonResponse().get("error"), nullValue());
+    }
+
+    /**
+     * Test that a result requested as {@link RawResultList} keeps the JSON it
+     * has been read from, whether it is bound while reading or afterwards.
+     */
+    @Test
+    public void testRawResultIsKept() throws Exception {
+        String json = "{\"jsonrpc\":\"2.0\",\"result\":[1,2],\"id\":1}";
+        JavaType rawResultType = CommunicationHandler.getObjectMapper().getTypeFactory()
+                .constructCollectionType(RawResultList.class, Integer.class);
+
+        List<Integer> result;
+        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(json)) {
+            result = JsonRPCResponse.read(parser, rawResultType).handleResult(rawResultType, 1);
+        }
+        assertThat(result, equalTo(Arrays.asList(1, 2)));
+        assertThat(new String(((RawResultList<Integer>) result).getRawResult(), StandardCharsets.UTF_8),
+                equalTo("[1,2]"));
+
+        result = read(json, null).handleResult(rawResultType, 1);
+        assertThat(result, equalTo(Arrays.asList(1, 2)));
+        assertThat(new String(((RawResultList<Integer>) result).getRawResult(), StandardCharsets.UTF_8),
+                equalTo("[1,2]"));
+    }
+
+    private static JsonRPCResponse read(String json, Class<?> targetClass) throws Exception {
+        try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(json)) {
+            return JsonRPCResponse.read(parser, targetClass == null ? null : getType(targetClass));
+        }
+    }
+
+    private static ResponseErrorType getErrorType(String error) throws Exception {
+        return read("{\"jsonrpc\":\"2.0\",\"error\":" + error + ",\"id\":1}", Object.class).handleError(1)
+                .getErrorType();
+    }
+
+    private static JavaType getType(Class<?> targetClass) {
+        return CommunicationHandler.getObjectMapper().getTypeFactory().constructCollectionType(List.class,
+                targetClass);
+    }
+}
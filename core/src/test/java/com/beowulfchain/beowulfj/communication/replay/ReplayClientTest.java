@@ -0,0 +1,261 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.replay;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.DefaultClientProvider;
+import com.beowulfchain.beowulfj.communication.RetryPolicy;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the {@link RecordingClient} and the {@link ReplayClient}.
+ */
+public class ReplayClientTest {
+    private HttpServer server;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("beowulfj-traffic", ".bjtr");
+        file.delete();
+
+        // Answers every request with its parameters, except get_config,
+        // which fails.
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            JsonNode request = CommunicationHandler.getObjectMapper().readTree(exchange.getRequestBody());
+            if (request.path("method").asText().endsWith("get_config")) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+
+            List<JsonNode> responses = new ArrayList<>();
+            for (JsonNode element : request.isArray() ? request : Collections.singletonList(request)) {
+                ObjectNode response = CommunicationHandler.getObjectMapper().createObjectNode();
+                response.put("jsonrpc", "2.0");
+                response.set("result", element.get("params"));
+                response.set("id", element.get("id"));
+                responses.add(response);
+            }
+
+            byte[] body = CommunicationHandler.getObjectMapper().writeValueAsBytes(request.isArray()
+                    ? responses : responses.get(0));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        endpoints.add(new ImmutablePair<>(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"), false));
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setRetryPolicy(new RetryPolicy(0, 1, 1));
+        config.setEndpointProbeInterval(0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        file.delete();
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that recorded responses, batches and failures are replayed for
+     * requests with new ids and without a node.
+     */
+    @Test
+    public void testRecordedTrafficIsReplayedWithoutNode() throws Exception {
+        try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+            BeowulfJConfig.getInstance().setClientProvider(
+                    new RecordingClientProvider(new DefaultClientProvider(), recorder));
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            assertThat(getBlock(communicationHandler, 1), equalTo(1L));
+            assertThat(getBlock(communicationHandler, 2), equalTo(2L));
+            communicationHandler.performBatchRequest(createBatch());
+            try {
+                getConfig(communicationHandler);
+                fail("The request should have failed.");
+            } catch (BeowulfCommunicationException e) {
+                // Expected.
+            }
+        }
+
+        server.stop(0);
+        try (ReplayClientProvider replayClientProvider = new ReplayClientProvider(file, Double.POSITIVE_INFINITY)) {
+            assertThat(replayClientProvider.getNumberOfRecords(), equalTo(4));
+            BeowulfJConfig.getInstance().setClientProvider(replayClientProvider);
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            assertThat(getBlock(communicationHandler, 2), equalTo(2L));
+            assertThat(getBlock(communicationHandler, 1), equalTo(1L));
+            // Unknown parameters are answered with the oldest record of the method.
+            assertThat(getBlock(communicationHandler, 3), equalTo(1L));
+            assertThat(communicationHandler.performRequestAsync(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_BLOCK, Collections.singletonList(1L)), Long.class).get().get(0), equalTo(1L));
+
+            JsonRPCBatchRequest batchRequest = createBatch();
+            JsonRPCBatchResponse batchResponse = communicationHandler.performBatchRequest(batchRequest);
+            assertThat(batchResponse.getResult(batchRequest.getRequests().get(1), Long.class).get(0), equalTo(6L));
+
+            try {
+                getConfig(communicationHandler);
+                fail("The recorded failure has not been replayed.");
+            } catch (BeowulfCommunicationException e) {
+                // Expected.
+            }
+        }
+    }
+
+    /**
+     * Test that the records can be read and turned into requests again and
+     * that an incomplete last record is skipped.
+     */
+    @Test
+    public void testRecordsCanBeReadAndResent() throws Exception {
+        try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+            BeowulfJConfig.getInstance().setClientProvider(
+                    new RecordingClientProvider(new DefaultClientProvider(), recorder));
+            getBlock(new CommunicationHandler(), 7);
+        }
+
+        // Simulate a process that has been killed while writing.
+        try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+            outputStream.write(new byte[]{0, 0, 0});
+        }
+
+        try (TrafficReader reader = new TrafficReader(file)) {
+            TrafficRecord record = reader.next();
+            assertThat(record.getOutcome(), equalTo(TrafficRecord.Outcome.RESPONSE));
+            assertThat(record.isBatch(), equalTo(false));
+            assertThat(record.getResponse(), equalTo("{\"jsonrpc\":\"2.0\",\"result\":[7]}"));
+
+            JsonRPCRequest request = record.toRequests().get(0);
+            assertThat(request.getRequestMethod(), equalTo(RequestMethod.GET_BLOCK));
+            assertThat(request.getMethod(), equalTo("condenser_api.get_block"));
+            assertThat(reader.next(), nullValue());
+        }
+    }
+
+    /**
+     * Test that a response timeout of <code>0</code> lets replayed requests
+     * wait for their recorded duration instead of failing immediately.
+     */
+    @Test
+    public void testResponseTimeoutZeroWaitsForever() throws Exception {
+        try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+            BeowulfJConfig.getInstance().setClientProvider(
+                    new RecordingClientProvider(new DefaultClientProvider(), recorder));
+            getBlock(new CommunicationHandler(), 7);
+        }
+
+        server.stop(0);
+        BeowulfJConfig.getInstance().setResponseTimeout(0);
+        try (ReplayClientProvider replayClientProvider = new ReplayClientProvider(file, 1)) {
+            BeowulfJConfig.getInstance().setClientProvider(replayClientProvider);
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+
+            assertThat(getBlock(communicationHandler, 7), equalTo(7L));
+            assertThat(communicationHandler.performRequestAsync(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_BLOCK, Collections.singletonList(7L)), Long.class).get().get(0), equalTo(7L));
+        }
+    }
+
+    /**
+     * Test that the index reads each record from its own position in the
+     * file and skips an incomplete last record.
+     */
+    @Test
+    public void testRecordsAreReadFromTheirPosition() throws Exception {
+        try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+            BeowulfJConfig.getInstance().setClientProvider(
+                    new RecordingClientProvider(new DefaultClientProvider(), recorder));
+            CommunicationHandler communicationHandler = new CommunicationHandler();
+            for (long blockNumber = 1; blockNumber <= 3; blockNumber++) {
+                getBlock(communicationHandler, blockNumber);
+            }
+        }
+
+        try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+            outputStream.write(new byte[]{0, 0, 0});
+        }
+
+        try (ReplayIndex index = new ReplayIndex(file)) {
+            assertThat(index.size(), equalTo(3));
+            for (long blockNumber = 3; blockNumber >= 1; blockNumber--) {
+                JsonNode request = CommunicationHandler.getObjectMapper().readTree(new JsonRPCRequest(
+                        BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
+                        Collections.singletonList(blockNumber)).toJson());
+                assertThat(index.find(request).getResponse(),
+                        equalTo("{\"jsonrpc\":\"2.0\",\"result\":[" + blockNumber + "]}"));
+            }
+        }
+    }
+
+    private static long getBlock(CommunicationHandler communicationHandler, long blockNumber) throws Exception {
+        return communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_BLOCK, Collections.singletonList(blockNumber)), Long.class).get(0);
+    }
+
+    private static void getConfig(CommunicationHandler communicationHandler) throws Exception {
+        communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_CONFIG, null), Object.class);
+    }
+
+    private static JsonRPCBatchRequest createBatch() {
+        JsonRPCBatchRequest batchRequest = new JsonRPCBatchRequest();
+        batchRequest.add(new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
+                Collections.singletonList(5L)));
+        batchRequest.add(new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_BLOCK,
+                Collections.singletonList(6L)));
+        return batchRequest;
+    }
+}
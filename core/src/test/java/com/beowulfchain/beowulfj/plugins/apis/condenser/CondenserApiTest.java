@@ -0,0 +1,169 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.plugins.apis.condenser;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.plugins.apis.condenser.models.ExtendedDynamicGlobalProperties;
+import com.beowulfchain.beowulfj.plugins.apis.database.DatabaseApi;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the asynchronous variants of the {@link CondenserApi} and
+ * {@link DatabaseApi} methods against a local server.
+ */
+public class CondenserApiTest {
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+
+    private HttpServer server;
+    private volatile String result;
+    private volatile CountDownLatch answerAllowed;
+
+    @Before
+    public void setUp() throws Exception {
+        result = "\"result\":{\"head_block_number\":42}";
+        answerAllowed = new CountDownLatch(0);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String request = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+            Matcher id = ID_PATTERN.matcher(request);
+            try {
+                answerAllowed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] body = ("{\"jsonrpc\":\"2.0\"," + result + ",\"id\":" + (id.find() ? id.group(1) : "0") + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(Collections.singletonList(new ImmutablePair<>(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"), false)));
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that the asynchronous variants return the same result as their
+     * blocking counterparts.
+     */
+    @Test
+    public void testAsyncRequestReturnsResult() throws Exception {
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            ExtendedDynamicGlobalProperties properties = CondenserApi
+                    .getDynamicGlobalPropertiesAsync(communicationHandler).get(5, TimeUnit.SECONDS);
+
+            assertThat(properties.getHeadBlockNumber(), equalTo(
+                    CondenserApi.getDynamicGlobalProperties(communicationHandler).getHeadBlockNumber()));
+            assertThat(properties.getHeadBlockNumber(), equalTo(42L));
+            assertThat(DatabaseApi.getDynamicGlobalPropertiesAsync(communicationHandler).get(5, TimeUnit.SECONDS)
+                    .getHeadBlockNumber(), equalTo(42L));
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * Test that an error returned by the node completes the future
+     * exceptionally with the exception the blocking variant would throw.
+     */
+    @Test
+    public void testAsyncRequestPropagatesError() throws Exception {
+        result = "\"error\":{\"code\":-32602,\"message\":\"Invalid parameters\"}";
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            CondenserApi.getDynamicGlobalPropertiesAsync(communicationHandler).get(5, TimeUnit.SECONDS);
+            fail("The future should have been completed exceptionally.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(BeowulfResponseException.class));
+            assertThat(((BeowulfResponseException) e.getCause()).getCode(), equalTo(-32602));
+        } finally {
+            communicationHandler.close();
+        }
+    }
+
+    /**
+     * Test that asynchronous requests run on the configured executor and do
+     * not block the calling thread until the node answered.
+     */
+    @Test
+    public void testAsyncRequestUsesConfiguredExecutor() throws Exception {
+        AtomicInteger executedTasks = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        BeowulfJConfig.getInstance().setAsyncExecutor(task -> {
+            executedTasks.incrementAndGet();
+            executor.execute(task);
+        });
+        answerAllowed = new CountDownLatch(1);
+
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+        try {
+            CompletableFuture<ExtendedDynamicGlobalProperties> properties = CondenserApi
+                    .getDynamicGlobalPropertiesAsync(communicationHandler);
+            assertThat(properties.isDone(), equalTo(false));
+
+            answerAllowed.countDown();
+            assertThat(properties.get(5, TimeUnit.SECONDS).getHeadBlockNumber(), equalTo(42L));
+            assertThat(executedTasks.get() > 0, equalTo(true));
+        } finally {
+            communicationHandler.close();
+            executor.shutdownNow();
+        }
+    }
+}
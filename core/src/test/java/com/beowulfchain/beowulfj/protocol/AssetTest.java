@@ -16,8 +16,11 @@
  */
 package com.beowulfchain.beowulfj.protocol;
 
+import com.beowulfchain.beowulfj.chain.smt.SmtTokenRegistry;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
 import com.beowulfchain.beowulfj.protocol.enums.AssetSymbolType;
 import eu.bittrade.crypto.core.CryptoUtils;
+import org.joou.UInteger;
 import org.junit.Test;
 
 import java.math.BigDecimal;
@@ -130,4 +133,24 @@ public class AssetTest {
             // Expected.
         }
     }
+
+    /**
+     * Test that assets of SMT tokens are deserialized without asking the
+     * node for their precision.
+     */
+    @Test
+    public void testTokenAssetIsDeserializedWithoutRequest() throws Exception {
+        Asset unknownToken = CommunicationHandler.getObjectMapper().readValue("\"1.500 XYZ\"", Asset.class);
+        assertThat(unknownToken.getPrecision().intValue(), equalTo(3));
+        assertThat(unknownToken.getAmount(), equalTo(1500L));
+
+        SmtTokenRegistry.getInstance().register(new AssetInfo("KNOWN", UInteger.valueOf(4)));
+        try {
+            Asset knownToken = CommunicationHandler.getObjectMapper().readValue("\"2.5 KNOWN\"", Asset.class);
+            assertThat(knownToken.getPrecision().intValue(), equalTo(4));
+            assertThat(knownToken.getAmount(), equalTo(25000L));
+        } finally {
+            SmtTokenRegistry.getInstance().clear();
+        }
+    }
 }
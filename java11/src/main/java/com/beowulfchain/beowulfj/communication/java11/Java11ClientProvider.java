@@ -0,0 +1,159 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.java11;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.ClientProvider;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+
+/**
+ * The {@link ClientProvider} for the transports based on the
+ * <code>java.net.http</code> module. It is discovered automatically as soon
+ * as this module is on the class path and takes precedence over the default
+ * transports of BeowulfJ.
+ * <p>
+ * All clients created by this provider share one {@link HttpClient}, so
+ * HTTP/2 connections are multiplexed and reused across endpoints and no
+ * additional thread pools are started. Asynchronous work is performed by
+ * the {@link CommunicationExecutors#getAsyncExecutor() async executor}.
+ */
+public class Java11ClientProvider implements ClientProvider {
+    /**
+     * The priority of this provider.
+     */
+    public static final int PRIORITY = 10;
+
+    /**
+     * The shared client for endpoints whose certificate should be validated.
+     */
+    private HttpClient httpClient;
+    /**
+     * The shared client for endpoints whose certificate should not be
+     * validated.
+     */
+    private HttpClient unvalidatedHttpClient;
+
+    @Override
+    public boolean supports(String scheme) {
+        return scheme.matches("(http){1}[s]?") || scheme.matches("(ws){1}[s]?");
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY;
+    }
+
+    @Override
+    public AbstractClient createClient(URI endpointUri) {
+        if (endpointUri.getScheme().toLowerCase().matches("(ws){1}[s]?")) {
+            return new Java11WebsocketClient(this);
+        }
+
+        return new Java11HttpClient(this);
+    }
+
+    /**
+     * Get the shared {@link HttpClient}.
+     * <p>
+     * If <code>sslVerificationDisabled</code> is set, the certificate of the
+     * endpoint is not validated. The <code>java.net.http</code> module only
+     * allows to disable the host name verification globally, using the
+     * <code>jdk.internal.httpclient.disableHostnameVerification</code> system
+     * property.
+     *
+     * @param sslVerificationDisabled Define if the SSL verification should be
+     *                                disabled.
+     * @return The client to use.
+     */
+    protected synchronized HttpClient getHttpClient(boolean sslVerificationDisabled) {
+        if (sslVerificationDisabled) {
+            if (unvalidatedHttpClient == null) {
+                unvalidatedHttpClient = createHttpClient(true);
+            }
+            return unvalidatedHttpClient;
+        }
+
+        if (httpClient == null) {
+            httpClient = createHttpClient(false);
+        }
+        return httpClient;
+    }
+
+    /**
+     * Create a new {@link HttpClient} that prefers HTTP/2.
+     *
+     * @param doNotValidateCertificate Define if the SSL verification should be
+     *                                 disabled.
+     * @return The new client.
+     */
+    private static HttpClient createHttpClient(boolean doNotValidateCertificate) {
+        HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2)
+                .executor(command -> CommunicationExecutors.getAsyncExecutor().execute(command));
+
+        int connectTimeout = BeowulfJConfig.getInstance().getIdleTimeout();
+        if (connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+
+        if (doNotValidateCertificate) {
+            builder.sslContext(createTrustAllContext());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return A SSL context that accepts any certificate.
+     */
+    private static SSLContext createTrustAllContext() {
+        TrustManager trustAllManager = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                // Trust everyone.
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                // Trust everyone.
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{trustAllManager}, new SecureRandom());
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create the SSL context.", e);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.java11;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.Deadline;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A client for <code>http</code> and <code>https</code> endpoints based on
+ * the {@link java.net.http.HttpClient}. It uses HTTP/2 if the node supports
+ * it and performs asynchronous requests without blocking a thread. Request
+ * bodies are gzip encoded if
+ * {@link BeowulfJConfig#isCompressionEnabled() compression} is enabled.
+ */
+public class Java11HttpClient extends AbstractClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Java11HttpClient.class);
+    private static final String GZIP = "gzip";
+
+    /**
+     * The provider that owns the shared {@link java.net.http.HttpClient}.
+     */
+    private final Java11ClientProvider clientProvider;
+
+    /**
+     * Create a new client.
+     *
+     * @param clientProvider The provider that owns the shared
+     *                       {@link java.net.http.HttpClient}.
+     */
+    public Java11HttpClient(Java11ClientProvider clientProvider) {
+        this.clientProvider = clientProvider;
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, null);
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException {
+        HttpResponse<InputStream> httpResponse = send(toJson(requestObject), requestObject.getDeadline(), endpointUri,
+                sslVerificationDisabled);
+
+        try (InputStream content = decode(httpResponse, httpResponse.body());
+             JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(content)) {
+            return JsonRPCResponse.read(parser, resultType);
+        } catch (IOException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    @Override
+    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                           boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        String requestPayload;
+        try {
+            requestPayload = batchRequest.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+
+        HttpResponse<InputStream> httpResponse = send(requestPayload, batchRequest.getDeadline(), endpointUri,
+                sslVerificationDisabled);
+
+        try (InputStream content = decode(httpResponse, httpResponse.body())) {
+            return new JsonRPCBatchResponse(CommunicationHandler.getObjectMapper().readTree(content));
+        } catch (IOException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+                                                                         URI endpointUri,
+                                                                         boolean sslVerificationDisabled,
+                                                                         @Nullable JavaType resultType) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = createRequest(toJson(requestObject), requestObject.getDeadline(), endpointUri);
+        } catch (BeowulfCommunicationException | IOException e) {
+            return CompletableFuture.failedFuture(translate(e));
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> pendingResponse = clientProvider
+                .getHttpClient(sslVerificationDisabled).sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<JsonRPCResponse> result = pendingResponse.handleAsync((httpResponse, throwable) -> {
+            try {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    throw translate(cause);
+                }
+
+                checkStatus(httpResponse.statusCode());
+                try (InputStream content = decode(httpResponse, new ByteArrayInputStream(httpResponse.body()));
+                     JsonParser parser = CommunicationHandler.getObjectMapper().getFactory().createParser(content)) {
+                    return JsonRPCResponse.read(parser, resultType);
+                } catch (IOException e) {
+                    throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+                }
+            } catch (BeowulfCommunicationException e) {
+                throw new CompletionException(e);
+            }
+        }, CommunicationExecutors.getAsyncExecutor());
+        // Abort the exchange if the caller cancelled the result.
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                pendingResponse.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The {@link java.net.http.HttpClient} has no ping, so a cheap request is
+     * sent instead, which opens a connection, including its TLS session, or
+     * keeps it from being closed as idle.
+     */
+    @Override
+    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_HARDFORK_VERSION, Collections.emptyList());
+        HttpResponse<InputStream> httpResponse = send(toJson(request), null, endpointUri, sslVerificationDisabled);
+
+        try (InputStream content = httpResponse.body()) {
+            content.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    @Override
+    public void closeConnection() {
+        // The connections are owned by the shared client of the provider,
+        // which closes them once they have been idle for too long.
+    }
+
+    /**
+     * Send the given payload and wait until the headers of the answer have
+     * been received.
+     *
+     * @param requestPayload          The JSON to send.
+     * @param deadline                The deadline of the request or <code>null</code>.
+     * @param endpointUri             The endpoint to send to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @return The answer, whose body can be read as a stream.
+     * @throws BeowulfCommunicationException In case of communication problems.
+     */
+    private HttpResponse<InputStream> send(String requestPayload, @Nullable Deadline deadline, URI endpointUri,
+                                           boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        try {
+            HttpResponse<InputStream> httpResponse = clientProvider.getHttpClient(sslVerificationDisabled)
+                    .send(createRequest(requestPayload, deadline, endpointUri),
+                            HttpResponse.BodyHandlers.ofInputStream());
+
+            if (httpResponse.statusCode() < 200 || httpResponse.statusCode() >= 300) {
+                // Release the connection before failing.
+                httpResponse.body().close();
+                checkStatus(httpResponse.statusCode());
+            }
+
+            return httpResponse;
+        } catch (IOException e) {
+            throw translate(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for a response.", e);
+        }
+    }
+
+    /**
+     * Create the request for the given payload, which is gzip encoded if
+     * {@link BeowulfJConfig#isCompressionEnabled() compression} is enabled
+     * and the payload is large enough.
+     *
+     * @param requestPayload The JSON to send.
+     * @param deadline       The deadline of the request or <code>null</code>.
+     * @param endpointUri    The endpoint to send to.
+     * @return The request.
+     * @throws IOException If the payload could not be compressed.
+     */
+    private static HttpRequest createRequest(String requestPayload, @Nullable Deadline deadline, URI endpointUri)
+            throws IOException {
+        LOGGER.debug("Sending {}.", requestPayload);
+
+        BeowulfJConfig config = BeowulfJConfig.getInstance();
+        byte[] payload = requestPayload.getBytes(StandardCharsets.UTF_8);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpointUri)
+                .header("Content-Type", "application/json")
+                .header("Accept-Encoding", GZIP);
+
+        if (config.isCompressionEnabled() && payload.length >= config.getCompressionThreshold()) {
+            ByteArrayOutputStream compressedPayload = new ByteArrayOutputStream(payload.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressedPayload)) {
+                out.write(payload);
+            }
+            builder.header("Content-Encoding", GZIP);
+            payload = compressedPayload.toByteArray();
+        }
+
+        builder.POST(HttpRequest.BodyPublishers.ofByteArray(payload));
+
+        int responseTimeout = getResponseTimeout(deadline);
+        if (responseTimeout > 0) {
+            builder.timeout(Duration.ofMillis(responseTimeout));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param httpResponse The response.
+     * @param content      The body of the response.
+     * @return The decompressed body if the node compressed it, the body
+     * itself otherwise.
+     * @throws IOException If the body could not be decompressed.
+     */
+    private static InputStream decode(HttpResponse<?> httpResponse, InputStream content) throws IOException {
+        boolean compressed = httpResponse.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.trim().equalsIgnoreCase(GZIP)).orElse(false);
+        return compressed ? new GZIPInputStream(content) : content;
+    }
+
+    /**
+     * @param requestObject The request to transform.
+     * @return The JSON representation of the request.
+     * @throws BeowulfCommunicationException If the request could not be transformed.
+     */
+    private static String toJson(JsonRPCRequest requestObject) throws BeowulfCommunicationException {
+        try {
+            return requestObject.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("A problem occured while processing the request.", e);
+        }
+    }
+
+    /**
+     * @param status The HTTP status returned by the node.
+     * @throws BeowulfCommunicationException If the status does not indicate a
+     *                                       successful request.
+     */
+    private static void checkStatus(int status) throws BeowulfCommunicationException {
+        if (status < 200 || status >= 300) {
+            throw new BeowulfCommunicationException("Unexpected response status: " + status);
+        }
+    }
+
+    /**
+     * @param cause The reason why a request failed.
+     * @return The exception to throw.
+     */
+    private static BeowulfCommunicationException translate(Throwable cause) {
+        if (cause instanceof BeowulfCommunicationException) {
+            return (BeowulfCommunicationException) cause;
+        } else if (cause instanceof HttpTimeoutException) {
+            return new BeowulfTimeoutException("Timeout occured. The node was not able to answer in time.", cause);
+        }
+
+        return new BeowulfCommunicationException("A problem occured while processing the request.", cause);
+    }
+}
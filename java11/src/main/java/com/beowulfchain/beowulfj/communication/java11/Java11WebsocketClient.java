@@ -0,0 +1,566 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.java11;
+
+import com.beowulfchain.beowulfj.communication.AbstractClient;
+import com.beowulfchain.beowulfj.communication.CommunicationExecutors;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.Subscription;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCBatchResponse;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.exceptions.BeowulfTimeoutException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A client for <code>ws</code> and <code>wss</code> endpoints based on the
+ * {@link WebSocket} of the <code>java.net.http</code> module. Requests are
+ * multiplexed over a single connection and matched with their responses by
+ * their id.
+ * <p>
+ * The {@link WebSocket} does not support extensions, so messages are never
+ * compressed, even if {@link BeowulfJConfig#isCompressionEnabled()
+ * compression} is enabled.
+ */
+public class Java11WebsocketClient extends AbstractClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Java11WebsocketClient.class);
+
+    /**
+     * The provider that owns the shared {@link java.net.http.HttpClient}.
+     */
+    private final Java11ClientProvider clientProvider;
+    /**
+     * The current connection or <code>null</code> if not connected.
+     */
+    private Connection connection;
+
+    /**
+     * Create a new client.
+     *
+     * @param clientProvider The provider that owns the shared
+     *                       {@link java.net.http.HttpClient}.
+     */
+    public Java11WebsocketClient(Java11ClientProvider clientProvider) {
+        this.clientProvider = clientProvider;
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return invokeAndReadResponse(requestObject, endpointUri, sslVerificationDisabled, null);
+    }
+
+    @Override
+    public JsonRPCResponse invokeAndReadResponse(JsonRPCRequest requestObject, URI endpointUri,
+                                                 boolean sslVerificationDisabled, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        return readResponse(await(connect(endpointUri, sslVerificationDisabled).send(requestObject.getId(),
+                toJson(requestObject), getResponseTimeout(requestObject.getDeadline()))), resultType);
+    }
+
+    @Override
+    public JsonRPCBatchResponse invokeAndReadBatchResponse(JsonRPCBatchRequest batchRequest, URI endpointUri,
+                                                           boolean sslVerificationDisabled)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        String request;
+        try {
+            request = batchRequest.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("Could not transform the request into JSON.", e);
+        }
+
+        // A batch response is routed by the id of any of its elements, so
+        // registering the batch under one id is enough.
+        TokenBuffer response = await(connect(endpointUri, sslVerificationDisabled).send(batchRequest.getId(),
+                request, getResponseTimeout(batchRequest.getDeadline())));
+        try (JsonParser parser = response.asParser()) {
+            return new JsonRPCBatchResponse(CommunicationHandler.getObjectMapper().readTree(parser));
+        } catch (IOException e) {
+            throw new BeowulfResponseException("Unable to parse the response.", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<JsonRPCResponse> invokeAndReadResponseAsync(JsonRPCRequest requestObject,
+                                                                         URI endpointUri,
+                                                                         boolean sslVerificationDisabled,
+                                                                         @Nullable JavaType resultType) {
+        String request;
+        try {
+            request = toJson(requestObject);
+        } catch (BeowulfCommunicationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<TokenBuffer> pendingResponse = connect(endpointUri, sslVerificationDisabled).send(
+                requestObject.getId(), request, getResponseTimeout(requestObject.getDeadline()));
+        CompletableFuture<JsonRPCResponse> result = pendingResponse.thenApply(response -> {
+            try {
+                return readResponse(response, resultType);
+            } catch (BeowulfCommunicationException | BeowulfResponseException e) {
+                throw new CompletionException(e);
+            }
+        });
+        // Drop the pending request if the caller cancelled the result.
+        result.whenComplete((response, throwable) -> pendingResponse.cancel(false));
+        return result;
+    }
+
+    @Override
+    public void subscribe(JsonRPCRequest requestObject, URI endpointUri, boolean sslVerificationDisabled,
+                          Subscription<?> subscription) throws BeowulfCommunicationException, BeowulfResponseException {
+        String request = toJson(requestObject);
+        Connection currentConnection = connect(endpointUri, sslVerificationDisabled);
+
+        // Register the subscription before sending the request, so the first
+        // notice can not overtake the registration.
+        currentConnection.subscriptions.put(subscription.getCallbackId(), subscription);
+        try {
+            JsonRPCResponse response = readResponse(await(currentConnection.send(requestObject.getId(), request,
+                    getResponseTimeout(requestObject.getDeadline()))), null);
+            if (response.isError()) {
+                throw response.handleError(requestObject.getId());
+            }
+        } catch (BeowulfCommunicationException | BeowulfResponseException | RuntimeException e) {
+            currentConnection.subscriptions.remove(subscription.getCallbackId(), subscription);
+            throw e;
+        }
+
+        subscription.setCancellation(() ->
+                currentConnection.subscriptions.remove(subscription.getCallbackId(), subscription));
+    }
+
+    @Override
+    public void warmUp(URI endpointUri, boolean sslVerificationDisabled) throws BeowulfCommunicationException {
+        // A ping keeps the idle connection from being closed by the node or
+        // by a proxy in between.
+        await(connect(endpointUri, sslVerificationDisabled).ping());
+    }
+
+    @Override
+    public void closeConnection() {
+        Connection currentConnection;
+        synchronized (this) {
+            currentConnection = connection;
+            connection = null;
+        }
+
+        if (currentConnection != null) {
+            currentConnection.close();
+        }
+    }
+
+    /**
+     * Get the connection to the given endpoint and establish it if needed. A
+     * connection that has been closed in either direction is replaced.
+     *
+     * @param endpointUri             The endpoint to connect to.
+     * @param sslVerificationDisabled Define if the SSL verification should be disabled.
+     * @return The connection, which may still be in the process of being
+     * established.
+     */
+    private Connection connect(URI endpointUri, boolean sslVerificationDisabled) {
+        Connection previousConnection;
+        Connection newConnection;
+        synchronized (this) {
+            if (connection != null && connection.endpointUri.equals(endpointUri) && connection.isUsable()) {
+                return connection;
+            }
+
+            LOGGER.info("Connecting to {}.", endpointUri);
+
+            WebSocket.Builder builder = clientProvider.getHttpClient(sslVerificationDisabled).newWebSocketBuilder();
+            int connectTimeout = BeowulfJConfig.getInstance().getIdleTimeout();
+            if (connectTimeout > 0) {
+                builder.connectTimeout(Duration.ofMillis(connectTimeout));
+            }
+
+            previousConnection = connection;
+            newConnection = new Connection(endpointUri);
+            newConnection.webSocket = builder.buildAsync(endpointUri, newConnection);
+            connection = newConnection;
+        }
+
+        newConnection.webSocket.whenComplete((webSocket, throwable) -> {
+            if (throwable != null) {
+                LOGGER.warn("Could not connect to {}.", endpointUri, throwable);
+                newConnection.fail(new BeowulfCommunicationException("Could not connect to " + endpointUri + ".",
+                        unwrap(throwable)));
+            } else {
+                LOGGER.info("Connection has been established.");
+            }
+        });
+        // The requests of the previous connection can not be answered on the
+        // new one.
+        if (previousConnection != null) {
+            previousConnection.close();
+        }
+
+        return newConnection;
+    }
+
+    /**
+     * Wait until the given request has been answered.
+     *
+     * @param pendingResponse The pending request.
+     * @param <T>             The type of the answer.
+     * @return The raw response.
+     * @throws BeowulfCommunicationException If the request failed.
+     */
+    private static <T> T await(CompletableFuture<T> pendingResponse) throws BeowulfCommunicationException {
+        try {
+            // The response timeout is enforced by the pending request itself.
+            return pendingResponse.get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof BeowulfCommunicationException) {
+                throw (BeowulfCommunicationException) cause;
+            }
+            throw new BeowulfCommunicationException("The request could not be completed.", cause);
+        } catch (InterruptedException e) {
+            pendingResponse.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BeowulfCommunicationException("Interrupted while waiting for a response.", e);
+        }
+    }
+
+    /**
+     * Read a response and bind its result to the <code>resultType</code>.
+     *
+     * @param response   The tokens of the response.
+     * @param resultType The type the result will be requested as or
+     *                   <code>null</code> to keep the result as JSON.
+     * @return The response.
+     * @throws BeowulfCommunicationException If the result could not be bound.
+     * @throws BeowulfResponseException      If the response is no valid JSON.
+     */
+    private static JsonRPCResponse readResponse(TokenBuffer response, @Nullable JavaType resultType)
+            throws BeowulfCommunicationException, BeowulfResponseException {
+        try (JsonParser parser = response.asParser()) {
+            return JsonRPCResponse.read(parser, resultType);
+        } catch (IOException e) {
+            throw new BeowulfResponseException("Unable to parse the response.", e);
+        }
+    }
+
+    /**
+     * @param requestObject The request to transform.
+     * @return The JSON representation of the request.
+     * @throws BeowulfCommunicationException If the request could not be transformed.
+     */
+    private static String toJson(JsonRPCRequest requestObject) throws BeowulfCommunicationException {
+        try {
+            return requestObject.toJson();
+        } catch (JsonProcessingException e) {
+            throw new BeowulfCommunicationException("Could not transform the request into JSON.", e);
+        }
+    }
+
+    /**
+     * @param throwable The throwable to unwrap.
+     * @return The cause of a {@link CompletionException} or the given
+     * throwable.
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * A single connection together with the requests and subscriptions that
+     * belong to it, so the end of a connection never affects the requests
+     * sent over a newer one. It also receives the messages of the connection
+     * and assembles fragmented messages.
+     */
+    private static class Connection implements WebSocket.Listener {
+        /**
+         * The endpoint of this connection.
+         */
+        private final URI endpointUri;
+        /**
+         * The requests that have been sent but not answered yet, keyed by
+         * their JSON RPC id.
+         */
+        private final Map<Long, CompletableFuture<TokenBuffer>> pendingRequests = new ConcurrentHashMap<>();
+        /**
+         * The subscriptions registered on this connection, keyed by their
+         * callback id.
+         */
+        private final Map<Long, Subscription<?>> subscriptions = new ConcurrentHashMap<>();
+        /**
+         * The fragments of the message that is currently received.
+         */
+        private final StringBuilder message = new StringBuilder();
+        /**
+         * The connection, which is completed once it has been established.
+         */
+        private volatile CompletableFuture<WebSocket> webSocket;
+        /**
+         * The last message that has been handed to the connection. A
+         * {@link WebSocket} does not allow to send a message before the
+         * previous one has been sent, so every message waits for its
+         * predecessor.
+         */
+        private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+        /**
+         * Set once the connection has been closed by either side or failed.
+         */
+        private volatile boolean closed;
+
+        /**
+         * @param endpointUri The endpoint of this connection.
+         */
+        private Connection(URI endpointUri) {
+            this.endpointUri = endpointUri;
+        }
+
+        /**
+         * @return <code>true</code> if requests can still be sent and answered
+         * over this connection.
+         */
+        private boolean isUsable() {
+            if (closed || webSocket.isCompletedExceptionally()) {
+                return false;
+            } else if (!webSocket.isDone()) {
+                return true;
+            }
+
+            WebSocket openWebSocket = webSocket.join();
+            return !openWebSocket.isOutputClosed() && !openWebSocket.isInputClosed();
+        }
+
+        /**
+         * Register the request as pending and send it once the connection
+         * has been established.
+         *
+         * @param id              The id used to correlate the request with its response.
+         * @param request         The JSON to send.
+         * @param responseTimeout The time in milliseconds to wait for the response or
+         *                        <code>0</code> to wait forever.
+         * @return A future that will be completed with the tokens of the
+         * response.
+         */
+        private CompletableFuture<TokenBuffer> send(long id, String request, int responseTimeout) {
+            // Register the request before sending it, so a fast response can
+            // not overtake the registration.
+            CompletableFuture<TokenBuffer> pendingResponse = new CompletableFuture<>();
+            pendingRequests.put(id, pendingResponse);
+            pendingResponse.whenComplete((response, throwable) -> pendingRequests.remove(id, pendingResponse));
+            if (closed) {
+                pendingResponse.completeExceptionally(new BeowulfCommunicationException(
+                        "The connection has been closed."));
+                return pendingResponse;
+            }
+
+            CompletableFuture<?> sent = enqueue(openWebSocket -> {
+                LOGGER.debug("Sending {}.", request);
+                return openWebSocket.sendText(request, true);
+            });
+            sent.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    pendingResponse.completeExceptionally(new BeowulfCommunicationException(
+                            "Could not transfer the data to the Beowulf Node.", unwrap(throwable)));
+                }
+            });
+
+            if (responseTimeout > 0) {
+                ScheduledFuture<?> timeout = CommunicationExecutors.getScheduler().schedule(() ->
+                        pendingResponse.completeExceptionally(new BeowulfTimeoutException(
+                                "Timeout occured. The WebSocket server was not able to answer in " + responseTimeout
+                                        + " millisecond(s).")), responseTimeout, TimeUnit.MILLISECONDS);
+                pendingResponse.whenComplete((response, throwable) -> timeout.cancel(false));
+            }
+
+            return pendingResponse;
+        }
+
+        /**
+         * @return A future that is completed once a ping has been sent.
+         */
+        private CompletableFuture<?> ping() {
+            return enqueue(openWebSocket -> openWebSocket.sendPing(ByteBuffer.allocate(0)));
+        }
+
+        /**
+         * Hand the given message to the connection once it has been
+         * established and all previous messages have been sent.
+         *
+         * @param message Sends the message.
+         * @return A future that is completed once the message has been sent.
+         */
+        private synchronized CompletableFuture<?> enqueue(
+                Function<WebSocket, CompletableFuture<WebSocket>> message) {
+            CompletableFuture<WebSocket> currentWebSocket = webSocket;
+            lastSend = lastSend.handle((ignored, throwable) -> null)
+                    .thenCompose(ignored -> currentWebSocket)
+                    // Nothing is sent anymore once the connection has been
+                    // closed while the message was waiting.
+                    .thenCompose(openWebSocket -> closed
+                            ? CompletableFuture.failedFuture(new BeowulfCommunicationException(
+                            "The connection has been closed."))
+                            : message.apply(openWebSocket));
+            return lastSend;
+        }
+
+        /**
+         * Close this connection, even if it is still being established, and
+         * fail everything that is still waiting for it.
+         */
+        private void close() {
+            closed = true;
+            if (webSocket.isDone()) {
+                if (!webSocket.isCompletedExceptionally()) {
+                    LOGGER.debug("Closing existing connection.");
+                    webSocket.join().sendClose(WebSocket.NORMAL_CLOSURE, "");
+                }
+            } else {
+                // Close the connection as soon as the handshake is done, as
+                // cancelling the future does not stop the handshake.
+                webSocket.thenAccept(WebSocket::abort);
+            }
+
+            fail(new BeowulfCommunicationException("The connection has been closed."));
+        }
+
+        /**
+         * Complete all pending requests exceptionally, so that no caller
+         * waits for a response that will never arrive, and end all
+         * subscriptions, as the node forgets them once the connection is
+         * gone.
+         *
+         * @param cause The reason why the connection ended.
+         */
+        private void fail(BeowulfCommunicationException cause) {
+            closed = true;
+            for (Long id : pendingRequests.keySet()) {
+                CompletableFuture<TokenBuffer> pendingRequest = pendingRequests.remove(id);
+                if (pendingRequest != null) {
+                    pendingRequest.completeExceptionally(cause);
+                }
+            }
+
+            for (Long callbackId : subscriptions.keySet()) {
+                Subscription<?> subscription = subscriptions.remove(callbackId);
+                if (subscription != null) {
+                    subscription.terminate(cause);
+                }
+            }
+        }
+
+        /**
+         * Complete the pending request the given message answers or route
+         * the notice it contains to its subscription. The message is read
+         * only once: Its tokens are buffered, so the result can be bound from
+         * them by the waiting caller.
+         *
+         * @param completeMessage The raw message received from the node.
+         */
+        private void onMessage(String completeMessage) {
+            TokenBuffer message;
+            try (JsonParser parser = CommunicationHandler.getObjectMapper().getFactory()
+                    .createParser(completeMessage)) {
+                message = JsonRPCResponse.readMessage(parser);
+            } catch (IOException e) {
+                LOGGER.error("Received an unexpected message.");
+                LOGGER.debug("Unexpected message: {}", completeMessage, e);
+                return;
+            }
+
+            CompletableFuture<TokenBuffer> pendingRequest = null;
+            for (Long id : JsonRPCResponse.readIds(message)) {
+                pendingRequest = pendingRequests.remove(id);
+                if (pendingRequest != null) {
+                    break;
+                }
+            }
+
+            if (pendingRequest != null) {
+                pendingRequest.complete(message);
+                return;
+            }
+
+            Pair<Long, JsonNode> notice = JsonRPCResponse.readNotice(message);
+            Subscription<?> subscription = notice == null ? null : subscriptions.get(notice.getLeft());
+            if (subscription != null) {
+                subscription.dispatch(notice.getRight());
+            } else if (notice != null) {
+                LOGGER.debug("Dropping a notice for the unknown callback {}.", notice.getLeft());
+            } else {
+                LOGGER.error("Received an unexpected message.");
+                LOGGER.debug("Unexpected message: {}", completeMessage);
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            message.append(data);
+            if (last) {
+                String completeMessage = message.toString();
+                message.setLength(0);
+                onMessage(completeMessage);
+            }
+
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            LOGGER.info("Connection has been closed (Code: {}, Reason: {}).", statusCode, reason);
+            fail(new BeowulfCommunicationException("The connection has been closed (Code: " + statusCode
+                    + ", Reason: " + reason + ")."));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            LOGGER.error("Connection error.", error);
+            fail(new BeowulfCommunicationException("The connection failed.", error));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.java11;
+
+import com.beowulfchain.beowulfj.communication.ClientProvider;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCResponse;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfCommunicationException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the {@link Java11ClientProvider} and the {@link Java11HttpClient}.
+ */
+public class Java11HttpClientTest {
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+
+    private HttpServer server;
+    private volatile int status;
+    private URI endpoint;
+
+    @Before
+    public void startServer() throws Exception {
+        status = 200;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            String request;
+            try (GZIPInputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                request = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Matcher matcher = ID_PATTERN.matcher(request);
+            String id = matcher.find() ? matcher.group(1) : "0";
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = new GZIPOutputStream(exchange.getResponseBody())) {
+                body.write(("{\"jsonrpc\":\"2.0\",\"result\":[4],\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher matcher = ID_PATTERN.matcher(request);
+            String id = matcher.find() ? matcher.group(1) : "0";
+
+            byte[] response = ("{\"jsonrpc\":\"2.0\",\"result\":[1,2,3],\"id\":" + id + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/rpc");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that the provider is discovered using the {@link ServiceLoader}
+     * and creates the right clients.
+     */
+    @Test
+    public void testProviderIsDiscovered() {
+        Java11ClientProvider java11ClientProvider = null;
+        for (ClientProvider clientProvider : ServiceLoader.load(ClientProvider.class)) {
+            if (clientProvider instanceof Java11ClientProvider) {
+                java11ClientProvider = (Java11ClientProvider) clientProvider;
+            }
+        }
+
+        assertThat(java11ClientProvider == null, equalTo(false));
+        assertThat(java11ClientProvider.supports("https"), equalTo(true));
+        assertThat(java11ClientProvider.supports("wss"), equalTo(true));
+        assertThat(java11ClientProvider.supports("ftp"), equalTo(false));
+        assertThat(java11ClientProvider.createClient(URI.create("wss://localhost")),
+                instanceOf(Java11WebsocketClient.class));
+        assertThat(java11ClientProvider.createClient(endpoint), instanceOf(Java11HttpClient.class));
+    }
+
+    /**
+     * Test that blocking and non-blocking requests bind their result.
+     */
+    @Test
+    public void testRequests() throws Exception {
+        Java11HttpClient httpClient = new Java11HttpClient(new Java11ClientProvider());
+        JavaType resultType = CommunicationHandler.getObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, Integer.class);
+
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        JsonRPCResponse response = httpClient.invokeAndReadResponse(request, endpoint, false, resultType);
+        assertThat(response.handleResult(resultType, request.getId()).size(), equalTo(3));
+
+        request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        response = httpClient.invokeAndReadResponseAsync(request, endpoint, false, resultType).get();
+        assertThat(response.handleResult(resultType, request.getId()).get(2), equalTo(3));
+    }
+
+    /**
+     * Test that unexpected status codes are reported as communication
+     * problems.
+     */
+    @Test
+    public void testUnexpectedStatus() throws Exception {
+        status = 503;
+        Java11HttpClient httpClient = new Java11HttpClient(new Java11ClientProvider());
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+
+        try {
+            httpClient.invokeAndReadResponse(request, endpoint, false);
+            fail("The request should have failed.");
+        } catch (BeowulfCommunicationException e) {
+            assertThat(e.getMessage(), equalTo("Unexpected response status: 503"));
+        }
+
+        try {
+            httpClient.invokeAndReadResponseAsync(request, endpoint, false).get();
+            fail("The request should have failed.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(BeowulfCommunicationException.class));
+        }
+    }
+
+    /**
+     * Test that request bodies are gzip encoded and that gzip encoded
+     * responses are decoded.
+     */
+    @Test
+    public void testPayloadsAreCompressed() throws Exception {
+        BeowulfJConfig.getNewInstance().setCompressionEnabled(true);
+        BeowulfJConfig.getInstance().setCompressionThreshold(0);
+        URI gzipEndpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/gzip");
+        Java11HttpClient httpClient = new Java11HttpClient(new Java11ClientProvider());
+        JavaType resultType = CommunicationHandler.getObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, Integer.class);
+
+        JsonRPCRequest request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        JsonRPCResponse response = httpClient.invokeAndReadResponse(request, gzipEndpoint, false, resultType);
+        assertThat(response.handleResult(resultType, request.getId()).get(0), equalTo(4));
+
+        request = new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+        response = httpClient.invokeAndReadResponseAsync(request, gzipEndpoint, false, resultType).get();
+        assertThat(response.handleResult(resultType, request.getId()).get(0), equalTo(4));
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.communication.java11;
+
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the connection handling of the {@link Java11WebsocketClient}.
+ */
+public class Java11WebsocketClientTest {
+    private FakeWebsocketNode node;
+    private URI endpoint;
+    private Java11WebsocketClient websocketClient;
+
+    @Before
+    public void setUp() throws Exception {
+        BeowulfJConfig.getNewInstance().setResponseTimeout(5000);
+        node = new FakeWebsocketNode();
+        endpoint = URI.create("ws://127.0.0.1:" + node.getPort() + "/");
+        websocketClient = new Java11WebsocketClient(new Java11ClientProvider());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        websocketClient.closeConnection();
+        node.close();
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that a connection closed by the node is not used anymore.
+     */
+    @Test
+    public void testConnectionClosedByNodeIsReplaced() throws Exception {
+        node.closeAfterAnswer = true;
+        assertThat(websocketClient.invokeAndReadResponse(createRequest(), endpoint, false).isError(),
+                equalTo(false));
+        waitFor(() -> node.closedConnections.get() == 1);
+
+        node.closeAfterAnswer = false;
+        assertThat(websocketClient.invokeAndReadResponse(createRequest(), endpoint, false).isError(),
+                equalTo(false));
+        assertThat(node.openedConnections.get(), equalTo(2));
+    }
+
+    /**
+     * Test that the end of a replaced connection does not fail the requests
+     * sent over the new connection.
+     */
+    @Test
+    public void testEndOfOldConnectionDoesNotFailNewRequests() throws Exception {
+        websocketClient.warmUp(endpoint, false);
+
+        // The node confirms the close after the next request has been sent
+        // over a new connection, but before it has been answered.
+        node.closeReplyDelay = 300;
+        node.answerDelay = 600;
+        websocketClient.closeConnection();
+
+        assertThat(websocketClient.invokeAndReadResponse(createRequest(), endpoint, false).isError(),
+                equalTo(false));
+        assertThat(node.openedConnections.get(), equalTo(2));
+    }
+
+    /**
+     * Test that a connection that is still being established is closed and
+     * fails its requests.
+     */
+    @Test
+    public void testConnectInProgressIsClosed() throws Exception {
+        node.handshakeDelay = 300;
+        CompletableFuture<?> response = websocketClient.invokeAndReadResponseAsync(createRequest(), endpoint, false);
+        waitFor(() -> node.acceptedConnections.get() == 1);
+
+        websocketClient.closeConnection();
+        try {
+            response.get(1, TimeUnit.SECONDS);
+            fail("The request should have failed.");
+        } catch (ExecutionException e) {
+            // Expected.
+        }
+        waitFor(() -> node.closedConnections.get() == 1);
+        assertThat(node.answeredRequests.get(), equalTo(0));
+    }
+
+    private static JsonRPCRequest createRequest() {
+        return new JsonRPCRequest(BeowulfApiType.CONDENSER_API, RequestMethod.GET_CONFIG, null);
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.isMet() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.isMet(), equalTo(true));
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean isMet();
+    }
+
+    /**
+     * A minimal WebSocket server that answers every text message with a
+     * JSON RPC result.
+     */
+    private static class FakeWebsocketNode implements Closeable {
+        private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(-?\\d+)");
+        private static final Pattern KEY_PATTERN = Pattern.compile("Sec-WebSocket-Key:\\s*(\\S+)",
+                Pattern.CASE_INSENSITIVE);
+
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger acceptedConnections = new AtomicInteger();
+        private final AtomicInteger openedConnections = new AtomicInteger();
+        private final AtomicInteger closedConnections = new AtomicInteger();
+        private final AtomicInteger answeredRequests = new AtomicInteger();
+        private volatile boolean closeAfterAnswer;
+        private volatile long handshakeDelay;
+        private volatile long answerDelay;
+        private volatile long closeReplyDelay;
+
+        private FakeWebsocketNode() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            executor.execute(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        acceptedConnections.incrementAndGet();
+                        executor.execute(() -> handle(socket));
+                    } catch (IOException e) {
+                        // The server has been closed.
+                    }
+                }
+            });
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void handle(Socket socket) {
+            try (Socket connection = socket) {
+                DataInputStream in = new DataInputStream(connection.getInputStream());
+                OutputStream out = connection.getOutputStream();
+
+                Matcher keyMatcher = KEY_PATTERN.matcher(readHandshake(in));
+                if (!keyMatcher.find()) {
+                    return;
+                }
+                Thread.sleep(handshakeDelay);
+                String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest(
+                        (keyMatcher.group(1) + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11")
+                                .getBytes(StandardCharsets.US_ASCII)));
+                write(out, ("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                        + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                openedConnections.incrementAndGet();
+
+                boolean closing = false;
+                while (true) {
+                    int opcode = in.readUnsignedByte() & 0x0F;
+                    byte[] payload = readPayload(in);
+                    if (opcode == 0x8) {
+                        // Confirm the close, unless the node initiated it.
+                        if (!closing) {
+                            Thread.sleep(closeReplyDelay);
+                            writeFrame(out, 0x8, payload);
+                        }
+                        return;
+                    } else if (opcode == 0x9) {
+                        writeFrame(out, 0xA, payload);
+                    } else if (opcode == 0x1 && !closing) {
+                        closing = answer(out, new String(payload, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException | InterruptedException | java.security.NoSuchAlgorithmException e) {
+                // The connection has been closed.
+            } finally {
+                closedConnections.incrementAndGet();
+            }
+        }
+
+        private boolean answer(OutputStream out, String request) throws IOException, InterruptedException {
+            Matcher idMatcher = ID_PATTERN.matcher(request);
+            String id = idMatcher.find() ? idMatcher.group(1) : "0";
+            Thread.sleep(answerDelay);
+            writeFrame(out, 0x1, ("{\"jsonrpc\":\"2.0\",\"result\":[1],\"id\":" + id + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+            answeredRequests.incrementAndGet();
+            if (closeAfterAnswer) {
+                writeFrame(out, 0x8, new byte[]{0x03, (byte) 0xE8});
+                return true;
+            }
+            return false;
+        }
+
+        private static String readHandshake(InputStream in) throws IOException {
+            ByteArrayOutputStream handshake = new ByteArrayOutputStream();
+            int matched = 0;
+            while (matched < 4) {
+                int next = in.read();
+                if (next < 0) {
+                    throw new IOException("The handshake is incomplete.");
+                }
+                handshake.write(next);
+                matched = (next == '\r' && matched % 2 == 0) || (next == '\n' && matched % 2 == 1) ? matched + 1 : 0;
+            }
+            return new String(handshake.toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        private static byte[] readPayload(DataInputStream in) throws IOException {
+            int second = in.readUnsignedByte();
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            } else if (length == 127) {
+                length = in.readLong();
+            }
+
+            byte[] mask = new byte[4];
+            if ((second & 0x80) != 0) {
+                in.readFully(mask);
+            }
+            byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i % 4];
+            }
+            return payload;
+        }
+
+        private static void writeFrame(OutputStream out, int opcode, byte[] payload) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write(0x80 | opcode);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else {
+                frame.write(126);
+                frame.write(payload.length >> 8);
+                frame.write(payload.length & 0xFF);
+            }
+            frame.write(payload);
+            write(out, frame.toByteArray());
+        }
+
+        private static void write(OutputStream out, byte[] data) throws IOException {
+            synchronized (out) {
+                out.write(data);
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.testnode;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * An in-process Beowulf node that serves a {@link SyntheticChain} over HTTP
+ * and websocket. It allows to measure the throughput, the failover and the
+ * backfill behavior of BeowulfJ without a real node or any network access.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * try (FakeNode node = new FakeNode(new SyntheticChain(100000, 10))) {
+ *     node.setLatency(5, 20);
+ *     node.start();
+ *
+ *     BeowulfJConfig.getInstance().setEndpointURIs(Collections.singletonList(
+ *             new ImmutablePair&lt;&gt;(node.getHttpUri(), true)));
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * The node only listens on the loopback interface. Outages can be simulated
+ * using {@link #setAvailable(boolean)}.
+ */
+public class FakeNode implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FakeNode.class);
+
+    private final SyntheticChain chain;
+    private final RequestDispatcher dispatcher;
+    private final Set<WebsocketConnection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requestCount = new AtomicLong();
+    private volatile long minLatency;
+    private volatile long maxLatency;
+    private volatile long blockInterval;
+    private volatile boolean available = true;
+    private HttpServer httpServer;
+    private ServerSocket websocketServer;
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a new {@link FakeNode} instance.
+     *
+     * @param chain The chain that should be served.
+     */
+    public FakeNode(SyntheticChain chain) {
+        this.chain = chain;
+        this.dispatcher = new RequestDispatcher(this, chain);
+    }
+
+    /**
+     * Start listening for HTTP requests and websocket connections on random
+     * ports.
+     *
+     * @throws IOException If the ports could not be opened.
+     * @throws IllegalStateException If the node is already running.
+     */
+    public synchronized void start() throws IOException {
+        if (executor != null) {
+            throw new IllegalStateException("The node is already running.");
+        }
+
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "beowulfj-fake-node");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beowulfj-fake-node-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        httpServer = HttpServer.create(new InetSocketAddress(loopback, 0), 0);
+        httpServer.createContext("/", this::handleHttpRequest);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+
+        websocketServer = new ServerSocket(0, 50, loopback);
+        executor.execute(this::acceptConnections);
+
+        if (blockInterval > 0) {
+            scheduler.scheduleAtFixedRate(this::produceBlock, blockInterval, blockInterval, TimeUnit.MILLISECONDS);
+        }
+
+        LOGGER.info("Serving {} blocks at {} and {}.", chain.getHeadBlockNumber(), getHttpUri(), getWebsocketUri());
+    }
+
+    /**
+     * Stop the node and close all websocket connections.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor == null) {
+            return;
+        }
+
+        closeConnections();
+        httpServer.stop(0);
+        try {
+            websocketServer.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close the websocket server.", e);
+        }
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * @return The chain served by this node.
+     */
+    public SyntheticChain getChain() {
+        return chain;
+    }
+
+    /**
+     * @return The URI of the HTTP endpoint.
+     * @throws IllegalStateException If the node has not been started.
+     */
+    public URI getHttpUri() {
+        if (httpServer == null) {
+            throw new IllegalStateException("The node has not been started.");
+        }
+        return URI.create("http://127.0.0.1:" + httpServer.getAddress().getPort());
+    }
+
+    /**
+     * @return The URI of the websocket endpoint.
+     * @throws IllegalStateException If the node has not been started.
+     */
+    public URI getWebsocketUri() {
+        if (websocketServer == null) {
+            throw new IllegalStateException("The node has not been started.");
+        }
+        return URI.create("ws://127.0.0.1:" + websocketServer.getLocalPort());
+    }
+
+    /**
+     * Define how long the node waits before it answers a request. The latency
+     * of every request is chosen randomly between the given bounds.
+     *
+     * @param minLatency The minimal latency in milliseconds.
+     * @param maxLatency The maximal latency in milliseconds.
+     * @throws IllegalArgumentException If a value is negative or the minimum
+     *                                  exceeds the maximum.
+     */
+    public void setLatency(long minLatency, long maxLatency) {
+        if (minLatency < 0 || maxLatency < minLatency) {
+            throw new IllegalArgumentException("The latency bounds are invalid.");
+        }
+
+        this.minLatency = minLatency;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Define the time between two blocks produced automatically. Has to be
+     * called before the node is {@link #start() started}.
+     *
+     * @param blockInterval The interval in milliseconds or <code>0</code> to
+     *                      only produce blocks when {@link #produceBlock()} is
+     *                      called.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setBlockInterval(long blockInterval) {
+        if (blockInterval < 0) {
+            throw new IllegalArgumentException("The block interval can't be negative.");
+        }
+
+        this.blockInterval = blockInterval;
+    }
+
+    /**
+     * @return <code>true</code> if the node answers requests.
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Simulate an outage. While the node is unavailable, HTTP requests are
+     * answered with status code 503 and websocket connections are closed and
+     * refused.
+     *
+     * @param available <code>false</code> to start an outage,
+     *                  <code>true</code> to end it.
+     */
+    public void setAvailable(boolean available) {
+        this.available = available;
+        if (!available) {
+            closeConnections();
+        }
+    }
+
+    /**
+     * @return The number of messages received over HTTP and websocket. A batch
+     * counts as a single message.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Append a new block to the chain and push it to all websocket
+     * connections that subscribed to applied blocks or wait for a broadcasted
+     * transaction.
+     *
+     * @return The number of the new block.
+     */
+    public long produceBlock() {
+        long blockNumber = chain.produceBlock();
+        ObjectNode header = chain.getBlockHeader(blockNumber);
+        for (WebsocketConnection connection : connections) {
+            connection.notifyBlockApplied(blockNumber, header);
+        }
+        return blockNumber;
+    }
+
+    /**
+     * Answer a message received over a websocket connection after the
+     * configured latency.
+     *
+     * @param message    The message.
+     * @param connection The connection the message has been received on.
+     */
+    void receive(String message, WebsocketConnection connection) {
+        requestCount.incrementAndGet();
+        long latency = nextLatency();
+        Runnable answer = () -> connection.send(dispatcher.dispatch(message, connection));
+        if (latency > 0) {
+            scheduler.schedule(() -> executor.execute(answer), latency, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(answer);
+        }
+    }
+
+    /**
+     * Forget a websocket connection that has been closed.
+     *
+     * @param connection The connection.
+     */
+    void removeConnection(WebsocketConnection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Accept websocket connections until the node is closed.
+     */
+    private void acceptConnections() {
+        while (!websocketServer.isClosed()) {
+            try {
+                Socket socket = websocketServer.accept();
+                socket.setTcpNoDelay(true);
+                WebsocketConnection connection = new WebsocketConnection(this, socket);
+                connections.add(connection);
+                executor.execute(connection);
+            } catch (IOException e) {
+                if (!websocketServer.isClosed()) {
+                    LOGGER.warn("Unable to accept a websocket connection.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer a request received over HTTP after the configured latency.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response could not be sent.
+     */
+    private void handleHttpRequest(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            InputStream requestBody = exchange.getRequestBody();
+            if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                // Sent by the clients if compression is enabled.
+                requestBody = new GZIPInputStream(requestBody);
+            }
+            String request = IOUtils.toString(requestBody, StandardCharsets.UTF_8);
+            sleep(nextLatency());
+
+            if (!available) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            byte[] response = dispatcher.dispatch(request, null).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Close all websocket connections.
+     */
+    private void closeConnections() {
+        for (WebsocketConnection connection : connections) {
+            connection.close(WebsocketConnection.GOING_AWAY);
+        }
+        connections.clear();
+    }
+
+    /**
+     * @return The latency of the next request in milliseconds.
+     */
+    private long nextLatency() {
+        long min = minLatency;
+        long max = maxLatency;
+        return min == max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    /**
+     * @param millis The time to sleep in milliseconds.
+     */
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
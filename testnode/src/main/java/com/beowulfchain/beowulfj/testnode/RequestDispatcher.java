@@ -0,0 +1,395 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.testnode;
+
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Answers the JSON RPC requests received by a {@link FakeNode}.
+ * <p>
+ * All methods listed in {@link RequestMethod} are supported. The namespace of
+ * a method (e.g. <code>condenser_api</code>, <code>database_api</code>,
+ * <code>block_api</code> or <code>network_broadcast_api</code>) is accepted,
+ * but ignored, so every method uses the parameters and the result format of
+ * the <code>condenser_api</code>. Requests using the legacy
+ * <code>call</code> method are unwrapped first.
+ */
+class RequestDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestDispatcher.class);
+
+    private static final int PARSE_ERROR = -32700;
+    private static final int INVALID_REQUEST = -32600;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INVALID_PARAMS = -32602;
+    private static final int SERVER_ERROR = -32000;
+
+    private final FakeNode node;
+    private final SyntheticChain chain;
+    private final ObjectMapper mapper = CommunicationHandler.getObjectMapper();
+
+    /**
+     * Create a new {@link RequestDispatcher} instance.
+     *
+     * @param node  The node the requests have been sent to.
+     * @param chain The chain served by the node.
+     */
+    RequestDispatcher(FakeNode node, SyntheticChain chain) {
+        this.node = node;
+        this.chain = chain;
+    }
+
+    /**
+     * Answer a single request or a batch of requests.
+     *
+     * @param message    The raw message.
+     * @param connection The websocket connection the message has been received
+     *                   on or <code>null</code> if it has been received over
+     *                   HTTP.
+     * @return The raw response.
+     */
+    String dispatch(String message, WebsocketConnection connection) {
+        JsonNode request;
+        try {
+            request = mapper.readTree(message);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to parse the request {}.", message, e);
+            return createError(NullNode.getInstance(), PARSE_ERROR, "Parse error").toString();
+        }
+
+        if (request != null && request.isArray()) {
+            if (request.size() == 0) {
+                return createError(NullNode.getInstance(), INVALID_REQUEST, "Invalid Request").toString();
+            }
+
+            ArrayNode responses = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode element : request) {
+                responses.add(dispatch(element, connection));
+            }
+            return responses.toString();
+        }
+
+        return dispatch(request, connection).toString();
+    }
+
+    /**
+     * Answer a single request.
+     *
+     * @param request    The request.
+     * @param connection The websocket connection the request has been
+     *                   received on or <code>null</code>.
+     * @return The response.
+     */
+    private ObjectNode dispatch(JsonNode request, WebsocketConnection connection) {
+        if (request == null || !request.isObject() || !request.path("method").isTextual()) {
+            return createError(NullNode.getInstance(), INVALID_REQUEST, "Invalid Request");
+        }
+
+        JsonNode id = request.path("id").isMissingNode() ? NullNode.getInstance() : request.get("id");
+        String methodName = request.get("method").asText();
+        JsonNode parameters = request.path("params");
+
+        if ("call".equals(methodName) && parameters.size() >= 2) {
+            methodName = parameters.get(1).asText();
+            parameters = parameters.path(2);
+        }
+
+        RequestMethod method;
+        try {
+            method = RequestMethod.valueOf(methodName.substring(methodName.indexOf('.') + 1)
+                    .toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return createError(id, METHOD_NOT_FOUND, "Could not find method " + methodName);
+        }
+
+        try {
+            ObjectNode response = JsonNodeFactory.instance.objectNode();
+            response.put("jsonrpc", "2.0");
+            response.set("result", invoke(method, parameters, connection));
+            response.set("id", id);
+            return response;
+        } catch (FakeNodeException e) {
+            return createError(id, SERVER_ERROR, e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to answer {}.", methodName, e);
+            return createError(id, INVALID_PARAMS, "Invalid parameters for " + methodName);
+        }
+    }
+
+    /**
+     * Execute a method.
+     *
+     * @param method     The method.
+     * @param parameters The parameters of the method.
+     * @param connection The websocket connection the request has been
+     *                   received on or <code>null</code>.
+     * @return The result.
+     * @throws FakeNodeException If the method failed.
+     */
+    private JsonNode invoke(RequestMethod method, JsonNode parameters, WebsocketConnection connection)
+            throws FakeNodeException {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        switch (method) {
+            case GET_BLOCK:
+                return nullToNode(chain.getBlock(parameters.get(0).asLong()));
+            case GET_BLOCK_HEADER:
+                return nullToNode(chain.getBlockHeader(parameters.get(0).asLong()));
+            case GET_OPS_IN_BLOCK:
+                return getOperationsInBlock(parameters.get(0).asLong(), parameters.path(1).asBoolean());
+            case GET_TRANSACTION:
+                ObjectNode transaction = chain.getTransaction(parameters.get(0).asText());
+                if (transaction == null) {
+                    throw new FakeNodeException("Unknown Transaction " + parameters.get(0).asText());
+                }
+                return transaction;
+            case GET_DYNAMIC_GLOBAL_PROPERTIES:
+                return chain.getDynamicGlobalProperties();
+            case GET_CONFIG:
+                ObjectNode config = factory.objectNode();
+                config.put("BEOWULF_BLOCK_INTERVAL", 3);
+                config.put("BEOWULF_BLOCKCHAIN_VERSION", "0.0.0");
+                config.put("BEOWULF_MAX_SUPERNODES", chain.getSupernodes().size());
+                return config;
+            case GET_HARDFORK_VERSION:
+                return factory.textNode("0.0.0");
+            case GET_NEXT_SCHEDULED_HARDFORK:
+                ObjectNode hardfork = factory.objectNode();
+                hardfork.put("hf_version", "0.0.0");
+                hardfork.put("live_time", chain.getDynamicGlobalProperties().get("time").asText());
+                return hardfork;
+            case GET_ACCOUNTS:
+                ArrayNode accounts = factory.arrayNode();
+                for (JsonNode name : parameters.get(0)) {
+                    accounts.add(createAccount(name.asText()));
+                }
+                return accounts;
+            case GET_ACCOUNT_COUNT:
+            case GET_SUPERNODE_COUNT:
+                return factory.numberNode(chain.getSupernodes().size());
+            case GET_ACCOUNT_HISTORY:
+            case GET_KEY_REFERENCES:
+            case GET_REQUIRED_SIGNATURES:
+            case GET_POTENTIAL_SIGNATURES:
+                return factory.arrayNode();
+            case GET_BALANCE:
+                JsonNode assetInfo = parameters.get(1);
+                ObjectNode balance = factory.objectNode();
+                balance.put("amount", 100000000L);
+                balance.put("name", assetInfo.path("name").asText("BWF"));
+                balance.put("precision", assetInfo.path("decimals").asInt(5));
+                return balance;
+            case GET_SUPERNODE_BY_ACCOUNT:
+                String owner = parameters.get(0).asText();
+                return chain.getSupernodes().contains(owner) ? createSupernode(owner) : NullNode.getInstance();
+            case GET_SUPERNODES:
+            case GET_SUPERNODES_BY_VOTE:
+                ArrayNode supernodes = factory.arrayNode();
+                for (String supernode : chain.getSupernodes()) {
+                    supernodes.add(createSupernode(supernode));
+                }
+                return supernodes;
+            case LOOKUP_ACCOUNTS:
+            case LOOKUP_SUPERNODE_ACCOUNTS:
+                return lookupSupernodes(parameters.get(0).asText(), parameters.get(1).asInt());
+            case GET_ACTIVE_SUPERNODES:
+                return mapper.valueToTree(chain.getSupernodes());
+            case GET_SUPERNODE_SCHEDULE:
+                ObjectNode schedule = factory.objectNode();
+                schedule.put("id", 0);
+                schedule.put("next_shuffle_block_num", chain.getHeadBlockNumber() + chain.getSupernodes().size());
+                schedule.set("current_shuffled_supernodes", mapper.valueToTree(chain.getSupernodes()));
+                schedule.put("num_scheduled_supernodes", chain.getSupernodes().size());
+                schedule.put("majority_version", "0.0.0");
+                return schedule;
+            case FIND_SMT_TOKENS_BY_NAME:
+                ArrayNode tokens = factory.arrayNode();
+                for (JsonNode name : parameters.get(0)) {
+                    tokens.add(createToken(name.asText()));
+                }
+                return tokens;
+            case GET_TRANSACTION_HEX:
+                return factory.textNode("00");
+            case VERIFY_AUTHORITY:
+            case VERIFY_ACCOUNT_AUTHORITY:
+                return factory.booleanNode(true);
+            case BROADCAST_TRANSACTION:
+                chain.pushTransaction(parameters.get(0));
+                return NullNode.getInstance();
+            case BROADCAST_TRANSACTION_SYNCHRONOUS:
+                return chain.pushTransaction(parameters.get(0));
+            case BROADCAST_TRANSACTION_WITH_CALLBACK:
+                requireConnection(connection).addTransactionCallback(parameters.get(0).asLong(),
+                        chain.pushTransaction(parameters.get(1)));
+                return NullNode.getInstance();
+            case SET_BLOCK_APPLIED_CALLBACK:
+                requireConnection(connection).addBlockAppliedCallback(parameters.get(0).asLong());
+                return NullNode.getInstance();
+            case BROADCAST_BLOCK:
+                node.produceBlock();
+                return NullNode.getInstance();
+            default:
+                throw new FakeNodeException("The method " + method + " is not supported.");
+        }
+    }
+
+    /**
+     * @param connection The websocket connection or <code>null</code>.
+     * @return The connection.
+     * @throws FakeNodeException If the request has not been received over a
+     *                           websocket connection.
+     */
+    private static WebsocketConnection requireConnection(WebsocketConnection connection) throws FakeNodeException {
+        if (connection == null) {
+            throw new FakeNodeException("Callbacks are only supported over websocket connections.");
+        }
+        return connection;
+    }
+
+    /**
+     * @param blockNumber The number of the block.
+     * @param onlyVirtual <code>true</code> to only return virtual operations.
+     * @return The operations in the format of <code>get_ops_in_block</code>.
+     */
+    private ArrayNode getOperationsInBlock(long blockNumber, boolean onlyVirtual) {
+        ArrayNode operations = JsonNodeFactory.instance.arrayNode();
+        ObjectNode block = chain.getBlock(blockNumber);
+        if (block == null || onlyVirtual) {
+            return operations;
+        }
+
+        int transactionNumber = 0;
+        for (JsonNode transaction : block.get("transactions")) {
+            int operationNumber = 0;
+            for (JsonNode operation : transaction.path("operations")) {
+                ObjectNode appliedOperation = operations.addObject();
+                appliedOperation.put("trx_id", transaction.path("transaction_id").asText());
+                appliedOperation.put("block", blockNumber);
+                appliedOperation.put("trx_in_block", transactionNumber);
+                appliedOperation.put("op_in_trx", operationNumber++);
+                appliedOperation.put("virtual_op", 0);
+                appliedOperation.put("timestamp", block.get("timestamp").asText());
+                appliedOperation.set("op", operation);
+            }
+            transactionNumber++;
+        }
+        return operations;
+    }
+
+    /**
+     * @param lowerBound The first name to return.
+     * @param limit      The maximum number of names to return.
+     * @return The names of the supernodes starting at the lower bound.
+     */
+    private ArrayNode lookupSupernodes(String lowerBound, int limit) {
+        ArrayNode names = JsonNodeFactory.instance.arrayNode();
+        chain.getSupernodes().stream().filter(name -> name.compareTo(lowerBound) >= 0).sorted().limit(limit)
+                .forEach(names::add);
+        return names;
+    }
+
+    /**
+     * @param name The name of the account.
+     * @return The account in the format of <code>get_accounts</code>.
+     */
+    private ObjectNode createAccount(String name) {
+        ObjectNode account = JsonNodeFactory.instance.objectNode();
+        account.put("name", name);
+        account.put("json_metadata", "");
+        account.put("balance", "1000.00000 BWF");
+        account.put("wd_balance", "0.00000 W");
+        account.put("vesting_shares", "0.00000 M");
+        return account;
+    }
+
+    /**
+     * @param owner The name of the supernode.
+     * @return The supernode in the format of <code>get_supernode_by_account</code>.
+     */
+    private ObjectNode createSupernode(String owner) {
+        ObjectNode supernode = JsonNodeFactory.instance.objectNode();
+        supernode.put("id", chain.getSupernodes().indexOf(owner));
+        supernode.put("owner", owner);
+        supernode.put("created", "2019-01-01T00:00:00");
+        supernode.put("total_missed", 0);
+        supernode.put("last_confirmed_block_num", chain.getHeadBlockNumber());
+        supernode.put("running_version", "0.0.0");
+        return supernode;
+    }
+
+    /**
+     * @param name The name of the token.
+     * @return The token in the format of <code>find_smt_tokens_by_name</code>.
+     */
+    private ObjectNode createToken(String name) {
+        ObjectNode token = JsonNodeFactory.instance.objectNode();
+        token.put("id", Math.abs(name.hashCode()));
+        ObjectNode symbol = token.putObject("liquid_symbol");
+        symbol.put("decimals", 5);
+        symbol.put("name", name);
+        token.put("control_account", chain.getSupernodes().get(0));
+        token.put("phase", "launch_success");
+        token.put("current_supply", 100000000000L);
+        return token;
+    }
+
+    /**
+     * @param node A node or <code>null</code>.
+     * @return The node or a {@link NullNode}.
+     */
+    private static JsonNode nullToNode(JsonNode node) {
+        return node == null ? NullNode.getInstance() : node;
+    }
+
+    /**
+     * @param id      The id of the request.
+     * @param code    The error code.
+     * @param message The error message.
+     * @return The error response.
+     */
+    private static ObjectNode createError(JsonNode id, int code, String message) {
+        ObjectNode response = JsonNodeFactory.instance.objectNode();
+        response.put("jsonrpc", "2.0");
+        ObjectNode error = response.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        response.set("id", id);
+        return response;
+    }
+
+    /**
+     * Signals that a method could not be executed. The message is returned to
+     * the client as a server error.
+     */
+    private static class FakeNodeException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        FakeNodeException(String message) {
+            super(message);
+        }
+    }
+}
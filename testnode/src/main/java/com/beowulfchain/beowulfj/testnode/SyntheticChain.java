@@ -0,0 +1,441 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.testnode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import eu.bittrade.crypto.core.CryptoUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A deterministic chain served by a {@link FakeNode}. Blocks are generated
+ * from their number whenever they are requested, so even chains with millions
+ * of blocks do not occupy any memory. Only the transactions broadcasted to the
+ * node are stored.
+ * <p>
+ * The ids generated by this class follow the conventions of the real chain:
+ * The first four bytes of a block id contain the block number and the
+ * reference block prefix of a transaction is read from the id of its reference
+ * block. In addition, the first six bytes of a transaction id contain the
+ * number of its block and its index within the block, which allows to look up
+ * transactions without an index.
+ */
+public class SyntheticChain {
+    /**
+     * The time of the first block (2019-01-01T00:00:00 UTC).
+     */
+    private static final long GENESIS_TIME = 1546300800000L;
+    /**
+     * The time in milliseconds between two blocks.
+     */
+    private static final long BLOCK_INTERVAL = 3000L;
+    /**
+     * The time in milliseconds a transaction is valid after the block it
+     * references.
+     */
+    private static final long TRANSACTION_EXPIRATION = 60000L;
+    private static final int SUPERNODE_COUNT = 21;
+    private static final int ID_LENGTH = 20;
+    private static final String TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
+    private final int transactionsPerBlock;
+    private final List<String> supernodes;
+    /**
+     * The transactions that have been broadcasted, keyed by the number of the
+     * block they have been or will be included in.
+     */
+    private final Map<Long, List<ObjectNode>> broadcastedTransactions = new ConcurrentHashMap<>();
+    private volatile long headBlockNumber;
+    private volatile int irreversibilityLag = 15;
+
+    /**
+     * Create a new {@link SyntheticChain} instance.
+     *
+     * @param blockCount           The number of blocks the chain initially
+     *                             consists of.
+     * @param transactionsPerBlock The number of transactions every generated
+     *                             block contains.
+     * @throws IllegalArgumentException If the block count is lower than 1 or
+     *                                  the number of transactions is negative.
+     */
+    public SyntheticChain(long blockCount, int transactionsPerBlock) {
+        if (blockCount < 1) {
+            throw new IllegalArgumentException("A chain consists of at least one block.");
+        } else if (transactionsPerBlock < 0) {
+            throw new IllegalArgumentException("The number of transactions per block can't be negative.");
+        }
+
+        this.headBlockNumber = blockCount;
+        this.transactionsPerBlock = transactionsPerBlock;
+
+        List<String> supernodeNames = new ArrayList<>();
+        for (int i = 0; i < SUPERNODE_COUNT; i++) {
+            supernodeNames.add("supernode" + i);
+        }
+        this.supernodes = Collections.unmodifiableList(supernodeNames);
+    }
+
+    /**
+     * @return The number of the latest block.
+     */
+    public long getHeadBlockNumber() {
+        return headBlockNumber;
+    }
+
+    /**
+     * @return The number of the latest irreversible block.
+     */
+    public long getLastIrreversibleBlockNumber() {
+        return Math.max(1, headBlockNumber - irreversibilityLag);
+    }
+
+    /**
+     * Get the number of blocks a block stays reversible.
+     *
+     * @return The number of blocks.
+     */
+    public int getIrreversibilityLag() {
+        return irreversibilityLag;
+    }
+
+    /**
+     * Define the number of blocks a block stays reversible, i.e. how far the
+     * last irreversible block lags behind the head block.
+     *
+     * @param irreversibilityLag The number of blocks.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void setIrreversibilityLag(int irreversibilityLag) {
+        if (irreversibilityLag < 0) {
+            throw new IllegalArgumentException("The irreversibility lag can't be negative.");
+        }
+
+        this.irreversibilityLag = irreversibilityLag;
+    }
+
+    /**
+     * @return The number of transactions every generated block contains.
+     */
+    public int getTransactionsPerBlock() {
+        return transactionsPerBlock;
+    }
+
+    /**
+     * @return The names of the supernodes producing the blocks.
+     */
+    public List<String> getSupernodes() {
+        return supernodes;
+    }
+
+    /**
+     * Append a new block to the chain, which contains the generated
+     * transactions and all transactions broadcasted since the last block.
+     *
+     * @return The number of the new block.
+     */
+    public synchronized long produceBlock() {
+        return ++headBlockNumber;
+    }
+
+    /**
+     * Add a broadcasted transaction to the next block.
+     *
+     * @param transaction The transaction as sent by the client.
+     * @return The confirmation in the format of
+     * <code>broadcast_transaction_synchronous</code>.
+     */
+    public synchronized ObjectNode pushTransaction(JsonNode transaction) {
+        long blockNumber = headBlockNumber + 1;
+        List<ObjectNode> transactions = broadcastedTransactions.computeIfAbsent(blockNumber,
+                k -> Collections.synchronizedList(new ArrayList<>()));
+        int transactionNumber = transactionsPerBlock + transactions.size();
+
+        ObjectNode completedTransaction = transaction.isObject() ? ((ObjectNode) transaction).deepCopy()
+                : JsonNodeFactory.instance.objectNode();
+        completedTransaction.put("transaction_id", getTransactionId(blockNumber, transactionNumber));
+        completedTransaction.put("block_num", blockNumber);
+        completedTransaction.put("transaction_num", transactionNumber);
+        completedTransaction.put("status", "completed");
+        transactions.add(completedTransaction);
+
+        ObjectNode confirmation = JsonNodeFactory.instance.objectNode();
+        confirmation.put("id", getTransactionId(blockNumber, transactionNumber));
+        confirmation.put("block_num", blockNumber);
+        confirmation.put("trx_num", transactionNumber);
+        confirmation.put("expired", false);
+        confirmation.put("created_time", getBlockTime(blockNumber) / 1000);
+        return confirmation;
+    }
+
+    /**
+     * Get the id of a block.
+     *
+     * @param blockNumber The number of the block.
+     * @return The id as a hex string.
+     */
+    public String getBlockId(long blockNumber) {
+        if (blockNumber < 1) {
+            return CryptoUtils.HEX.encode(new byte[ID_LENGTH]);
+        }
+
+        byte[] hash = hash("block:" + blockNumber);
+        ByteBuffer.wrap(hash).putInt((int) blockNumber);
+        return CryptoUtils.HEX.encode(hash);
+    }
+
+    /**
+     * Get the id of a transaction.
+     *
+     * @param blockNumber       The number of the block containing the
+     *                          transaction.
+     * @param transactionNumber The index of the transaction within the block.
+     * @return The id as a hex string.
+     */
+    public String getTransactionId(long blockNumber, int transactionNumber) {
+        byte[] hash = hash("transaction:" + blockNumber + ":" + transactionNumber);
+        ByteBuffer.wrap(hash).putInt((int) blockNumber).putShort((short) transactionNumber);
+        return CryptoUtils.HEX.encode(hash);
+    }
+
+    /**
+     * Get a block in the format of <code>get_block</code>.
+     *
+     * @param blockNumber The number of the block.
+     * @return The block or <code>null</code> if the chain does not contain a
+     * block with the given number.
+     */
+    public ObjectNode getBlock(long blockNumber) {
+        ObjectNode block = getBlockHeader(blockNumber);
+        if (block == null) {
+            return null;
+        }
+
+        ArrayNode transactions = block.putArray("transactions");
+        ArrayNode transactionIds = block.putArray("transaction_ids");
+        for (int i = 0; i < transactionsPerBlock; i++) {
+            transactions.add(createTransaction(blockNumber, i));
+            transactionIds.add(getTransactionId(blockNumber, i));
+        }
+        for (ObjectNode transaction : getBroadcastedTransactions(blockNumber)) {
+            transactions.add(transaction);
+            transactionIds.add(transaction.get("transaction_id").asText());
+        }
+
+        block.put("supernode_signature", CryptoUtils.HEX.encode(hash("signature:" + blockNumber))
+                + CryptoUtils.HEX.encode(new byte[45]));
+        block.put("block_id", getBlockId(blockNumber));
+        block.put("block_reward", "1.00000 BWF");
+        return block;
+    }
+
+    /**
+     * Get the header of a block in the format of
+     * <code>get_block_header</code>.
+     *
+     * @param blockNumber The number of the block.
+     * @return The header or <code>null</code> if the chain does not contain a
+     * block with the given number.
+     */
+    public ObjectNode getBlockHeader(long blockNumber) {
+        if (blockNumber < 1 || blockNumber > headBlockNumber) {
+            return null;
+        }
+
+        boolean empty = transactionsPerBlock == 0 && getBroadcastedTransactions(blockNumber).isEmpty();
+
+        ObjectNode header = JsonNodeFactory.instance.objectNode();
+        header.put("previous", getBlockId(blockNumber - 1));
+        header.put("timestamp", formatTime(getBlockTime(blockNumber)));
+        header.put("supernode", getSupernode(blockNumber));
+        header.put("transaction_merkle_root", empty ? CryptoUtils.HEX.encode(new byte[ID_LENGTH])
+                : CryptoUtils.HEX.encode(hash("merkle:" + blockNumber)));
+        header.putArray("extensions");
+        return header;
+    }
+
+    /**
+     * Get a transaction in the format of <code>get_transaction</code>.
+     *
+     * @param transactionId The id of the transaction.
+     * @return The transaction or <code>null</code> if the chain does not
+     * contain a transaction with the given id.
+     */
+    public ObjectNode getTransaction(String transactionId) {
+        byte[] id;
+        try {
+            id = CryptoUtils.HEX.decode(transactionId.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (id.length != ID_LENGTH) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(id);
+        long blockNumber = buffer.getInt() & 0xFFFFFFFFL;
+        int transactionNumber = buffer.getShort() & 0xFFFF;
+        if (blockNumber < 1 || blockNumber > headBlockNumber
+                || !transactionId.equalsIgnoreCase(getTransactionId(blockNumber, transactionNumber))) {
+            return null;
+        }
+
+        if (transactionNumber < transactionsPerBlock) {
+            return createTransaction(blockNumber, transactionNumber);
+        }
+
+        List<ObjectNode> transactions = getBroadcastedTransactions(blockNumber);
+        int index = transactionNumber - transactionsPerBlock;
+        return index < transactions.size() ? transactions.get(index) : null;
+    }
+
+    /**
+     * @return The dynamic global properties in the format of
+     * <code>get_dynamic_global_properties</code>.
+     */
+    public ObjectNode getDynamicGlobalProperties() {
+        long head = headBlockNumber;
+
+        ObjectNode properties = JsonNodeFactory.instance.objectNode();
+        properties.put("id", 0);
+        properties.put("head_block_number", head);
+        properties.put("head_block_id", getBlockId(head));
+        properties.put("time", formatTime(getBlockTime(head)));
+        properties.put("current_witness", getSupernode(head));
+        properties.put("virtual_supply", "1000000000.00000 BWF");
+        properties.put("current_supply", "1000000000.00000 BWF");
+        properties.put("current_wd_supply", "0.00000 W");
+        properties.put("total_vesting_fund_beowulf", "0.00000 BWF");
+        properties.put("total_vesting_shares", "0.00000 M");
+        properties.put("total_reward_fund_beowulf", "0.00000 BWF");
+        properties.put("pending_rewarded_vesting_beowulf", "0.00000 BWF");
+        properties.put("wd_interest_rate", 0);
+        properties.put("current_aslot", head);
+        properties.put("recent_slots_filled", "340282366920938463463374607431768211455");
+        properties.put("participation_count", 128);
+        properties.put("last_irreversible_block_num", Math.max(1, head - irreversibilityLag));
+        return properties;
+    }
+
+    /**
+     * @param blockNumber The number of a block.
+     * @return The time in milliseconds the block has been produced at.
+     */
+    public long getBlockTime(long blockNumber) {
+        return GENESIS_TIME + blockNumber * BLOCK_INTERVAL;
+    }
+
+    /**
+     * @param blockNumber The number of a block.
+     * @return The name of the supernode that produced the block.
+     */
+    public String getSupernode(long blockNumber) {
+        return supernodes.get((int) (blockNumber % supernodes.size()));
+    }
+
+    /**
+     * @param blockNumber The number of a block.
+     * @return The transactions broadcasted for the block.
+     */
+    private List<ObjectNode> getBroadcastedTransactions(long blockNumber) {
+        List<ObjectNode> transactions = broadcastedTransactions.get(blockNumber);
+        if (transactions == null) {
+            return Collections.emptyList();
+        }
+        synchronized (transactions) {
+            return new ArrayList<>(transactions);
+        }
+    }
+
+    /**
+     * Generate a transfer between two supernodes.
+     *
+     * @param blockNumber       The number of the block containing the
+     *                          transaction.
+     * @param transactionNumber The index of the transaction within the block.
+     * @return The transaction.
+     */
+    private ObjectNode createTransaction(long blockNumber, int transactionNumber) {
+        long referenceBlockNumber = blockNumber - 1;
+        byte[] referenceBlockId = hash("block:" + referenceBlockNumber);
+        if (referenceBlockNumber > 0) {
+            ByteBuffer.wrap(referenceBlockId).putInt((int) referenceBlockNumber);
+        }
+
+        ObjectNode transaction = JsonNodeFactory.instance.objectNode();
+        transaction.put("ref_block_num", referenceBlockNumber & 0xFFFF);
+        transaction.put("ref_block_prefix", Integer.toUnsignedLong(Integer.reverseBytes(
+                ByteBuffer.wrap(referenceBlockId, 4, 4).getInt())));
+        transaction.put("expiration", formatTime(getBlockTime(referenceBlockNumber) + TRANSACTION_EXPIRATION));
+
+        ObjectNode transfer = JsonNodeFactory.instance.objectNode();
+        transfer.put("from", getSupernode(blockNumber + transactionNumber));
+        transfer.put("to", getSupernode(blockNumber + transactionNumber + 1));
+        transfer.put("amount", "1.00000 BWF");
+        transfer.put("fee", "0.01000 W");
+        transfer.put("memo", "");
+        transaction.putArray("operations").addArray().add("transfer").add(transfer);
+
+        transaction.putArray("extensions");
+        transaction.putArray("signatures").add(CryptoUtils.HEX.encode(hash("signature:" + blockNumber + ":"
+                + transactionNumber)) + CryptoUtils.HEX.encode(new byte[45]));
+        transaction.put("created_time", getBlockTime(blockNumber) / 1000);
+        transaction.put("transaction_id", getTransactionId(blockNumber, transactionNumber));
+        transaction.put("block_num", blockNumber);
+        transaction.put("transaction_num", transactionNumber);
+        transaction.put("status", "completed");
+        return transaction;
+    }
+
+    /**
+     * @param time A time in milliseconds.
+     * @return The time in the format used by the node.
+     */
+    private static String formatTime(long time) {
+        SimpleDateFormat format = new SimpleDateFormat(TIME_PATTERN);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(time));
+    }
+
+    /**
+     * @param seed The input.
+     * @return The first 20 bytes of the SHA-256 hash of the input.
+     */
+    private static byte[] hash(String seed) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(seed.getBytes(StandardCharsets.UTF_8));
+            byte[] id = new byte[ID_LENGTH];
+            System.arraycopy(hash, 0, id, 0, ID_LENGTH);
+            return id;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+}
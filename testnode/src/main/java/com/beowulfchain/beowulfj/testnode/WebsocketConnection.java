@@ -0,0 +1,355 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.testnode;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single websocket connection accepted by a {@link FakeNode}.
+ * <p>
+ * This is a minimal implementation of RFC 6455 that covers what the
+ * websocket clients of BeowulfJ use: text messages (which may be fragmented),
+ * pings and the closing handshake. Extensions and sub protocols are never
+ * negotiated.
+ */
+class WebsocketConnection implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebsocketConnection.class);
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+    /**
+     * Status code used when the node shuts down or becomes unavailable.
+     */
+    static final int GOING_AWAY = 1001;
+
+    private final FakeNode node;
+    private final Socket socket;
+    private final Set<Long> blockAppliedCallbacks = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ObjectNode> transactionCallbacks = new ConcurrentHashMap<>();
+    private OutputStream outputStream;
+    private volatile boolean closed;
+
+    /**
+     * Create a new {@link WebsocketConnection} instance.
+     *
+     * @param node   The node that accepted the connection.
+     * @param socket The socket of the connection.
+     */
+    WebsocketConnection(FakeNode node, Socket socket) {
+        this.node = node;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run() {
+        try {
+            DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+            outputStream = socket.getOutputStream();
+            if (!performHandshake(inputStream)) {
+                return;
+            }
+
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            while (!closed) {
+                int head = inputStream.readUnsignedByte();
+                boolean finalFragment = (head & 0x80) != 0;
+                int opcode = head & 0x0F;
+                byte[] payload = readPayload(inputStream);
+
+                if (opcode == OPCODE_CLOSE) {
+                    close(payload.length >= 2 ? ByteBuffer.wrap(payload).getShort() & 0xFFFF : 1000);
+                } else if (opcode == OPCODE_PING) {
+                    sendFrame(OPCODE_PONG, payload);
+                } else if (opcode == OPCODE_TEXT || opcode == OPCODE_CONTINUATION) {
+                    message.write(payload);
+                    if (finalFragment) {
+                        node.receive(new String(message.toByteArray(), StandardCharsets.UTF_8), this);
+                        message.reset();
+                    }
+                } else if (opcode != OPCODE_PONG) {
+                    LOGGER.debug("Ignoring a frame with the opcode {}.", opcode);
+                }
+            }
+        } catch (EOFException e) {
+            LOGGER.debug("The client closed the connection.");
+        } catch (IOException e) {
+            if (!closed) {
+                LOGGER.debug("The connection failed.", e);
+            }
+        } finally {
+            closed = true;
+            node.removeConnection(this);
+            closeSocket();
+        }
+    }
+
+    /**
+     * Send a text message to the client.
+     *
+     * @param message The message.
+     */
+    void send(String message) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            sendFrame(OPCODE_TEXT, message.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOGGER.debug("Unable to send a message.", e);
+            closeSocket();
+        }
+    }
+
+    /**
+     * Perform the closing handshake.
+     *
+     * @param statusCode The status code sent to the client.
+     */
+    void close(int statusCode) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            sendFrame(OPCODE_CLOSE, ByteBuffer.allocate(2).putShort((short) statusCode).array());
+        } catch (IOException e) {
+            LOGGER.debug("Unable to send the close frame.", e);
+        } finally {
+            closed = true;
+            closeSocket();
+        }
+    }
+
+    /**
+     * Push the header of every applied block to the client.
+     *
+     * @param callbackId The id the client expects in the notices.
+     */
+    void addBlockAppliedCallback(long callbackId) {
+        blockAppliedCallbacks.add(callbackId);
+    }
+
+    /**
+     * Notify the client once a broadcasted transaction has been included in a
+     * block.
+     *
+     * @param callbackId   The id the client expects in the notice.
+     * @param confirmation The confirmation that will be sent.
+     */
+    void addTransactionCallback(long callbackId, ObjectNode confirmation) {
+        transactionCallbacks.put(callbackId, confirmation);
+    }
+
+    /**
+     * Send the notices for a new block.
+     *
+     * @param blockNumber The number of the block.
+     * @param header      The header of the block.
+     */
+    void notifyBlockApplied(long blockNumber, ObjectNode header) {
+        for (Long callbackId : blockAppliedCallbacks) {
+            send(createNotice(callbackId, header));
+        }
+
+        Iterator<Map.Entry<Long, ObjectNode>> iterator = transactionCallbacks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, ObjectNode> callback = iterator.next();
+            if (callback.getValue().get("block_num").asLong() <= blockNumber) {
+                iterator.remove();
+                send(createNotice(callback.getKey(), callback.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Read the opening handshake and accept it, unless the node is
+     * unavailable.
+     *
+     * @param inputStream The stream to read the handshake from.
+     * @return <code>true</code> if the connection has been upgraded.
+     * @throws IOException If the handshake could not be read.
+     */
+    private boolean performHandshake(InputStream inputStream) throws IOException {
+        String key = null;
+        String line;
+        while (!(line = readLine(inputStream)).isEmpty()) {
+            int separator = line.indexOf(':');
+            if (separator > 0 && "sec-websocket-key".equals(line.substring(0, separator).trim()
+                    .toLowerCase(Locale.ROOT))) {
+                key = line.substring(separator + 1).trim();
+            }
+        }
+
+        String response;
+        if (!node.isAvailable()) {
+            response = "HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+        } else if (key == null) {
+            response = "HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+        } else {
+            response = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + createAcceptKey(key) + "\r\n\r\n";
+        }
+
+        outputStream.write(response.getBytes(StandardCharsets.ISO_8859_1));
+        outputStream.flush();
+        return response.startsWith("HTTP/1.1 101");
+    }
+
+    /**
+     * Read the length and the payload of a frame and unmask it.
+     *
+     * @param inputStream The stream positioned after the first byte of the
+     *                    frame.
+     * @return The payload.
+     * @throws IOException If the frame could not be read.
+     */
+    private static byte[] readPayload(DataInputStream inputStream) throws IOException {
+        int second = inputStream.readUnsignedByte();
+        boolean masked = (second & 0x80) != 0;
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = inputStream.readUnsignedShort();
+        } else if (length == 127) {
+            length = inputStream.readLong();
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("The frame is too large.");
+        }
+
+        byte[] mask = new byte[4];
+        if (masked) {
+            inputStream.readFully(mask);
+        }
+
+        byte[] payload = new byte[(int) length];
+        inputStream.readFully(payload);
+        if (masked) {
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i % 4];
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Send an unmasked, unfragmented frame.
+     *
+     * @param opcode  The opcode of the frame.
+     * @param payload The payload of the frame.
+     * @throws IOException If the frame could not be sent.
+     */
+    private void sendFrame(int opcode, byte[] payload) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(10);
+        header.put((byte) (0x80 | opcode));
+        if (payload.length < 126) {
+            header.put((byte) payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            header.put((byte) 126).putShort((short) payload.length);
+        } else {
+            header.put((byte) 127).putLong(payload.length);
+        }
+
+        synchronized (this) {
+            outputStream.write(header.array(), 0, header.position());
+            outputStream.write(payload);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Close the socket without a closing handshake.
+     */
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close the socket.", e);
+        }
+    }
+
+    /**
+     * @param callbackId The callback id of the subscription.
+     * @param payload    The payload of the notice.
+     * @return The notice in the format pushed by the node.
+     */
+    private static String createNotice(long callbackId, ObjectNode payload) {
+        ObjectNode notice = JsonNodeFactory.instance.objectNode();
+        notice.put("method", "notice");
+        ArrayNode parameters = notice.putArray("params");
+        parameters.add(callbackId);
+        parameters.addArray().add(payload);
+        return notice.toString();
+    }
+
+    /**
+     * @param key The <code>Sec-WebSocket-Key</code> sent by the client.
+     * @return The matching <code>Sec-WebSocket-Accept</code> value.
+     */
+    private static String createAcceptKey(String key) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported.", e);
+        }
+    }
+
+    /**
+     * @param inputStream The stream to read from.
+     * @return The next line of the handshake without the line break.
+     * @throws IOException If the stream ended before a line break.
+     */
+    private static String readLine(InputStream inputStream) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int character;
+        while ((character = inputStream.read()) != '\n') {
+            if (character < 0) {
+                throw new EOFException("The stream ended during the handshake.");
+            } else if (character != '\r') {
+                line.append((char) character);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ *     This file is part of BeowulfJ (formerly known as 'Beowulf-Java-Api-Wrapper')
+ *
+ *     BeowulfJ is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     BeowulfJ is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.beowulfchain.beowulfj.testnode;
+
+import com.beowulfchain.beowulfj.base.models.Block;
+import com.beowulfchain.beowulfj.communication.CommunicationHandler;
+import com.beowulfchain.beowulfj.communication.NoticeListener;
+import com.beowulfchain.beowulfj.communication.RetryPolicy;
+import com.beowulfchain.beowulfj.communication.Subscription;
+import com.beowulfchain.beowulfj.communication.jrpc.JsonRPCRequest;
+import com.beowulfchain.beowulfj.configuration.BeowulfJConfig;
+import com.beowulfchain.beowulfj.enums.BeowulfApiType;
+import com.beowulfchain.beowulfj.enums.RequestMethod;
+import com.beowulfchain.beowulfj.exceptions.BeowulfResponseException;
+import com.beowulfchain.beowulfj.plugins.apis.condenser.CondenserApi;
+import com.beowulfchain.beowulfj.plugins.apis.condenser.models.ExtendedDynamicGlobalProperties;
+import com.beowulfchain.beowulfj.protocol.BlockHeader;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the {@link FakeNode} using the regular clients of BeowulfJ.
+ */
+public class FakeNodeTest {
+    private final List<FakeNode> nodes = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (FakeNode node : nodes) {
+            node.close();
+        }
+        BeowulfJConfig.getNewInstance();
+    }
+
+    /**
+     * Test that blocks, headers and the dynamic global properties of the
+     * synthetic chain are served over HTTP and can be read by the client.
+     */
+    @Test
+    public void testServesSyntheticChainOverHttp() throws Exception {
+        FakeNode node = startNode(new SyntheticChain(100, 3));
+        configureEndpoints(node.getHttpUri());
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        Block block = CondenserApi.getBlock(communicationHandler, 42);
+        assertThat(block.getBlockId().getNumberFromHash(), equalTo(42));
+        assertThat(block.getPrevious().getNumberFromHash(), equalTo(41));
+        assertThat(block.getTransactions().size(), equalTo(3));
+        assertThat(block.getTransactions().get(0).getOperations().size(), equalTo(1));
+
+        ExtendedDynamicGlobalProperties properties = CondenserApi.getDynamicGlobalProperties(communicationHandler);
+        assertThat(properties.getHeadBlockNumber(), equalTo(100L));
+        assertThat(properties.getLastIrreversibleBlockNum(), equalTo(85L));
+
+        assertThat(communicationHandler.performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                RequestMethod.GET_BLOCK_HEADER, Collections.singletonList(101L)), BlockHeader.class).isEmpty(),
+                equalTo(true));
+        assertThat(node.getRequestCount(), equalTo(3L));
+    }
+
+    /**
+     * Test that compressed request bodies are decoded.
+     */
+    @Test
+    public void testServesCompressedRequestsOverHttp() throws Exception {
+        FakeNode node = startNode(new SyntheticChain(30, 0));
+        configureEndpoints(node.getHttpUri());
+        BeowulfJConfig.getInstance().setCompressionEnabled(true);
+        BeowulfJConfig.getInstance().setCompressionThreshold(0);
+
+        assertThat(CondenserApi.getDynamicGlobalProperties(new CommunicationHandler()).getHeadBlockNumber(),
+                equalTo(30L));
+    }
+
+    /**
+     * Test that invalid parameters are answered with a JSON RPC error.
+     */
+    @Test
+    public void testInvalidParametersAreRejected() throws Exception {
+        FakeNode node = startNode(new SyntheticChain(10, 0));
+        configureEndpoints(node.getHttpUri());
+
+        try {
+            new CommunicationHandler().performRequest(new JsonRPCRequest(BeowulfApiType.CONDENSER_API,
+                    RequestMethod.GET_BLOCK, Collections.emptyList()), Block.class);
+            fail("Invalid parameters have not been rejected.");
+        } catch (BeowulfResponseException e) {
+            assertThat(e.getCode(), equalTo(-32602));
+        }
+    }
+
+    /**
+     * Test that requests and block notices are served over websocket.
+     */
+    @Test
+    public void testServesRequestsAndNoticesOverWebsocket() throws Exception {
+        FakeNode node = startNode(new SyntheticChain(10, 1));
+        node.setLatency(1, 5);
+        configureEndpoints(node.getWebsocketUri());
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        assertThat(CondenserApi.getBlock(communicationHandler, 10).getBlockId().getNumberFromHash(), equalTo(10));
+
+        BlockingQueue<BlockHeader> headers = new LinkedBlockingQueue<>();
+        Subscription<BlockHeader> subscription = CondenserApi.setBlockAppliedCallback(communicationHandler,
+                new NoticeListener<BlockHeader>() {
+                    @Override
+                    public void onNotice(BlockHeader notice) {
+                        headers.add(notice);
+                    }
+
+                    @Override
+                    public void onError(Throwable cause) {
+                        fail(cause.getMessage());
+                    }
+                });
+
+        node.produceBlock();
+        BlockHeader header = headers.poll(5, TimeUnit.SECONDS);
+        assertThat(header, notNullValue());
+        assertThat(header.getPrevious().getNumberFromHash(), equalTo(10));
+
+        subscription.cancel();
+    }
+
+    /**
+     * Test that asynchronous requests sent over one websocket connection are
+     * matched with their responses, although the node answers them in a
+     * random order.
+     */
+    @Test
+    public void testAsyncRequestsAreMatchedOverWebsocket() throws Exception {
+        FakeNode node = startNode(new SyntheticChain(50, 0));
+        node.setLatency(0, 20);
+        configureEndpoints(node.getWebsocketUri());
+        CommunicationHandler communicationHandler = new CommunicationHandler();
+
+        // Connect first, so the requests take the non-blocking path.
+        assertThat(CondenserApi.getBlock(communicationHandler, 1).getBlockId().getNumberFromHash(), equalTo(1));
+
+        List<CompletableFuture<Block>> blocks = new ArrayList<>();
+        for (int blockNumber = 1; blockNumber <= 50; blockNumber++) {
+            blocks.add(CondenserApi.getBlockAsync(communicationHandler, blockNumber));
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            assertThat(blocks.get(i).get(5, TimeUnit.SECONDS).getBlockId().getNumberFromHash(), equalTo(i + 1));
+        }
+    }
+
+    /**
+     * Test that requests fail over to another node during an outage.
+     */
+    @Test
+    public void testOutageCausesFailover() throws Exception {
+        FakeNode unavailableNode = startNode(new SyntheticChain(10, 0));
+        FakeNode availableNode = startNode(new SyntheticChain(20, 0));
+        unavailableNode.setAvailable(false);
+        configureEndpoints(unavailableNode.getHttpUri(), availableNode.getHttpUri());
+
+        ExtendedDynamicGlobalProperties properties = CondenserApi
+                .getDynamicGlobalProperties(new CommunicationHandler());
+
+        assertThat(properties.getHeadBlockNumber(), equalTo(20L));
+        assertThat(availableNode.getRequestCount(), equalTo(1L));
+    }
+
+    private FakeNode startNode(SyntheticChain chain) throws Exception {
+        FakeNode node = new FakeNode(chain);
+        nodes.add(node);
+        node.start();
+        return node;
+    }
+
+    private static void configureEndpoints(URI... endpointUris) throws Exception {
+        List<Pair<URI, Boolean>> endpoints = new ArrayList<>();
+        for (URI endpointUri : endpointUris) {
+            endpoints.add(new ImmutablePair<>(endpointUri, false));
+        }
+
+        BeowulfJConfig config = BeowulfJConfig.getNewInstance();
+        config.setEndpointURIs(endpoints);
+        config.setRetryPolicy(new RetryPolicy(2, 1, 5));
+        config.setEndpointProbeInterval(0);
+        config.setConnectionWarmUpEnabled(false);
+    }
+}